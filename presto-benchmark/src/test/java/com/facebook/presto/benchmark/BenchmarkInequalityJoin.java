@@ -107,6 +107,21 @@ public class BenchmarkInequalityJoin
                 .execute("SELECT count(*) FROM t1 JOIN t2 on (t1.bucket = t2.bucket) WHERE t1.val1 < t2.val2");
     }
 
+    @Benchmark
+    public List<Page> benchmarkRangePredicateJoin(Context context)
+    {
+        return context.getQueryRunner()
+                .execute("SELECT count(*) FROM t1 JOIN t2 on (t1.bucket = t2.bucket) WHERE t2.val2 BETWEEN t1.val1 - 1 AND t1.val1 + 1");
+    }
+
+    @Benchmark
+    public List<Page> benchmarkBandJoin(Context context)
+    {
+        // no equality criteria, so all build positions end up in a single position links chain
+        return context.getQueryRunner()
+                .execute("SELECT count(*) FROM t1 JOIN t2 on t2.val2 BETWEEN t1.val1 - 1 AND t1.val1 + 1 WHERE t1.bucket = 0");
+    }
+
     public static void main(String[] args)
             throws RunnerException
     {
@@ -73,10 +73,12 @@ import static com.facebook.presto.hive.HiveErrorCode.HIVE_INVALID_METADATA;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_INVALID_PARTITION_VALUE;
 import static com.facebook.presto.hive.HiveSessionProperties.getMaxInitialSplitSize;
 import static com.facebook.presto.hive.HiveSessionProperties.getMaxSplitSize;
+import static com.facebook.presto.hive.HiveSessionProperties.isSizeBasedSplitWeightsEnabled;
 import static com.facebook.presto.hive.HiveUtil.checkCondition;
 import static com.facebook.presto.hive.HiveUtil.getInputFormat;
 import static com.facebook.presto.hive.HiveUtil.isSplittable;
 import static com.facebook.presto.hive.metastore.MetastoreUtil.getHiveSchema;
+import static com.facebook.presto.spi.ConnectorSplit.STANDARD_SPLIT_WEIGHT;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.Math.toIntExact;
@@ -90,6 +92,9 @@ public class BackgroundHiveSplitLoader
 
     public static final CompletableFuture<?> COMPLETED_FUTURE = CompletableFuture.completedFuture(null);
 
+    private static final int MIN_SPLIT_WEIGHT = STANDARD_SPLIT_WEIGHT / 20;
+    private static final int MAX_SPLIT_WEIGHT = STANDARD_SPLIT_WEIGHT * 10;
+
     private final String connectorId;
     private final Table table;
     private final Optional<HiveBucketHandle> bucketHandle;
@@ -101,6 +106,7 @@ public class BackgroundHiveSplitLoader
     private final int maxPartitionBatchSize;
     private final DataSize maxInitialSplitSize;
     private final boolean recursiveDirWalkerEnabled;
+    private final boolean sizeBasedSplitWeightsEnabled;
     private final Executor executor;
     private final ConnectorSession session;
     private final ConcurrentLazyQueue<HivePartitionMetadata> partitions;
@@ -151,6 +157,7 @@ public class BackgroundHiveSplitLoader
         this.maxInitialSplitSize = getMaxInitialSplitSize(session);
         this.remainingInitialSplits = new AtomicInteger(maxInitialSplits);
         this.recursiveDirWalkerEnabled = recursiveDirWalkerEnabled;
+        this.sizeBasedSplitWeightsEnabled = isSizeBasedSplitWeightsEnabled(session);
         this.executor = executor;
         this.partitions = new ConcurrentLazyQueue<>(partitions);
     }
@@ -238,6 +245,7 @@ public class BackgroundHiveSplitLoader
                 if (recursiveDirWalkerEnabled) {
                     HiveFileIterator fileIterator = new HiveFileIterator(
                             file.getPath(),
+                            files.getUser(),
                             files.getFileSystem(),
                             files.getDirectoryLister(),
                             files.getNamenodeStats(),
@@ -326,7 +334,7 @@ public class BackgroundHiveSplitLoader
         }
 
         // If only one bucket could match: load that one file
-        HiveFileIterator iterator = new HiveFileIterator(path, fs, directoryLister, namenodeStats, partitionName, inputFormat, schema, partitionKeys, effectivePredicate, partition.getColumnCoercions());
+        HiveFileIterator iterator = new HiveFileIterator(path, session.getUser(), fs, directoryLister, namenodeStats, partitionName, inputFormat, schema, partitionKeys, effectivePredicate, partition.getColumnCoercions());
         if (!buckets.isEmpty()) {
             int bucketCount = buckets.get(0).getBucketCount();
             List<LocatedFileStatus> list = listAndSortBucketFiles(iterator, bucketCount);
@@ -554,7 +562,8 @@ public class BackgroundHiveSplitLoader
                             bucketNumber,
                             forceLocalScheduling && hasRealAddress(addresses),
                             effectivePredicate,
-                            columnCoercions);
+                            columnCoercions,
+                            getSplitWeight(chunkLength));
 
                     chunkOffset += chunkLength;
 
@@ -589,8 +598,19 @@ public class BackgroundHiveSplitLoader
                     bucketNumber,
                     forceLocalScheduling && hasRealAddress(addresses),
                     effectivePredicate,
-                    columnCoercions));
+                    columnCoercions,
+                    getSplitWeight(length)));
+        }
+    }
+
+    private int getSplitWeight(long splitLength)
+    {
+        if (!sizeBasedSplitWeightsEnabled) {
+            return STANDARD_SPLIT_WEIGHT;
         }
+        // a split of the maximum split size carries the standard weight
+        long weight = Math.round(STANDARD_SPLIT_WEIGHT * (double) splitLength / maxSplitSize.toBytes());
+        return toIntExact(Math.max(MIN_SPLIT_WEIGHT, Math.min(MAX_SPLIT_WEIGHT, weight)));
     }
 
     private static boolean hasRealAddress(List<HostAddress> addresses)
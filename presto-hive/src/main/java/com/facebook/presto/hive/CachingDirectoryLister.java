@@ -0,0 +1,271 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.Duration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.weakref.jmx.Managed;
+
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Caches directory listings on the coordinator. A cached listing is reused
+ * only while the modification time of the directory is unchanged, so files
+ * added to or removed from a partition are picked up on the next query.
+ * Listings are cached per user, since with HDFS impersonation each user may
+ * see a different set of files.
+ * <p>
+ * Appending to an existing file does not change the modification time of its
+ * directory, so a cached listing can report a stale length for such a file
+ * until the entry expires. Listings that contain files modified after their
+ * directory (files that are possibly still being written) are never cached.
+ */
+public class CachingDirectoryLister
+        implements DirectoryLister
+{
+    private final DirectoryLister delegate;
+    private final boolean enabled;
+    private final Cache<CacheKey, CachedDirectory> cache;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    @Inject
+    public CachingDirectoryLister(HiveClientConfig hiveClientConfig)
+    {
+        this(new HadoopDirectoryLister(), hiveClientConfig.getFileStatusCacheTtl(), hiveClientConfig.getFileStatusCacheMaximumSize());
+    }
+
+    public CachingDirectoryLister(DirectoryLister delegate, Duration expireAfterWrite, long maximumFiles)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        requireNonNull(expireAfterWrite, "expireAfterWrite is null");
+        this.enabled = expireAfterWrite.toMillis() > 0 && maximumFiles > 0;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maximumFiles)
+                .weigher((Weigher<CacheKey, CachedDirectory>) (key, directory) -> directory.getFiles().size())
+                .expireAfterWrite(expireAfterWrite.toMillis(), MILLISECONDS)
+                .build();
+    }
+
+    @Override
+    public RemoteIterator<LocatedFileStatus> list(String user, FileSystem fs, Path path)
+            throws IOException
+    {
+        if (!enabled) {
+            return delegate.list(user, fs, path);
+        }
+
+        CacheKey key = new CacheKey(user, path);
+        long modificationTime = fs.getFileStatus(path).getModificationTime();
+        CachedDirectory cachedDirectory = cache.getIfPresent(key);
+        if (cachedDirectory != null && cachedDirectory.getModificationTime() == modificationTime) {
+            hitCount.incrementAndGet();
+            return new CachedFileIterator(cachedDirectory.getFiles().iterator());
+        }
+        missCount.incrementAndGet();
+        if (cachedDirectory != null) {
+            cache.invalidate(key);
+        }
+
+        RemoteIterator<LocatedFileStatus> files = delegate.list(user, fs, path);
+        if (modificationTime <= 0) {
+            // file systems such as S3 do not track directory modification times
+            return files;
+        }
+        return new CachingFileIterator(key, modificationTime, files);
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        cache.invalidateAll();
+    }
+
+    @Managed
+    public long getCacheSize()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        long hits = hitCount.get();
+        long requests = hits + missCount.get();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+
+    private static class CacheKey
+    {
+        private final String user;
+        private final Path path;
+
+        public CacheKey(String user, Path path)
+        {
+            this.user = requireNonNull(user, "user is null");
+            this.path = requireNonNull(path, "path is null");
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return user.equals(other.user) && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(user, path);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("user", user)
+                    .add("path", path)
+                    .toString();
+        }
+    }
+
+    private static class CachedDirectory
+    {
+        private final long modificationTime;
+        private final List<LocatedFileStatus> files;
+
+        public CachedDirectory(long modificationTime, List<LocatedFileStatus> files)
+        {
+            this.modificationTime = modificationTime;
+            this.files = ImmutableList.copyOf(requireNonNull(files, "files is null"));
+        }
+
+        public long getModificationTime()
+        {
+            return modificationTime;
+        }
+
+        public List<LocatedFileStatus> getFiles()
+        {
+            return files;
+        }
+    }
+
+    private static class CachedFileIterator
+            implements RemoteIterator<LocatedFileStatus>
+    {
+        private final Iterator<LocatedFileStatus> files;
+
+        public CachedFileIterator(Iterator<LocatedFileStatus> files)
+        {
+            this.files = requireNonNull(files, "files is null");
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return files.hasNext();
+        }
+
+        @Override
+        public LocatedFileStatus next()
+        {
+            return files.next();
+        }
+    }
+
+    /**
+     * Streams the listing to the caller as it is produced, and caches it once it has been fully consumed.
+     */
+    private class CachingFileIterator
+            implements RemoteIterator<LocatedFileStatus>
+    {
+        private final CacheKey key;
+        private final long modificationTime;
+        private final RemoteIterator<LocatedFileStatus> delegate;
+        private final List<LocatedFileStatus> files = new ArrayList<>();
+        private boolean cached;
+        private boolean cacheable = true;
+
+        public CachingFileIterator(CacheKey key, long modificationTime, RemoteIterator<LocatedFileStatus> delegate)
+        {
+            this.key = requireNonNull(key, "key is null");
+            this.modificationTime = modificationTime;
+            this.delegate = requireNonNull(delegate, "delegate is null");
+        }
+
+        @Override
+        public boolean hasNext()
+                throws IOException
+        {
+            boolean hasNext = delegate.hasNext();
+            if (!hasNext && !cached) {
+                if (cacheable) {
+                    cache.put(key, new CachedDirectory(modificationTime, files));
+                }
+                cached = true;
+            }
+            return hasNext;
+        }
+
+        @Override
+        public LocatedFileStatus next()
+                throws IOException
+        {
+            LocatedFileStatus file = delegate.next();
+            if (file.getModificationTime() > modificationTime) {
+                // the file was written after the directory last changed, so it may still be growing
+                cacheable = false;
+            }
+            files.add(file);
+            return file;
+        }
+    }
+}
@@ -22,6 +22,6 @@ import java.io.IOException;
 
 public interface DirectoryLister
 {
-    RemoteIterator<LocatedFileStatus> list(FileSystem fs, Path path)
+    RemoteIterator<LocatedFileStatus> list(String user, FileSystem fs, Path path)
             throws IOException;
 }
@@ -26,7 +26,7 @@ public class HadoopDirectoryLister
         implements DirectoryLister
 {
     @Override
-    public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Path path)
+    public RemoteIterator<LocatedFileStatus> list(String user, FileSystem fs, Path path)
             throws IOException
     {
         return listLocatedStatus(fs, path);
@@ -66,6 +66,8 @@ public class HiveClientConfig
     private long metastoreCacheMaximumSize = 10000;
     private long perTransactionMetastoreCacheMaximumSize = 1000;
     private int maxMetastoreRefreshThreads = 100;
+    private Duration fileStatusCacheTtl = new Duration(0, TimeUnit.SECONDS);
+    private long fileStatusCacheMaximumSize = 1_000_000;
     private HostAndPort metastoreSocksProxy;
     private Duration metastoreTimeout = new Duration(10, TimeUnit.SECONDS);
 
@@ -88,16 +90,20 @@ public class HiveClientConfig
     private boolean useParquetColumnNames;
     private boolean parquetOptimizedReaderEnabled;
     private boolean parquetPredicatePushdownEnabled;
+    private int parquetReadThreads = 32;
 
     private boolean assumeCanonicalPartitionKeys;
 
     private boolean useOrcColumnNames;
     private boolean orcBloomFiltersEnabled;
     private DataSize orcMaxMergeDistance = new DataSize(1, MEGABYTE);
+    private int orcReadThreads = 32;
     private DataSize orcMaxBufferSize = new DataSize(8, MEGABYTE);
     private DataSize orcStreamBufferSize = new DataSize(8, MEGABYTE);
 
     private boolean rcfileOptimizedWriterEnabled;
+    private boolean textOptimizedWriterEnabled;
+    private boolean sizeBasedSplitWeightsEnabled;
 
     private HiveMetastoreAuthenticationType hiveMetastoreAuthenticationType = HiveMetastoreAuthenticationType.NONE;
     private String hiveMetastoreServicePrincipal;
@@ -336,6 +342,35 @@ public class HiveClientConfig
         return this;
     }
 
+    @NotNull
+    public Duration getFileStatusCacheTtl()
+    {
+        return fileStatusCacheTtl;
+    }
+
+    @MinDuration("0ms")
+    @Config("hive.file-status-cache-ttl")
+    @ConfigDescription("How long directory listings are cached on the coordinator; appends to existing files may go unseen for this long. 0s disables the cache")
+    public HiveClientConfig setFileStatusCacheTtl(Duration fileStatusCacheTtl)
+    {
+        this.fileStatusCacheTtl = fileStatusCacheTtl;
+        return this;
+    }
+
+    public long getFileStatusCacheMaximumSize()
+    {
+        return fileStatusCacheMaximumSize;
+    }
+
+    @Min(1)
+    @Config("hive.file-status-cache-maximum-size")
+    @ConfigDescription("Maximum number of file statuses kept in the directory listing cache")
+    public HiveClientConfig setFileStatusCacheMaximumSize(long fileStatusCacheMaximumSize)
+    {
+        this.fileStatusCacheMaximumSize = fileStatusCacheMaximumSize;
+        return this;
+    }
+
     @Min(1)
     public int getMaxMetastoreRefreshThreads()
     {
@@ -603,6 +638,20 @@ public class HiveClientConfig
         return this;
     }
 
+    @Min(1)
+    public int getParquetReadThreads()
+    {
+        return parquetReadThreads;
+    }
+
+    @Config("hive.parquet.read-threads")
+    @ConfigDescription("Number of threads used for prefetching Parquet column chunks")
+    public HiveClientConfig setParquetReadThreads(int parquetReadThreads)
+    {
+        this.parquetReadThreads = parquetReadThreads;
+        return this;
+    }
+
     public boolean isUseOrcColumnNames()
     {
         return useOrcColumnNames;
@@ -630,6 +679,20 @@ public class HiveClientConfig
     }
 
     @NotNull
+    @Min(1)
+    public int getOrcReadThreads()
+    {
+        return orcReadThreads;
+    }
+
+    @Config("hive.orc.read-threads")
+    @ConfigDescription("Number of threads used for prefetching ORC stripes")
+    public HiveClientConfig setOrcReadThreads(int orcReadThreads)
+    {
+        this.orcReadThreads = orcReadThreads;
+        return this;
+    }
+
     public DataSize getOrcMaxBufferSize()
     {
         return orcMaxBufferSize;
@@ -681,6 +744,32 @@ public class HiveClientConfig
         return this;
     }
 
+    public boolean isTextOptimizedWriterEnabled()
+    {
+        return textOptimizedWriterEnabled;
+    }
+
+    @Config("hive.text-optimized-writer.enabled")
+    @ConfigDescription("Experimental: write TEXTFILE tables without the Hive serializer")
+    public HiveClientConfig setTextOptimizedWriterEnabled(boolean textOptimizedWriterEnabled)
+    {
+        this.textOptimizedWriterEnabled = textOptimizedWriterEnabled;
+        return this;
+    }
+
+    public boolean isSizeBasedSplitWeightsEnabled()
+    {
+        return sizeBasedSplitWeightsEnabled;
+    }
+
+    @Config("hive.size-based-split-weights-enabled")
+    @ConfigDescription("Weight splits by their size when assigning them to workers")
+    public HiveClientConfig setSizeBasedSplitWeightsEnabled(boolean sizeBasedSplitWeightsEnabled)
+    {
+        this.sizeBasedSplitWeightsEnabled = sizeBasedSplitWeightsEnabled;
+        return this;
+    }
+
     public boolean isAssumeCanonicalPartitionKeys()
     {
         return assumeCanonicalPartitionKeys;
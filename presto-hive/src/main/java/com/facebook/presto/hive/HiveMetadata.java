@@ -64,8 +64,12 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import io.airlift.json.JsonCodec;
 import io.airlift.slice.Slice;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.metastore.TableType;
 import org.apache.hadoop.hive.ql.exec.FileSinkOperator;
@@ -73,8 +77,11 @@ import org.apache.hadoop.mapred.JobConf;
 import org.joda.time.DateTimeZone;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -99,6 +106,7 @@ import static com.facebook.presto.hive.HiveErrorCode.HIVE_TIMEZONE_MISMATCH;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_UNKNOWN_ERROR;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_UNSUPPORTED_FORMAT;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_WRITER_CLOSE_ERROR;
+import static com.facebook.presto.hive.HivePartition.UNPARTITIONED_ID;
 import static com.facebook.presto.hive.HivePartitionManager.extractPartitionKeyValues;
 import static com.facebook.presto.hive.HiveSessionProperties.isBucketExecutionEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isStatisticsEnabled;
@@ -145,7 +153,9 @@ import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.concat;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.emptyList;
+import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
@@ -160,6 +170,11 @@ public class HiveMetadata
     public static final String PRESTO_QUERY_ID_NAME = "presto_query_id";
     public static final String TABLE_COMMENT = "comment";
 
+    private static final String LAST_DDL_TIME = "transient_lastDdlTime";
+    private static final int MAX_DATA_VERSION_PARTITIONS = 100;
+    private static final int MAX_DATA_VERSION_DIRECTORY_LISTINGS = 200;
+    private static final int MAX_DATA_VERSION_FILES = 10_000;
+
     private final String connectorId;
     private final boolean allowCorruptWritesForTesting;
     private final SemiTransactionalHiveMetastore metastore;
@@ -1149,6 +1164,119 @@ public class HiveMetadata
                 ImmutableList.of());
     }
 
+    @Override
+    public Optional<String> getDataVersion(ConnectorSession session, ConnectorTableLayoutHandle layoutHandle)
+    {
+        HiveTableLayoutHandle hiveLayoutHandle = (HiveTableLayoutHandle) layoutHandle;
+        if (!hiveLayoutHandle.getPartitions().isPresent()) {
+            return Optional.empty();
+        }
+        List<HivePartition> partitions = hiveLayoutHandle.getPartitions().get();
+        if (partitions.isEmpty()) {
+            return Optional.of("<NO PARTITIONS>");
+        }
+        if (partitions.size() > MAX_DATA_VERSION_PARTITIONS) {
+            return Optional.empty();
+        }
+
+        SchemaTableName tableName = partitions.get(0).getTableName();
+        Optional<Table> table = metastore.getTable(tableName.getSchemaName(), tableName.getTableName());
+        if (!table.isPresent()) {
+            return Optional.empty();
+        }
+
+        // the version of a table or partition is the last DDL time recorded by the metastore combined
+        // with the name, length and modification time of every file below its directory, as appending
+        // to a file or changing a nested directory does not change the modification time of the directory
+        Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putString(tableName.toString(), UTF_8);
+        DataVersionBudget budget = new DataVersionBudget();
+        if (partitions.size() == 1 && partitions.get(0).getPartitionId().equals(UNPARTITIONED_ID)) {
+            hasher.putString(table.get().getParameters().getOrDefault(LAST_DDL_TIME, ""), UTF_8);
+            if (!putFileStatuses(session, table.get().getStorage().getLocation(), hasher, budget)) {
+                return Optional.empty();
+            }
+            return Optional.of(hasher.hash().toString());
+        }
+
+        List<String> partitionNames = partitions.stream()
+                .map(HivePartition::getPartitionId)
+                .collect(toList());
+        Map<String, Optional<Partition>> partitionsByName = metastore.getPartitionsByNames(tableName.getSchemaName(), tableName.getTableName(), partitionNames);
+        for (String partitionName : partitionNames) {
+            Optional<Partition> partition = partitionsByName.getOrDefault(partitionName, Optional.empty());
+            if (!partition.isPresent()) {
+                return Optional.empty();
+            }
+            hasher.putString(partitionName, UTF_8);
+            hasher.putString(partition.get().getParameters().getOrDefault(LAST_DDL_TIME, ""), UTF_8);
+            if (!putFileStatuses(session, partition.get().getStorage().getLocation(), hasher, budget)) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(hasher.hash().toString());
+    }
+
+    /**
+     * Adds the name, length and modification time of every file below the specified directory to the hasher.
+     * Returns false if the directory can not be listed or the listings exceed the budget.
+     */
+    private boolean putFileStatuses(ConnectorSession session, String location, Hasher hasher, DataVersionBudget budget)
+    {
+        try {
+            Path root = new Path(location);
+            FileSystem fileSystem = hdfsEnvironment.getFileSystem(session.getUser(), root);
+            Deque<Path> directories = new ArrayDeque<>();
+            directories.add(root);
+            while (!directories.isEmpty()) {
+                if (!budget.tryList()) {
+                    return false;
+                }
+                FileStatus[] statuses = fileSystem.listStatus(directories.poll());
+                Arrays.sort(statuses, comparing(status -> status.getPath().getName()));
+                for (FileStatus status : statuses) {
+                    String name = status.getPath().getName();
+                    // hidden files are not read by queries
+                    if (name.startsWith("_") || name.startsWith(".")) {
+                        continue;
+                    }
+                    if (status.isDirectory()) {
+                        directories.add(status.getPath());
+                        continue;
+                    }
+                    if (!budget.tryAddFile()) {
+                        return false;
+                    }
+                    hasher.putString(name, UTF_8);
+                    hasher.putLong(status.getLen());
+                    hasher.putLong(status.getModificationTime());
+                }
+            }
+            return true;
+        }
+        catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static class DataVersionBudget
+    {
+        private int listings;
+        private int files;
+
+        public boolean tryList()
+        {
+            listings++;
+            return listings <= MAX_DATA_VERSION_DIRECTORY_LISTINGS;
+        }
+
+        public boolean tryAddFile()
+        {
+            files++;
+            return files <= MAX_DATA_VERSION_FILES;
+        }
+    }
+
     @VisibleForTesting
     static TupleDomain<ColumnHandle> createPredicate(List<ColumnHandle> partitionColumns, List<HivePartition> partitions)
     {
@@ -39,6 +39,8 @@ public final class HiveSessionProperties
     private static final String MAX_INITIAL_SPLIT_SIZE = "max_initial_split_size";
     public static final String RCFILE_OPTIMIZED_WRITER_ENABLED = "rcfile_optimized_writer_enabled";
     private static final String RCFILE_OPTIMIZED_WRITER_VALIDATE = "rcfile_optimized_writer_validate";
+    public static final String TEXT_OPTIMIZED_WRITER_ENABLED = "text_optimized_writer_enabled";
+    private static final String SIZE_BASED_SPLIT_WEIGHTS_ENABLED = "size_based_split_weights_enabled";
     private static final String STATISTICS_ENABLED = "statistics_enabled";
 
     private final List<PropertyMetadata<?>> sessionProperties;
@@ -107,6 +109,16 @@ public final class HiveSessionProperties
                         "Experimental: RCFile: Validate writer files",
                         true,
                         false),
+                booleanSessionProperty(
+                        TEXT_OPTIMIZED_WRITER_ENABLED,
+                        "Experimental: TEXTFILE: Enable optimized writer",
+                        config.isTextOptimizedWriterEnabled(),
+                        false),
+                booleanSessionProperty(
+                        SIZE_BASED_SPLIT_WEIGHTS_ENABLED,
+                        "Weight splits by their size when assigning them to workers",
+                        config.isSizeBasedSplitWeightsEnabled(),
+                        false),
                 booleanSessionProperty(
                         STATISTICS_ENABLED,
                         "Experimental: Expose table statistics",
@@ -179,6 +191,16 @@ public final class HiveSessionProperties
         return session.getProperty(RCFILE_OPTIMIZED_WRITER_VALIDATE, Boolean.class);
     }
 
+    public static boolean isTextOptimizedWriterEnabled(ConnectorSession session)
+    {
+        return session.getProperty(TEXT_OPTIMIZED_WRITER_ENABLED, Boolean.class);
+    }
+
+    public static boolean isSizeBasedSplitWeightsEnabled(ConnectorSession session)
+    {
+        return session.getProperty(SIZE_BASED_SPLIT_WEIGHTS_ENABLED, Boolean.class);
+    }
+
     public static boolean isStatisticsEnabled(ConnectorSession session)
     {
         return session.getProperty(STATISTICS_ENABLED, Boolean.class);
@@ -47,6 +47,7 @@ public class HiveSplit
     private final OptionalInt bucketNumber;
     private final boolean forceLocalScheduling;
     private final Map<Integer, HiveType> columnCoercions;
+    private final int splitWeight;
 
     @JsonCreator
     public HiveSplit(
@@ -63,7 +64,8 @@ public class HiveSplit
             @JsonProperty("bucketNumber") OptionalInt bucketNumber,
             @JsonProperty("forceLocalScheduling") boolean forceLocalScheduling,
             @JsonProperty("effectivePredicate") TupleDomain<HiveColumnHandle> effectivePredicate,
-            @JsonProperty("columnCoercions") Map<Integer, HiveType> columnCoercions)
+            @JsonProperty("columnCoercions") Map<Integer, HiveType> columnCoercions,
+            @JsonProperty("splitWeight") int splitWeight)
     {
         requireNonNull(clientId, "clientId is null");
         checkArgument(start >= 0, "start must be positive");
@@ -78,6 +80,7 @@ public class HiveSplit
         requireNonNull(bucketNumber, "bucketNumber is null");
         requireNonNull(effectivePredicate, "tupleDomain is null");
         requireNonNull(columnCoercions, "columnCoercions is null");
+        checkArgument(splitWeight > 0, "splitWeight must be positive");
 
         this.clientId = clientId;
         this.database = database;
@@ -93,6 +96,7 @@ public class HiveSplit
         this.forceLocalScheduling = forceLocalScheduling;
         this.effectivePredicate = effectivePredicate;
         this.columnCoercions = columnCoercions;
+        this.splitWeight = splitWeight;
     }
 
     @JsonProperty
@@ -180,6 +184,13 @@ public class HiveSplit
         return columnCoercions;
     }
 
+    @JsonProperty
+    @Override
+    public int getSplitWeight()
+    {
+        return splitWeight;
+    }
+
     @Override
     public boolean isRemotelyAccessible()
     {
@@ -0,0 +1,152 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.rcfile.text.TextColumnEncoding;
+import com.facebook.presto.rcfile.text.TextRcFileEncoding;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_WRITER_CLOSE_ERROR;
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_WRITER_DATA_ERROR;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes pages directly in the Hive TEXTFILE (LazySimpleSerDe) format using the
+ * text column encodings of the RCFile text format, instead of converting every
+ * value to a Java object for the Hive serializer.
+ */
+public class TextFileWriter
+        implements HiveFileWriter
+{
+    private static final byte ROW_SEPARATOR = '\n';
+
+    private final SliceOutput output;
+    private final Callable<Void> rollbackAction;
+    private final int[] fileInputColumnIndexes;
+    private final List<TextColumnEncoding> columnEncodings;
+    private final Slice nullSequence;
+    private final byte fieldSeparator;
+
+    public TextFileWriter(
+            OutputStream outputStream,
+            Callable<Void> rollbackAction,
+            TextRcFileEncoding textEncoding,
+            List<Type> fileColumnTypes,
+            int[] fileInputColumnIndexes)
+    {
+        requireNonNull(outputStream, "outputStream is null");
+        requireNonNull(textEncoding, "textEncoding is null");
+        requireNonNull(fileColumnTypes, "fileColumnTypes is null");
+        this.output = outputStream instanceof SliceOutput ? (SliceOutput) outputStream : new OutputStreamSliceOutput(outputStream);
+        this.rollbackAction = requireNonNull(rollbackAction, "rollbackAction is null");
+        this.fileInputColumnIndexes = requireNonNull(fileInputColumnIndexes, "fileInputColumnIndexes is null");
+        this.columnEncodings = fileColumnTypes.stream()
+                .map(textEncoding::getEncoding)
+                .map(TextColumnEncoding.class::cast)
+                .collect(toImmutableList());
+        this.nullSequence = textEncoding.getNullSequence();
+        this.fieldSeparator = textEncoding.getSeparators()[0];
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return output.getRetainedSize();
+    }
+
+    @Override
+    public void appendRows(Page dataPage)
+    {
+        try {
+            for (int position = 0; position < dataPage.getPositionCount(); position++) {
+                for (int field = 0; field < fileInputColumnIndexes.length; field++) {
+                    if (field > 0) {
+                        output.writeByte(fieldSeparator);
+                    }
+                    int inputColumnIndex = fileInputColumnIndexes[field];
+                    if (inputColumnIndex < 0) {
+                        output.writeBytes(nullSequence);
+                        continue;
+                    }
+                    Block block = dataPage.getBlock(inputColumnIndex);
+                    if (block.isNull(position)) {
+                        output.writeBytes(nullSequence);
+                    }
+                    else {
+                        // top level values are encoded at depth one, as in a single column of an RCFile
+                        columnEncodings.get(field).encodeValueInto(1, block, position, output);
+                    }
+                }
+                output.writeByte(ROW_SEPARATOR);
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            throw new PrestoException(HIVE_WRITER_DATA_ERROR, e);
+        }
+    }
+
+    @Override
+    public void commit()
+    {
+        try {
+            output.close();
+        }
+        catch (IOException | RuntimeException e) {
+            try {
+                rollbackAction.call();
+            }
+            catch (Exception ignored) {
+                // ignore
+            }
+            throw new PrestoException(HIVE_WRITER_CLOSE_ERROR, "Error committing write to Hive", e);
+        }
+    }
+
+    @Override
+    public void rollback()
+    {
+        try {
+            try {
+                output.close();
+            }
+            finally {
+                rollbackAction.call();
+            }
+        }
+        catch (Exception e) {
+            throw new PrestoException(HIVE_WRITER_CLOSE_ERROR, "Error rolling back write to Hive", e);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("output", output)
+                .toString();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.hive.metastore.StorageFormat;
+import com.facebook.presto.rcfile.text.TextRcFileEncoding;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.TypeManager;
+import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.io.HiveIgnoreKeyTextOutputFormat;
+import org.apache.hadoop.hive.serde2.lazy.LazySimpleSerDe;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.DefaultCodec;
+import org.apache.hadoop.mapred.FileOutputFormat;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.joda.time.DateTimeZone;
+
+import javax.inject.Inject;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+
+import static com.facebook.presto.hive.HiveType.toHiveTypes;
+import static com.facebook.presto.hive.rcfile.RcFilePageSourceFactory.createTextVectorEncoding;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+import static org.apache.hadoop.hive.conf.HiveConf.ConfVars.COMPRESSRESULT;
+import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_COLUMNS;
+import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_COLUMN_TYPES;
+
+public class TextFileWriterFactory
+        implements HiveFileWriterFactory
+{
+    private final DateTimeZone hiveStorageTimeZone;
+    private final HdfsEnvironment hdfsEnvironment;
+    private final TypeManager typeManager;
+
+    @Inject
+    public TextFileWriterFactory(
+            HdfsEnvironment hdfsEnvironment,
+            TypeManager typeManager,
+            HiveClientConfig hiveClientConfig)
+    {
+        this(hdfsEnvironment, typeManager, requireNonNull(hiveClientConfig, "hiveClientConfig is null").getDateTimeZone());
+    }
+
+    public TextFileWriterFactory(
+            HdfsEnvironment hdfsEnvironment,
+            TypeManager typeManager,
+            DateTimeZone hiveStorageTimeZone)
+    {
+        this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
+        this.typeManager = requireNonNull(typeManager, "typeManager is null");
+        this.hiveStorageTimeZone = requireNonNull(hiveStorageTimeZone, "hiveStorageTimeZone is null");
+    }
+
+    @Override
+    public Optional<HiveFileWriter> createFileWriter(
+            Path path,
+            List<String> inputColumnNames,
+            StorageFormat storageFormat,
+            Properties schema,
+            JobConf configuration,
+            ConnectorSession session)
+    {
+        if (!HiveSessionProperties.isTextOptimizedWriterEnabled(session)) {
+            return Optional.empty();
+        }
+
+        if (!HiveIgnoreKeyTextOutputFormat.class.getName().equals(storageFormat.getOutputFormat()) ||
+                !LazySimpleSerDe.class.getName().equals(storageFormat.getSerDe())) {
+            return Optional.empty();
+        }
+
+        TextRcFileEncoding textEncoding = createTextVectorEncoding(schema, hiveStorageTimeZone);
+
+        // existing tables and partitions may have columns in a different order than the writer is providing, so build
+        // and index to rearrange columns in the proper order
+        List<String> fileColumnNames = Splitter.on(',').trimResults().omitEmptyStrings().splitToList(schema.getProperty(META_TABLE_COLUMNS, ""));
+        List<Type> fileColumnTypes = toHiveTypes(schema.getProperty(META_TABLE_COLUMN_TYPES, "")).stream()
+                .map(hiveType -> hiveType.getType(typeManager))
+                .collect(toList());
+
+        int[] fileInputColumnIndexes = fileColumnNames.stream()
+                .mapToInt(inputColumnNames::indexOf)
+                .toArray();
+
+        try {
+            FileSystem fileSystem = hdfsEnvironment.getFileSystem(session.getUser(), path, configuration);
+            OutputStream outputStream = fileSystem.create(path);
+
+            // compress the same way HiveIgnoreKeyTextOutputFormat does
+            if (HiveConf.getBoolVar(configuration, COMPRESSRESULT)) {
+                Class<? extends CompressionCodec> codecClass = FileOutputFormat.getOutputCompressorClass(configuration, DefaultCodec.class);
+                CompressionCodec codec = ReflectionUtils.newInstance(codecClass, configuration);
+                outputStream = codec.createOutputStream(outputStream);
+            }
+
+            Callable<Void> rollbackAction = () -> {
+                fileSystem.delete(path, false);
+                return null;
+            };
+
+            return Optional.of(new TextFileWriter(
+                    outputStream,
+                    rollbackAction,
+                    textEncoding,
+                    fileColumnTypes,
+                    fileInputColumnIndexes));
+        }
+        catch (Exception e) {
+            throw Throwables.propagate(e);
+        }
+    }
+}
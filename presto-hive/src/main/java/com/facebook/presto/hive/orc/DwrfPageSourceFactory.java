@@ -32,6 +32,8 @@ import javax.inject.Inject;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcMaxBufferSize;
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcMaxMergeDistance;
@@ -46,13 +48,25 @@ public class DwrfPageSourceFactory
     private final TypeManager typeManager;
     private final HdfsEnvironment hdfsEnvironment;
     private final FileFormatDataSourceStats stats;
+    private final Optional<Executor> readExecutor;
 
     @Inject
+    public DwrfPageSourceFactory(TypeManager typeManager, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, @ForOrcReader ExecutorService readExecutor)
+    {
+        this(typeManager, hdfsEnvironment, stats, Optional.of(readExecutor));
+    }
+
     public DwrfPageSourceFactory(TypeManager typeManager, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats)
+    {
+        this(typeManager, hdfsEnvironment, stats, Optional.empty());
+    }
+
+    public DwrfPageSourceFactory(TypeManager typeManager, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, Optional<Executor> readExecutor)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.stats = requireNonNull(stats, "stats is null");
+        this.readExecutor = requireNonNull(readExecutor, "readExecutor is null");
     }
 
     @Override
@@ -87,6 +101,7 @@ public class DwrfPageSourceFactory
                 getOrcMaxBufferSize(session),
                 getOrcStreamBufferSize(session),
                 false,
-                stats));
+                stats,
+                readExecutor));
     }
 }
@@ -20,6 +20,7 @@ import org.apache.hadoop.fs.Path;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_CANNOT_OPEN_SPLIT;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_FILESYSTEM_ERROR;
@@ -32,7 +33,7 @@ public class HdfsParquetDataSource
     private final String name;
     private final long size;
     private final FSDataInputStream inputStream;
-    private long readBytes;
+    private final AtomicLong readBytes = new AtomicLong();
 
     public HdfsParquetDataSource(Path path, long size, FSDataInputStream inputStream)
     {
@@ -44,7 +45,7 @@ public class HdfsParquetDataSource
     @Override
     public final long getReadBytes()
     {
-        return readBytes;
+        return readBytes.get();
     }
 
     @Override
@@ -72,7 +73,7 @@ public class HdfsParquetDataSource
             throws IOException
     {
         readInternal(position, buffer, bufferOffset, bufferLength);
-        readBytes += bufferLength;
+        readBytes.addAndGet(bufferLength);
     }
 
     private void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
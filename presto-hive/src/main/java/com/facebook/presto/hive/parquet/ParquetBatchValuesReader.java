@@ -0,0 +1,31 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+/**
+ * Implemented by values readers that can decode many values per call.
+ * Column readers fall back to reading one value at a time otherwise.
+ */
+public interface ParquetBatchValuesReader
+{
+    void readIntegers(int[] values, int length);
+
+    void readLongs(long[] values, int length);
+
+    void readFloats(float[] values, int length);
+
+    void readDoubles(double[] values, int length);
+
+    void skipValues(int length);
+}
@@ -31,16 +31,15 @@ import parquet.column.values.deltastrings.DeltaByteArrayReader;
 import parquet.column.values.plain.BinaryPlainValuesReader;
 import parquet.column.values.plain.BooleanPlainValuesReader;
 import parquet.column.values.plain.FixedLenByteArrayPlainValuesReader;
-import parquet.column.values.plain.PlainValuesReader.DoublePlainValuesReader;
-import parquet.column.values.plain.PlainValuesReader.FloatPlainValuesReader;
-import parquet.column.values.plain.PlainValuesReader.IntegerPlainValuesReader;
-import parquet.column.values.plain.PlainValuesReader.LongPlainValuesReader;
-import parquet.column.values.rle.RunLengthBitPackingHybridValuesReader;
 import parquet.io.ParquetDecodingException;
 
 import java.io.IOException;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.SIZE_OF_DOUBLE;
+import static io.airlift.slice.SizeOf.SIZE_OF_FLOAT;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
 import static parquet.column.values.bitpacking.Packer.BIG_ENDIAN;
 import static parquet.schema.PrimitiveType.PrimitiveTypeName.BINARY;
 import static parquet.schema.PrimitiveType.PrimitiveTypeName.BOOLEAN;
@@ -59,13 +58,13 @@ public enum ParquetEncoding
                 case BINARY:
                     return new BinaryPlainValuesReader();
                 case FLOAT:
-                    return new FloatPlainValuesReader();
+                    return new ParquetPlainValuesReader(SIZE_OF_FLOAT);
                 case DOUBLE:
-                    return new DoublePlainValuesReader();
+                    return new ParquetPlainValuesReader(SIZE_OF_DOUBLE);
                 case INT32:
-                    return new IntegerPlainValuesReader();
+                    return new ParquetPlainValuesReader(SIZE_OF_INT);
                 case INT64:
-                    return new LongPlainValuesReader();
+                    return new ParquetPlainValuesReader(SIZE_OF_LONG);
                 case INT96:
                     return new FixedLenByteArrayPlainValuesReader(INT96_TYPE_LENGTH);
                 case FIXED_LEN_BYTE_ARRAY:
@@ -108,7 +107,7 @@ public enum ParquetEncoding
             if (bitWidth == 0) {
                 return new ZeroIntegerValuesReader();
             }
-            return new RunLengthBitPackingHybridValuesReader(bitWidth);
+            return new ParquetRLEBitPackingHybridValuesReader(bitWidth);
         }
     },
 
@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import parquet.column.values.ValuesReader;
+
+import static io.airlift.slice.SizeOf.SIZE_OF_DOUBLE;
+import static io.airlift.slice.SizeOf.SIZE_OF_FLOAT;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+
+/**
+ * Reader for PLAIN encoded fixed width values (INT32, INT64, FLOAT and DOUBLE),
+ * which are stored back to back in little endian order.
+ */
+public class ParquetPlainValuesReader
+        extends ValuesReader
+        implements ParquetBatchValuesReader
+{
+    private final int valueWidth;
+    private Slice slice;
+    private int position;
+
+    public ParquetPlainValuesReader(int valueWidth)
+    {
+        this.valueWidth = valueWidth;
+    }
+
+    @Override
+    public void initFromPage(int valueCount, byte[] page, int offset)
+    {
+        slice = Slices.wrappedBuffer(page);
+        position = offset;
+    }
+
+    @Override
+    public int readInteger()
+    {
+        int value = slice.getInt(position);
+        position += SIZE_OF_INT;
+        return value;
+    }
+
+    @Override
+    public long readLong()
+    {
+        long value = slice.getLong(position);
+        position += SIZE_OF_LONG;
+        return value;
+    }
+
+    @Override
+    public float readFloat()
+    {
+        float value = slice.getFloat(position);
+        position += SIZE_OF_FLOAT;
+        return value;
+    }
+
+    @Override
+    public double readDouble()
+    {
+        double value = slice.getDouble(position);
+        position += SIZE_OF_DOUBLE;
+        return value;
+    }
+
+    @Override
+    public void skip()
+    {
+        position += valueWidth;
+    }
+
+    @Override
+    public void readIntegers(int[] values, int length)
+    {
+        for (int i = 0; i < length; i++) {
+            values[i] = slice.getInt(position);
+            position += SIZE_OF_INT;
+        }
+    }
+
+    @Override
+    public void readLongs(long[] values, int length)
+    {
+        for (int i = 0; i < length; i++) {
+            values[i] = slice.getLong(position);
+            position += SIZE_OF_LONG;
+        }
+    }
+
+    @Override
+    public void readFloats(float[] values, int length)
+    {
+        for (int i = 0; i < length; i++) {
+            values[i] = slice.getFloat(position);
+            position += SIZE_OF_FLOAT;
+        }
+    }
+
+    @Override
+    public void readDoubles(double[] values, int length)
+    {
+        for (int i = 0; i < length; i++) {
+            values[i] = slice.getDouble(position);
+            position += SIZE_OF_DOUBLE;
+        }
+    }
+
+    @Override
+    public void skipValues(int length)
+    {
+        position += length * valueWidth;
+    }
+}
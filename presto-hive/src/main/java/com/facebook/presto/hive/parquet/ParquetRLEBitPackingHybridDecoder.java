@@ -0,0 +1,192 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decoder for the RLE / bit-packing hybrid encoding used for repetition levels,
+ * definition levels and dictionary ids. Unlike the decoder shipped with Parquet,
+ * values can be read a batch at a time: RLE runs are filled in directly and
+ * bit-packed runs are unpacked in one pass when the run header is read.
+ */
+public class ParquetRLEBitPackingHybridDecoder
+{
+    private final int bitWidth;
+    private final int bytesWidth;
+    private final byte[] data;
+    private final int end;
+    private int position;
+
+    private boolean rleRun;
+    private int rleValue;
+    private int[] packedValues = new int[0];
+    private int packedOffset;
+    private int remainingInRun;
+
+    public ParquetRLEBitPackingHybridDecoder(int bitWidth, byte[] data, int offset, int length)
+    {
+        checkArgument(bitWidth >= 0 && bitWidth <= 32, "bitWidth must be between 0 and 32");
+        requireNonNull(data, "data is null");
+        checkPositionIndexes(offset, offset + length, data.length);
+        this.bitWidth = bitWidth;
+        this.bytesWidth = (bitWidth + 7) / 8;
+        this.data = data;
+        this.position = offset;
+        this.end = offset + length;
+    }
+
+    public int readInt()
+            throws ParquetCorruptionException
+    {
+        if (remainingInRun == 0) {
+            readNextRun();
+        }
+        remainingInRun--;
+        if (rleRun) {
+            return rleValue;
+        }
+        return packedValues[packedOffset++];
+    }
+
+    public void readInts(int[] values, int offset, int length)
+            throws ParquetCorruptionException
+    {
+        checkPositionIndexes(offset, offset + length, values.length);
+        while (length > 0) {
+            if (remainingInRun == 0) {
+                readNextRun();
+            }
+            int chunk = min(length, remainingInRun);
+            if (rleRun) {
+                Arrays.fill(values, offset, offset + chunk, rleValue);
+            }
+            else {
+                System.arraycopy(packedValues, packedOffset, values, offset, chunk);
+                packedOffset += chunk;
+            }
+            remainingInRun -= chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    public void skip(int length)
+            throws ParquetCorruptionException
+    {
+        while (length > 0) {
+            if (remainingInRun == 0) {
+                readNextRun();
+            }
+            int chunk = min(length, remainingInRun);
+            if (!rleRun) {
+                packedOffset += chunk;
+            }
+            remainingInRun -= chunk;
+            length -= chunk;
+        }
+    }
+
+    private void readNextRun()
+            throws ParquetCorruptionException
+    {
+        // nested column readers rely on this exception to detect the end of the repetition stream
+        checkArgument(position < end, "Reading past RLE/BitPacking stream.");
+        int header = readUnsignedVarInt();
+        if ((header & 1) == 0) {
+            rleRun = true;
+            remainingInRun = header >>> 1;
+            rleValue = readRleValue();
+        }
+        else {
+            long valueCount = (header >>> 1) * 8L;
+            if (valueCount > Integer.MAX_VALUE) {
+                throw new ParquetCorruptionException("Bit-packed run of %s values is too large", valueCount);
+            }
+            if (bitWidth == 0) {
+                // zero width values take no space, so the run is all zeros
+                rleRun = true;
+                rleValue = 0;
+                remainingInRun = toIntExact(valueCount);
+                return;
+            }
+            // each group of eight values takes bitWidth bytes, and only the last group of a stream may be truncated
+            long maxValueCount = (end - position + bitWidth - 1) / bitWidth * 8L;
+            if (valueCount > maxValueCount) {
+                throw new ParquetCorruptionException("Bit-packed run of %s values exceeds the remaining %s bytes of the RLE/BitPacking stream", valueCount, end - position);
+            }
+            rleRun = false;
+            remainingInRun = toIntExact(valueCount);
+            unpack(remainingInRun);
+        }
+    }
+
+    private int readUnsignedVarInt()
+    {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            checkArgument(position < end, "Reading past RLE/BitPacking stream.");
+            b = data[position++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        }
+        while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private int readRleValue()
+            throws ParquetCorruptionException
+    {
+        if (end - position < bytesWidth) {
+            throw new ParquetCorruptionException("RLE run value of %s bytes exceeds the remaining %s bytes of the RLE/BitPacking stream", bytesWidth, end - position);
+        }
+        int value = 0;
+        for (int i = 0; i < bytesWidth; i++) {
+            value |= (data[position++] & 0xFF) << (i * 8);
+        }
+        return value;
+    }
+
+    private void unpack(int count)
+    {
+        if (packedValues.length < count) {
+            packedValues = new int[count];
+        }
+        long mask = (1L << bitWidth) - 1;
+        long buffer = 0;
+        int bitsInBuffer = 0;
+        for (int i = 0; i < count; i++) {
+            while (bitsInBuffer < bitWidth) {
+                // the last bit-packed run may be truncated, missing bytes are padding
+                long b = position < end ? data[position] & 0xFF : 0;
+                position++;
+                buffer |= b << bitsInBuffer;
+                bitsInBuffer += 8;
+            }
+            packedValues[i] = (int) (buffer & mask);
+            buffer >>>= bitWidth;
+            bitsInBuffer -= bitWidth;
+        }
+        position = min(position, end);
+        packedOffset = 0;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+import parquet.bytes.BytesUtils;
+import parquet.column.values.ValuesReader;
+import parquet.io.ParquetDecodingException;
+
+import java.io.IOException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public class ParquetRLEBitPackingHybridValuesReader
+        extends ValuesReader
+{
+    private final int bitWidth;
+    private ParquetRLEBitPackingHybridDecoder decoder;
+    private int nextOffset;
+
+    public ParquetRLEBitPackingHybridValuesReader(int bitWidth)
+    {
+        this.bitWidth = bitWidth;
+    }
+
+    @Override
+    public void initFromPage(int valueCount, byte[] page, int offset)
+            throws IOException
+    {
+        checkArgument(page.length >= offset + 4, "Attempt to read offset not in the Parquet page");
+        int length = BytesUtils.readIntLittleEndian(page, offset);
+        decoder = new ParquetRLEBitPackingHybridDecoder(bitWidth, page, offset + 4, length);
+        nextOffset = offset + 4 + length;
+    }
+
+    @Override
+    public int getNextOffset()
+    {
+        return nextOffset;
+    }
+
+    @Override
+    public int readInteger()
+    {
+        try {
+            return decoder.readInt();
+        }
+        catch (ParquetCorruptionException e) {
+            throw new ParquetDecodingException(e);
+        }
+    }
+
+    @Override
+    public boolean readBoolean()
+    {
+        try {
+            return decoder.readInt() != 0;
+        }
+        catch (ParquetCorruptionException e) {
+            throw new ParquetDecodingException(e);
+        }
+    }
+
+    @Override
+    public void skip()
+    {
+        try {
+            decoder.skip(1);
+        }
+        catch (ParquetCorruptionException e) {
+            throw new ParquetDecodingException(e);
+        }
+    }
+
+    public void readIntegers(int[] values, int offset, int length)
+    {
+        try {
+            decoder.readInts(values, offset, length);
+        }
+        catch (ParquetCorruptionException e) {
+            throw new ParquetDecodingException(e);
+        }
+    }
+}
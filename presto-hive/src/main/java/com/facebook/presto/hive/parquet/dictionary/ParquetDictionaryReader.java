@@ -13,22 +13,24 @@
  */
 package com.facebook.presto.hive.parquet.dictionary;
 
-import parquet.bytes.BytesUtils;
+import com.facebook.presto.hive.parquet.ParquetBatchValuesReader;
+import com.facebook.presto.hive.parquet.ParquetCorruptionException;
+import com.facebook.presto.hive.parquet.ParquetRLEBitPackingHybridDecoder;
 import parquet.column.values.ValuesReader;
-import parquet.column.values.rle.RunLengthBitPackingHybridDecoder;
 import parquet.io.ParquetDecodingException;
 import parquet.io.api.Binary;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
 public class ParquetDictionaryReader
     extends ValuesReader
+    implements ParquetBatchValuesReader
 {
     private final ParquetDictionary dictionary;
-    private RunLengthBitPackingHybridDecoder decoder;
+    private ParquetRLEBitPackingHybridDecoder decoder;
+    private int[] ids = new int[0];
 
     public ParquetDictionaryReader(ParquetDictionary dictionary)
     {
@@ -40,9 +42,8 @@ public class ParquetDictionaryReader
         throws IOException
     {
         checkArgument(page.length > offset, "Attempt to read offset not in the Parquet page");
-        ByteArrayInputStream in = new ByteArrayInputStream(page, offset, page.length - offset);
-        int bitWidth = BytesUtils.readIntLittleEndianOnOneByte(in);
-        decoder = new RunLengthBitPackingHybridDecoder(bitWidth, in);
+        int bitWidth = page[offset] & 0xFF;
+        decoder = new ParquetRLEBitPackingHybridDecoder(bitWidth, page, offset + 1, page.length - offset - 1);
     }
 
     @Override
@@ -84,7 +85,72 @@ public class ParquetDictionaryReader
     @Override
     public void skip()
     {
-        readInt();
+        try {
+            decoder.skip(1);
+        }
+        catch (ParquetCorruptionException e) {
+            throw new ParquetDecodingException(e);
+        }
+    }
+
+    @Override
+    public void readIntegers(int[] values, int length)
+    {
+        int[] ids = readIds(length);
+        for (int i = 0; i < length; i++) {
+            values[i] = dictionary.decodeToInt(ids[i]);
+        }
+    }
+
+    @Override
+    public void readLongs(long[] values, int length)
+    {
+        int[] ids = readIds(length);
+        for (int i = 0; i < length; i++) {
+            values[i] = dictionary.decodeToLong(ids[i]);
+        }
+    }
+
+    @Override
+    public void readFloats(float[] values, int length)
+    {
+        int[] ids = readIds(length);
+        for (int i = 0; i < length; i++) {
+            values[i] = dictionary.decodeToFloat(ids[i]);
+        }
+    }
+
+    @Override
+    public void readDoubles(double[] values, int length)
+    {
+        int[] ids = readIds(length);
+        for (int i = 0; i < length; i++) {
+            values[i] = dictionary.decodeToDouble(ids[i]);
+        }
+    }
+
+    /**
+     * Reads the dictionary ids of the next {@code length} values without decoding them.
+     */
+    public void readDictionaryIds(int[] ids, int offset, int length)
+    {
+        try {
+            decoder.readInts(ids, offset, length);
+        }
+        catch (ParquetCorruptionException e) {
+            throw new ParquetDecodingException(e);
+        }
+    }
+
+    @Override
+    public void skipValues(int length)
+    {
+        try {
+            decoder.skip(length);
+        }
+        catch (ParquetCorruptionException e) {
+            throw new ParquetDecodingException(e);
+        }
     }
 
     private int readInt()
@@ -92,8 +158,22 @@ public class ParquetDictionaryReader
         try {
             return decoder.readInt();
         }
-        catch (IOException e) {
+        catch (ParquetCorruptionException e) {
+            throw new ParquetDecodingException(e);
+        }
+    }
+
+    private int[] readIds(int length)
+    {
+        if (ids.length < length) {
+            ids = new int[length];
+        }
+        try {
+            decoder.readInts(ids, 0, length);
+        }
+        catch (ParquetCorruptionException e) {
             throw new ParquetDecodingException(e);
         }
+        return ids;
     }
 }
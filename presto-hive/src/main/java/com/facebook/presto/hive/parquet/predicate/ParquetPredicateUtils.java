@@ -138,21 +138,33 @@ public final class ParquetPredicateUtils
                 ColumnDescriptor columnDescriptor = descriptor.get();
                 if (isOnlyDictionaryEncodingPages(columnMetaData.getEncodings()) && isColumnPredicate(columnDescriptor, parquetTupleDomain)) {
                     try {
-                        int totalSize = toIntExact(columnMetaData.getTotalSize());
-                        byte[] buffer = new byte[totalSize];
+                        byte[] buffer = new byte[getDictionaryPageRegionSize(columnMetaData)];
                         dataSource.readFully(columnMetaData.getStartingPos(), buffer);
                         Optional<ParquetDictionaryPage> dictionaryPage = readDictionaryPage(buffer, columnMetaData.getCodec());
                         dictionaries.put(columnDescriptor, new ParquetDictionaryDescriptor(columnDescriptor, dictionaryPage));
                     }
                     catch (IOException ignored) {
                     }
-                    break;
                 }
             }
         }
         return dictionaries.build();
     }
 
+    @VisibleForTesting
+    static int getDictionaryPageRegionSize(ColumnChunkMetaData columnMetaData)
+    {
+        // The dictionary page is always the first page of the column chunk, so only the
+        // bytes in front of the first data page need to be read to evaluate the predicate.
+        // Some writers do not record the dictionary page offset; read the whole chunk then.
+        long dictionaryPageOffset = columnMetaData.getDictionaryPageOffset();
+        long firstDataPageOffset = columnMetaData.getFirstDataPageOffset();
+        if (dictionaryPageOffset > 0 && dictionaryPageOffset < firstDataPageOffset) {
+            return toIntExact(firstDataPageOffset - columnMetaData.getStartingPos());
+        }
+        return toIntExact(columnMetaData.getTotalSize());
+    }
+
     private static Optional<ParquetDictionaryPage> readDictionaryPage(byte[] data, CompressionCodecName codecName)
     {
         try {
@@ -13,12 +13,17 @@
  */
 package com.facebook.presto.hive.parquet.reader;
 
+import com.facebook.presto.hive.parquet.dictionary.ParquetDictionary;
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
 import parquet.column.ColumnDescriptor;
 import parquet.io.api.Binary;
 
+import java.util.Optional;
+
 import static com.facebook.presto.spi.type.Chars.isCharType;
 import static com.facebook.presto.spi.type.Chars.trimSpacesAndTruncateToLength;
 import static com.facebook.presto.spi.type.Varchars.isVarcharType;
@@ -38,27 +43,42 @@ public class ParquetBinaryColumnReader
     protected void readValue(BlockBuilder blockBuilder, Type type)
     {
         if (definitionLevel == columnDescriptor.getMaxDefinitionLevel()) {
-            Binary binary = valuesReader.readBytes();
-            Slice value;
-            if (binary.length() == 0) {
-                value = EMPTY_SLICE;
-            }
-            else {
-                value = wrappedBuffer(binary.getBytes());
-            }
-            if (isVarcharType(type)) {
-                value = truncateToLength(value, type);
-            }
-            if (isCharType(type)) {
-                value = trimSpacesAndTruncateToLength(value, type);
-            }
-            type.writeSlice(blockBuilder, value);
+            type.writeSlice(blockBuilder, toSlice(valuesReader.readBytes(), type));
         }
         else {
             blockBuilder.appendNull();
         }
     }
 
+    @Override
+    protected Optional<Block> createDictionaryBlock(ParquetDictionary dictionary, int dictionarySize, Type type)
+    {
+        BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus(), dictionarySize + 1);
+        for (int id = 0; id < dictionarySize; id++) {
+            type.writeSlice(blockBuilder, toSlice(dictionary.decodeToBinary(id), type));
+        }
+        blockBuilder.appendNull();
+        return Optional.of(blockBuilder.build());
+    }
+
+    private static Slice toSlice(Binary binary, Type type)
+    {
+        Slice value;
+        if (binary.length() == 0) {
+            value = EMPTY_SLICE;
+        }
+        else {
+            value = wrappedBuffer(binary.getBytes());
+        }
+        if (isVarcharType(type)) {
+            value = truncateToLength(value, type);
+        }
+        if (isCharType(type)) {
+            value = trimSpacesAndTruncateToLength(value, type);
+        }
+        return value;
+    }
+
     @Override
     protected void skipValue()
     {
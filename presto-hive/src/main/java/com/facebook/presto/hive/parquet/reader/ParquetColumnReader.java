@@ -13,17 +13,21 @@
  */
 package com.facebook.presto.hive.parquet.reader;
 
+import com.facebook.presto.hive.parquet.ParquetBatchValuesReader;
 import com.facebook.presto.hive.parquet.ParquetDataPage;
 import com.facebook.presto.hive.parquet.ParquetDataPageV1;
 import com.facebook.presto.hive.parquet.ParquetDataPageV2;
 import com.facebook.presto.hive.parquet.ParquetDictionaryPage;
 import com.facebook.presto.hive.parquet.ParquetEncoding;
+import com.facebook.presto.hive.parquet.ParquetRLEBitPackingHybridDecoder;
 import com.facebook.presto.hive.parquet.RichColumnDescriptor;
 import com.facebook.presto.hive.parquet.dictionary.ParquetDictionary;
+import com.facebook.presto.hive.parquet.dictionary.ParquetDictionaryReader;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.DictionaryBlock;
 import com.facebook.presto.spi.type.DecimalType;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
@@ -31,10 +35,10 @@ import it.unimi.dsi.fastutil.ints.IntList;
 import parquet.bytes.BytesUtils;
 import parquet.column.ColumnDescriptor;
 import parquet.column.values.ValuesReader;
-import parquet.column.values.rle.RunLengthBitPackingHybridDecoder;
 import parquet.io.ParquetDecodingException;
 
-import java.io.ByteArrayInputStream;
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 import java.util.Optional;
 
@@ -61,15 +65,74 @@ public abstract class ParquetColumnReader
     private long totalValueCount;
     private ParquetPageReader pageReader;
     private ParquetDictionary dictionary;
+    private int dictionarySize;
+    @Nullable
+    private Block dictionaryBlock;
+    private boolean dictionaryBlockComputed;
     private int currentValueCount;
     private ParquetDataPage page;
     private int remainingValueCountInPage;
     private int readOffset;
+    private int[] definitionLevels = new int[0];
 
     protected abstract void readValue(BlockBuilder blockBuilder, Type type);
 
     protected abstract void skipValue();
 
+    /**
+     * Reads {@code valueCount} values of a flat column given their definition levels.
+     * Readers of fixed width types override this to decode all non-null values at once.
+     */
+    protected void readValueBatch(BlockBuilder blockBuilder, Type type, int[] definitionLevels, int valueCount)
+    {
+        for (int i = 0; i < valueCount; i++) {
+            definitionLevel = definitionLevels[i];
+            readValue(blockBuilder, type);
+        }
+    }
+
+    /**
+     * Creates a block with the values of the dictionary followed by a null, which is the
+     * dictionary of the blocks read from dictionary encoded pages. Readers of types that
+     * do not benefit from dictionary blocks return empty.
+     */
+    protected Optional<Block> createDictionaryBlock(ParquetDictionary dictionary, int dictionarySize, Type type)
+    {
+        return Optional.empty();
+    }
+
+    protected void skipValueBatch(int[] definitionLevels, int valueCount)
+    {
+        for (int i = 0; i < valueCount; i++) {
+            definitionLevel = definitionLevels[i];
+            skipValue();
+        }
+    }
+
+    protected int countNonNullValues(int[] definitionLevels, int valueCount)
+    {
+        int maxDefinitionLevel = columnDescriptor.getMaxDefinitionLevel();
+        int nonNullCount = 0;
+        for (int i = 0; i < valueCount; i++) {
+            if (definitionLevels[i] == maxDefinitionLevel) {
+                nonNullCount++;
+            }
+        }
+        return nonNullCount;
+    }
+
+    protected void skipNonNullValues(int[] definitionLevels, int valueCount)
+    {
+        int nonNullCount = countNonNullValues(definitionLevels, valueCount);
+        if (valuesReader instanceof ParquetBatchValuesReader) {
+            ((ParquetBatchValuesReader) valuesReader).skipValues(nonNullCount);
+            return;
+        }
+        for (int i = 0; i < nonNullCount; i++) {
+            valuesReader.skip();
+        }
+    }
+
     public static ParquetColumnReader createReader(RichColumnDescriptor descriptor)
     {
         switch (descriptor.getType()) {
@@ -124,6 +187,7 @@ public abstract class ParquetColumnReader
         if (dictionaryPage != null) {
             try {
                 dictionary = dictionaryPage.getEncoding().initDictionary(columnDescriptor, dictionaryPage);
+                dictionarySize = dictionaryPage.getDictionarySize();
             }
             catch (IOException e) {
                 throw new ParquetDecodingException("could not decode the dictionary for " + columnDescriptor, e);
@@ -131,7 +195,10 @@ public abstract class ParquetColumnReader
         }
         else {
             dictionary = null;
+            dictionarySize = 0;
         }
+        dictionaryBlock = null;
+        dictionaryBlockComputed = false;
         checkArgument(pageReader.getTotalValueCount() > 0, "page is empty");
         totalValueCount = pageReader.getTotalValueCount();
     }
@@ -151,14 +218,48 @@ public abstract class ParquetColumnReader
             throws IOException
     {
         seek();
-        BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus(), nextBatchSize);
         int valueCount = 0;
+        int[] ids = new int[0];
+        Optional<Block> dictionaryBlock = getDictionaryBlock(type);
+        if (dictionaryBlock.isPresent() && isFlat()) {
+            // values of dictionary encoded pages are returned as ids into the dictionary, so
+            // dictionary aware operators process each distinct value once
+            ids = new int[nextBatchSize];
+            while (valueCount < nextBatchSize) {
+                if (page == null) {
+                    readNextPage();
+                }
+                if (!(valuesReader instanceof ParquetDictionaryReader)) {
+                    // the writer fell back to plain encoding
+                    break;
+                }
+                int numValues = Math.min(remainingValueCountInPage, nextBatchSize - valueCount);
+                readFlatDictionaryIds(ids, valueCount, numValues, dictionarySize, positions);
+                valueCount += numValues;
+                updatePosition(numValues);
+            }
+            if (valueCount == nextBatchSize) {
+                readOffset = 0;
+                nextBatchSize = 0;
+                return new DictionaryBlock(valueCount, dictionaryBlock.get(), ids);
+            }
+        }
+
+        BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus(), nextBatchSize);
+        for (int i = 0; i < valueCount; i++) {
+            type.appendTo(dictionaryBlock.get(), ids[i], blockBuilder);
+        }
         while (valueCount < nextBatchSize) {
             if (page == null) {
                 readNextPage();
             }
             int numValues = Math.min(remainingValueCountInPage, nextBatchSize - valueCount);
-            readValues(blockBuilder, numValues, type, positions);
+            if (isFlat()) {
+                readFlatValues(blockBuilder, numValues, type, positions);
+            }
+            else {
+                readValues(blockBuilder, numValues, type, positions);
+            }
             valueCount += numValues;
             updatePosition(numValues);
         }
@@ -169,6 +270,78 @@ public abstract class ParquetColumnReader
         return blockBuilder.build();
     }
 
+    private boolean isFlat()
+    {
+        return columnDescriptor.getMaxRepetitionLevel() == 0;
+    }
+
+    private void readFlatValues(BlockBuilder blockBuilder, int numValues, Type type, IntList positions)
+    {
+        // Without repetition levels every value is a row of its own, so the definition
+        // levels of the whole batch are decoded at once and then the values
+        int[] definitionLevels = readDefinitionLevels(numValues);
+        readValueBatch(blockBuilder, type, definitionLevels, numValues);
+        for (int i = 0; i < numValues; i++) {
+            positions.add(1);
+        }
+    }
+
+    private void readFlatDictionaryIds(int[] ids, int offset, int numValues, int nullId, IntList positions)
+    {
+        int[] definitionLevels = readDefinitionLevels(numValues);
+        int nonNullCount = countNonNullValues(definitionLevels, numValues);
+        ParquetDictionaryReader dictionaryReader = (ParquetDictionaryReader) valuesReader;
+        if (nonNullCount == numValues) {
+            dictionaryReader.readDictionaryIds(ids, offset, numValues);
+        }
+        else {
+            // read the ids of the non-null values into the end of the range, and move them
+            // forward to their positions; a position is never written before it is read
+            int idIndex = offset + numValues - nonNullCount;
+            dictionaryReader.readDictionaryIds(ids, idIndex, nonNullCount);
+            int maxDefinitionLevel = columnDescriptor.getMaxDefinitionLevel();
+            for (int i = 0; i < numValues; i++) {
+                if (definitionLevels[i] == maxDefinitionLevel) {
+                    ids[offset + i] = ids[idIndex];
+                    idIndex++;
+                }
+                else {
+                    ids[offset + i] = nullId;
+                }
+            }
+        }
+        for (int i = 0; i < numValues; i++) {
+            positions.add(1);
+        }
+    }
+
+    private Optional<Block> getDictionaryBlock(Type type)
+    {
+        if (dictionary == null) {
+            return Optional.empty();
+        }
+        if (!dictionaryBlockComputed) {
+            dictionaryBlock = createDictionaryBlock(dictionary, dictionarySize, type).orElse(null);
+            dictionaryBlockComputed = true;
+        }
+        return Optional.ofNullable(dictionaryBlock);
+    }
+
+    private void skipFlatValues(int numValues)
+    {
+        int[] definitionLevels = readDefinitionLevels(numValues);
+        skipValueBatch(definitionLevels, numValues);
+    }
+
+    private int[] readDefinitionLevels(int numValues)
+    {
+        if (definitionLevels.length < numValues) {
+            definitionLevels = new int[numValues];
+        }
+        definitionReader.readLevels(definitionLevels, numValues);
+        return definitionLevels;
+    }
+
     private void readValues(BlockBuilder blockBuilder, int numValues, Type type, IntList positions)
     {
         definitionLevel = definitionReader.readLevel();
@@ -233,7 +406,12 @@ public abstract class ParquetColumnReader
                 readNextPage();
             }
             int offset = Math.min(remainingValueCountInPage, readOffset - valuePosition);
-            skipValues(offset);
+            if (isFlat()) {
+                skipFlatValues(offset);
+            }
+            else {
+                skipValues(offset);
+            }
             valuePosition = valuePosition + offset;
             updatePosition(offset);
         }
@@ -296,7 +474,8 @@ public abstract class ParquetColumnReader
         if (maxLevel == 0) {
             return new ParquetLevelNullReader();
         }
-        return new ParquetLevelRLEReader(new RunLengthBitPackingHybridDecoder(BytesUtils.getWidthFromMaxInt(maxLevel), new ByteArrayInputStream(slice.getBytes())));
+        byte[] bytes = slice.getBytes();
+        return new ParquetLevelRLEReader(new ParquetRLEBitPackingHybridDecoder(BytesUtils.getWidthFromMaxInt(maxLevel), bytes, 0, bytes.length));
     }
 
     private ValuesReader initDataReader(ParquetEncoding dataEncoding, byte[] bytes, int offset, int valueCount)
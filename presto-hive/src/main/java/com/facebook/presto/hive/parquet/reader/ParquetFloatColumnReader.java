@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive.parquet.reader;
 
+import com.facebook.presto.hive.parquet.ParquetBatchValuesReader;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.Type;
 import parquet.column.ColumnDescriptor;
@@ -22,6 +23,8 @@ import static java.lang.Float.floatToRawIntBits;
 public class ParquetFloatColumnReader
         extends ParquetColumnReader
 {
+    private float[] values = new float[0];
+
     public ParquetFloatColumnReader(ColumnDescriptor descriptor)
     {
         super(descriptor);
@@ -45,4 +48,35 @@ public class ParquetFloatColumnReader
             valuesReader.readFloat();
         }
     }
+
+    @Override
+    protected void readValueBatch(BlockBuilder blockBuilder, Type type, int[] definitionLevels, int valueCount)
+    {
+        if (!(valuesReader instanceof ParquetBatchValuesReader)) {
+            super.readValueBatch(blockBuilder, type, definitionLevels, valueCount);
+            return;
+        }
+        int nonNullCount = countNonNullValues(definitionLevels, valueCount);
+        if (values.length < nonNullCount) {
+            values = new float[nonNullCount];
+        }
+        ((ParquetBatchValuesReader) valuesReader).readFloats(values, nonNullCount);
+
+        int maxDefinitionLevel = columnDescriptor.getMaxDefinitionLevel();
+        int valueIndex = 0;
+        for (int i = 0; i < valueCount; i++) {
+            if (definitionLevels[i] == maxDefinitionLevel) {
+                type.writeLong(blockBuilder, floatToRawIntBits(values[valueIndex++]));
+            }
+            else {
+                blockBuilder.appendNull();
+            }
+        }
+    }
+
+    @Override
+    protected void skipValueBatch(int[] definitionLevels, int valueCount)
+    {
+        skipNonNullValues(definitionLevels, valueCount);
+    }
 }
@@ -13,17 +13,16 @@
  */
 package com.facebook.presto.hive.parquet.reader;
 
-import parquet.column.values.rle.RunLengthBitPackingHybridDecoder;
+import com.facebook.presto.hive.parquet.ParquetCorruptionException;
+import com.facebook.presto.hive.parquet.ParquetRLEBitPackingHybridDecoder;
 import parquet.io.ParquetDecodingException;
 
-import java.io.IOException;
-
 public class ParquetLevelRLEReader
         implements ParquetLevelReader
 {
-    private final RunLengthBitPackingHybridDecoder delegate;
+    private final ParquetRLEBitPackingHybridDecoder delegate;
 
-    public ParquetLevelRLEReader(RunLengthBitPackingHybridDecoder delegate)
+    public ParquetLevelRLEReader(ParquetRLEBitPackingHybridDecoder delegate)
     {
         this.delegate = delegate;
     }
@@ -34,7 +33,18 @@ public class ParquetLevelRLEReader
         try {
             return delegate.readInt();
         }
-        catch (IOException e) {
+        catch (ParquetCorruptionException e) {
+            throw new ParquetDecodingException(e);
+        }
+    }
+
+    @Override
+    public void readLevels(int[] levels, int length)
+    {
+        try {
+            delegate.readInts(levels, 0, length);
+        }
+        catch (ParquetCorruptionException e) {
             throw new ParquetDecodingException(e);
         }
     }
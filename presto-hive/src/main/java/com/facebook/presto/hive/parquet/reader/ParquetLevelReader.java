@@ -16,4 +16,11 @@ package com.facebook.presto.hive.parquet.reader;
 public interface ParquetLevelReader
 {
     int readLevel();
+
+    default void readLevels(int[] levels, int length)
+    {
+        for (int i = 0; i < length; i++) {
+            levels[i] = readLevel();
+        }
+    }
 }
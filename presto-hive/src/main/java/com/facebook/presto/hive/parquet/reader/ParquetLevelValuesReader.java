@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive.parquet.reader;
 
+import com.facebook.presto.hive.parquet.ParquetRLEBitPackingHybridValuesReader;
 import parquet.column.values.ValuesReader;
 
 public class ParquetLevelValuesReader
@@ -30,4 +31,14 @@ public class ParquetLevelValuesReader
     {
         return delegate.readInteger();
     }
+
+    @Override
+    public void readLevels(int[] levels, int length)
+    {
+        if (delegate instanceof ParquetRLEBitPackingHybridValuesReader) {
+            ((ParquetRLEBitPackingHybridValuesReader) delegate).readIntegers(levels, 0, length);
+            return;
+        }
+        ParquetLevelReader.super.readLevels(levels, length);
+    }
 }
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive.parquet.reader;
 
+import com.facebook.presto.hive.parquet.ParquetBatchValuesReader;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.Type;
 import parquet.column.ColumnDescriptor;
@@ -20,6 +21,8 @@ import parquet.column.ColumnDescriptor;
 public class ParquetLongColumnReader
         extends ParquetColumnReader
 {
+    private long[] values = new long[0];
+
     public ParquetLongColumnReader(ColumnDescriptor descriptor)
     {
         super(descriptor);
@@ -43,4 +46,35 @@ public class ParquetLongColumnReader
             valuesReader.readLong();
         }
     }
+
+    @Override
+    protected void readValueBatch(BlockBuilder blockBuilder, Type type, int[] definitionLevels, int valueCount)
+    {
+        if (!(valuesReader instanceof ParquetBatchValuesReader)) {
+            super.readValueBatch(blockBuilder, type, definitionLevels, valueCount);
+            return;
+        }
+        int nonNullCount = countNonNullValues(definitionLevels, valueCount);
+        if (values.length < nonNullCount) {
+            values = new long[nonNullCount];
+        }
+        ((ParquetBatchValuesReader) valuesReader).readLongs(values, nonNullCount);
+
+        int maxDefinitionLevel = columnDescriptor.getMaxDefinitionLevel();
+        int valueIndex = 0;
+        for (int i = 0; i < valueCount; i++) {
+            if (definitionLevels[i] == maxDefinitionLevel) {
+                type.writeLong(blockBuilder, values[valueIndex++]);
+            }
+            else {
+                blockBuilder.appendNull();
+            }
+        }
+    }
+
+    @Override
+    protected void skipValueBatch(int[] definitionLevels, int valueCount)
+    {
+        skipNonNullValues(definitionLevels, valueCount);
+    }
 }
@@ -26,6 +26,10 @@ import com.facebook.presto.spi.type.NamedTypeSignature;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
 import com.facebook.presto.spi.type.TypeSignatureParameter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 import parquet.column.ColumnDescriptor;
@@ -35,20 +39,30 @@ import parquet.hadoop.metadata.ColumnPath;
 import parquet.io.PrimitiveColumnIO;
 import parquet.schema.MessageType;
 
+import javax.annotation.concurrent.GuardedBy;
+
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static com.facebook.presto.hive.parquet.ParquetTypeUtils.getColumns;
 import static com.facebook.presto.hive.parquet.ParquetTypeUtils.getDescriptor;
 import static com.facebook.presto.hive.parquet.ParquetValidationUtils.validateParquet;
+import static com.facebook.presto.spi.ConnectorPageSource.NOT_BLOCKED;
 import static com.facebook.presto.spi.type.StandardTypes.ARRAY;
 import static com.facebook.presto.spi.type.StandardTypes.MAP;
 import static com.facebook.presto.spi.type.StandardTypes.ROW;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.airlift.concurrent.MoreFutures.toCompletableFuture;
 import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
@@ -68,6 +82,7 @@ public class ParquetReader
     private final List<BlockMetaData> blocks;
     private final ParquetDataSource dataSource;
     private final TypeManager typeManager;
+    private final Executor readExecutor;
 
     private int currentBlock;
     private BlockMetaData currentBlockMetadata;
@@ -77,23 +92,48 @@ public class ParquetReader
     private int batchSize;
     private final Map<ColumnDescriptor, ParquetColumnReader> columnReadersMap = new HashMap<>();
 
+    // column chunk reads of the current row group and of the row group after it
+    private Map<ColumnPath, ListenableFuture<byte[]>> currentColumnChunks = ImmutableMap.of();
+    private Map<ColumnPath, ListenableFuture<byte[]>> nextColumnChunks = ImmutableMap.of();
+
+    private boolean nextRowGroupReadsStarted;
+
     private AggregatedMemoryContext currentRowGroupMemoryContext;
+    private AggregatedMemoryContext nextRowGroupMemoryContext;
     private final AggregatedMemoryContext systemMemoryContext;
 
+    @GuardedBy("this")
+    private boolean closed;
+    @GuardedBy("this")
+    private int runningReads;
+
     public ParquetReader(MessageType fileSchema,
             MessageType requestedSchema,
             List<BlockMetaData> blocks,
             ParquetDataSource dataSource,
             TypeManager typeManager,
             AggregatedMemoryContext systemMemoryContext)
+    {
+        this(fileSchema, requestedSchema, blocks, dataSource, typeManager, systemMemoryContext, directExecutor());
+    }
+
+    public ParquetReader(MessageType fileSchema,
+            MessageType requestedSchema,
+            List<BlockMetaData> blocks,
+            ParquetDataSource dataSource,
+            TypeManager typeManager,
+            AggregatedMemoryContext systemMemoryContext,
+            Executor readExecutor)
     {
         this.fileSchema = fileSchema;
         this.requestedSchema = requestedSchema;
         this.blocks = blocks;
         this.dataSource = dataSource;
         this.typeManager = typeManager;
+        this.readExecutor = requireNonNull(readExecutor, "readExecutor is null");
         this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null");
         this.currentRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
+        this.nextRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
         initializeColumnReaders();
     }
 
@@ -101,10 +141,38 @@ public class ParquetReader
     public void close()
             throws IOException
     {
+        synchronized (this) {
+            closed = true;
+        }
+        // reads are never interrupted, as an interrupted HDFS read can leave the stream unusable
+        cancelColumnChunkReads(currentColumnChunks);
+        cancelColumnChunkReads(nextColumnChunks);
+        awaitRunningReads();
         currentRowGroupMemoryContext.close();
+        nextRowGroupMemoryContext.close();
         dataSource.close();
     }
 
+    /**
+     * Returns a future that completes when the column chunks needed by the
+     * next call to {@link #nextBatch()} have been read from the data source.
+     * The reads of the first row group are issued by the first call.
+     */
+    public CompletableFuture<?> isBlocked()
+    {
+        Map<ColumnPath, ListenableFuture<byte[]>> pendingReads = currentColumnChunks;
+        if (nextRowInGroup >= currentGroupRowCount) {
+            startNextRowGroupReads();
+            pendingReads = nextColumnChunks;
+        }
+        for (ListenableFuture<byte[]> read : pendingReads.values()) {
+            if (!read.isDone()) {
+                return toCompletableFuture(Futures.successfulAsList(pendingReads.values()));
+            }
+        }
+        return NOT_BLOCKED;
+    }
+
     public long getPosition()
     {
         return currentPosition;
@@ -132,7 +200,11 @@ public class ParquetReader
     private boolean advanceToNextRowGroup()
     {
         currentRowGroupMemoryContext.close();
-        currentRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
+        currentRowGroupMemoryContext = nextRowGroupMemoryContext;
+        currentColumnChunks = nextColumnChunks;
+        nextRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
+        nextColumnChunks = ImmutableMap.of();
+        nextRowGroupReadsStarted = false;
 
         if (currentBlock == blocks.size()) {
             return false;
@@ -140,6 +212,9 @@ public class ParquetReader
         currentBlockMetadata = blocks.get(currentBlock);
         currentBlock = currentBlock + 1;
 
+        // issue the reads of the following row group while this one is decoded
+        startNextRowGroupReads();
+
         nextRowInGroup = 0L;
         currentGroupRowCount = currentBlockMetadata.getRowCount();
         columnReadersMap.clear();
@@ -253,11 +328,17 @@ public class ParquetReader
         ParquetColumnReader columnReader = columnReadersMap.get(columnDescriptor);
         if (columnReader.getPageReader() == null) {
             validateParquet(currentBlockMetadata.getRowCount() > 0, "Row group has 0 rows");
-            ColumnChunkMetaData metadata = getColumnChunkMetaData(columnDescriptor);
-            long startingPosition = metadata.getStartingPos();
+            ColumnChunkMetaData metadata = getColumnChunkMetaData(currentBlockMetadata, columnDescriptor);
             int totalSize = toIntExact(metadata.getTotalSize());
-            byte[] buffer = allocateBlock(totalSize);
-            dataSource.readFully(startingPosition, buffer);
+            byte[] buffer;
+            ListenableFuture<byte[]> columnChunkRead = currentColumnChunks.get(metadata.getPath());
+            if (columnChunkRead != null) {
+                buffer = getFutureValue(columnChunkRead, IOException.class);
+            }
+            else {
+                buffer = allocateBlock(currentRowGroupMemoryContext, totalSize);
+                dataSource.readFully(metadata.getStartingPos(), buffer);
+            }
             ParquetColumnChunkDescriptor descriptor = new ParquetColumnChunkDescriptor(columnDescriptor, metadata, totalSize);
             ParquetColumnChunk columnChunk = new ParquetColumnChunk(descriptor, buffer, 0);
             columnReader.setPageReader(columnChunk.readAllPages());
@@ -265,18 +346,96 @@ public class ParquetReader
         return columnReader.readPrimitive(type, offsets);
     }
 
-    private byte[] allocateBlock(int length)
+    private void startNextRowGroupReads()
+    {
+        if (nextRowGroupReadsStarted || currentBlock == blocks.size()) {
+            return;
+        }
+        nextRowGroupReadsStarted = true;
+        nextColumnChunks = startColumnChunkReads(blocks.get(currentBlock), nextRowGroupMemoryContext);
+    }
+
+    private Map<ColumnPath, ListenableFuture<byte[]>> startColumnChunkReads(BlockMetaData blockMetadata, AggregatedMemoryContext memoryContext)
+    {
+        ImmutableMap.Builder<ColumnPath, ListenableFuture<byte[]>> columnChunks = ImmutableMap.builder();
+        for (PrimitiveColumnIO columnIO : getColumns(fileSchema, requestedSchema)) {
+            ColumnChunkMetaData metadata;
+            try {
+                metadata = getColumnChunkMetaData(blockMetadata, columnIO.getColumnDescriptor());
+            }
+            catch (ParquetCorruptionException e) {
+                // reported when the column is read
+                continue;
+            }
+            // buffers are allocated and accounted on the calling thread; the executor only fills them
+            byte[] buffer = allocateBlock(memoryContext, toIntExact(metadata.getTotalSize()));
+            long startingPosition = metadata.getStartingPos();
+            ListenableFutureTask<byte[]> read = ListenableFutureTask.create(() -> {
+                if (!readStarted()) {
+                    throw new CancellationException("Parquet reader is closed");
+                }
+                try {
+                    dataSource.readFully(startingPosition, buffer);
+                }
+                finally {
+                    readFinished();
+                }
+                return buffer;
+            });
+            readExecutor.execute(read);
+            columnChunks.put(metadata.getPath(), read);
+        }
+        return columnChunks.build();
+    }
+
+    private synchronized boolean readStarted()
+    {
+        if (closed) {
+            return false;
+        }
+        runningReads++;
+        return true;
+    }
+
+    private synchronized void readFinished()
+    {
+        runningReads--;
+        notifyAll();
+    }
+
+    private synchronized void awaitRunningReads()
+            throws InterruptedIOException
+    {
+        try {
+            while (runningReads > 0) {
+                wait();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for Parquet column chunk reads");
+        }
+    }
+
+    private static void cancelColumnChunkReads(Map<ColumnPath, ListenableFuture<byte[]>> columnChunks)
+    {
+        for (ListenableFuture<byte[]> read : columnChunks.values()) {
+            read.cancel(false);
+        }
+    }
+
+    private static byte[] allocateBlock(AggregatedMemoryContext memoryContext, int length)
     {
         byte[] buffer = new byte[length];
-        LocalMemoryContext blockMemoryContext = currentRowGroupMemoryContext.newLocalMemoryContext();
+        LocalMemoryContext blockMemoryContext = memoryContext.newLocalMemoryContext();
         blockMemoryContext.setBytes(buffer.length);
         return buffer;
     }
 
-    private ColumnChunkMetaData getColumnChunkMetaData(ColumnDescriptor columnDescriptor)
-            throws IOException
+    private static ColumnChunkMetaData getColumnChunkMetaData(BlockMetaData blockMetadata, ColumnDescriptor columnDescriptor)
+            throws ParquetCorruptionException
     {
-        for (ColumnChunkMetaData metadata : currentBlockMetadata.getColumns()) {
+        for (ColumnChunkMetaData metadata : blockMetadata.getColumns()) {
             if (metadata.getPath().equals(ColumnPath.get(columnDescriptor.getPath()))) {
                 return metadata;
             }
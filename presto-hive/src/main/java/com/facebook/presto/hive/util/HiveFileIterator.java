@@ -41,6 +41,7 @@ import static java.util.Objects.requireNonNull;
 public class HiveFileIterator
         extends AbstractIterator<LocatedFileStatus>
 {
+    private final String user;
     private final FileSystem fileSystem;
     private final DirectoryLister directoryLister;
     private final NamenodeStats namenodeStats;
@@ -56,6 +57,7 @@ public class HiveFileIterator
 
     public HiveFileIterator(
             Path path,
+            String user,
             FileSystem fileSystem,
             DirectoryLister directoryLister,
             NamenodeStats namenodeStats,
@@ -72,6 +74,7 @@ public class HiveFileIterator
         this.partitionKeys = requireNonNull(partitionKeys, "partitionKeys is null");
         this.effectivePredicate = requireNonNull(effectivePredicate, "effectivePredicate is null");
         this.path = requireNonNull(path, "path is null");
+        this.user = requireNonNull(user, "user is null");
         this.fileSystem = requireNonNull(fileSystem, "fileSystem is null");
         this.directoryLister = requireNonNull(directoryLister, "directoryLister is null");
         this.namenodeStats = requireNonNull(namenodeStats, "namenodeStats is null");
@@ -110,7 +113,7 @@ public class HiveFileIterator
             throws IOException
     {
         try (TimeStat.BlockTimer ignored = namenodeStats.getListLocatedStatus().time()) {
-            return directoryLister.list(fileSystem, path);
+            return directoryLister.list(user, fileSystem, path);
         }
         catch (IOException | RuntimeException e) {
             namenodeStats.getListLocatedStatus().recordException(e);
@@ -130,6 +133,11 @@ public class HiveFileIterator
         }
     }
 
+    public String getUser()
+    {
+        return user;
+    }
+
     public FileSystem getFileSystem()
     {
         return fileSystem;
@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+import io.airlift.units.Duration;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+
+import static io.airlift.testing.FileUtils.deleteRecursively;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestCachingDirectoryLister
+{
+    private File tempDir;
+    private FileSystem fileSystem;
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        tempDir = Files.createTempDir();
+        fileSystem = FileSystem.getLocal(new Configuration());
+        directory = new Path(tempDir.toURI());
+        File file = new File(tempDir, "a");
+        fileSystem.create(new Path(file.toURI())).close();
+        // files written before the directory last changed are complete and can be cached
+        assertTrue(tempDir.setLastModified(file.lastModified() + 1000));
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        deleteRecursively(tempDir);
+    }
+
+    @Test
+    public void testCacheHit()
+            throws IOException
+    {
+        CachingDirectoryLister lister = new CachingDirectoryLister(new HadoopDirectoryLister(), new Duration(5, MINUTES), 1000);
+
+        assertEquals(listFileNames(lister), ImmutableSet.of("a"));
+        assertEquals(lister.getCacheSize(), 1);
+        assertEquals(listFileNames(lister), ImmutableSet.of("a"));
+        assertEquals(lister.getHitCount(), 1);
+    }
+
+    @Test
+    public void testInvalidatedByModificationTime()
+            throws IOException
+    {
+        CachingDirectoryLister lister = new CachingDirectoryLister(new HadoopDirectoryLister(), new Duration(5, MINUTES), 1000);
+        assertEquals(listFileNames(lister), ImmutableSet.of("a"));
+
+        long modificationTime = tempDir.lastModified();
+        fileSystem.create(new Path(directory, "b")).close();
+        assertTrue(tempDir.setLastModified(modificationTime + 1000));
+
+        assertEquals(listFileNames(lister), ImmutableSet.of("a", "b"));
+        assertEquals(lister.getHitCount(), 0);
+    }
+
+    @Test
+    public void testCachedPerUser()
+            throws IOException
+    {
+        CachingDirectoryLister lister = new CachingDirectoryLister(new HadoopDirectoryLister(), new Duration(5, MINUTES), 1000);
+
+        assertEquals(listFileNames(lister, "alice"), ImmutableSet.of("a"));
+        assertEquals(listFileNames(lister, "bob"), ImmutableSet.of("a"));
+        assertEquals(lister.getCacheSize(), 2);
+        assertEquals(lister.getHitCount(), 0);
+        assertEquals(listFileNames(lister, "bob"), ImmutableSet.of("a"));
+        assertEquals(lister.getHitCount(), 1);
+    }
+
+    @Test
+    public void testFileModifiedAfterDirectoryNotCached()
+            throws IOException
+    {
+        CachingDirectoryLister lister = new CachingDirectoryLister(new HadoopDirectoryLister(), new Duration(5, MINUTES), 1000);
+
+        assertTrue(new File(tempDir, "a").setLastModified(tempDir.lastModified() + 1000));
+
+        assertEquals(listFileNames(lister), ImmutableSet.of("a"));
+        assertEquals(lister.getCacheSize(), 0);
+    }
+
+    @Test
+    public void testDisabled()
+            throws IOException
+    {
+        CachingDirectoryLister lister = new CachingDirectoryLister(new HadoopDirectoryLister(), new Duration(0, MINUTES), 1000);
+
+        assertEquals(listFileNames(lister), ImmutableSet.of("a"));
+        assertEquals(lister.getCacheSize(), 0);
+    }
+
+    private Set<String> listFileNames(DirectoryLister lister)
+            throws IOException
+    {
+        return listFileNames(lister, "user");
+    }
+
+    private Set<String> listFileNames(DirectoryLister lister, String user)
+            throws IOException
+    {
+        ImmutableSet.Builder<String> names = ImmutableSet.builder();
+        RemoteIterator<LocatedFileStatus> files = lister.list(user, fileSystem, directory);
+        while (files.hasNext()) {
+            Path path = files.next().getPath();
+            if (!path.getName().startsWith(".")) {
+                names.add(path.getName());
+            }
+        }
+        return names.build();
+    }
+}
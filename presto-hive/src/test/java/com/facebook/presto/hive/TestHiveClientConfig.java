@@ -45,6 +45,8 @@ public class TestHiveClientConfig
                 .setMetastoreCacheMaximumSize(10000)
                 .setPerTransactionMetastoreCacheMaximumSize(1000)
                 .setMaxMetastoreRefreshThreads(100)
+                .setFileStatusCacheTtl(new Duration(0, TimeUnit.SECONDS))
+                .setFileStatusCacheMaximumSize(1_000_000)
                 .setMetastoreSocksProxy(null)
                 .setMetastoreTimeout(new Duration(10, TimeUnit.SECONDS))
                 .setMinPartitionBatchSize(10)
@@ -72,12 +74,16 @@ public class TestHiveClientConfig
                 .setUseOrcColumnNames(false)
                 .setParquetPredicatePushdownEnabled(false)
                 .setParquetOptimizedReaderEnabled(false)
+                .setParquetReadThreads(32)
                 .setAssumeCanonicalPartitionKeys(false)
                 .setOrcBloomFiltersEnabled(false)
                 .setOrcMaxMergeDistance(new DataSize(1, Unit.MEGABYTE))
+                .setOrcReadThreads(32)
                 .setOrcMaxBufferSize(new DataSize(8, Unit.MEGABYTE))
                 .setOrcStreamBufferSize(new DataSize(8, Unit.MEGABYTE))
                 .setRcfileOptimizedWriterEnabled(false)
+                .setTextOptimizedWriterEnabled(false)
+                .setSizeBasedSplitWeightsEnabled(false)
                 .setHiveMetastoreAuthenticationType(HiveClientConfig.HiveMetastoreAuthenticationType.NONE)
                 .setHiveMetastoreServicePrincipal(null)
                 .setHiveMetastoreClientPrincipal(null)
@@ -108,6 +114,8 @@ public class TestHiveClientConfig
                 .put("hive.metastore-cache-maximum-size", "5000")
                 .put("hive.per-transaction-metastore-cache-maximum-size", "500")
                 .put("hive.metastore-refresh-max-threads", "2500")
+                .put("hive.file-status-cache-ttl", "5m")
+                .put("hive.file-status-cache-maximum-size", "1000")
                 .put("hive.metastore.thrift.client.socks-proxy", "localhost:1080")
                 .put("hive.metastore-timeout", "20s")
                 .put("hive.metastore.partition-batch-size.min", "1")
@@ -136,11 +144,15 @@ public class TestHiveClientConfig
                 .put("hive.orc.use-column-names", "true")
                 .put("hive.parquet-predicate-pushdown.enabled", "true")
                 .put("hive.parquet-optimized-reader.enabled", "true")
+                .put("hive.parquet.read-threads", "7")
                 .put("hive.orc.bloom-filters.enabled", "true")
                 .put("hive.orc.max-merge-distance", "22kB")
+                .put("hive.orc.read-threads", "9")
                 .put("hive.orc.max-buffer-size", "44kB")
                 .put("hive.orc.stream-buffer-size", "55kB")
                 .put("hive.rcfile-optimized-writer.enabled", "true")
+                .put("hive.text-optimized-writer.enabled", "true")
+                .put("hive.size-based-split-weights-enabled", "true")
                 .put("hive.metastore.authentication.type", "KERBEROS")
                 .put("hive.metastore.service.principal", "hive/_HOST@EXAMPLE.COM")
                 .put("hive.metastore.client.principal", "metastore@EXAMPLE.COM")
@@ -168,6 +180,8 @@ public class TestHiveClientConfig
                 .setMetastoreCacheMaximumSize(5000)
                 .setPerTransactionMetastoreCacheMaximumSize(500)
                 .setMaxMetastoreRefreshThreads(2500)
+                .setFileStatusCacheTtl(new Duration(5, TimeUnit.MINUTES))
+                .setFileStatusCacheMaximumSize(1000)
                 .setMetastoreSocksProxy(HostAndPort.fromParts("localhost", 1080))
                 .setMetastoreTimeout(new Duration(20, TimeUnit.SECONDS))
                 .setMinPartitionBatchSize(1)
@@ -195,12 +209,16 @@ public class TestHiveClientConfig
                 .setUseOrcColumnNames(true)
                 .setParquetPredicatePushdownEnabled(true)
                 .setParquetOptimizedReaderEnabled(true)
+                .setParquetReadThreads(7)
                 .setAssumeCanonicalPartitionKeys(true)
                 .setOrcBloomFiltersEnabled(true)
                 .setOrcMaxMergeDistance(new DataSize(22, Unit.KILOBYTE))
+                .setOrcReadThreads(9)
                 .setOrcMaxBufferSize(new DataSize(44, Unit.KILOBYTE))
                 .setOrcStreamBufferSize(new DataSize(55, Unit.KILOBYTE))
                 .setRcfileOptimizedWriterEnabled(true)
+                .setTextOptimizedWriterEnabled(true)
+                .setSizeBasedSplitWeightsEnabled(true)
                 .setHiveMetastoreAuthenticationType(HiveClientConfig.HiveMetastoreAuthenticationType.KERBEROS)
                 .setHiveMetastoreServicePrincipal("hive/_HOST@EXAMPLE.COM")
                 .setHiveMetastoreClientPrincipal("metastore@EXAMPLE.COM")
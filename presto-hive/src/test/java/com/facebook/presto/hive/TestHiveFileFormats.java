@@ -137,6 +137,27 @@ public class TestHiveFileFormats
                 .isReadableByRecordCursor(new GenericHiveRecordCursorProvider(HDFS_ENVIRONMENT));
     }
 
+    @Test(dataProvider = "rowCount")
+    public void testTextFileOptimizedWriter(int rowCount)
+            throws Exception
+    {
+        List<TestColumn> testColumns = TEST_COLUMNS.stream()
+                .filter(column -> !column.getName().equals("t_map_null_key_complex_key_value"))
+                // t_map_null_key_* must be disabled because Presto can not produce maps with null keys so the writer will throw
+                .filter(TestHiveFileFormats::withoutNullMapKeyTests)
+                .collect(toList());
+
+        TestingConnectorSession session = new TestingConnectorSession(
+                new HiveSessionProperties(new HiveClientConfig().setTextOptimizedWriterEnabled(true)).getSessionProperties());
+
+        assertThatFileFormat(TEXTFILE)
+                .withColumns(testColumns)
+                .withRowsCount(rowCount)
+                .withSession(session)
+                .withFileWriterFactory(new TextFileWriterFactory(HDFS_ENVIRONMENT, TYPE_MANAGER, HIVE_STORAGE_TIME_ZONE))
+                .isReadableByRecordCursor(new GenericHiveRecordCursorProvider(HDFS_ENVIRONMENT));
+    }
+
     @Test(dataProvider = "rowCount")
     public void testJson(int rowCount)
             throws Exception
@@ -14,6 +14,7 @@
 package com.facebook.presto.hive;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.execution.QueryPlanCache;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.metadata.QualifiedObjectName;
 import com.facebook.presto.metadata.TableHandle;
@@ -46,6 +47,9 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 
+import static com.facebook.presto.SystemSessionProperties.PLAN_CACHE_ENABLED;
+import static com.facebook.presto.SystemSessionProperties.RESULT_CACHE_ENABLED;
+import static com.facebook.presto.execution.QueryState.FINISHED;
 import static com.facebook.presto.hive.HiveColumnHandle.BUCKET_COLUMN_NAME;
 import static com.facebook.presto.hive.HiveColumnHandle.PATH_COLUMN_NAME;
 import static com.facebook.presto.hive.HiveQueryRunner.HIVE_CATALOG;
@@ -1334,6 +1338,114 @@ public class TestHiveIntegrationSmokeTest
         assertFalse(getQueryRunner().tableExists(getSession(), "test_metadata_delete"));
     }
 
+    @Test
+    public void testResultCache()
+    {
+        Session session = Session.builder(getSession())
+                .setSystemProperty(RESULT_CACHE_ENABLED, "true")
+                .build();
+        String query = "SELECT sum(orderkey), count(*) FROM test_result_cache";
+
+        assertUpdate("CREATE TABLE test_result_cache AS SELECT orderkey FROM orders WHERE orderkey < 100", "SELECT count(*) FROM orders WHERE orderkey < 100");
+
+        assertQuery(session, query, "SELECT sum(orderkey), count(*) FROM orders WHERE orderkey < 100");
+        assertEquals(getCachedQueryCount(query), 0);
+
+        // second execution is answered from the cached result
+        assertQuery(session, query, "SELECT sum(orderkey), count(*) FROM orders WHERE orderkey < 100");
+        assertEquals(getCachedQueryCount(query), 1);
+
+        // new data invalidates the cached result
+        assertUpdate("INSERT INTO test_result_cache SELECT orderkey FROM orders WHERE orderkey >= 100 AND orderkey < 200", "SELECT count(*) FROM orders WHERE orderkey >= 100 AND orderkey < 200");
+        assertQuery(session, query, "SELECT sum(orderkey), count(*) FROM orders WHERE orderkey < 200");
+        assertEquals(getCachedQueryCount(query), 1);
+
+        // non-deterministic queries are never cached
+        String randomQuery = "SELECT count(*) FROM test_result_cache WHERE rand() >= 0";
+        assertQuery(session, randomQuery, "SELECT count(*) FROM orders WHERE orderkey < 200");
+        assertQuery(session, randomQuery, "SELECT count(*) FROM orders WHERE orderkey < 200");
+        assertEquals(getCachedQueryCount(randomQuery), 0);
+
+        assertUpdate("DROP TABLE test_result_cache");
+    }
+
+    @Test
+    public void testResultCachePartitioned()
+    {
+        Session session = Session.builder(getSession())
+                .setSystemProperty(RESULT_CACHE_ENABLED, "true")
+                .build();
+        String query = "SELECT orderstatus, sum(orderkey) FROM test_result_cache_partitioned GROUP BY orderstatus";
+
+        assertUpdate("" +
+                        "CREATE TABLE test_result_cache_partitioned WITH (partitioned_by = ARRAY['orderstatus']) AS " +
+                        "SELECT orderkey, orderstatus FROM orders WHERE orderkey < 1000 AND orderstatus <> 'P'",
+                "SELECT count(*) FROM orders WHERE orderkey < 1000 AND orderstatus <> 'P'");
+
+        assertQuery(session, query, "SELECT orderstatus, sum(orderkey) FROM orders WHERE orderkey < 1000 AND orderstatus <> 'P' GROUP BY orderstatus");
+        assertQuery(session, query, "SELECT orderstatus, sum(orderkey) FROM orders WHERE orderkey < 1000 AND orderstatus <> 'P' GROUP BY orderstatus");
+        assertEquals(getCachedQueryCount(query), 1);
+
+        // a new partition invalidates the cached result
+        assertUpdate("INSERT INTO test_result_cache_partitioned SELECT orderkey, orderstatus FROM orders WHERE orderkey < 1000 AND orderstatus = 'P'", "SELECT count(*) FROM orders WHERE orderkey < 1000 AND orderstatus = 'P'");
+        assertQuery(session, query, "SELECT orderstatus, sum(orderkey) FROM orders WHERE orderkey < 1000 GROUP BY orderstatus");
+        assertEquals(getCachedQueryCount(query), 1);
+
+        assertUpdate("DROP TABLE test_result_cache_partitioned");
+    }
+
+    @Test
+    public void testPlanCache()
+    {
+        Session session = Session.builder(getSession())
+                .setSystemProperty(PLAN_CACHE_ENABLED, "true")
+                .build();
+        QueryPlanCache planCache = ((DistributedQueryRunner) getQueryRunner()).getCoordinator().getQueryPlanCache();
+        String query = "SELECT sum(orderkey), count(*) FROM test_plan_cache";
+
+        assertUpdate("CREATE TABLE test_plan_cache AS SELECT orderkey FROM orders WHERE orderkey < 100", "SELECT count(*) FROM orders WHERE orderkey < 100");
+
+        long hitCount = planCache.getHitCount();
+        assertQuery(session, query, "SELECT sum(orderkey), count(*) FROM orders WHERE orderkey < 100");
+        assertEquals(planCache.getHitCount(), hitCount);
+
+        // second execution reuses the plan of the first one
+        assertQuery(session, query, "SELECT sum(orderkey), count(*) FROM orders WHERE orderkey < 100");
+        assertEquals(planCache.getHitCount(), hitCount + 1);
+
+        // new data invalidates the cached plan
+        assertUpdate("INSERT INTO test_plan_cache SELECT orderkey FROM orders WHERE orderkey >= 100 AND orderkey < 200", "SELECT count(*) FROM orders WHERE orderkey >= 100 AND orderkey < 200");
+        assertQuery(session, query, "SELECT sum(orderkey), count(*) FROM orders WHERE orderkey < 200");
+        assertEquals(planCache.getHitCount(), hitCount + 1);
+
+        // plans with the start time of the query folded in are never reused
+        String timeQuery = "SELECT count(*) FROM test_plan_cache WHERE now() IS NOT NULL";
+        assertQuery(session, timeQuery, "SELECT count(*) FROM orders WHERE orderkey < 200");
+        assertQuery(session, timeQuery, "SELECT count(*) FROM orders WHERE orderkey < 200");
+        assertEquals(planCache.getHitCount(), hitCount + 1);
+
+        // executions of a prepared statement with other parameter values reuse its plan
+        Session preparedSession = Session.builder(session)
+                .addPreparedStatement("plan_cache_query", "SELECT sum(orderkey), count(*) FROM test_plan_cache WHERE orderkey < ?")
+                .build();
+        assertQuery(preparedSession, "EXECUTE plan_cache_query USING 50", "SELECT sum(orderkey), count(*) FROM orders WHERE orderkey < 50");
+        hitCount = planCache.getHitCount();
+        assertQuery(preparedSession, "EXECUTE plan_cache_query USING 150", "SELECT sum(orderkey), count(*) FROM orders WHERE orderkey < 150");
+        assertEquals(planCache.getHitCount(), hitCount + 1);
+
+        assertUpdate("DROP TABLE test_plan_cache");
+    }
+
+    private long getCachedQueryCount(String query)
+    {
+        // queries answered from the result cache do not have any stages
+        return ((DistributedQueryRunner) getQueryRunner()).getCoordinator().getQueryManager().getAllQueryInfo().stream()
+                .filter(queryInfo -> queryInfo.getQuery().equals(query))
+                .filter(queryInfo -> queryInfo.getState() == FINISHED)
+                .filter(queryInfo -> !queryInfo.getOutputStage().isPresent())
+                .count();
+    }
+
     private TableMetadata getTableMetadata(String catalog, String schema, String tableName)
     {
         Session session = getSession();
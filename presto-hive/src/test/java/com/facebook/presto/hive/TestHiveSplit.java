@@ -53,7 +53,8 @@ public class TestHiveSplit
                 OptionalInt.empty(),
                 true,
                 TupleDomain.all(),
-                ImmutableMap.of(1, HIVE_STRING));
+                ImmutableMap.of(1, HIVE_STRING),
+                25);
 
         String json = codec.toJson(expected);
         HiveSplit actual = codec.fromJson(json);
@@ -70,5 +71,6 @@ public class TestHiveSplit
         assertEquals(actual.getAddresses(), expected.getAddresses());
         assertEquals(actual.getColumnCoercions(), expected.getColumnCoercions());
         assertEquals(actual.isForceLocalScheduling(), expected.isForceLocalScheduling());
+        assertEquals(actual.getSplitWeight(), expected.getSplitWeight());
     }
 }
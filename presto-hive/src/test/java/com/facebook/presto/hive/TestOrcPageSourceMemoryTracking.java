@@ -17,22 +17,36 @@ import com.facebook.presto.connector.ConnectorId;
 import com.facebook.presto.hive.orc.OrcPageSourceFactory;
 import com.facebook.presto.metadata.Split;
 import com.facebook.presto.operator.CursorProcessor;
+import com.facebook.presto.operator.Driver;
 import com.facebook.presto.operator.DriverContext;
+import com.facebook.presto.operator.FilterAndProjectOperator.FilterAndProjectOperatorFactory;
+import com.facebook.presto.operator.HashBuilderOperator.HashBuilderOperatorFactory;
+import com.facebook.presto.operator.InternalJoinFilterFunction;
+import com.facebook.presto.operator.LookupJoinOperators;
+import com.facebook.presto.operator.LookupSourceFactory;
+import com.facebook.presto.operator.OperatorFactory;
+import com.facebook.presto.operator.PagesIndex;
 import com.facebook.presto.operator.ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory;
 import com.facebook.presto.operator.SourceOperator;
 import com.facebook.presto.operator.SourceOperatorFactory;
+import com.facebook.presto.operator.StandardJoinFilterFunction;
 import com.facebook.presto.operator.TableScanOperator.TableScanOperatorFactory;
+import com.facebook.presto.operator.ValuesOperator.ValuesOperatorFactory;
 import com.facebook.presto.operator.project.PageProcessor;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.classloader.ThreadContextClassLoader;
 import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.gen.ExpressionCompiler;
+import com.facebook.presto.sql.gen.JoinProbeCompiler;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.facebook.presto.sql.relational.RowExpression;
+import com.facebook.presto.testing.PageConsumerOperator.PageConsumerOperatorFactory;
 import com.facebook.presto.testing.TestingSplit;
 import com.facebook.presto.testing.TestingTransactionHandle;
 import com.google.common.base.Joiner;
@@ -41,6 +55,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -80,6 +95,8 @@ import java.util.OptionalInt;
 import java.util.Properties;
 import java.util.Random;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -89,6 +106,7 @@ import static com.facebook.presto.hive.HiveTestUtils.HDFS_ENVIRONMENT;
 import static com.facebook.presto.hive.HiveTestUtils.SESSION;
 import static com.facebook.presto.hive.HiveTestUtils.TYPE_MANAGER;
 import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.VarcharType.createUnboundedVarcharType;
 import static com.facebook.presto.sql.relational.Expressions.field;
 import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
@@ -121,6 +139,7 @@ public class TestOrcPageSourceMemoryTracking
     private static final Configuration CONFIGURATION = new Configuration();
     private static final int NUM_ROWS = 50000;
     private static final int STRIPE_ROWS = 20000;
+    private static final long MATCHING_BUILD_ID = 0;
     private static final ExpressionCompiler EXPRESSION_COMPILER = new ExpressionCompiler(createTestMetadataManager());
 
     private final Random random = new Random();
@@ -242,7 +261,9 @@ public class TestOrcPageSourceMemoryTracking
             assertFalse(operator.isFinished());
             Page page = operator.getOutput();
             assertNotNull(page);
-            page.getBlock(1);
+            // the driver loads the page and then checks whether the operator is finished, which refreshes its memory usage
+            page.assureLoaded();
+            assertFalse(operator.isFinished());
             if (memoryUsage == -1) {
                 memoryUsage = driverContext.getSystemMemoryUsage();
                 assertBetweenInclusive(memoryUsage, 460000L, 469999L);
@@ -257,7 +278,9 @@ public class TestOrcPageSourceMemoryTracking
             assertFalse(operator.isFinished());
             Page page = operator.getOutput();
             assertNotNull(page);
-            page.getBlock(1);
+            // the driver loads the page and then checks whether the operator is finished, which refreshes its memory usage
+            page.assureLoaded();
+            assertFalse(operator.isFinished());
             if (memoryUsage == -1) {
                 memoryUsage = driverContext.getSystemMemoryUsage();
                 assertBetweenInclusive(memoryUsage, 460000L, 469999L);
@@ -272,7 +295,9 @@ public class TestOrcPageSourceMemoryTracking
             assertFalse(operator.isFinished());
             Page page = operator.getOutput();
             assertNotNull(page);
-            page.getBlock(1);
+            // the driver loads the page and then checks whether the operator is finished, which refreshes its memory usage
+            page.assureLoaded();
+            assertFalse(operator.isFinished());
             if (memoryUsage == -1) {
                 memoryUsage = driverContext.getSystemMemoryUsage();
                 assertBetweenInclusive(memoryUsage, 360000L, 369999L);
@@ -312,6 +337,75 @@ public class TestOrcPageSourceMemoryTracking
         assertEquals(driverContext.getSystemMemoryUsage(), 0);
     }
 
+    @Test
+    public void testScanFilterAndProjectIntoLookupJoin()
+            throws Exception
+    {
+        // each probe row is compared with more build rows than the join evaluates in one call before
+        // it finds its single match, so the join keeps the probe page without having read its output
+        // columns while the filter and project operator takes the next page from the scan; the output
+        // columns must still be readable once the join produces rows
+        int buildRows = 10_001;
+        List<Type> types = testPreparer.types;
+        Type keyType = types.get(0);
+        BlockBuilder buildKeys = keyType.createBlockBuilder(new BlockBuilderStatus(), buildRows);
+        BlockBuilder buildIds = BIGINT.createBlockBuilder(new BlockBuilderStatus(), buildRows);
+        for (int i = 0; i < buildRows; i++) {
+            keyType.writeSlice(buildKeys, Slices.EMPTY_SLICE);
+            BIGINT.writeLong(buildIds, i);
+        }
+        // the left side of the filter is the build side
+        InternalJoinFilterFunction filterFunction = (leftPosition, leftBlocks, rightPosition, rightBlocks) -> BIGINT.getLong(leftBlocks[1], leftPosition) == MATCHING_BUILD_ID;
+        LookupSourceFactory lookupSourceFactory = testPreparer.buildLookupSource(new Page(buildKeys.build(), buildIds.build()), filterFunction);
+
+        ImmutableList.Builder<RowExpression> projections = ImmutableList.builder();
+        for (int i = 0; i < types.size(); i++) {
+            projections.add(field(i, types.get(i)));
+        }
+        OperatorFactory filterAndProjectFactory = new FilterAndProjectOperatorFactory(
+                1,
+                new PlanNodeId("project"),
+                EXPRESSION_COMPILER.compilePageProcessor(Optional.empty(), projections.build()),
+                types);
+        OperatorFactory joinFactory = new LookupJoinOperators(new JoinProbeCompiler()).innerJoin(
+                2,
+                new PlanNodeId("join"),
+                lookupSourceFactory,
+                types,
+                ImmutableList.of(0),
+                Optional.empty(),
+                Optional.of(ImmutableList.of(0, 1)));
+        AtomicLong rows = new AtomicLong();
+        AtomicLong nonEmptyValues = new AtomicLong();
+        OperatorFactory outputFactory = new PageConsumerOperatorFactory(
+                3,
+                new PlanNodeId("output"),
+                page -> {
+                    rows.addAndGet(page.getPositionCount());
+                    Block values = page.getBlock(1);
+                    for (int position = 0; position < values.getPositionCount(); position++) {
+                        if (values.getSliceLength(position) > 0) {
+                            nonEmptyValues.incrementAndGet();
+                        }
+                    }
+                },
+                Function.identity());
+
+        DriverContext driverContext = testPreparer.newDriverContext();
+        Driver driver = new Driver(
+                driverContext,
+                testPreparer.newScanFilterAndProjectOperator(driverContext),
+                filterAndProjectFactory.createOperator(driverContext),
+                joinFactory.createOperator(driverContext),
+                outputFactory.createOperator(driverContext));
+        while (!driver.isFinished()) {
+            driver.process();
+        }
+
+        assertEquals(rows.get(), NUM_ROWS);
+        assertEquals(nonEmptyValues.get(), NUM_ROWS);
+    }
+
     private class TestPreparer
     {
         private final FileSplit fileSplit;
@@ -424,6 +518,33 @@ public class TestOrcPageSourceMemoryTracking
             return operator;
         }
 
+        public LookupSourceFactory buildLookupSource(Page buildPage, InternalJoinFilterFunction filterFunction)
+        {
+            List<Type> buildTypes = ImmutableList.of(types.get(0), BIGINT);
+            ValuesOperatorFactory valuesFactory = new ValuesOperatorFactory(0, new PlanNodeId("values"), buildTypes, ImmutableList.of(buildPage));
+            HashBuilderOperatorFactory hashBuilderFactory = new HashBuilderOperatorFactory(
+                    1,
+                    new PlanNodeId("build"),
+                    buildTypes,
+                    ImmutableList.of(0, 1),
+                    ImmutableMap.of(),
+                    ImmutableList.of(0),
+                    Optional.empty(),
+                    false,
+                    Optional.of((session, addresses, channels) -> new StandardJoinFilterFunction(filterFunction, addresses, channels, Optional.empty())),
+                    10,
+                    1,
+                    new PagesIndex.TestingFactory());
+
+            DriverContext driverContext = newDriverContext();
+            Driver driver = new Driver(driverContext, valuesFactory.createOperator(driverContext), hashBuilderFactory.createOperator(driverContext));
+            LookupSourceFactory lookupSourceFactory = hashBuilderFactory.getLookupSourceFactory();
+            while (!lookupSourceFactory.createLookupSource().isDone()) {
+                driver.process();
+            }
+            return lookupSourceFactory;
+        }
+
         private DriverContext newDriverContext()
         {
             return createTaskContext(executor, testSessionBuilder().build())
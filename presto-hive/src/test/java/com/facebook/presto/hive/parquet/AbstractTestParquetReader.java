@@ -57,6 +57,7 @@ import static com.google.common.collect.Iterables.cycle;
 import static com.google.common.collect.Iterables.limit;
 import static com.google.common.collect.Iterables.transform;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
 import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaBooleanObjectInspector;
 import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaByteArrayObjectInspector;
 import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaByteObjectInspector;
@@ -236,6 +237,15 @@ public abstract class AbstractTestParquetReader
         tester.testRoundTrip(javaStringObjectInspector, limit(cycle(transform(ImmutableList.of(1, 3, 5, 7, 11, 13, 17), Object::toString)), 30_000), createUnboundedVarcharType());
     }
 
+    @Test
+    public void testStringDictionaryBlocks()
+            throws Exception
+    {
+        Iterable<String> values = limit(cycle(asList("apple", "banana", null, "cherry")), 30_000);
+        tester.assertDictionaryBlocks(javaStringObjectInspector, values, createUnboundedVarcharType());
+        tester.assertRoundTrip(javaStringObjectInspector, values, values, createUnboundedVarcharType());
+    }
+
     @Test
     public void testStringStrideDictionary()
             throws Exception
@@ -17,6 +17,7 @@ import com.facebook.presto.hive.parquet.memory.AggregatedMemoryContext;
 import com.facebook.presto.hive.parquet.reader.ParquetMetadataReader;
 import com.facebook.presto.hive.parquet.reader.ParquetReader;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.DictionaryBlock;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.base.Function;
 import com.google.common.base.Throwables;
@@ -195,7 +196,36 @@ public class ParquetTester
         parquetReader.close();
     }
 
-    private static DataSize writeParquetColumn(JobConf jobConf,
+    public void assertDictionaryBlocks(ObjectInspector objectInspector, Iterable<?> writeValues, Type type)
+            throws Exception
+    {
+        for (WriterVersion version : versions) {
+            for (CompressionCodecName compressionCodecName : compressions) {
+                try (TempFile tempFile = new TempFile("test", "parquet")) {
+                    JobConf jobConf = new JobConf();
+                    jobConf.setEnum(ParquetOutputFormat.COMPRESSION, compressionCodecName);
+                    jobConf.setBoolean(ParquetOutputFormat.ENABLE_DICTIONARY, true);
+                    jobConf.setEnum(ParquetOutputFormat.WRITER_VERSION, version);
+                    writeParquetColumn(jobConf, tempFile.getFile(), compressionCodecName, objectInspector, writeValues.iterator());
+
+                    Path path = new Path(tempFile.getFile().toURI());
+                    FileSystem fileSystem = path.getFileSystem(jobConf);
+                    ParquetMetadata parquetMetadata = ParquetMetadataReader.readFooter(fileSystem, path);
+                    MessageType fileSchema = parquetMetadata.getFileMetaData().getSchema();
+                    ParquetDataSource dataSource = new HdfsParquetDataSource(path, fileSystem.getFileStatus(path).getLen(), fileSystem.open(path));
+
+                    ParquetReader parquetReader = new ParquetReader(fileSchema, fileSchema, parquetMetadata.getBlocks(), dataSource, TYPE_MANAGER, new AggregatedMemoryContext());
+                    for (int batchSize = parquetReader.nextBatch(); batchSize >= 0; batchSize = parquetReader.nextBatch()) {
+                        Block block = parquetReader.readPrimitive(fileSchema.getColumns().get(0), type);
+                        assertTrue(block instanceof DictionaryBlock, "expected a dictionary block, but got " + block);
+                    }
+                    parquetReader.close();
+                }
+            }
+        }
+    }
+
+    static DataSize writeParquetColumn(JobConf jobConf,
             File outputFile,
             CompressionCodecName compressionCodecName,
             ObjectInspector columnObjectInspector,
@@ -0,0 +1,175 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+import com.facebook.presto.hive.parquet.reader.ParquetLevelRLEReader;
+import com.facebook.presto.hive.parquet.reader.ParquetLevelReader;
+import com.facebook.presto.hive.parquet.reader.ParquetLevelValuesReader;
+import io.airlift.slice.Slices;
+import org.testng.annotations.Test;
+import parquet.column.values.rle.RunLengthBitPackingHybridEncoder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestParquetRLEBitPackingHybridDecoder
+{
+    @Test
+    public void testReadInt()
+            throws Exception
+    {
+        for (int bitWidth : new int[] {0, 1, 2, 3, 7, 8, 13, 20, 31}) {
+            int[] expected = generateValues(bitWidth, 1000);
+            byte[] encoded = encode(bitWidth, expected);
+            ParquetRLEBitPackingHybridDecoder decoder = new ParquetRLEBitPackingHybridDecoder(bitWidth, encoded, 0, encoded.length);
+            for (int value : expected) {
+                assertEquals(decoder.readInt(), value);
+            }
+        }
+    }
+
+    @Test
+    public void testReadInts()
+            throws Exception
+    {
+        for (int bitWidth : new int[] {0, 1, 2, 3, 7, 8, 13, 20, 31}) {
+            int[] expected = generateValues(bitWidth, 1000);
+            byte[] encoded = encode(bitWidth, expected);
+            ParquetRLEBitPackingHybridDecoder decoder = new ParquetRLEBitPackingHybridDecoder(bitWidth, encoded, 0, encoded.length);
+
+            // batch sizes that do not line up with the runs or the bit-packed groups
+            int[] actual = new int[expected.length];
+            int offset = 0;
+            int batchSize = 1;
+            while (offset < expected.length) {
+                int length = Math.min(batchSize, expected.length - offset);
+                decoder.readInts(actual, offset, length);
+                offset += length;
+                batchSize = batchSize * 3 + 1;
+            }
+            assertEquals(actual, expected);
+        }
+    }
+
+    @Test
+    public void testSkip()
+            throws Exception
+    {
+        int[] expected = generateValues(5, 1000);
+        byte[] encoded = encode(5, expected);
+        ParquetRLEBitPackingHybridDecoder decoder = new ParquetRLEBitPackingHybridDecoder(5, encoded, 0, encoded.length);
+        int position = 0;
+        while (position < expected.length - 17) {
+            decoder.skip(13);
+            position += 13;
+            assertEquals(decoder.readInt(), expected[position]);
+            position++;
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Reading past RLE/BitPacking stream.")
+    public void testReadPastEnd()
+            throws Exception
+    {
+        int[] values = new int[] {1, 1, 1, 1, 1, 1, 1, 1, 1, 1};
+        byte[] encoded = encode(1, values);
+        ParquetRLEBitPackingHybridDecoder decoder = new ParquetRLEBitPackingHybridDecoder(1, encoded, 0, encoded.length);
+        decoder.readInts(new int[values.length], 0, values.length);
+        decoder.readInt();
+    }
+
+    @Test(expectedExceptions = ParquetCorruptionException.class, expectedExceptionsMessageRegExp = "RLE run value of 2 bytes exceeds the remaining 1 bytes of the RLE/BitPacking stream")
+    public void testTruncatedRleValue()
+            throws Exception
+    {
+        // RLE run of 10 values followed by only one of the two bytes of the value
+        byte[] encoded = new byte[] {20, 1, 7};
+        ParquetRLEBitPackingHybridDecoder decoder = new ParquetRLEBitPackingHybridDecoder(13, encoded, 0, 2);
+        decoder.readInt();
+    }
+
+    @Test(expectedExceptions = ParquetCorruptionException.class, expectedExceptionsMessageRegExp = "Bit-packed run of 8000 values exceeds the remaining 2 bytes of the RLE/BitPacking stream")
+    public void testBitPackedRunLongerThanStream()
+            throws Exception
+    {
+        // bit-packed run of 1000 groups, encoded as varint 2001, followed by only two bytes
+        byte[] encoded = new byte[] {(byte) 0xD1, 0x0F, 1, 2};
+        ParquetRLEBitPackingHybridDecoder decoder = new ParquetRLEBitPackingHybridDecoder(3, encoded, 0, encoded.length);
+        decoder.readInt();
+    }
+
+    @Test
+    public void testLevelReaders()
+            throws Exception
+    {
+        int[] expected = generateValues(2, 500);
+        byte[] encoded = encode(2, expected);
+
+        ParquetLevelReader levelReader = new ParquetLevelRLEReader(new ParquetRLEBitPackingHybridDecoder(2, encoded, 0, encoded.length));
+        assertLevels(levelReader, expected);
+
+        // data page v1 prefixes the levels with their length, followed by the values
+        int offset = 3;
+        byte[] page = new byte[offset + 4 + encoded.length + 8];
+        Slices.wrappedBuffer(page).setInt(offset, encoded.length);
+        System.arraycopy(encoded, 0, page, offset + 4, encoded.length);
+        ParquetRLEBitPackingHybridValuesReader valuesReader = new ParquetRLEBitPackingHybridValuesReader(2);
+        valuesReader.initFromPage(expected.length, page, offset);
+        assertEquals(valuesReader.getNextOffset(), offset + 4 + encoded.length);
+        assertLevels(new ParquetLevelValuesReader(valuesReader), expected);
+    }
+
+    private static void assertLevels(ParquetLevelReader levelReader, int[] expected)
+    {
+        assertEquals(levelReader.readLevel(), expected[0]);
+        int[] levels = new int[expected.length - 1];
+        levelReader.readLevels(levels, levels.length);
+        assertEquals(levels, Arrays.copyOfRange(expected, 1, expected.length));
+    }
+
+    private static int[] generateValues(int bitWidth, int count)
+    {
+        Random random = new Random(bitWidth);
+        int bound = bitWidth == 0 ? 1 : 1 << Math.min(bitWidth, 30);
+        int[] values = new int[count];
+        int position = 0;
+        while (position < count) {
+            // alternate between long runs of a single value, which become RLE runs, and noise, which gets bit-packed
+            int length = Math.min(random.nextInt(40) + 1, count - position);
+            if (random.nextBoolean()) {
+                Arrays.fill(values, position, position + length, random.nextInt(bound));
+            }
+            else {
+                for (int i = position; i < position + length; i++) {
+                    values[i] = random.nextInt(bound);
+                }
+            }
+            position += length;
+        }
+        return values;
+    }
+
+    private static byte[] encode(int bitWidth, int[] values)
+            throws IOException
+    {
+        RunLengthBitPackingHybridEncoder encoder = new RunLengthBitPackingHybridEncoder(bitWidth, 64, 64 * 1024);
+        for (int value : values) {
+            encoder.writeInt(value);
+        }
+        return encoder.toBytes().toByteArray();
+    }
+}
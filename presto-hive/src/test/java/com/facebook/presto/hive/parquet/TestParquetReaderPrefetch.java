@@ -0,0 +1,291 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+import com.facebook.presto.hive.parquet.ParquetTester.TempFile;
+import com.facebook.presto.hive.parquet.memory.AggregatedMemoryContext;
+import com.facebook.presto.hive.parquet.reader.ParquetMetadataReader;
+import com.facebook.presto.hive.parquet.reader.ParquetReader;
+import com.facebook.presto.spi.block.Block;
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.Range;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.JobConf;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import parquet.column.ColumnDescriptor;
+import parquet.hadoop.ParquetOutputFormat;
+import parquet.hadoop.metadata.ParquetMetadata;
+import parquet.schema.MessageType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.facebook.presto.hive.HiveTestUtils.TYPE_MANAGER;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.lang.Math.toIntExact;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaLongObjectInspector;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+import static parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESSED;
+
+public class TestParquetReaderPrefetch
+{
+    private static final int ROW_COUNT = 100_000;
+
+    private TempFile tempFile;
+    private byte[] fileData;
+    private ParquetMetadata parquetMetadata;
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        tempFile = new TempFile("prefetch", "parquet");
+        JobConf jobConf = new JobConf();
+        jobConf.setInt(ParquetOutputFormat.BLOCK_SIZE, 64 * 1024);
+        jobConf.setBoolean(ParquetOutputFormat.ENABLE_DICTIONARY, false);
+        ParquetTester.writeParquetColumn(
+                jobConf,
+                tempFile.getFile(),
+                UNCOMPRESSED,
+                javaLongObjectInspector,
+                ContiguousSet.create(Range.closedOpen(0L, (long) ROW_COUNT), DiscreteDomain.longs()).iterator());
+
+        Path path = new Path(tempFile.getFile().toURI());
+        FileSystem fileSystem = path.getFileSystem(jobConf);
+        parquetMetadata = ParquetMetadataReader.readFooter(fileSystem, path);
+        fileData = Files.readAllBytes(tempFile.getFile().toPath());
+        assertTrue(parquetMetadata.getBlocks().size() > 1, "expected multiple row groups");
+
+        executor = newCachedThreadPool(daemonThreadsNamed("test-parquet-read-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        tempFile.close();
+    }
+
+    @Test
+    public void testFirstRowGroupIsReadLazily()
+            throws Exception
+    {
+        TestingParquetDataSource dataSource = new TestingParquetDataSource(fileData);
+        QueuedExecutor readExecutor = new QueuedExecutor();
+        AggregatedMemoryContext systemMemoryContext = new AggregatedMemoryContext();
+        ParquetReader reader = createReader(dataSource, systemMemoryContext, readExecutor);
+
+        // nothing is allocated or requested before the first row is asked for
+        assertEquals(systemMemoryContext.getBytes(), 0);
+        assertEquals(readExecutor.getQueuedTasks(), 0);
+        assertEquals(dataSource.getReadBytes(), 0);
+
+        CompletableFuture<?> blocked = reader.isBlocked();
+        assertFalse(blocked.isDone());
+        assertTrue(systemMemoryContext.getBytes() > 0);
+        assertTrue(readExecutor.getQueuedTasks() > 0);
+
+        readExecutor.runAll();
+        assertTrue(blocked.isDone());
+        assertTrue(reader.isBlocked().isDone());
+
+        assertValues(reader, readExecutor);
+        reader.close();
+        assertTrue(dataSource.isClosed());
+    }
+
+    @Test
+    public void testCloseWaitsForRunningReads()
+            throws Exception
+    {
+        CountDownLatch readStarted = new CountDownLatch(1);
+        CountDownLatch finishRead = new CountDownLatch(1);
+        TestingParquetDataSource dataSource = new TestingParquetDataSource(fileData, readStarted, finishRead);
+        ParquetReader reader = createReader(dataSource, new AggregatedMemoryContext(), executor);
+
+        assertFalse(reader.isBlocked().isDone());
+        assertTrue(readStarted.await(10, SECONDS));
+
+        Future<?> close = executor.submit(() -> {
+            reader.close();
+            return null;
+        });
+        try {
+            close.get(100, MILLISECONDS);
+            fail("close returned while a read was running");
+        }
+        catch (TimeoutException expected) {
+        }
+        assertFalse(dataSource.isClosed());
+
+        finishRead.countDown();
+        close.get(10, SECONDS);
+        assertTrue(dataSource.isClosed());
+        assertFalse(dataSource.wasInterrupted());
+    }
+
+    private ParquetReader createReader(ParquetDataSource dataSource, AggregatedMemoryContext systemMemoryContext, Executor readExecutor)
+    {
+        MessageType fileSchema = parquetMetadata.getFileMetaData().getSchema();
+        return new ParquetReader(fileSchema, fileSchema, parquetMetadata.getBlocks(), dataSource, TYPE_MANAGER, systemMemoryContext, readExecutor);
+    }
+
+    private void assertValues(ParquetReader reader, QueuedExecutor readExecutor)
+            throws IOException
+    {
+        ColumnDescriptor column = parquetMetadata.getFileMetaData().getSchema().getColumns().get(0);
+        long expected = 0;
+        while (true) {
+            readExecutor.runAll();
+            assertTrue(reader.isBlocked().isDone());
+            int batchSize = reader.nextBatch();
+            if (batchSize < 0) {
+                break;
+            }
+            Block block = reader.readPrimitive(column, BIGINT);
+            for (int position = 0; position < batchSize; position++) {
+                assertEquals(BIGINT.getLong(block, position), expected);
+                expected++;
+            }
+        }
+        assertEquals(expected, ROW_COUNT);
+    }
+
+    private static class QueuedExecutor
+            implements Executor
+    {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public synchronized void execute(Runnable task)
+        {
+            tasks.add(task);
+        }
+
+        public synchronized int getQueuedTasks()
+        {
+            return tasks.size();
+        }
+
+        public void runAll()
+        {
+            List<Runnable> queued;
+            synchronized (this) {
+                queued = new ArrayList<>(tasks);
+                tasks.clear();
+            }
+            queued.forEach(Runnable::run);
+        }
+    }
+
+    private static class TestingParquetDataSource
+            implements ParquetDataSource
+    {
+        private final byte[] data;
+        private final CountDownLatch readStarted;
+        private final CountDownLatch finishRead;
+        private final AtomicLong readBytes = new AtomicLong();
+        private volatile boolean interrupted;
+        private volatile boolean closed;
+
+        public TestingParquetDataSource(byte[] data)
+        {
+            this(data, new CountDownLatch(0), new CountDownLatch(0));
+        }
+
+        public TestingParquetDataSource(byte[] data, CountDownLatch readStarted, CountDownLatch finishRead)
+        {
+            this.data = data;
+            this.readStarted = readStarted;
+            this.finishRead = finishRead;
+        }
+
+        @Override
+        public long getReadBytes()
+        {
+            return readBytes.get();
+        }
+
+        @Override
+        public long getSize()
+        {
+            return data.length;
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer)
+                throws IOException
+        {
+            readFully(position, buffer, 0, buffer.length);
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
+                throws IOException
+        {
+            assertFalse(closed, "read from closed data source");
+            readStarted.countDown();
+            // like an HDFS read, this does not return early when the thread is interrupted
+            boolean done = false;
+            while (!done) {
+                try {
+                    finishRead.await();
+                    done = true;
+                }
+                catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            System.arraycopy(data, toIntExact(position), buffer, bufferOffset, bufferLength);
+            readBytes.addAndGet(bufferLength);
+        }
+
+        public boolean wasInterrupted()
+        {
+            return interrupted;
+        }
+
+        public boolean isClosed()
+        {
+            return closed;
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+}
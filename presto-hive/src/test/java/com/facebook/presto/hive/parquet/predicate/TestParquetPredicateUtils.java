@@ -16,17 +16,24 @@ package com.facebook.presto.hive.parquet.predicate;
 import com.google.common.collect.ImmutableSet;
 import org.testng.annotations.Test;
 import parquet.column.Encoding;
+import parquet.column.statistics.BinaryStatistics;
+import parquet.hadoop.metadata.ColumnChunkMetaData;
+import parquet.hadoop.metadata.ColumnPath;
 
 import java.util.Set;
 
+import static com.facebook.presto.hive.parquet.predicate.ParquetPredicateUtils.getDictionaryPageRegionSize;
 import static com.facebook.presto.hive.parquet.predicate.ParquetPredicateUtils.isOnlyDictionaryEncodingPages;
 import static com.google.common.collect.Sets.union;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 import static parquet.column.Encoding.BIT_PACKED;
 import static parquet.column.Encoding.PLAIN;
 import static parquet.column.Encoding.PLAIN_DICTIONARY;
 import static parquet.column.Encoding.RLE;
+import static parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESSED;
+import static parquet.schema.PrimitiveType.PrimitiveTypeName.BINARY;
 
 public class TestParquetPredicateUtils
 {
@@ -52,4 +59,41 @@ public class TestParquetPredicateUtils
         assertTrue(isOnlyDictionaryEncodingPages(union(optional, dictionary)), "optional dictionary");
         assertTrue(isOnlyDictionaryEncodingPages(union(repeated, dictionary)), "repeated dictionary");
     }
+
+    @Test
+    public void testDictionaryPageRegionSize()
+    {
+        // only the dictionary page in front of the first data page is read
+        assertEquals(getDictionaryPageRegionSize(createColumnChunkMetaData(104, 4, 1000)), 100);
+    }
+
+    @Test
+    public void testDictionaryPageRegionSizeWithoutDictionaryPageOffset()
+    {
+        // writers that do not record the dictionary page offset store zero
+        assertEquals(getDictionaryPageRegionSize(createColumnChunkMetaData(4, 0, 1000)), 1000);
+    }
+
+    @Test
+    public void testDictionaryPageRegionSizeWithDictionaryPageAfterDataPage()
+    {
+        // the whole chunk is read, and the dictionary is ignored as the chunk does not start with it
+        assertEquals(getDictionaryPageRegionSize(createColumnChunkMetaData(4, 500, 1000)), 1000);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static ColumnChunkMetaData createColumnChunkMetaData(long firstDataPageOffset, long dictionaryPageOffset, long totalSize)
+    {
+        return ColumnChunkMetaData.get(
+                ColumnPath.get("column"),
+                BINARY,
+                UNCOMPRESSED,
+                ImmutableSet.of(PLAIN_DICTIONARY, RLE),
+                new BinaryStatistics(),
+                firstDataPageOffset,
+                dictionaryPageOffset,
+                100,
+                totalSize,
+                totalSize);
+    }
 }
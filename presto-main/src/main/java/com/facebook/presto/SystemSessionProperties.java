@@ -20,6 +20,7 @@ import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.StandardErrorCode;
 import com.facebook.presto.spi.session.PropertyMetadata;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
+import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
@@ -33,6 +34,7 @@ import static com.facebook.presto.spi.session.PropertyMetadata.integerSessionPro
 import static com.facebook.presto.spi.session.PropertyMetadata.stringSessionProperty;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.String.format;
@@ -43,6 +45,10 @@ public final class SystemSessionProperties
     public static final String DISTRIBUTED_JOIN = "distributed_join";
     public static final String DISTRIBUTED_INDEX_JOIN = "distributed_index_join";
     public static final String HASH_PARTITION_COUNT = "hash_partition_count";
+    public static final String ADAPTIVE_HASH_PARTITION_COUNT = "adaptive_hash_partition_count";
+    public static final String ROWS_PER_HASH_PARTITION = "rows_per_hash_partition";
+    public static final String RESULT_CACHE_ENABLED = "result_cache_enabled";
+    public static final String PLAN_CACHE_ENABLED = "plan_cache_enabled";
     public static final String PREFER_STREAMING_OPERATORS = "prefer_streaming_operators";
     public static final String TASK_WRITER_COUNT = "task_writer_count";
     public static final String TASK_CONCURRENCY = "task_concurrency";
@@ -57,6 +63,9 @@ public final class SystemSessionProperties
     public static final String DICTIONARY_AGGREGATION = "dictionary_aggregation";
     public static final String PLAN_WITH_TABLE_NODE_PARTITIONING = "plan_with_table_node_partitioning";
     public static final String COLOCATED_JOIN = "colocated_join";
+    public static final String MERGE_JOIN = "merge_join";
+    public static final String SKEWED_JOIN_KEYS = "skewed_join_keys";
+    public static final String SKEWED_JOIN_NULL_FRACTION = "skewed_join_null_fraction";
     public static final String REORDER_JOINS = "reorder_joins";
     public static final String INITIAL_SPLITS_PER_NODE = "initial_splits_per_node";
     public static final String SPLIT_CONCURRENCY_ADJUSTMENT_INTERVAL = "split_concurrency_adjustment_interval";
@@ -114,6 +123,26 @@ public final class SystemSessionProperties
                         "Number of partitions for distributed joins and aggregations",
                         queryManagerConfig.getInitialHashPartitions(),
                         false),
+                booleanSessionProperty(
+                        ADAPTIVE_HASH_PARTITION_COUNT,
+                        "Experimental: Use fewer partitions for distributed joins and aggregations when the estimated input is small",
+                        queryManagerConfig.isAdaptiveHashPartitionCount(),
+                        false),
+                integerSessionProperty(
+                        ROWS_PER_HASH_PARTITION,
+                        "Experimental: Estimated number of input rows per partition when adaptive_hash_partition_count is enabled",
+                        queryManagerConfig.getRowsPerHashPartition(),
+                        false),
+                booleanSessionProperty(
+                        PLAN_CACHE_ENABLED,
+                        "Experimental: Reuse the optimized plans of identical queries over unchanged tables",
+                        queryManagerConfig.isPlanCacheEnabled(),
+                        false),
+                booleanSessionProperty(
+                        RESULT_CACHE_ENABLED,
+                        "Experimental: Reuse the results of identical deterministic queries over unchanged data",
+                        queryManagerConfig.isResultCacheEnabled(),
+                        false),
                 booleanSessionProperty(
                         PREFER_STREAMING_OPERATORS,
                         "Prefer source table layouts that produce streaming operators",
@@ -249,6 +278,48 @@ public final class SystemSessionProperties
                         "Experimental: Use a colocated join when possible",
                         featuresConfig.isColocatedJoinsEnabled(),
                         false),
+                booleanSessionProperty(
+                        MERGE_JOIN,
+                        "Experimental: Use a merge join when both inputs are sorted on the join keys",
+                        featuresConfig.isMergeJoinsEnabled(),
+                        false),
+                new PropertyMetadata<>(
+                        SKEWED_JOIN_KEYS,
+                        "Comma separated table.column=value entries naming join key values that are known to be skewed, such as sentinel ids",
+                        VARCHAR,
+                        String.class,
+                        featuresConfig.getSkewedJoinKeys(),
+                        false,
+                        value -> {
+                            String keys = (String) value;
+                            for (String key : splitSkewedJoinKeys(keys)) {
+                                int separator = key.indexOf('=');
+                                if (separator < 0 || key.lastIndexOf('.', separator) < 0) {
+                                    throw new PrestoException(
+                                            StandardErrorCode.INVALID_SESSION_PROPERTY,
+                                            format("%s entries must have the form [schema.]table.column=value: %s", SKEWED_JOIN_KEYS, key));
+                                }
+                            }
+                            return keys;
+                        },
+                        value -> value),
+                new PropertyMetadata<>(
+                        SKEWED_JOIN_NULL_FRACTION,
+                        "Fraction of null join keys, according to table statistics, above which null keys are spread across partitions",
+                        DOUBLE,
+                        Double.class,
+                        featuresConfig.getSkewedJoinNullFraction(),
+                        false,
+                        value -> {
+                            double fraction = ((Number) value).doubleValue();
+                            if (fraction < 0 || fraction > 1) {
+                                throw new PrestoException(
+                                        StandardErrorCode.INVALID_SESSION_PROPERTY,
+                                        format("%s must be between 0 and 1: %s", SKEWED_JOIN_NULL_FRACTION, fraction));
+                            }
+                            return fraction;
+                        },
+                        value -> value),
                 new PropertyMetadata<>(
                         SPILL_ENABLED,
                         "Experimental: Enable spilling",
@@ -351,6 +422,26 @@ public final class SystemSessionProperties
         return session.getSystemProperty(HASH_PARTITION_COUNT, Integer.class);
     }
 
+    public static boolean isAdaptiveHashPartitionCount(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_HASH_PARTITION_COUNT, Boolean.class);
+    }
+
+    public static int getRowsPerHashPartition(Session session)
+    {
+        return session.getSystemProperty(ROWS_PER_HASH_PARTITION, Integer.class);
+    }
+
+    public static boolean isPlanCacheEnabled(Session session)
+    {
+        return session.getSystemProperty(PLAN_CACHE_ENABLED, Boolean.class);
+    }
+
+    public static boolean isResultCacheEnabled(Session session)
+    {
+        return session.getSystemProperty(RESULT_CACHE_ENABLED, Boolean.class);
+    }
+
     public static boolean preferStreamingOperators(Session session)
     {
         return session.getSystemProperty(PREFER_STREAMING_OPERATORS, Boolean.class);
@@ -426,6 +517,29 @@ public final class SystemSessionProperties
         return session.getSystemProperty(COLOCATED_JOIN, Boolean.class);
     }
 
+    public static boolean isMergeJoinEnabled(Session session)
+    {
+        return session.getSystemProperty(MERGE_JOIN, Boolean.class);
+    }
+
+    public static List<String> getSkewedJoinKeys(Session session)
+    {
+        return splitSkewedJoinKeys(session.getSystemProperty(SKEWED_JOIN_KEYS, String.class));
+    }
+
+    private static List<String> splitSkewedJoinKeys(String keys)
+    {
+        return Splitter.on(',')
+                .trimResults()
+                .omitEmptyStrings()
+                .splitToList(keys);
+    }
+
+    public static double getSkewedJoinNullFraction(Session session)
+    {
+        return session.getSystemProperty(SKEWED_JOIN_NULL_FRACTION, Double.class);
+    }
+
     public static int getInitialSplitsPerNode(Session session)
     {
         return session.getSystemProperty(INITIAL_SPLITS_PER_NODE, Integer.class);
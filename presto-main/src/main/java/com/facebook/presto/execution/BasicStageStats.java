@@ -0,0 +1,222 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.operator.BlockedReason;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+
+import javax.annotation.concurrent.Immutable;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static io.airlift.units.DataSize.succinctBytes;
+import static io.airlift.units.Duration.succinctNanos;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Lightweight version of StageStats, maintained as running totals while
+ * the task infos of the stage arrive.
+ */
+@Immutable
+public class BasicStageStats
+{
+    public static final BasicStageStats EMPTY_STAGE_STATS = new BasicStageStats(
+            false,
+            0,
+            0,
+            0,
+            0,
+            succinctBytes(0),
+            0,
+            0.0,
+            succinctBytes(0),
+            succinctNanos(0),
+            false,
+            ImmutableSet.of());
+
+    private final boolean isScheduled;
+    private final int totalDrivers;
+    private final int queuedDrivers;
+    private final int runningDrivers;
+    private final int completedDrivers;
+    private final DataSize rawInputDataSize;
+    private final long rawInputPositions;
+    private final double cumulativeMemory;
+    private final DataSize totalMemoryReservation;
+    private final Duration totalCpuTime;
+    private final boolean fullyBlocked;
+    private final Set<BlockedReason> blockedReasons;
+
+    public BasicStageStats(
+            boolean isScheduled,
+
+            int totalDrivers,
+            int queuedDrivers,
+            int runningDrivers,
+            int completedDrivers,
+
+            DataSize rawInputDataSize,
+            long rawInputPositions,
+
+            double cumulativeMemory,
+            DataSize totalMemoryReservation,
+
+            Duration totalCpuTime,
+
+            boolean fullyBlocked,
+            Set<BlockedReason> blockedReasons)
+    {
+        this.isScheduled = isScheduled;
+        this.totalDrivers = totalDrivers;
+        this.queuedDrivers = queuedDrivers;
+        this.runningDrivers = runningDrivers;
+        this.completedDrivers = completedDrivers;
+        this.rawInputDataSize = requireNonNull(rawInputDataSize, "rawInputDataSize is null");
+        this.rawInputPositions = rawInputPositions;
+        this.cumulativeMemory = cumulativeMemory;
+        this.totalMemoryReservation = requireNonNull(totalMemoryReservation, "totalMemoryReservation is null");
+        this.totalCpuTime = requireNonNull(totalCpuTime, "totalCpuTime is null");
+        this.fullyBlocked = fullyBlocked;
+        this.blockedReasons = ImmutableSet.copyOf(requireNonNull(blockedReasons, "blockedReasons is null"));
+    }
+
+    public boolean isScheduled()
+    {
+        return isScheduled;
+    }
+
+    public int getTotalDrivers()
+    {
+        return totalDrivers;
+    }
+
+    public int getQueuedDrivers()
+    {
+        return queuedDrivers;
+    }
+
+    public int getRunningDrivers()
+    {
+        return runningDrivers;
+    }
+
+    public int getCompletedDrivers()
+    {
+        return completedDrivers;
+    }
+
+    public DataSize getRawInputDataSize()
+    {
+        return rawInputDataSize;
+    }
+
+    public long getRawInputPositions()
+    {
+        return rawInputPositions;
+    }
+
+    public double getCumulativeMemory()
+    {
+        return cumulativeMemory;
+    }
+
+    public DataSize getTotalMemoryReservation()
+    {
+        return totalMemoryReservation;
+    }
+
+    public Duration getTotalCpuTime()
+    {
+        return totalCpuTime;
+    }
+
+    /**
+     * Returns true if the stage has running tasks and all of them are blocked.
+     * A finished stage is reported as fully blocked, so that it does not
+     * affect the aggregated stats of the query.
+     */
+    public boolean isFullyBlocked()
+    {
+        return fullyBlocked;
+    }
+
+    public Set<BlockedReason> getBlockedReasons()
+    {
+        return blockedReasons;
+    }
+
+    public static BasicStageStats aggregateBasicStageStats(Iterable<BasicStageStats> stages)
+    {
+        int totalDrivers = 0;
+        int queuedDrivers = 0;
+        int runningDrivers = 0;
+        int completedDrivers = 0;
+
+        double cumulativeMemory = 0;
+        long totalMemoryReservation = 0;
+
+        long totalCpuTime = 0;
+
+        long rawInputDataSize = 0;
+        long rawInputPositions = 0;
+
+        boolean isScheduled = true;
+
+        boolean fullyBlocked = true;
+        Set<BlockedReason> blockedReasons = new HashSet<>();
+
+        for (BasicStageStats stageStats : stages) {
+            totalDrivers += stageStats.getTotalDrivers();
+            queuedDrivers += stageStats.getQueuedDrivers();
+            runningDrivers += stageStats.getRunningDrivers();
+            completedDrivers += stageStats.getCompletedDrivers();
+
+            cumulativeMemory += stageStats.getCumulativeMemory();
+            totalMemoryReservation += stageStats.getTotalMemoryReservation().toBytes();
+
+            totalCpuTime += stageStats.getTotalCpuTime().roundTo(NANOSECONDS);
+
+            isScheduled &= stageStats.isScheduled();
+
+            fullyBlocked &= stageStats.isFullyBlocked();
+            blockedReasons.addAll(stageStats.getBlockedReasons());
+
+            rawInputDataSize += stageStats.getRawInputDataSize().toBytes();
+            rawInputPositions += stageStats.getRawInputPositions();
+        }
+
+        return new BasicStageStats(
+                isScheduled,
+
+                totalDrivers,
+                queuedDrivers,
+                runningDrivers,
+                completedDrivers,
+
+                succinctBytes(rawInputDataSize),
+                rawInputPositions,
+
+                cumulativeMemory,
+                succinctBytes(totalMemoryReservation),
+
+                succinctNanos(totalCpuTime),
+
+                fullyBlocked,
+                blockedReasons);
+    }
+}
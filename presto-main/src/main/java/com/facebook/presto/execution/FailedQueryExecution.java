@@ -17,13 +17,18 @@ import com.facebook.presto.Session;
 import com.facebook.presto.execution.StateMachine.StateChangeListener;
 import com.facebook.presto.memory.VersionedMemoryPoolId;
 import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.server.BasicQueryInfo;
 import com.facebook.presto.spi.QueryId;
 import com.facebook.presto.spi.resourceGroups.ResourceGroupId;
 import com.facebook.presto.sql.planner.Plan;
 import com.facebook.presto.transaction.TransactionManager;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.units.Duration;
+import org.joda.time.DateTime;
 
 import java.net.URI;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
@@ -61,6 +66,18 @@ public class FailedQueryExecution
         return queryInfo;
     }
 
+    @Override
+    public BasicQueryInfo getBasicQueryInfo()
+    {
+        return new BasicQueryInfo(queryInfo);
+    }
+
+    @Override
+    public Map<StageId, List<TaskInfo>> getSourceStageTaskInfos()
+    {
+        return ImmutableMap.of();
+    }
+
     @Override
     public QueryState getState()
     {
@@ -97,6 +114,18 @@ public class FailedQueryExecution
         return new Duration(0, TimeUnit.SECONDS);
     }
 
+    @Override
+    public DateTime getCreateTime()
+    {
+        return queryInfo.getQueryStats().getCreateTime();
+    }
+
+    @Override
+    public DateTime getLastHeartbeat()
+    {
+        return queryInfo.getQueryStats().getLastHeartbeat();
+    }
+
     @Override
     public Session getSession()
     {
@@ -24,7 +24,9 @@ import javax.inject.Inject;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
@@ -52,6 +54,11 @@ public class NodeTaskMap
         return createOrGetNodeTasks(node).getPartitionedSplitCount();
     }
 
+    public long getPartitionedSplitsWeightOnNode(Node node)
+    {
+        return createOrGetNodeTasks(node).getPartitionedSplitsWeight();
+    }
+
     public PartitionedSplitCountTracker createPartitionedSplitCountTracker(Node node, TaskId taskId)
     {
         return createOrGetNodeTasks(node).createPartitionedSplitCountTracker(taskId);
@@ -80,6 +87,7 @@ public class NodeTaskMap
     {
         private final Set<RemoteTask> remoteTasks = Sets.newConcurrentHashSet();
         private final AtomicInteger nodeTotalPartitionedSplitCount = new AtomicInteger();
+        private final AtomicLong nodeTotalPartitionedSplitsWeight = new AtomicLong();
         private final FinalizerService finalizerService;
 
         public NodeTasks(FinalizerService finalizerService)
@@ -92,6 +100,11 @@ public class NodeTaskMap
             return nodeTotalPartitionedSplitCount.get();
         }
 
+        private long getPartitionedSplitsWeight()
+        {
+            return nodeTotalPartitionedSplitsWeight.get();
+        }
+
         private void addTask(RemoteTask task)
         {
             if (remoteTasks.add(task)) {
@@ -113,7 +126,7 @@ public class NodeTaskMap
             requireNonNull(taskId, "taskId is null");
 
             TaskPartitionedSplitCountTracker tracker = new TaskPartitionedSplitCountTracker(taskId);
-            PartitionedSplitCountTracker partitionedSplitCountTracker = new PartitionedSplitCountTracker(tracker::setPartitionedSplitCount);
+            PartitionedSplitCountTracker partitionedSplitCountTracker = new PartitionedSplitCountTracker(tracker::setPartitionedSplitCount, tracker::setPartitionedSplitsWeight);
 
             // when partitionedSplitCountTracker is garbage collected, run the cleanup method on the tracker
             // Note: tracker can not have a reference to partitionedSplitCountTracker
@@ -127,6 +140,7 @@ public class NodeTaskMap
         {
             private final TaskId taskId;
             private final AtomicInteger localPartitionedSplitCount = new AtomicInteger();
+            private final AtomicLong localPartitionedSplitsWeight = new AtomicLong();
 
             public TaskPartitionedSplitCountTracker(TaskId taskId)
             {
@@ -145,8 +159,22 @@ public class NodeTaskMap
                 nodeTotalPartitionedSplitCount.addAndGet(partitionedSplitCount - oldValue);
             }
 
+            public synchronized void setPartitionedSplitsWeight(long partitionedSplitsWeight)
+            {
+                if (partitionedSplitsWeight < 0) {
+                    long oldValue = localPartitionedSplitsWeight.getAndSet(0);
+                    nodeTotalPartitionedSplitsWeight.addAndGet(-oldValue);
+                    throw new IllegalArgumentException("partitionedSplitsWeight is negative");
+                }
+
+                long oldValue = localPartitionedSplitsWeight.getAndSet(partitionedSplitsWeight);
+                nodeTotalPartitionedSplitsWeight.addAndGet(partitionedSplitsWeight - oldValue);
+            }
+
             public void cleanup()
             {
+                nodeTotalPartitionedSplitsWeight.addAndGet(-localPartitionedSplitsWeight.getAndSet(0));
+
                 int leakedSplits = localPartitionedSplitCount.getAndSet(0);
                 if (leakedSplits == 0) {
                     return;
@@ -166,6 +194,7 @@ public class NodeTaskMap
                 return toStringHelper(this)
                         .add("taskId", taskId)
                         .add("splits", localPartitionedSplitCount)
+                        .add("splitsWeight", localPartitionedSplitsWeight)
                         .toString();
             }
         }
@@ -174,10 +203,12 @@ public class NodeTaskMap
     public static class PartitionedSplitCountTracker
     {
         private final IntConsumer splitSetter;
+        private final LongConsumer splitsWeightSetter;
 
-        public PartitionedSplitCountTracker(IntConsumer splitSetter)
+        public PartitionedSplitCountTracker(IntConsumer splitSetter, LongConsumer splitsWeightSetter)
         {
             this.splitSetter = requireNonNull(splitSetter, "splitSetter is null");
+            this.splitsWeightSetter = requireNonNull(splitsWeightSetter, "splitsWeightSetter is null");
         }
 
         public void setPartitionedSplitCount(int partitionedSplitCount)
@@ -185,6 +216,11 @@ public class NodeTaskMap
             splitSetter.accept(partitionedSplitCount);
         }
 
+        public void setPartitionedSplitsWeight(long partitionedSplitsWeight)
+        {
+            splitsWeightSetter.accept(partitionedSplitsWeight);
+        }
+
         @Override
         public String toString()
         {
@@ -14,6 +14,7 @@
 package com.facebook.presto.execution;
 
 import com.facebook.presto.sql.tree.DefaultTraversalVisitor;
+import com.facebook.presto.sql.tree.Node;
 import com.facebook.presto.sql.tree.Parameter;
 import com.facebook.presto.sql.tree.Statement;
 
@@ -31,10 +32,10 @@ public class ParameterExtractor
         return parameterExtractingVisitor.getParameters().size();
     }
 
-    public static List<Parameter> getParameters(Statement statement)
+    public static List<Parameter> getParameters(Node node)
     {
         ParameterExtractingVisitor parameterExtractingVisitor = new ParameterExtractingVisitor();
-        parameterExtractingVisitor.process(statement, null);
+        parameterExtractingVisitor.process(node, null);
         return parameterExtractingVisitor.getParameters();
     }
 
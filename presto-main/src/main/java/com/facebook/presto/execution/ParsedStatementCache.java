@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.sql.parser.SqlParser;
+import com.facebook.presto.sql.tree.Statement;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.airlift.units.DataSize;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import static com.facebook.presto.sql.NodeUtils.estimateRetainedSizeInBytes;
+import static com.google.common.primitives.Ints.saturatedCast;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keeps the parsed statements of recent queries, keyed by query text. Parsed statements are
+ * immutable, so queries with identical text can share them.
+ */
+@ThreadSafe
+public class ParsedStatementCache
+{
+    private final SqlParser sqlParser;
+    private final Cache<String, Statement> statements;
+
+    public ParsedStatementCache(SqlParser sqlParser, DataSize maxSize)
+    {
+        this.sqlParser = requireNonNull(sqlParser, "sqlParser is null");
+        requireNonNull(maxSize, "maxSize is null");
+        this.statements = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String sql, Statement statement) -> saturatedCast(getEstimatedSizeInBytes(sql, statement)))
+                .recordStats()
+                .build();
+    }
+
+    public Statement getStatement(String sql)
+    {
+        Statement statement = statements.getIfPresent(sql);
+        if (statement == null) {
+            statement = sqlParser.createStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    public long getSize()
+    {
+        return statements.size();
+    }
+
+    public double getHitRate()
+    {
+        return statements.stats().hitRate();
+    }
+
+    @VisibleForTesting
+    static long getEstimatedSizeInBytes(String sql, Statement statement)
+    {
+        // the text is retained by the key, and the names and literals of the statement are copied out of it
+        return 2L * sql.length() * Character.BYTES + estimateRetainedSizeInBytes(statement);
+    }
+}
@@ -16,14 +16,17 @@ package com.facebook.presto.execution;
 import com.facebook.presto.Session;
 import com.facebook.presto.execution.StateMachine.StateChangeListener;
 import com.facebook.presto.memory.VersionedMemoryPoolId;
+import com.facebook.presto.server.BasicQueryInfo;
 import com.facebook.presto.spi.QueryId;
 import com.facebook.presto.spi.resourceGroups.ResourceGroupId;
 import com.facebook.presto.sql.planner.Plan;
 import com.facebook.presto.sql.tree.Expression;
 import com.facebook.presto.sql.tree.Statement;
 import io.airlift.units.Duration;
+import org.joda.time.DateTime;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface QueryExecution
@@ -32,6 +35,17 @@ public interface QueryExecution
 
     QueryInfo getQueryInfo();
 
+    /**
+     * Returns the query info without the stage, task and operator detail, which
+     * is cheap enough to be polled for every query.
+     */
+    BasicQueryInfo getBasicQueryInfo();
+
+    /**
+     * Returns the latest task infos of the running stages which read partitioned sources.
+     */
+    Map<StageId, List<TaskInfo>> getSourceStageTaskInfos();
+
     QueryState getState();
 
     Optional<ResourceGroupId> getResourceGroup();
@@ -51,6 +65,10 @@ public interface QueryExecution
 
     Duration getTotalCpuTime();
 
+    DateTime getCreateTime();
+
+    DateTime getLastHeartbeat();
+
     Session getSession();
 
     void start();
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.execution;
 
+import com.facebook.presto.server.BasicQueryInfo;
 import com.facebook.presto.server.SessionSupplier;
 import com.facebook.presto.spi.QueryId;
 import com.facebook.presto.spi.resourceGroups.ResourceGroupId;
@@ -26,6 +27,8 @@ public interface QueryManager
 {
     List<QueryInfo> getAllQueryInfo();
 
+    List<BasicQueryInfo> getAllBasicQueryInfo();
+
     Duration waitForStateChange(QueryId queryId, QueryState currentState, Duration maxWait)
             throws InterruptedException;
 
@@ -14,8 +14,11 @@
 package com.facebook.presto.execution;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.DefunctConfig;
 import io.airlift.configuration.LegacyConfig;
+import io.airlift.units.DataSize;
+import io.airlift.units.DataSize.Unit;
 import io.airlift.units.Duration;
 import io.airlift.units.MinDuration;
 
@@ -39,9 +42,18 @@ public class QueryManagerConfig
     private String queueConfigFile;
 
     private int initialHashPartitions = 100;
+    private boolean adaptiveHashPartitionCount;
+    private int rowsPerHashPartition = 1_000_000;
     private Duration minQueryExpireAge = new Duration(15, TimeUnit.MINUTES);
     private int maxQueryHistory = 100;
     private int maxQueryLength = 1_000_000;
+    private DataSize parsedStatementCacheMaxSize = new DataSize(16, Unit.MEGABYTE);
+    private boolean planCacheEnabled;
+    private DataSize planCacheMaxSize = new DataSize(64, Unit.MEGABYTE);
+    private Duration planCacheTtl = new Duration(10, TimeUnit.MINUTES);
+    private boolean resultCacheEnabled;
+    private DataSize resultCacheMaxSize = new DataSize(1, Unit.GIGABYTE);
+    private DataSize resultCacheMaxEntrySize = new DataSize(16, Unit.MEGABYTE);
     private Duration clientTimeout = new Duration(5, TimeUnit.MINUTES);
 
     private int queryManagerExecutorPoolSize = 5;
@@ -135,6 +147,33 @@ public class QueryManagerConfig
         return this;
     }
 
+    public boolean isAdaptiveHashPartitionCount()
+    {
+        return adaptiveHashPartitionCount;
+    }
+
+    @Config("query.adaptive-hash-partition-count")
+    @ConfigDescription("Experimental: Use fewer hash partitions when the estimated input of a stage is small")
+    public QueryManagerConfig setAdaptiveHashPartitionCount(boolean adaptiveHashPartitionCount)
+    {
+        this.adaptiveHashPartitionCount = adaptiveHashPartitionCount;
+        return this;
+    }
+
+    @Min(1)
+    public int getRowsPerHashPartition()
+    {
+        return rowsPerHashPartition;
+    }
+
+    @Config("query.rows-per-hash-partition")
+    @ConfigDescription("Experimental: Estimated number of input rows per hash partition when the partition count is adaptive")
+    public QueryManagerConfig setRowsPerHashPartition(int rowsPerHashPartition)
+    {
+        this.rowsPerHashPartition = rowsPerHashPartition;
+        return this;
+    }
+
     @NotNull
     public Duration getMinQueryExpireAge()
     {
@@ -176,6 +215,102 @@ public class QueryManagerConfig
         return this;
     }
 
+    @NotNull
+    public DataSize getParsedStatementCacheMaxSize()
+    {
+        return parsedStatementCacheMaxSize;
+    }
+
+    @Config("query.parsed-statement-cache-max-size")
+    @ConfigDescription("Maximum total size of query text whose parsed statements are cached")
+    public QueryManagerConfig setParsedStatementCacheMaxSize(DataSize parsedStatementCacheMaxSize)
+    {
+        this.parsedStatementCacheMaxSize = parsedStatementCacheMaxSize;
+        return this;
+    }
+
+    public boolean isPlanCacheEnabled()
+    {
+        return planCacheEnabled;
+    }
+
+    @Config("query.plan-cache-enabled")
+    @ConfigDescription("Experimental: Reuse the optimized plans of identical queries over unchanged tables")
+    public QueryManagerConfig setPlanCacheEnabled(boolean planCacheEnabled)
+    {
+        this.planCacheEnabled = planCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getPlanCacheMaxSize()
+    {
+        return planCacheMaxSize;
+    }
+
+    @Config("query.plan-cache-max-size")
+    @ConfigDescription("Maximum total size of the cached query plans")
+    public QueryManagerConfig setPlanCacheMaxSize(DataSize planCacheMaxSize)
+    {
+        this.planCacheMaxSize = planCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    public Duration getPlanCacheTtl()
+    {
+        return planCacheTtl;
+    }
+
+    @Config("query.plan-cache-ttl")
+    @ConfigDescription("Time after which a cached query plan is planned again")
+    public QueryManagerConfig setPlanCacheTtl(Duration planCacheTtl)
+    {
+        this.planCacheTtl = planCacheTtl;
+        return this;
+    }
+
+    public boolean isResultCacheEnabled()
+    {
+        return resultCacheEnabled;
+    }
+
+    @Config("query.result-cache-enabled")
+    @ConfigDescription("Experimental: Reuse the results of identical deterministic queries over unchanged data")
+    public QueryManagerConfig setResultCacheEnabled(boolean resultCacheEnabled)
+    {
+        this.resultCacheEnabled = resultCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getResultCacheMaxSize()
+    {
+        return resultCacheMaxSize;
+    }
+
+    @Config("query.result-cache-max-size")
+    @ConfigDescription("Maximum total size of the cached query results")
+    public QueryManagerConfig setResultCacheMaxSize(DataSize resultCacheMaxSize)
+    {
+        this.resultCacheMaxSize = resultCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getResultCacheMaxEntrySize()
+    {
+        return resultCacheMaxEntrySize;
+    }
+
+    @Config("query.result-cache-max-entry-size")
+    @ConfigDescription("Maximum size of the results of a single query that can be cached")
+    public QueryManagerConfig setResultCacheMaxEntrySize(DataSize resultCacheMaxEntrySize)
+    {
+        this.resultCacheMaxEntrySize = resultCacheMaxEntrySize;
+        return this;
+    }
+
     @MinDuration("5s")
     @NotNull
     public Duration getClientTimeout()
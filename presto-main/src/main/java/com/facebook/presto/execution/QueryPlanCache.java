@@ -0,0 +1,330 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.connector.ConnectorId;
+import com.facebook.presto.metadata.FunctionRegistry;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.security.AccessControl;
+import com.facebook.presto.spi.security.Identity;
+import com.facebook.presto.sql.analyzer.Analysis;
+import com.facebook.presto.sql.planner.Plan;
+import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.facebook.presto.sql.tree.CurrentTime;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.transaction.TransactionId;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.openjdk.jol.info.ClassLayout;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.facebook.presto.connector.ConnectorId.createInformationSchemaConnectorId;
+import static com.facebook.presto.connector.ConnectorId.createSystemTablesConnectorId;
+import static com.facebook.presto.sql.NodeUtils.estimateRetainedSizeInBytes;
+import static com.facebook.presto.sql.planner.ExpressionExtractor.extractExpressions;
+import static com.facebook.presto.sql.planner.PlanParameterBinder.bindParameters;
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.primitives.Ints.saturatedCast;
+import static io.airlift.slice.SizeOf.sizeOfObjectArray;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Keeps the plans of recent queries on the coordinator, so a query with the same statement and the
+ * same parameter types can skip analysis and logical planning.
+ * <p>
+ * A plan is cached before it is optimized, with the parameters of the statement left unbound. The
+ * parameter values of a query reusing the plan are bound to it before it is optimized, so the table
+ * layouts and splits of the query are chosen for its own values and for the current data of its tables.
+ * <p>
+ * A cached plan is only reused if no statement on this coordinator changed a schema, table or view
+ * since the plan was created, which is a cheap check of the metadata version. Changes made outside of
+ * this coordinator, such as a table altered directly in the Hive metastore, are seen once the plan
+ * expires after the TTL of the cache. The access control checks made while analyzing the original
+ * query are repeated for the new query.
+ */
+@ThreadSafe
+public class QueryPlanCache
+{
+    // a symbol and its entry in the symbol types map
+    private static final int SYMBOL_SIZE = ClassLayout.parseClass(Symbol.class).instanceSize() + ClassLayout.parseClass(SimpleImmutableEntry.class).instanceSize();
+    private static final ConcurrentMap<Class<?>, Integer> PLAN_NODE_INSTANCE_SIZES = new ConcurrentHashMap<>();
+
+    private final Metadata metadata;
+    private final AccessControl accessControl;
+    private final Cache<QueryPlanCacheKey, CachedPlan> cache;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    @Inject
+    public QueryPlanCache(Metadata metadata, AccessControl accessControl, QueryManagerConfig config)
+    {
+        this(metadata, accessControl, config.getPlanCacheMaxSize(), config.getPlanCacheTtl());
+    }
+
+    public QueryPlanCache(Metadata metadata, AccessControl accessControl, DataSize maxSize, Duration ttl)
+    {
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        this.accessControl = requireNonNull(accessControl, "accessControl is null");
+        requireNonNull(maxSize, "maxSize is null");
+        requireNonNull(ttl, "ttl is null");
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((QueryPlanCacheKey key, CachedPlan plan) -> saturatedCast(key.getEstimatedSizeInBytes() + plan.getEstimatedSizeInBytes()))
+                .expireAfterWrite(ttl.toMillis(), MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Returns true if the plan of the analyzed query can be cached: the plan must not depend on the
+     * session beyond the settings in its key, because the optimizer folds functions such as
+     * current_timestamp into constants.
+     */
+    public static boolean isCacheable(Analysis analysis, FunctionRegistry functionRegistry)
+    {
+        if (analysis.getTypes().keySet().stream().anyMatch(expression -> expression.getNode() instanceof CurrentTime)) {
+            return false;
+        }
+        return analysis.getFunctionSignatures().stream().noneMatch(functionRegistry::isSessionDependent);
+    }
+
+    /**
+     * Returns the cached plan of the query, or empty if no plan is cached or the cached plan is stale.
+     *
+     * @throws com.facebook.presto.spi.security.AccessDeniedException if the user of the session is not allowed to run the query
+     */
+    public Optional<CachedPlan> get(Session session, QueryPlanCacheKey key)
+    {
+        Optional<CachedPlan> cachedPlan = getCurrentPlan(session, key);
+        if (!cachedPlan.isPresent()) {
+            missCount.incrementAndGet();
+            return Optional.empty();
+        }
+        for (AccessCheck check : cachedPlan.get().getAccessChecks()) {
+            check.check(accessControl, session.getRequiredTransactionId(), session.getIdentity());
+        }
+        hitCount.incrementAndGet();
+        return cachedPlan;
+    }
+
+    private Optional<CachedPlan> getCurrentPlan(Session session, QueryPlanCacheKey key)
+    {
+        CachedPlan cachedPlan = cache.getIfPresent(key);
+        if (cachedPlan == null) {
+            return Optional.empty();
+        }
+        if (cachedPlan.getMetadataVersion() != metadata.getMetadataVersion()) {
+            cache.invalidate(key);
+            return Optional.empty();
+        }
+
+        // register the catalogs read by the plan in the transaction, as analysis would have done
+        for (String catalogName : cachedPlan.getCatalogNames()) {
+            if (!metadata.getCatalogHandle(session, catalogName).isPresent()) {
+                cache.invalidate(key);
+                return Optional.empty();
+            }
+        }
+        return Optional.of(cachedPlan);
+    }
+
+    /**
+     * Caches the unoptimized plan of a query, if it can be reused by later queries.
+     *
+     * @param metadataVersion the metadata version before the query was analyzed
+     * @param unboundParameters the parameters left unbound in the plan
+     * @param allocatedPlanNodeIds the number of plan node ids allocated while planning
+     * @param deterministic whether the functions called by the query are deterministic
+     */
+    public void put(
+            Session session,
+            QueryPlanCacheKey key,
+            long metadataVersion,
+            Plan plan,
+            List<Expression> unboundParameters,
+            int allocatedPlanNodeIds,
+            Set<ConnectorId> connectors,
+            List<AccessCheck> accessChecks,
+            boolean deterministic)
+    {
+        if (metadataVersion != metadata.getMetadataVersion()) {
+            return;
+        }
+        cache.put(key, new CachedPlan(plan, unboundParameters, allocatedPlanNodeIds, connectors, getCatalogNames(session, plan), accessChecks, deterministic, metadataVersion));
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+
+    private Set<String> getCatalogNames(Session session, Plan plan)
+    {
+        Set<ConnectorId> connectorIds = searchFrom(plan.getRoot()).where(TableScanNode.class::isInstance).<TableScanNode>findAll().stream()
+                .map(tableScan -> tableScan.getTable().getConnectorId())
+                .collect(toImmutableSet());
+        if (connectorIds.isEmpty()) {
+            return ImmutableSet.of();
+        }
+        return metadata.getCatalogNames(session).entrySet().stream()
+                .filter(entry -> connectorIds.contains(entry.getValue()) ||
+                        connectorIds.contains(createInformationSchemaConnectorId(entry.getValue())) ||
+                        connectorIds.contains(createSystemTablesConnectorId(entry.getValue())))
+                .map(Map.Entry::getKey)
+                .collect(toImmutableSet());
+    }
+
+    /**
+     * An access control check made while analyzing a query, which is repeated when its plan is reused.
+     */
+    public interface AccessCheck
+    {
+        void check(AccessControl accessControl, TransactionId transactionId, Identity identity);
+    }
+
+    public static class CachedPlan
+    {
+        private final Plan plan;
+        private final List<Expression> unboundParameters;
+        private final int allocatedPlanNodeIds;
+        private final Set<ConnectorId> connectors;
+        private final Set<String> catalogNames;
+        private final List<AccessCheck> accessChecks;
+        private final boolean deterministic;
+        private final long metadataVersion;
+        private final long estimatedSizeInBytes;
+
+        public CachedPlan(
+                Plan plan,
+                List<Expression> unboundParameters,
+                int allocatedPlanNodeIds,
+                Set<ConnectorId> connectors,
+                Set<String> catalogNames,
+                List<AccessCheck> accessChecks,
+                boolean deterministic,
+                long metadataVersion)
+        {
+            this.plan = requireNonNull(plan, "plan is null");
+            this.unboundParameters = ImmutableList.copyOf(requireNonNull(unboundParameters, "unboundParameters is null"));
+            this.allocatedPlanNodeIds = allocatedPlanNodeIds;
+            this.connectors = ImmutableSet.copyOf(requireNonNull(connectors, "connectors is null"));
+            this.catalogNames = ImmutableSet.copyOf(requireNonNull(catalogNames, "catalogNames is null"));
+            this.accessChecks = ImmutableList.copyOf(requireNonNull(accessChecks, "accessChecks is null"));
+            this.deterministic = deterministic;
+            this.metadataVersion = metadataVersion;
+            this.estimatedSizeInBytes = estimateSizeInBytes(plan);
+        }
+
+        /**
+         * Returns the unoptimized plan with the specified parameter values bound to it.
+         */
+        public Plan bindParameterValues(List<Expression> parameterValues)
+        {
+            return new Plan(bindParameters(plan.getRoot(), unboundParameters, parameterValues), plan.getTypes(), plan.getPlanNodeCosts());
+        }
+
+        /**
+         * Returns an allocator for the ids of the nodes added to the plan while optimizing it.
+         */
+        public PlanNodeIdAllocator createPlanNodeIdAllocator()
+        {
+            return new PlanNodeIdAllocator(allocatedPlanNodeIds);
+        }
+
+        public Plan getPlan()
+        {
+            return plan;
+        }
+
+        public Set<ConnectorId> getConnectors()
+        {
+            return connectors;
+        }
+
+        public Set<String> getCatalogNames()
+        {
+            return catalogNames;
+        }
+
+        public List<AccessCheck> getAccessChecks()
+        {
+            return accessChecks;
+        }
+
+        public boolean isDeterministic()
+        {
+            return deterministic;
+        }
+
+        public long getMetadataVersion()
+        {
+            return metadataVersion;
+        }
+
+        public long getEstimatedSizeInBytes()
+        {
+            return estimatedSizeInBytes;
+        }
+
+        private static long estimateSizeInBytes(Plan plan)
+        {
+            long size = 0;
+            for (PlanNode node : searchFrom(plan.getRoot()).findAll()) {
+                size += PLAN_NODE_INSTANCE_SIZES.computeIfAbsent(node.getClass(), nodeClass -> ClassLayout.parseClass(nodeClass).instanceSize());
+                size += sizeOfObjectArray(node.getOutputSymbols().size());
+            }
+            for (Expression expression : extractExpressions(plan.getRoot())) {
+                size += estimateRetainedSizeInBytes(expression);
+            }
+            for (Symbol symbol : plan.getTypes().keySet()) {
+                size += SYMBOL_SIZE + symbol.getName().length() * Character.BYTES;
+            }
+            return size;
+        }
+    }
+}
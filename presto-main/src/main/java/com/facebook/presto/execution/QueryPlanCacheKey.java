@@ -0,0 +1,229 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.spi.type.TimeZoneKey;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.TypeSignature;
+import com.facebook.presto.sql.parser.SqlParser;
+import com.facebook.presto.sql.tree.ArithmeticUnaryExpression;
+import com.facebook.presto.sql.tree.DefaultTraversalVisitor;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.GroupBy;
+import com.facebook.presto.sql.tree.Literal;
+import com.facebook.presto.sql.tree.Node;
+import com.facebook.presto.sql.tree.NodeRef;
+import com.facebook.presto.sql.tree.Query;
+import com.facebook.presto.sql.tree.SampledRelation;
+import com.facebook.presto.sql.tree.Statement;
+import com.facebook.presto.sql.tree.Unnest;
+import com.facebook.presto.sql.tree.Values;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.facebook.presto.execution.ParameterExtractor.getParameters;
+import static com.facebook.presto.sql.SqlFormatter.formatSql;
+import static com.facebook.presto.sql.analyzer.ExpressionAnalyzer.getExpressionTypes;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Collections.emptyList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Identifies the plan of a query: the formatted statement with its parameters left unbound,
+ * the types of the parameter values, and the session settings that can affect analysis and planning.
+ */
+public final class QueryPlanCacheKey
+{
+    private final String statement;
+    private final List<TypeSignature> parameterTypes;
+    private final String user;
+    private final Optional<String> catalog;
+    private final Optional<String> schema;
+    private final TimeZoneKey timeZoneKey;
+    private final Locale locale;
+    private final Map<String, String> systemProperties;
+    private final Map<String, Map<String, String>> catalogProperties;
+
+    public QueryPlanCacheKey(
+            String statement,
+            List<TypeSignature> parameterTypes,
+            String user,
+            Optional<String> catalog,
+            Optional<String> schema,
+            TimeZoneKey timeZoneKey,
+            Locale locale,
+            Map<String, String> systemProperties,
+            Map<String, Map<String, String>> catalogProperties)
+    {
+        this.statement = requireNonNull(statement, "statement is null");
+        this.parameterTypes = ImmutableList.copyOf(requireNonNull(parameterTypes, "parameterTypes is null"));
+        this.user = requireNonNull(user, "user is null");
+        this.catalog = requireNonNull(catalog, "catalog is null");
+        this.schema = requireNonNull(schema, "schema is null");
+        this.timeZoneKey = requireNonNull(timeZoneKey, "timeZoneKey is null");
+        this.locale = requireNonNull(locale, "locale is null");
+        this.systemProperties = ImmutableMap.copyOf(requireNonNull(systemProperties, "systemProperties is null"));
+        this.catalogProperties = ImmutableMap.copyOf(requireNonNull(catalogProperties, "catalogProperties is null"));
+    }
+
+    /**
+     * Returns the cache key for the plan of the specified statement, or empty if the statement is not a query,
+     * or its plan cannot be reused for other parameter values.
+     */
+    public static Optional<QueryPlanCacheKey> createCacheKey(Session session, Metadata metadata, SqlParser sqlParser, Statement statement, List<Expression> parameters)
+    {
+        if (!(statement instanceof Query) || !canUnbindParameters(statement, parameters)) {
+            return Optional.empty();
+        }
+
+        ImmutableList.Builder<TypeSignature> parameterTypes = ImmutableList.builder();
+        for (Expression parameter : parameters) {
+            Type type = getExpressionTypes(session, metadata, sqlParser, ImmutableMap.of(), parameter, emptyList()).get(NodeRef.of(parameter));
+            parameterTypes.add(type.getTypeSignature());
+        }
+        return Optional.of(new QueryPlanCacheKey(
+                formatSql(statement, Optional.empty()),
+                parameterTypes.build(),
+                session.getIdentity().getUser(),
+                session.getCatalog(),
+                session.getSchema(),
+                session.getTimeZoneKey(),
+                session.getLocale(),
+                session.getSystemProperties(),
+                session.getUnprocessedCatalogProperties()));
+    }
+
+    private static boolean canUnbindParameters(Statement statement, List<Expression> parameters)
+    {
+        if (parameters.isEmpty()) {
+            return true;
+        }
+        // the analysis of the query only depends on the types of constant values
+        if (!parameters.stream().allMatch(parameter -> parameter instanceof Literal ||
+                (parameter instanceof ArithmeticUnaryExpression && ((ArithmeticUnaryExpression) parameter).getValue() instanceof Literal))) {
+            return false;
+        }
+        BoundParameterFinder finder = new BoundParameterFinder();
+        finder.process(statement, null);
+        return !finder.isFound();
+    }
+
+    public String getStatement()
+    {
+        return statement;
+    }
+
+    /**
+     * Estimated memory used by this key while it is held by the cache.
+     */
+    public long getEstimatedSizeInBytes()
+    {
+        return statement.length() * Character.BYTES;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        QueryPlanCacheKey other = (QueryPlanCacheKey) o;
+        return Objects.equals(statement, other.statement) &&
+                Objects.equals(parameterTypes, other.parameterTypes) &&
+                Objects.equals(user, other.user) &&
+                Objects.equals(catalog, other.catalog) &&
+                Objects.equals(schema, other.schema) &&
+                Objects.equals(timeZoneKey, other.timeZoneKey) &&
+                Objects.equals(locale, other.locale) &&
+                Objects.equals(systemProperties, other.systemProperties) &&
+                Objects.equals(catalogProperties, other.catalogProperties);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(statement, parameterTypes, user, catalog, schema, timeZoneKey, locale, systemProperties, catalogProperties);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("statement", statement)
+                .add("parameterTypes", parameterTypes)
+                .add("user", user)
+                .toString();
+    }
+
+    /**
+     * Finds parameters whose values are folded into the plan while planning, or compared with other
+     * expressions while analyzing the query.
+     */
+    private static class BoundParameterFinder
+            extends DefaultTraversalVisitor<Void, Void>
+    {
+        private boolean found;
+
+        public boolean isFound()
+        {
+            return found;
+        }
+
+        @Override
+        protected Void visitValues(Values node, Void context)
+        {
+            checkNoParameters(node);
+            return null;
+        }
+
+        @Override
+        protected Void visitUnnest(Unnest node, Void context)
+        {
+            checkNoParameters(node);
+            return null;
+        }
+
+        @Override
+        protected Void visitGroupBy(GroupBy node, Void context)
+        {
+            checkNoParameters(node);
+            return null;
+        }
+
+        @Override
+        protected Void visitSampledRelation(SampledRelation node, Void context)
+        {
+            checkNoParameters(node.getSamplePercentage());
+            return process(node.getRelation(), context);
+        }
+
+        private void checkNoParameters(Node node)
+        {
+            if (!getParameters(node).isEmpty()) {
+                found = true;
+            }
+        }
+    }
+}
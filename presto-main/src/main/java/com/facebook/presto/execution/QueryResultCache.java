@@ -0,0 +1,242 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.execution.buffer.SerializedPage;
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.primitives.Ints.saturatedCast;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keeps the serialized output of finished queries on the coordinator, so an identical query
+ * over unchanged data can be answered without scheduling any stages.
+ * <p>
+ * A query that misses the cache records the pages as they are handed to the client, and its
+ * result is only added to the cache if the client consumed the complete output of the query.
+ */
+@ThreadSafe
+public class QueryResultCache
+{
+    private final long maxEntrySizeInBytes;
+    private final Cache<QueryResultCacheKey, CachedQueryResult> cache;
+
+    private final Map<QueryId, CachedQueryResult> servedResults = new ConcurrentHashMap<>();
+    private final Map<QueryId, ResultRecorder> recorders = new ConcurrentHashMap<>();
+
+    @Inject
+    public QueryResultCache(QueryManagerConfig config)
+    {
+        this(config.getResultCacheMaxSize(), config.getResultCacheMaxEntrySize());
+    }
+
+    public QueryResultCache(DataSize maxSize, DataSize maxEntrySize)
+    {
+        requireNonNull(maxSize, "maxSize is null");
+        requireNonNull(maxEntrySize, "maxEntrySize is null");
+        this.maxEntrySizeInBytes = maxEntrySize.toBytes();
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((QueryResultCacheKey key, CachedQueryResult result) -> saturatedCast(key.getEstimatedSizeInBytes() + result.getRetainedSizeInBytes()))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<CachedQueryResult> get(QueryResultCacheKey key)
+    {
+        return Optional.ofNullable(cache.getIfPresent(key));
+    }
+
+    /**
+     * Registers the result that will be returned to the client of the specified query.
+     */
+    public void serve(QueryId queryId, CachedQueryResult result)
+    {
+        servedResults.put(queryId, result);
+    }
+
+    /**
+     * Returns the cached result registered for the specified query, if any. The result is
+     * only returned once.
+     */
+    public Optional<CachedQueryResult> getServedResult(QueryId queryId)
+    {
+        return Optional.ofNullable(servedResults.remove(queryId));
+    }
+
+    public void startRecording(QueryId queryId, QueryResultCacheKey key, List<String> fieldNames, List<Type> types)
+    {
+        recorders.put(queryId, new ResultRecorder(key, fieldNames, types));
+    }
+
+    public void recordPage(QueryId queryId, SerializedPage page)
+    {
+        ResultRecorder recorder = recorders.get(queryId);
+        if (recorder != null && !recorder.addPage(page, maxEntrySizeInBytes)) {
+            // result is too large to be cached
+            recorders.remove(queryId);
+        }
+    }
+
+    /**
+     * Adds the recorded result of the specified query to the cache. Must only be called
+     * after all pages of a successfully finished query have been recorded.
+     */
+    public void finishRecording(QueryId queryId)
+    {
+        ResultRecorder recorder = recorders.remove(queryId);
+        if (recorder != null) {
+            cache.put(recorder.getKey(), recorder.build());
+        }
+    }
+
+    public void removeQuery(QueryId queryId)
+    {
+        servedResults.remove(queryId);
+        recorders.remove(queryId);
+    }
+
+    @VisibleForTesting
+    public boolean isRecording(QueryId queryId)
+    {
+        return recorders.containsKey(queryId);
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return cache.stats().hitRate();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
+
+    public static class CachedQueryResult
+    {
+        private final List<String> fieldNames;
+        private final List<Type> types;
+        private final List<SerializedPage> pages;
+        private final long retainedSizeInBytes;
+
+        public CachedQueryResult(List<String> fieldNames, List<Type> types, List<SerializedPage> pages)
+        {
+            this.fieldNames = ImmutableList.copyOf(requireNonNull(fieldNames, "fieldNames is null"));
+            this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+            this.pages = ImmutableList.copyOf(requireNonNull(pages, "pages is null"));
+            checkArgument(fieldNames.size() == types.size(), "fieldNames and types size mismatch");
+            this.retainedSizeInBytes = pages.stream()
+                    .mapToLong(SerializedPage::getRetainedSizeInBytes)
+                    .sum();
+        }
+
+        public List<String> getFieldNames()
+        {
+            return fieldNames;
+        }
+
+        public List<Type> getTypes()
+        {
+            return types;
+        }
+
+        public List<SerializedPage> getPages()
+        {
+            return pages;
+        }
+
+        public long getRetainedSizeInBytes()
+        {
+            return retainedSizeInBytes;
+        }
+    }
+
+    private static class ResultRecorder
+    {
+        private final QueryResultCacheKey key;
+        private final List<String> fieldNames;
+        private final List<Type> types;
+
+        @GuardedBy("this")
+        private final List<SerializedPage> pages = new ArrayList<>();
+        @GuardedBy("this")
+        private long retainedSizeInBytes;
+
+        public ResultRecorder(QueryResultCacheKey key, List<String> fieldNames, List<Type> types)
+        {
+            this.key = requireNonNull(key, "key is null");
+            this.fieldNames = requireNonNull(fieldNames, "fieldNames is null");
+            this.types = requireNonNull(types, "types is null");
+        }
+
+        public QueryResultCacheKey getKey()
+        {
+            return key;
+        }
+
+        public synchronized boolean addPage(SerializedPage page, long maxRetainedSizeInBytes)
+        {
+            retainedSizeInBytes += page.getRetainedSizeInBytes();
+            if (retainedSizeInBytes > maxRetainedSizeInBytes) {
+                pages.clear();
+                return false;
+            }
+            pages.add(page);
+            return true;
+        }
+
+        public synchronized CachedQueryResult build()
+        {
+            return new CachedQueryResult(fieldNames, types, pages);
+        }
+    }
+}
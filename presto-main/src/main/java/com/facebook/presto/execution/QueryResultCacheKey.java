@@ -0,0 +1,191 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.metadata.FunctionRegistry;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.spi.type.TimeZoneKey;
+import com.facebook.presto.sql.analyzer.Analysis;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.SampleNode;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.facebook.presto.sql.tree.CurrentTime;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.Query;
+import com.facebook.presto.sql.tree.Statement;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import static com.facebook.presto.sql.SqlFormatter.formatSql;
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Identifies the results of a query: the formatted statement, the session settings
+ * that can affect its results, and the version of the data read by each table scan.
+ */
+public final class QueryResultCacheKey
+{
+    private final String statement;
+    private final String user;
+    private final Optional<String> catalog;
+    private final Optional<String> schema;
+    private final TimeZoneKey timeZoneKey;
+    private final Locale locale;
+    private final Map<String, String> systemProperties;
+    private final Map<String, Map<String, String>> catalogProperties;
+    private final Set<String> dataVersions;
+
+    public QueryResultCacheKey(
+            String statement,
+            String user,
+            Optional<String> catalog,
+            Optional<String> schema,
+            TimeZoneKey timeZoneKey,
+            Locale locale,
+            Map<String, String> systemProperties,
+            Map<String, Map<String, String>> catalogProperties,
+            Set<String> dataVersions)
+    {
+        this.statement = requireNonNull(statement, "statement is null");
+        this.user = requireNonNull(user, "user is null");
+        this.catalog = requireNonNull(catalog, "catalog is null");
+        this.schema = requireNonNull(schema, "schema is null");
+        this.timeZoneKey = requireNonNull(timeZoneKey, "timeZoneKey is null");
+        this.locale = requireNonNull(locale, "locale is null");
+        this.systemProperties = ImmutableMap.copyOf(requireNonNull(systemProperties, "systemProperties is null"));
+        this.catalogProperties = ImmutableMap.copyOf(requireNonNull(catalogProperties, "catalogProperties is null"));
+        this.dataVersions = ImmutableSet.copyOf(requireNonNull(dataVersions, "dataVersions is null"));
+    }
+
+    /**
+     * Returns true if every function called by the analyzed query returns the same result for the
+     * same arguments. Functions such as current_timestamp are deterministic within a query, but their
+     * value depends on when the query starts.
+     */
+    public static boolean isDeterministic(Analysis analysis, FunctionRegistry functionRegistry)
+    {
+        if (analysis.getTypes().keySet().stream().anyMatch(expression -> expression.getNode() instanceof CurrentTime)) {
+            return false;
+        }
+        return analysis.getFunctionSignatures().stream()
+                .allMatch(signature -> functionRegistry.isDeterministic(signature) && !functionRegistry.isSessionDependent(signature));
+    }
+
+    /**
+     * Returns the cache key for the specified query, or empty if its results can not be reused:
+     * the statement is not a query, the query is not deterministic, or a table does not have a data version.
+     *
+     * @param deterministic whether the functions called by the query are deterministic, see {@link #isDeterministic(Analysis, FunctionRegistry)}
+     */
+    public static Optional<QueryResultCacheKey> createCacheKey(Session session, Metadata metadata, Statement statement, List<Expression> parameters, PlanNode plan, boolean deterministic)
+    {
+        if (!(statement instanceof Query) || !deterministic || searchFrom(plan).where(SampleNode.class::isInstance).matches()) {
+            return Optional.empty();
+        }
+
+        SortedSet<String> dataVersions = new TreeSet<>();
+        for (TableScanNode tableScan : searchFrom(plan).where(TableScanNode.class::isInstance).<TableScanNode>findAll()) {
+            if (!tableScan.getLayout().isPresent()) {
+                return Optional.empty();
+            }
+            Optional<String> dataVersion = metadata.getDataVersion(session, tableScan.getLayout().get());
+            if (!dataVersion.isPresent()) {
+                return Optional.empty();
+            }
+            dataVersions.add(tableScan.getLayout().get().getConnectorId() + ":" + dataVersion.get());
+        }
+
+        return Optional.of(new QueryResultCacheKey(
+                formatSql(statement, Optional.of(parameters)),
+                session.getIdentity().getUser(),
+                session.getCatalog(),
+                session.getSchema(),
+                session.getTimeZoneKey(),
+                session.getLocale(),
+                session.getSystemProperties(),
+                session.getUnprocessedCatalogProperties(),
+                dataVersions));
+    }
+
+    public String getStatement()
+    {
+        return statement;
+    }
+
+    public Set<String> getDataVersions()
+    {
+        return dataVersions;
+    }
+
+    /**
+     * Estimated memory used by this key while it is held by the cache.
+     */
+    public long getEstimatedSizeInBytes()
+    {
+        long size = statement.length() * Character.BYTES;
+        for (String dataVersion : dataVersions) {
+            size += dataVersion.length() * Character.BYTES;
+        }
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        QueryResultCacheKey other = (QueryResultCacheKey) o;
+        return Objects.equals(statement, other.statement) &&
+                Objects.equals(user, other.user) &&
+                Objects.equals(catalog, other.catalog) &&
+                Objects.equals(schema, other.schema) &&
+                Objects.equals(timeZoneKey, other.timeZoneKey) &&
+                Objects.equals(locale, other.locale) &&
+                Objects.equals(systemProperties, other.systemProperties) &&
+                Objects.equals(catalogProperties, other.catalogProperties) &&
+                Objects.equals(dataVersions, other.dataVersions);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(statement, user, catalog, schema, timeZoneKey, locale, systemProperties, catalogProperties, dataVersions);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("statement", statement)
+                .add("user", user)
+                .add("dataVersions", dataVersions)
+                .toString();
+    }
+}
@@ -21,6 +21,8 @@ import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.operator.BlockedReason;
 import com.facebook.presto.operator.OperatorStats;
 import com.facebook.presto.security.AccessControl;
+import com.facebook.presto.server.BasicQueryInfo;
+import com.facebook.presto.server.BasicQueryStats;
 import com.facebook.presto.spi.ErrorCode;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.QueryId;
@@ -48,6 +50,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalDouble;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
@@ -55,6 +58,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static com.facebook.presto.execution.BasicStageStats.EMPTY_STAGE_STATS;
 import static com.facebook.presto.execution.QueryState.FAILED;
 import static com.facebook.presto.execution.QueryState.FINISHED;
 import static com.facebook.presto.execution.QueryState.FINISHING;
@@ -71,6 +75,7 @@ import static com.facebook.presto.util.Failures.toFailure;
 import static com.google.common.base.Preconditions.checkArgument;
 import static io.airlift.units.DataSize.succinctBytes;
 import static io.airlift.units.Duration.succinctNanos;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
@@ -236,6 +241,16 @@ public class QueryStateMachine
         return session;
     }
 
+    public DateTime getCreateTime()
+    {
+        return createTime;
+    }
+
+    public DateTime getLastHeartbeat()
+    {
+        return lastHeartbeat.get();
+    }
+
     public boolean isAutoCommit()
     {
         return autoCommit;
@@ -270,6 +285,85 @@ public class QueryStateMachine
         return getQueryInfo(Optional.empty());
     }
 
+    /**
+     * Returns the lightweight query info, built from the running totals of the stages
+     * rather than from the stage, task and operator stats of the full query info.
+     */
+    public BasicQueryInfo getBasicQueryInfo(Optional<BasicStageStats> rootStage)
+    {
+        // Query state must be captured first in order to provide a
+        // correct view of the query.  For example, building this
+        // information, the query could finish, and the task states would
+        // never be visible.
+        QueryState state = queryState.get();
+
+        Duration elapsedTime;
+        if (endNanos.get() != 0) {
+            elapsedTime = new Duration(endNanos.get() - createNanos, NANOSECONDS);
+        }
+        else {
+            elapsedTime = nanosSince(createNanos);
+        }
+
+        Duration executionTime = new Duration(0, NANOSECONDS);
+        Duration queuedTime = this.queuedTime.get();
+        if (queuedTime != null) {
+            executionTime = succinctNanos(elapsedTime.roundTo(NANOSECONDS) - queuedTime.roundTo(NANOSECONDS));
+        }
+
+        ErrorCode errorCode = null;
+        if (state == FAILED) {
+            ExecutionFailureInfo failureCause = this.failureCause.get();
+            if (failureCause != null) {
+                errorCode = failureCause.getErrorCode();
+            }
+        }
+
+        BasicStageStats stageStats = rootStage.orElse(EMPTY_STAGE_STATS);
+        boolean isScheduled = rootStage.isPresent() && stageStats.isScheduled();
+
+        OptionalDouble progressPercentage = OptionalDouble.empty();
+        if (isScheduled && stageStats.getTotalDrivers() != 0) {
+            progressPercentage = OptionalDouble.of(min(100, (stageStats.getCompletedDrivers() * 100.0) / stageStats.getTotalDrivers()));
+        }
+
+        BasicQueryStats queryStats = new BasicQueryStats(
+                createTime,
+                endTime.get(),
+                elapsedTime.convertToMostSuccinctTimeUnit(),
+                executionTime,
+
+                stageStats.getTotalDrivers(),
+                stageStats.getQueuedDrivers(),
+                stageStats.getRunningDrivers(),
+                stageStats.getCompletedDrivers(),
+
+                stageStats.getCumulativeMemory(),
+                stageStats.getTotalMemoryReservation(),
+                succinctBytes(getPeakMemoryInBytes()),
+                stageStats.getTotalCpuTime().convertToMostSuccinctTimeUnit(),
+
+                rootStage.isPresent() && stageStats.isFullyBlocked(),
+                stageStats.getBlockedReasons(),
+
+                stageStats.getRawInputDataSize(),
+                stageStats.getRawInputPositions(),
+
+                progressPercentage);
+
+        return new BasicQueryInfo(
+                queryId,
+                session.toSessionRepresentation(),
+                state,
+                memoryPool.get().getId(),
+                isScheduled,
+                self,
+                query,
+                queryStats,
+                errorCode == null ? null : errorCode.getType(),
+                errorCode);
+    }
+
     public QueryInfo getQueryInfo(Optional<StageInfo> rootStage)
     {
         // Query state must be captured first in order to provide a
@@ -0,0 +1,265 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.execution.QueryPlanCache.AccessCheck;
+import com.facebook.presto.metadata.QualifiedObjectName;
+import com.facebook.presto.security.AccessControl;
+import com.facebook.presto.spi.CatalogSchemaName;
+import com.facebook.presto.spi.SchemaTableName;
+import com.facebook.presto.spi.security.Identity;
+import com.facebook.presto.spi.security.Privilege;
+import com.facebook.presto.transaction.TransactionId;
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Records the checks made while a query is analyzed, so they can be repeated when its plan is reused.
+ * Only the checks made for reading tables and views are recorded; any other check makes the analysis
+ * not replayable.
+ */
+@ThreadSafe
+class RecordingAccessControl
+        implements AccessControl
+{
+    private final AccessControl delegate;
+    private final Identity sessionIdentity;
+
+    @GuardedBy("this")
+    private final List<AccessCheck> checks = new ArrayList<>();
+    @GuardedBy("this")
+    private boolean replayable = true;
+
+    public RecordingAccessControl(AccessControl delegate, Identity sessionIdentity)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.sessionIdentity = requireNonNull(sessionIdentity, "sessionIdentity is null");
+    }
+
+    /**
+     * Returns the recorded checks, or empty if a check was made that can not be replayed.
+     */
+    public synchronized Optional<List<AccessCheck>> getChecks()
+    {
+        if (!replayable) {
+            return Optional.empty();
+        }
+        return Optional.of(ImmutableList.copyOf(checks));
+    }
+
+    private synchronized void record(Identity identity, AccessCheck check)
+    {
+        // checks made for the user of the query are replayed for the user of the new query,
+        // and checks made for the owner of a view are replayed for the owner
+        Optional<Identity> recordedIdentity = identity.equals(sessionIdentity) ? Optional.empty() : Optional.of(identity);
+        checks.add((accessControl, transactionId, queryIdentity) -> check.check(accessControl, transactionId, recordedIdentity.orElse(queryIdentity)));
+    }
+
+    private synchronized void notReplayable()
+    {
+        replayable = false;
+    }
+
+    @Override
+    public void checkCanSetUser(Principal principal, String userName)
+    {
+        notReplayable();
+        delegate.checkCanSetUser(principal, userName);
+    }
+
+    @Override
+    public Set<String> filterCatalogs(Identity identity, Set<String> catalogs)
+    {
+        notReplayable();
+        return delegate.filterCatalogs(identity, catalogs);
+    }
+
+    @Override
+    public void checkCanCreateSchema(TransactionId transactionId, Identity identity, CatalogSchemaName schemaName)
+    {
+        notReplayable();
+        delegate.checkCanCreateSchema(transactionId, identity, schemaName);
+    }
+
+    @Override
+    public void checkCanDropSchema(TransactionId transactionId, Identity identity, CatalogSchemaName schemaName)
+    {
+        notReplayable();
+        delegate.checkCanDropSchema(transactionId, identity, schemaName);
+    }
+
+    @Override
+    public void checkCanRenameSchema(TransactionId transactionId, Identity identity, CatalogSchemaName schemaName, String newSchemaName)
+    {
+        notReplayable();
+        delegate.checkCanRenameSchema(transactionId, identity, schemaName, newSchemaName);
+    }
+
+    @Override
+    public void checkCanShowSchemas(TransactionId transactionId, Identity identity, String catalogName)
+    {
+        notReplayable();
+        delegate.checkCanShowSchemas(transactionId, identity, catalogName);
+    }
+
+    @Override
+    public Set<String> filterSchemas(TransactionId transactionId, Identity identity, String catalogName, Set<String> schemaNames)
+    {
+        notReplayable();
+        return delegate.filterSchemas(transactionId, identity, catalogName, schemaNames);
+    }
+
+    @Override
+    public void checkCanCreateTable(TransactionId transactionId, Identity identity, QualifiedObjectName tableName)
+    {
+        notReplayable();
+        delegate.checkCanCreateTable(transactionId, identity, tableName);
+    }
+
+    @Override
+    public void checkCanDropTable(TransactionId transactionId, Identity identity, QualifiedObjectName tableName)
+    {
+        notReplayable();
+        delegate.checkCanDropTable(transactionId, identity, tableName);
+    }
+
+    @Override
+    public void checkCanRenameTable(TransactionId transactionId, Identity identity, QualifiedObjectName tableName, QualifiedObjectName newTableName)
+    {
+        notReplayable();
+        delegate.checkCanRenameTable(transactionId, identity, tableName, newTableName);
+    }
+
+    @Override
+    public void checkCanShowTablesMetadata(TransactionId transactionId, Identity identity, CatalogSchemaName schema)
+    {
+        notReplayable();
+        delegate.checkCanShowTablesMetadata(transactionId, identity, schema);
+    }
+
+    @Override
+    public Set<SchemaTableName> filterTables(TransactionId transactionId, Identity identity, String catalogName, Set<SchemaTableName> tableNames)
+    {
+        notReplayable();
+        return delegate.filterTables(transactionId, identity, catalogName, tableNames);
+    }
+
+    @Override
+    public void checkCanAddColumns(TransactionId transactionId, Identity identity, QualifiedObjectName tableName)
+    {
+        notReplayable();
+        delegate.checkCanAddColumns(transactionId, identity, tableName);
+    }
+
+    @Override
+    public void checkCanRenameColumn(TransactionId transactionId, Identity identity, QualifiedObjectName tableName)
+    {
+        notReplayable();
+        delegate.checkCanRenameColumn(transactionId, identity, tableName);
+    }
+
+    @Override
+    public void checkCanSelectFromTable(TransactionId transactionId, Identity identity, QualifiedObjectName tableName)
+    {
+        delegate.checkCanSelectFromTable(transactionId, identity, tableName);
+        record(identity, (accessControl, checkTransactionId, checkIdentity) -> accessControl.checkCanSelectFromTable(checkTransactionId, checkIdentity, tableName));
+    }
+
+    @Override
+    public void checkCanInsertIntoTable(TransactionId transactionId, Identity identity, QualifiedObjectName tableName)
+    {
+        notReplayable();
+        delegate.checkCanInsertIntoTable(transactionId, identity, tableName);
+    }
+
+    @Override
+    public void checkCanDeleteFromTable(TransactionId transactionId, Identity identity, QualifiedObjectName tableName)
+    {
+        notReplayable();
+        delegate.checkCanDeleteFromTable(transactionId, identity, tableName);
+    }
+
+    @Override
+    public void checkCanCreateView(TransactionId transactionId, Identity identity, QualifiedObjectName viewName)
+    {
+        notReplayable();
+        delegate.checkCanCreateView(transactionId, identity, viewName);
+    }
+
+    @Override
+    public void checkCanDropView(TransactionId transactionId, Identity identity, QualifiedObjectName viewName)
+    {
+        notReplayable();
+        delegate.checkCanDropView(transactionId, identity, viewName);
+    }
+
+    @Override
+    public void checkCanSelectFromView(TransactionId transactionId, Identity identity, QualifiedObjectName viewName)
+    {
+        delegate.checkCanSelectFromView(transactionId, identity, viewName);
+        record(identity, (accessControl, checkTransactionId, checkIdentity) -> accessControl.checkCanSelectFromView(checkTransactionId, checkIdentity, viewName));
+    }
+
+    @Override
+    public void checkCanCreateViewWithSelectFromTable(TransactionId transactionId, Identity identity, QualifiedObjectName tableName)
+    {
+        delegate.checkCanCreateViewWithSelectFromTable(transactionId, identity, tableName);
+        record(identity, (accessControl, checkTransactionId, checkIdentity) -> accessControl.checkCanCreateViewWithSelectFromTable(checkTransactionId, checkIdentity, tableName));
+    }
+
+    @Override
+    public void checkCanCreateViewWithSelectFromView(TransactionId transactionId, Identity identity, QualifiedObjectName viewName)
+    {
+        delegate.checkCanCreateViewWithSelectFromView(transactionId, identity, viewName);
+        record(identity, (accessControl, checkTransactionId, checkIdentity) -> accessControl.checkCanCreateViewWithSelectFromView(checkTransactionId, checkIdentity, viewName));
+    }
+
+    @Override
+    public void checkCanGrantTablePrivilege(TransactionId transactionId, Identity identity, Privilege privilege, QualifiedObjectName tableName)
+    {
+        notReplayable();
+        delegate.checkCanGrantTablePrivilege(transactionId, identity, privilege, tableName);
+    }
+
+    @Override
+    public void checkCanRevokeTablePrivilege(TransactionId transactionId, Identity identity, Privilege privilege, QualifiedObjectName tableName)
+    {
+        notReplayable();
+        delegate.checkCanRevokeTablePrivilege(transactionId, identity, privilege, tableName);
+    }
+
+    @Override
+    public void checkCanSetSystemSessionProperty(Identity identity, String propertyName)
+    {
+        notReplayable();
+        delegate.checkCanSetSystemSessionProperty(identity, propertyName);
+    }
+
+    @Override
+    public void checkCanSetCatalogSessionProperty(TransactionId transactionId, Identity identity, String catalogName, String propertyName)
+    {
+        notReplayable();
+        delegate.checkCanSetCatalogSessionProperty(transactionId, identity, catalogName, propertyName);
+    }
+}
@@ -40,6 +40,12 @@ public interface RemoteTask
 
     void addStateChangeListener(StateChangeListener<TaskStatus> stateChangeListener);
 
+    void addTaskInfoListener(StateChangeListener<TaskInfo> stateChangeListener);
+
+    /**
+     * Returns a future that completes once the weight of the queued partitioned splits
+     * drops below the weight of {@code threshold} standard splits.
+     */
     ListenableFuture<?> whenSplitQueueHasSpace(int threshold);
 
     void cancel();
@@ -49,4 +55,12 @@ public interface RemoteTask
     int getPartitionedSplitCount();
 
     int getQueuedPartitionedSplitCount();
+
+    /**
+     * Returns the total weight of the partitioned splits assigned to the task and not yet finished,
+     * where a split of typical size weighs {@link com.facebook.presto.spi.ConnectorSplit#STANDARD_SPLIT_WEIGHT}.
+     */
+    long getPartitionedSplitsWeight();
+
+    long getQueuedPartitionedSplitsWeight();
 }
@@ -19,6 +19,10 @@ import com.facebook.presto.Session;
 import com.facebook.presto.SystemSessionProperties;
 import com.facebook.presto.connector.ConnectorId;
 import com.facebook.presto.cost.CostCalculator;
+import com.facebook.presto.cost.PlanNodeCost;
+import com.facebook.presto.execution.QueryPlanCache.AccessCheck;
+import com.facebook.presto.execution.QueryPlanCache.CachedPlan;
+import com.facebook.presto.execution.QueryResultCache.CachedQueryResult;
 import com.facebook.presto.execution.StateMachine.StateChangeListener;
 import com.facebook.presto.execution.scheduler.ExecutionPolicy;
 import com.facebook.presto.execution.scheduler.NodeScheduler;
@@ -29,6 +33,7 @@ import com.facebook.presto.memory.VersionedMemoryPoolId;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.metadata.TableHandle;
 import com.facebook.presto.security.AccessControl;
+import com.facebook.presto.server.BasicQueryInfo;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.QueryId;
 import com.facebook.presto.spi.resourceGroups.ResourceGroupId;
@@ -46,21 +51,27 @@ import com.facebook.presto.sql.planner.NodePartitioningManager;
 import com.facebook.presto.sql.planner.OutputExtractor;
 import com.facebook.presto.sql.planner.PartitioningHandle;
 import com.facebook.presto.sql.planner.Plan;
+import com.facebook.presto.sql.planner.PlanFragment;
 import com.facebook.presto.sql.planner.PlanFragmenter;
 import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
 import com.facebook.presto.sql.planner.PlanOptimizers;
 import com.facebook.presto.sql.planner.StageExecutionPlan;
 import com.facebook.presto.sql.planner.SubPlan;
 import com.facebook.presto.sql.planner.optimizations.PlanOptimizer;
+import com.facebook.presto.sql.planner.plan.OutputNode;
+import com.facebook.presto.sql.planner.plan.PlanFragmentId;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.facebook.presto.sql.tree.Explain;
 import com.facebook.presto.sql.tree.Expression;
 import com.facebook.presto.sql.tree.Statement;
 import com.facebook.presto.transaction.TransactionManager;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.concurrent.SetThreadName;
 import io.airlift.log.Logger;
 import io.airlift.units.Duration;
+import org.joda.time.DateTime;
 
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
@@ -75,7 +86,17 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import static com.facebook.presto.OutputBuffers.BROADCAST_PARTITION_ID;
 import static com.facebook.presto.OutputBuffers.createInitialEmptyOutputBuffers;
+import static com.facebook.presto.SystemSessionProperties.getHashPartitionCount;
+import static com.facebook.presto.SystemSessionProperties.getRowsPerHashPartition;
+import static com.facebook.presto.SystemSessionProperties.isAdaptiveHashPartitionCount;
+import static com.facebook.presto.SystemSessionProperties.isPlanCacheEnabled;
+import static com.facebook.presto.SystemSessionProperties.isResultCacheEnabled;
+import static com.facebook.presto.execution.QueryPlanCache.isCacheable;
+import static com.facebook.presto.execution.QueryResultCacheKey.createCacheKey;
+import static com.facebook.presto.execution.QueryResultCacheKey.isDeterministic;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
+import static com.facebook.presto.sql.planner.HashPartitionCountCalculator.calculateHashPartitionCounts;
+import static com.facebook.presto.sql.planner.PlanParameterBinder.bindParameters;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -106,6 +127,8 @@ public final class SqlQueryExecution
 
     private final QueryExplainer queryExplainer;
     private final CostCalculator costCalculator;
+    private final QueryPlanCache planCache;
+    private final QueryResultCache resultCache;
     private final AtomicReference<SqlQueryScheduler> queryScheduler = new AtomicReference<>();
     private final AtomicReference<Plan> queryPlan = new AtomicReference<>();
     private final NodeTaskMap nodeTaskMap;
@@ -126,6 +149,8 @@ public final class SqlQueryExecution
             NodePartitioningManager nodePartitioningManager,
             NodeScheduler nodeScheduler,
             CostCalculator costCalculator,
+            QueryPlanCache planCache,
+            QueryResultCache resultCache,
             List<PlanOptimizer> planOptimizers,
             RemoteTaskFactory remoteTaskFactory,
             LocationFactory locationFactory,
@@ -147,6 +172,8 @@ public final class SqlQueryExecution
             this.nodePartitioningManager = requireNonNull(nodePartitioningManager, "nodePartitioningManager is null");
             this.nodeScheduler = requireNonNull(nodeScheduler, "nodeScheduler is null");
             this.costCalculator = requireNonNull(costCalculator, "costCalculator is null");
+            this.planCache = requireNonNull(planCache, "planCache is null");
+            this.resultCache = requireNonNull(resultCache, "resultCache is null");
             this.planOptimizers = requireNonNull(planOptimizers, "planOptimizers is null");
             this.locationFactory = requireNonNull(locationFactory, "locationFactory is null");
             this.queryExecutor = requireNonNull(queryExecutor, "queryExecutor is null");
@@ -226,6 +253,18 @@ public final class SqlQueryExecution
         return scheduler.getTotalCpuTime();
     }
 
+    @Override
+    public DateTime getCreateTime()
+    {
+        return stateMachine.getCreateTime();
+    }
+
+    @Override
+    public DateTime getLastHeartbeat()
+    {
+        return stateMachine.getLastHeartbeat();
+    }
+
     @Override
     public Session getSession()
     {
@@ -248,6 +287,20 @@ public final class SqlQueryExecution
 
                 metadata.beginQuery(getSession(), plan.getConnectors());
 
+                // answer the query from the result cache without scheduling any stages
+                if (plan.getResultCacheKey().isPresent()) {
+                    Optional<CachedQueryResult> cachedResult = resultCache.get(plan.getResultCacheKey().get());
+                    if (cachedResult.isPresent()) {
+                        resultCache.serve(stateMachine.getQueryId(), cachedResult.get());
+                        stateMachine.setOutputFieldNames(cachedResult.get().getFieldNames());
+                        stateMachine.transitionToFinishing();
+                        return;
+                    }
+                    PlanFragment rootFragment = plan.getRoot().getFragment();
+                    List<String> fieldNames = ((OutputNode) rootFragment.getRoot()).getColumnNames();
+                    resultCache.startRecording(stateMachine.getQueryId(), plan.getResultCacheKey().get(), fieldNames, rootFragment.getTypes());
+                }
+
                 // plan distribution of query
                 planDistribution(plan);
 
@@ -299,21 +352,59 @@ public final class SqlQueryExecution
     {
         // time analysis phase
         long analysisStart = System.nanoTime();
+        Session session = stateMachine.getSession();
 
-        // analyze query
-        Analyzer analyzer = new Analyzer(stateMachine.getSession(), metadata, sqlParser, accessControl, Optional.of(queryExplainer), parameters);
-        Analysis analysis = analyzer.analyze(statement);
-
-        stateMachine.setUpdateType(analysis.getUpdateType());
-
-        // plan query
-        PlanNodeIdAllocator idAllocator = new PlanNodeIdAllocator();
-        LogicalPlanner logicalPlanner = new LogicalPlanner(stateMachine.getSession(), planOptimizers, idAllocator, metadata, sqlParser, costCalculator);
-        Plan plan = logicalPlanner.plan(analysis);
+        Optional<QueryPlanCacheKey> planCacheKey = Optional.empty();
+        if (isPlanCacheEnabled(session)) {
+            planCacheKey = QueryPlanCacheKey.createCacheKey(session, metadata, sqlParser, statement, parameters);
+        }
+        Optional<CachedPlan> cachedPlan = planCacheKey.flatMap(key -> planCache.get(session, key));
+
+        Plan plan;
+        Set<ConnectorId> connectors;
+        boolean explainAnalyze;
+        boolean deterministic;
+        if (cachedPlan.isPresent()) {
+            // reuse the analysis and the logical plan of a query with the same statement and parameter types
+            LogicalPlanner logicalPlanner = new LogicalPlanner(session, planOptimizers, cachedPlan.get().createPlanNodeIdAllocator(), metadata, sqlParser, costCalculator);
+            plan = logicalPlanner.optimize(cachedPlan.get().bindParameterValues(parameters));
+            connectors = cachedPlan.get().getConnectors();
+            explainAnalyze = false;
+            deterministic = cachedPlan.get().isDeterministic();
+        }
+        else {
+            long metadataVersion = metadata.getMetadataVersion();
+            RecordingAccessControl recordingAccessControl = new RecordingAccessControl(accessControl, session.getIdentity());
+
+            // analyze query
+            Analyzer analyzer = new Analyzer(session, metadata, sqlParser, planCacheKey.isPresent() ? recordingAccessControl : accessControl, Optional.of(queryExplainer), parameters);
+            Analysis analysis = analyzer.analyze(statement);
+
+            stateMachine.setUpdateType(analysis.getUpdateType());
+
+            connectors = extractConnectors(analysis);
+            explainAnalyze = analysis.getStatement() instanceof Explain && ((Explain) analysis.getStatement()).isAnalyze();
+            deterministic = isDeterministic(analysis, metadata.getFunctionRegistry());
+
+            // plan query
+            PlanNodeIdAllocator idAllocator = new PlanNodeIdAllocator();
+            LogicalPlanner logicalPlanner = new LogicalPlanner(session, planOptimizers, idAllocator, metadata, sqlParser, costCalculator);
+            Optional<List<AccessCheck>> accessChecks = recordingAccessControl.getChecks();
+            if (planCacheKey.isPresent() && accessChecks.isPresent() && isCacheable(analysis, metadata.getFunctionRegistry())) {
+                // cache the plan with its parameters unbound, so it can be reused for other parameter values
+                List<Expression> unboundParameters = analysis.unbindParameters();
+                Plan unoptimizedPlan = logicalPlanner.planUnoptimized(analysis);
+                planCache.put(session, planCacheKey.get(), metadataVersion, unoptimizedPlan, unboundParameters, idAllocator.getAllocatedIdCount(), connectors, accessChecks.get(), deterministic);
+                plan = logicalPlanner.optimize(new Plan(bindParameters(unoptimizedPlan.getRoot(), unboundParameters, parameters), unoptimizedPlan.getTypes(), unoptimizedPlan.getPlanNodeCosts()));
+            }
+            else {
+                plan = logicalPlanner.plan(analysis);
+            }
+        }
         queryPlan.set(plan);
 
         // extract inputs
-        List<Input> inputs = new InputExtractor(metadata, stateMachine.getSession()).extractInputs(plan.getRoot());
+        List<Input> inputs = new InputExtractor(metadata, session).extractInputs(plan.getRoot());
         stateMachine.setInputs(inputs);
 
         // extract output
@@ -321,13 +412,24 @@ public final class SqlQueryExecution
         stateMachine.setOutput(output);
 
         // fragment the plan
-        SubPlan subplan = PlanFragmenter.createSubPlans(stateMachine.getSession(), metadata, plan);
+        SubPlan subplan = PlanFragmenter.createSubPlans(session, metadata, plan);
+
+        // size the hash distributed stages from the estimated size of their input
+        Map<PlanFragmentId, Integer> hashPartitionCounts = ImmutableMap.of();
+        if (isAdaptiveHashPartitionCount(session)) {
+            Map<PlanNodeId, PlanNodeCost> costs = costCalculator.calculateCostForPlan(session, plan.getTypes(), plan.getRoot());
+            hashPartitionCounts = calculateHashPartitionCounts(subplan, costs, getHashPartitionCount(session), getRowsPerHashPartition(session));
+        }
+
+        Optional<QueryResultCacheKey> resultCacheKey = Optional.empty();
+        if (isResultCacheEnabled(session)) {
+            resultCacheKey = createCacheKey(session, metadata, statement, parameters, plan.getRoot(), deterministic);
+        }
 
         // record analysis time
         stateMachine.recordAnalysisTime(analysisStart);
 
-        boolean explainAnalyze = analysis.getStatement() instanceof Explain && ((Explain) analysis.getStatement()).isAnalyze();
-        return new PlanRoot(subplan, !explainAnalyze, extractConnectors(analysis));
+        return new PlanRoot(subplan, hashPartitionCounts, resultCacheKey, !explainAnalyze, connectors);
     }
 
     private Set<ConnectorId> extractConnectors(Analysis analysis)
@@ -381,6 +483,7 @@ public final class SqlQueryExecution
                 stateMachine,
                 locationFactory,
                 outputStageExecutionPlan,
+                plan.getHashPartitionCounts(),
                 nodePartitioningManager,
                 nodeScheduler,
                 remoteTaskFactory,
@@ -492,6 +595,30 @@ public final class SqlQueryExecution
         }
     }
 
+    @Override
+    public BasicQueryInfo getBasicQueryInfo()
+    {
+        // acquire reference to scheduler before checking finalQueryInfo, for the same reason as getQueryInfo
+        SqlQueryScheduler scheduler = queryScheduler.get();
+
+        Optional<QueryInfo> finalQueryInfo = stateMachine.getFinalQueryInfo();
+        if (finalQueryInfo.isPresent()) {
+            return new BasicQueryInfo(finalQueryInfo.get());
+        }
+
+        return stateMachine.getBasicQueryInfo(Optional.ofNullable(scheduler).map(SqlQueryScheduler::getBasicStageStats));
+    }
+
+    @Override
+    public Map<StageId, List<TaskInfo>> getSourceStageTaskInfos()
+    {
+        SqlQueryScheduler scheduler = queryScheduler.get();
+        if (scheduler == null) {
+            return ImmutableMap.of();
+        }
+        return scheduler.getSourceStageTaskInfos();
+    }
+
     @Override
     public QueryState getState()
     {
@@ -534,12 +661,16 @@ public final class SqlQueryExecution
     private static class PlanRoot
     {
         private final SubPlan root;
+        private final Map<PlanFragmentId, Integer> hashPartitionCounts;
+        private final Optional<QueryResultCacheKey> resultCacheKey;
         private final boolean summarizeTaskInfos;
         private final Set<ConnectorId> connectors;
 
-        public PlanRoot(SubPlan root, boolean summarizeTaskInfos, Set<ConnectorId> connectors)
+        public PlanRoot(SubPlan root, Map<PlanFragmentId, Integer> hashPartitionCounts, Optional<QueryResultCacheKey> resultCacheKey, boolean summarizeTaskInfos, Set<ConnectorId> connectors)
         {
             this.root = requireNonNull(root, "root is null");
+            this.hashPartitionCounts = ImmutableMap.copyOf(requireNonNull(hashPartitionCounts, "hashPartitionCounts is null"));
+            this.resultCacheKey = requireNonNull(resultCacheKey, "resultCacheKey is null");
             this.summarizeTaskInfos = summarizeTaskInfos;
             this.connectors = ImmutableSet.copyOf(connectors);
         }
@@ -549,6 +680,16 @@ public final class SqlQueryExecution
             return root;
         }
 
+        public Map<PlanFragmentId, Integer> getHashPartitionCounts()
+        {
+            return hashPartitionCounts;
+        }
+
+        public Optional<QueryResultCacheKey> getResultCacheKey()
+        {
+            return resultCacheKey;
+        }
+
         public boolean isSummarizeTaskInfos()
         {
             return summarizeTaskInfos;
@@ -572,6 +713,8 @@ public final class SqlQueryExecution
         private final NodePartitioningManager nodePartitioningManager;
         private final NodeScheduler nodeScheduler;
         private final CostCalculator costCalculator;
+        private final QueryPlanCache planCache;
+        private final QueryResultCache resultCache;
         private final List<PlanOptimizer> planOptimizers;
         private final RemoteTaskFactory remoteTaskFactory;
         private final TransactionManager transactionManager;
@@ -593,6 +736,8 @@ public final class SqlQueryExecution
                 NodePartitioningManager nodePartitioningManager,
                 NodeScheduler nodeScheduler,
                 CostCalculator costCalculator,
+                QueryPlanCache planCache,
+                QueryResultCache resultCache,
                 PlanOptimizers planOptimizers,
                 RemoteTaskFactory remoteTaskFactory,
                 TransactionManager transactionManager,
@@ -624,6 +769,8 @@ public final class SqlQueryExecution
 
             this.executionPolicies = requireNonNull(executionPolicies, "schedulerPolicies is null");
             this.costCalculator = requireNonNull(costCalculator, "cost calculator is null");
+            this.planCache = requireNonNull(planCache, "planCache is null");
+            this.resultCache = requireNonNull(resultCache, "resultCache is null");
             this.planOptimizers = planOptimizers.get();
         }
 
@@ -648,6 +795,8 @@ public final class SqlQueryExecution
                     nodePartitioningManager,
                     nodeScheduler,
                     costCalculator,
+                    planCache,
+                    resultCache,
                     planOptimizers,
                     remoteTaskFactory,
                     locationFactory,
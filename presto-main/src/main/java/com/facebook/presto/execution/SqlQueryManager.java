@@ -23,6 +23,7 @@ import com.facebook.presto.memory.ClusterMemoryManager;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.metadata.SessionPropertyManager;
 import com.facebook.presto.security.AccessControl;
+import com.facebook.presto.server.BasicQueryInfo;
 import com.facebook.presto.server.SessionSupplier;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.QueryId;
@@ -89,8 +90,6 @@ public class SqlQueryManager
 {
     private static final Logger log = Logger.get(SqlQueryManager.class);
 
-    private final SqlParser sqlParser;
-
     private final ExecutorService queryExecutor;
     private final ThreadPoolExecutorMBean queryExecutorMBean;
     private final QueryQueueManager queueManager;
@@ -124,10 +123,15 @@ public class SqlQueryManager
 
     private final SqlQueryManagerStats stats = new SqlQueryManagerStats();
 
+    private final StragglerTaskDetector stragglerTaskDetector;
+
+    private final ParsedStatementCache parsedStatements;
+
     @Inject
     public SqlQueryManager(
             SqlParser sqlParser,
             QueryManagerConfig config,
+            TaskManagerConfig taskManagerConfig,
             QueryMonitor queryMonitor,
             QueryQueueManager queueManager,
             ClusterMemoryManager memoryManager,
@@ -139,8 +143,6 @@ public class SqlQueryManager
             Map<Class<? extends Statement>, QueryExecutionFactory<?>> executionFactories,
             Metadata metadata)
     {
-        this.sqlParser = requireNonNull(sqlParser, "sqlParser is null");
-
         this.executionFactories = requireNonNull(executionFactories, "executionFactories is null");
 
         this.queryExecutor = newCachedThreadPool(threadsNamed("query-scheduler-%s"));
@@ -167,6 +169,10 @@ public class SqlQueryManager
         this.clientTimeout = config.getClientTimeout();
         this.maxQueryLength = config.getMaxQueryLength();
 
+        this.stragglerTaskDetector = new StragglerTaskDetector(requireNonNull(taskManagerConfig, "taskManagerConfig is null"));
+
+        this.parsedStatements = new ParsedStatementCache(sqlParser, config.getParsedStatementCacheMaxSize());
+
         queryManagementExecutor = Executors.newScheduledThreadPool(config.getQueryManagerExecutorPoolSize(), threadsNamed("query-management-%s"));
         queryManagementExecutorMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) queryManagementExecutor);
         queryManagementExecutor.scheduleWithFixedDelay(new Runnable()
@@ -210,6 +216,14 @@ public class SqlQueryManager
                 }
             }
         }, 1, 1, TimeUnit.SECONDS);
+        queryManagementExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                detectStragglerTasks();
+            }
+            catch (Throwable e) {
+                log.warn(e, "Error detecting straggler tasks");
+            }
+        }, 10, 10, TimeUnit.SECONDS);
     }
 
     @PreDestroy
@@ -253,6 +267,22 @@ public class SqlQueryManager
                 .collect(toImmutableList());
     }
 
+    @Override
+    public List<BasicQueryInfo> getAllBasicQueryInfo()
+    {
+        return queries.values().stream()
+                .map(queryExecution -> {
+                    try {
+                        return queryExecution.getBasicQueryInfo();
+                    }
+                    catch (RuntimeException ignored) {
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull)
+                .collect(toImmutableList());
+    }
+
     @Override
     public Duration waitForStateChange(QueryId queryId, QueryState currentState, Duration maxWait)
             throws InterruptedException
@@ -349,8 +379,8 @@ public class SqlQueryManager
                 throw new PrestoException(QUERY_TEXT_TOO_LARGE, format("Query text length (%s) exceeds the maximum length (%s)", queryLength, maxQueryLength));
             }
 
-            Statement wrappedStatement = sqlParser.createStatement(query);
-            statement = unwrapExecuteStatement(wrappedStatement, sqlParser, session);
+            Statement wrappedStatement = parsedStatements.getStatement(query);
+            statement = wrappedStatement instanceof Execute ? parsedStatements.getStatement(session.getPreparedStatementFromExecute((Execute) wrappedStatement)) : wrappedStatement;
             List<Expression> parameters = wrappedStatement instanceof Execute ? ((Execute) wrappedStatement).getParameters() : emptyList();
             validateParameters(statement, parameters);
             QueryExecutionFactory<?> queryExecutionFactory = executionFactories.get(statement.getClass());
@@ -480,6 +510,18 @@ public class SqlQueryManager
         return stats;
     }
 
+    @Managed
+    public long getParsedStatementCacheSize()
+    {
+        return parsedStatements.getSize();
+    }
+
+    @Managed
+    public double getParsedStatementCacheHitRate()
+    {
+        return parsedStatements.getHitRate();
+    }
+
     @Managed(description = "Query scheduler executor")
     @Nested
     public ThreadPoolExecutorMBean getExecutor()
@@ -514,13 +556,33 @@ public class SqlQueryManager
                 continue;
             }
             Duration queryMaxRunTime = SystemSessionProperties.getQueryMaxRunTime(query.getSession());
-            DateTime executionStartTime = query.getQueryInfo().getQueryStats().getCreateTime();
+            DateTime executionStartTime = query.getCreateTime();
             if (executionStartTime.plus(queryMaxRunTime.toMillis()).isBeforeNow()) {
                 query.fail(new PrestoException(EXCEEDED_TIME_LIMIT, "Query exceeded maximum time limit of " + queryMaxRunTime));
             }
         }
     }
 
+    /**
+     * Report the tasks which process their leaf splits much slower than the other tasks of the same stage
+     */
+    private void detectStragglerTasks()
+    {
+        for (QueryExecution query : queries.values()) {
+            if (query.getState() != RUNNING) {
+                stragglerTaskDetector.removeQuery(query.getQueryId());
+                continue;
+            }
+            for (TaskInfo task : stragglerTaskDetector.detectStragglerTasks(query.getSourceStageTaskInfos())) {
+                stats.stragglerTaskDetected();
+                log.warn("Task %s on %s is a straggler: its leaf splits are much slower than those of the other tasks of stage %s",
+                        task.getTaskStatus().getTaskId(),
+                        task.getTaskStatus().getSelf().getHost(),
+                        task.getTaskStatus().getTaskId().getStageId());
+            }
+        }
+    }
+
     /**
      * Prune extraneous info from old queries
      */
@@ -571,22 +633,25 @@ public class SqlQueryManager
     public void failAbandonedQueries()
     {
         for (QueryExecution queryExecution : queries.values()) {
-            QueryInfo queryInfo = queryExecution.getQueryInfo();
-            if (queryInfo.getState().isDone()) {
+            if (queryExecution.getState().isDone()) {
+                // building the query info is what moves a finished query to its final info,
+                // which is cheap to fetch once captured
+                queryExecution.getQueryInfo();
                 continue;
             }
 
-            if (isAbandoned(queryInfo)) {
+            // avoid building the full query info for running queries, as it covers every stage and task
+            if (isAbandoned(queryExecution)) {
                 log.info("Failing abandoned query %s", queryExecution.getQueryId());
-                queryExecution.fail(new PrestoException(ABANDONED_QUERY, format("Query %s has not been accessed since %s: currentTime %s", queryInfo.getQueryId(), queryInfo.getQueryStats().getLastHeartbeat(), DateTime.now())));
+                queryExecution.fail(new PrestoException(ABANDONED_QUERY, format("Query %s has not been accessed since %s: currentTime %s", queryExecution.getQueryId(), queryExecution.getLastHeartbeat(), DateTime.now())));
             }
         }
     }
 
-    private boolean isAbandoned(QueryInfo queryInfo)
+    private boolean isAbandoned(QueryExecution query)
     {
         DateTime oldestAllowedHeartbeat = DateTime.now().minus(clientTimeout.toMillis());
-        DateTime lastHeartbeat = queryInfo.getQueryStats().getLastHeartbeat();
+        DateTime lastHeartbeat = query.getLastHeartbeat();
 
         return lastHeartbeat != null && lastHeartbeat.isBefore(oldestAllowedHeartbeat);
     }
@@ -41,6 +41,7 @@ public class SqlQueryManagerStats
     private final CounterStat consumedInputRows = new CounterStat();
     private final CounterStat consumedInputBytes = new CounterStat();
     private final CounterStat consumedCpuTimeSecs = new CounterStat();
+    private final CounterStat stragglerTasks = new CounterStat();
     private final TimeStat executionTime = new TimeStat(MILLISECONDS);
     private final DistributionStat wallInputBytesRate = new DistributionStat();
     private final DistributionStat cpuInputByteRate = new DistributionStat();
@@ -56,6 +57,11 @@ public class SqlQueryManagerStats
         runningQueries.decrementAndGet();
     }
 
+    public void stragglerTaskDetected()
+    {
+        stragglerTasks.update(1);
+    }
+
     public void queryFinished(QueryInfo info)
     {
         completedQueries.update(1);
@@ -152,6 +158,13 @@ public class SqlQueryManagerStats
         return consumedCpuTimeSecs;
     }
 
+    @Managed
+    @Nested
+    public CounterStat getStragglerTasks()
+    {
+        return stragglerTasks;
+    }
+
     @Managed
     @Nested
     public TimeStat getExecutionTime()
@@ -46,7 +46,6 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -194,12 +193,19 @@ public final class SqlStageExecution
         return stateMachine.getMemoryReservation();
     }
 
-    public synchronized Duration getTotalCpuTime()
+    public Duration getTotalCpuTime()
     {
-        long millis = getAllTasks().stream()
-                .mapToLong(task -> task.getTaskInfo().getStats().getTotalCpuTime().toMillis())
-                .sum();
-        return new Duration(millis, TimeUnit.MILLISECONDS);
+        return stateMachine.getBasicStageStats().getTotalCpuTime();
+    }
+
+    public BasicStageStats getBasicStageStats()
+    {
+        return stateMachine.getBasicStageStats();
+    }
+
+    public List<TaskInfo> getLatestTaskInfos()
+    {
+        return stateMachine.getLatestTaskInfos();
     }
 
     public StageInfo getStageInfo()
@@ -342,6 +348,8 @@ public final class SqlStageExecution
         nodeTaskMap.addTask(node, task);
 
         task.addStateChangeListener(new StageTaskListener());
+        stateMachine.updateTaskInfo(task.getTaskInfo());
+        task.addTaskInfoListener(stateMachine::updateTaskInfo);
 
         if (!stateMachine.getState().isDone()) {
             task.start();
@@ -22,8 +22,10 @@ import com.facebook.presto.execution.buffer.BufferResult;
 import com.facebook.presto.execution.buffer.LazyOutputBuffer;
 import com.facebook.presto.execution.buffer.OutputBuffer;
 import com.facebook.presto.memory.QueryContext;
+import com.facebook.presto.operator.SpillContext;
 import com.facebook.presto.operator.TaskContext;
 import com.facebook.presto.operator.TaskStats;
+import com.facebook.presto.spiller.SerializedPageSpillerFactory;
 import com.facebook.presto.sql.planner.PlanFragment;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.base.Function;
@@ -80,7 +82,8 @@ public class SqlTask
             SqlTaskExecutionFactory sqlTaskExecutionFactory,
             ExecutorService taskNotificationExecutor,
             final Function<SqlTask, ?> onDone,
-            DataSize maxBufferSize)
+            DataSize maxBufferSize,
+            Optional<SerializedPageSpillerFactory> outputBufferSpillerFactory)
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.taskInstanceId = UUID.randomUUID().toString();
@@ -90,8 +93,15 @@ public class SqlTask
         requireNonNull(taskNotificationExecutor, "taskNotificationExecutor is null");
         requireNonNull(onDone, "onDone is null");
         requireNonNull(maxBufferSize, "maxBufferSize is null");
+        requireNonNull(outputBufferSpillerFactory, "outputBufferSpillerFactory is null");
 
-        outputBuffer = new LazyOutputBuffer(taskId, taskInstanceId, taskNotificationExecutor, maxBufferSize, new UpdateSystemMemory(queryContext));
+        outputBuffer = new LazyOutputBuffer(
+                taskId,
+                taskInstanceId,
+                taskNotificationExecutor,
+                maxBufferSize,
+                new UpdateSystemMemory(queryContext),
+                outputBufferSpillerFactory.map(spillerFactory -> () -> spillerFactory.create(new QuerySpillContext(queryContext))));
         taskStateMachine = new TaskStateMachine(taskId, taskNotificationExecutor);
         taskStateMachine.addStateChangeListener(new StateChangeListener<TaskState>()
         {
@@ -157,6 +167,28 @@ public class SqlTask
         }
     }
 
+    private static final class QuerySpillContext
+            implements SpillContext
+    {
+        private final QueryContext queryContext;
+
+        public QuerySpillContext(QueryContext queryContext)
+        {
+            this.queryContext = requireNonNull(queryContext, "queryContext is null");
+        }
+
+        @Override
+        public void updateBytes(long bytes)
+        {
+            if (bytes > 0) {
+                queryContext.reserveSpill(bytes);
+            }
+            else {
+                queryContext.freeSpill(-bytes);
+            }
+        }
+    }
+
     public SqlTaskIoStats getIoStats()
     {
         return taskHolderReference.get().getIoStats();
@@ -204,6 +236,15 @@ public class SqlTask
         }
 
         TaskStats taskStats = getTaskStats(taskHolder);
+
+        long queuedPartitionedSplitsWeight = 0;
+        long runningPartitionedSplitsWeight = 0;
+        SqlTaskExecution taskExecution = taskHolder.getTaskExecution();
+        if (taskHolder.getFinalTaskInfo() == null && taskExecution != null) {
+            queuedPartitionedSplitsWeight = taskExecution.getQueuedPartitionedSplitsWeight();
+            runningPartitionedSplitsWeight = taskExecution.getRunningPartitionedSplitsWeight();
+        }
+
         return new TaskStatus(taskStateMachine.getTaskId(),
                 taskInstanceId,
                 versionNumber,
@@ -212,6 +253,8 @@ public class SqlTask
                 failures,
                 taskStats.getQueuedPartitionedDrivers(),
                 taskStats.getRunningPartitionedDrivers(),
+                queuedPartitionedSplitsWeight,
+                runningPartitionedSplitsWeight,
                 taskStats.getMemoryReservation());
     }
 
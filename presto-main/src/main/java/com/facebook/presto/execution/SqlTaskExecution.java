@@ -61,6 +61,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static com.facebook.presto.SystemSessionProperties.getInitialSplitsPerNode;
@@ -92,6 +93,13 @@ public class SqlTaskExecution
      */
     private final AtomicInteger remainingDrivers = new AtomicInteger();
 
+    /**
+     * Total weight of the partitioned splits waiting for a driver and of those being processed by a driver.
+     * The coordinator uses them to balance the work assigned to each node.
+     */
+    private final AtomicLong queuedPartitionedSplitsWeight = new AtomicLong();
+    private final AtomicLong runningPartitionedSplitsWeight = new AtomicLong();
+
     // guarded for update only
     @GuardedBy("this")
     private final ConcurrentMap<PlanNodeId, TaskSource> unpartitionedSources = new ConcurrentHashMap<>();
@@ -238,6 +246,16 @@ public class SqlTaskExecution
         return taskContext;
     }
 
+    public long getQueuedPartitionedSplitsWeight()
+    {
+        return queuedPartitionedSplitsWeight.get();
+    }
+
+    public long getRunningPartitionedSplitsWeight()
+    {
+        return runningPartitionedSplitsWeight.get();
+    }
+
     public void addSources(List<TaskSource> sources)
     {
         requireNonNull(sources, "sources is null");
@@ -508,7 +526,28 @@ public class SqlTaskExecution
             // create driver context immediately so the driver existence is recorded in the stats
             // the number of drivers is used to balance work across nodes
             DriverContext driverContext = pipelineContext.addDriverContext(partitioned);
-            return new DriverSplitRunner(this, driverContext, partitionedSplit);
+            long splitWeight = 0;
+            if (partitionedSplit != null) {
+                splitWeight = partitionedSplit.getSplit().getSplitWeight();
+                queuedPartitionedSplitsWeight.addAndGet(splitWeight);
+            }
+            return new DriverSplitRunner(this, driverContext, partitionedSplit, splitWeight);
+        }
+
+        private void splitStarted(long splitWeight)
+        {
+            queuedPartitionedSplitsWeight.addAndGet(-splitWeight);
+            runningPartitionedSplitsWeight.addAndGet(splitWeight);
+        }
+
+        private void splitClosed(boolean started, long splitWeight)
+        {
+            if (started) {
+                runningPartitionedSplitsWeight.addAndGet(-splitWeight);
+            }
+            else {
+                queuedPartitionedSplitsWeight.addAndGet(-splitWeight);
+            }
         }
 
         private Driver createDriver(DriverContext driverContext, @Nullable ScheduledSplit partitionedSplit)
@@ -570,15 +609,17 @@ public class SqlTaskExecution
 
         @Nullable
         private final ScheduledSplit partitionedSplit;
+        private final long splitWeight;
 
         @GuardedBy("this")
         private Driver driver;
 
-        private DriverSplitRunner(DriverSplitRunnerFactory driverSplitRunnerFactory, DriverContext driverContext, @Nullable ScheduledSplit partitionedSplit)
+        private DriverSplitRunner(DriverSplitRunnerFactory driverSplitRunnerFactory, DriverContext driverContext, @Nullable ScheduledSplit partitionedSplit, long splitWeight)
         {
             this.driverSplitRunnerFactory = requireNonNull(driverSplitRunnerFactory, "driverFactory is null");
             this.driverContext = requireNonNull(driverContext, "driverContext is null");
             this.partitionedSplit = partitionedSplit;
+            this.splitWeight = splitWeight;
         }
 
         public synchronized DriverContext getDriverContext()
@@ -615,6 +656,7 @@ public class SqlTaskExecution
 
                 if (this.driver == null) {
                     this.driver = driverSplitRunnerFactory.createDriver(driverContext, partitionedSplit);
+                    driverSplitRunnerFactory.splitStarted(splitWeight);
                 }
 
                 driver = this.driver;
@@ -634,6 +676,9 @@ public class SqlTaskExecution
         {
             Driver driver;
             synchronized (this) {
+                if (!closed) {
+                    driverSplitRunnerFactory.splitClosed(this.driver != null, splitWeight);
+                }
                 closed = true;
                 driver = this.driver;
             }
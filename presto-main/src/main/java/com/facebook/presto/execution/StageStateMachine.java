@@ -21,12 +21,17 @@ import com.facebook.presto.operator.OperatorStats;
 import com.facebook.presto.operator.PipelineStats;
 import com.facebook.presto.operator.TaskStats;
 import com.facebook.presto.sql.planner.PlanFragment;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
 import com.facebook.presto.util.Failures;
+import com.google.common.collect.HashMultiset;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multiset;
 import io.airlift.log.Logger;
 import io.airlift.stats.Distribution;
 import org.joda.time.DateTime;
 
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 import java.net.URI;
@@ -54,6 +59,7 @@ import static com.facebook.presto.execution.StageState.TERMINAL_STAGE_STATES;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static io.airlift.units.DataSize.succinctBytes;
 import static io.airlift.units.Duration.succinctDuration;
+import static io.airlift.units.Duration.succinctNanos;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
@@ -79,6 +85,32 @@ public class StageStateMachine
     private final AtomicLong peakMemory = new AtomicLong();
     private final AtomicLong currentMemory = new AtomicLong();
 
+    // running totals of the latest task infos, so the basic stats do not walk every task
+    @GuardedBy("this")
+    private final Map<TaskId, TaskInfo> latestTaskInfos = new HashMap<>();
+    @GuardedBy("this")
+    private int totalDrivers;
+    @GuardedBy("this")
+    private int queuedDrivers;
+    @GuardedBy("this")
+    private int runningDrivers;
+    @GuardedBy("this")
+    private int completedDrivers;
+    @GuardedBy("this")
+    private double cumulativeMemory;
+    @GuardedBy("this")
+    private long totalCpuTime;
+    @GuardedBy("this")
+    private long rawInputDataSize;
+    @GuardedBy("this")
+    private long rawInputPositions;
+    @GuardedBy("this")
+    private int runningTasks;
+    @GuardedBy("this")
+    private int notFullyBlockedRunningTasks;
+    @GuardedBy("this")
+    private final Multiset<BlockedReason> runningTaskBlockedReasons = HashMultiset.create();
+
     public StageStateMachine(
             StageId stageId,
             URI location,
@@ -196,6 +228,102 @@ public class StageStateMachine
         }
     }
 
+    /**
+     * Replaces the contribution of the task to the running totals of the stage
+     * with the given task info. Task infos older than the latest one seen for
+     * the task are ignored.
+     */
+    public synchronized void updateTaskInfo(TaskInfo taskInfo)
+    {
+        TaskId taskId = taskInfo.getTaskStatus().getTaskId();
+        TaskInfo previousTaskInfo = latestTaskInfos.get(taskId);
+        if (previousTaskInfo != null) {
+            TaskStatus previousTaskStatus = previousTaskInfo.getTaskStatus();
+            if (previousTaskStatus.getState().isDone() || previousTaskStatus.getVersion() > taskInfo.getTaskStatus().getVersion()) {
+                return;
+            }
+            addTaskStats(previousTaskInfo, -1);
+        }
+        latestTaskInfos.put(taskId, taskInfo);
+        addTaskStats(taskInfo, 1);
+    }
+
+    @GuardedBy("this")
+    private void addTaskStats(TaskInfo taskInfo, int sign)
+    {
+        TaskStats taskStats = taskInfo.getStats();
+
+        totalDrivers += sign * taskStats.getTotalDrivers();
+        queuedDrivers += sign * taskStats.getQueuedDrivers();
+        runningDrivers += sign * taskStats.getRunningDrivers();
+        completedDrivers += sign * taskStats.getCompletedDrivers();
+
+        cumulativeMemory += sign * taskStats.getCumulativeMemory();
+        totalCpuTime += sign * taskStats.getTotalCpuTime().roundTo(NANOSECONDS);
+
+        rawInputDataSize += sign * taskStats.getRawInputDataSize().toBytes();
+        rawInputPositions += sign * taskStats.getRawInputPositions();
+
+        if (!taskInfo.getTaskStatus().getState().isDone()) {
+            runningTasks += sign;
+            if (!taskStats.isFullyBlocked()) {
+                notFullyBlockedRunningTasks += sign;
+            }
+            for (BlockedReason blockedReason : taskStats.getBlockedReasons()) {
+                if (sign > 0) {
+                    runningTaskBlockedReasons.add(blockedReason);
+                }
+                else {
+                    runningTaskBlockedReasons.remove(blockedReason);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the latest info of each task of the stage, as received by {@link #updateTaskInfo}.
+     */
+    public synchronized List<TaskInfo> getLatestTaskInfos()
+    {
+        return ImmutableList.copyOf(latestTaskInfos.values());
+    }
+
+    /**
+     * Returns the stats of the stage from the running totals of its task infos.
+     * Use {@link #getStageInfo} for the per task and per operator detail.
+     */
+    public synchronized BasicStageStats getBasicStageStats()
+    {
+        StageState state = stageState.get();
+        boolean isScheduled = (state == RUNNING) || state.isDone();
+
+        // a finished stage does not change whether the query is fully blocked
+        boolean fullyBlocked = state.isDone() || (runningTasks > 0 && notFullyBlockedRunningTasks == 0);
+        Set<BlockedReason> blockedReasons = state.isDone() ? ImmutableSet.of() : runningTaskBlockedReasons.elementSet();
+
+        // raw input is only reported by the stages reading tables, same as in the query stats
+        boolean readsTables = fragment.getPartitionedSourceNodes().stream().anyMatch(TableScanNode.class::isInstance);
+
+        return new BasicStageStats(
+                isScheduled,
+
+                totalDrivers,
+                queuedDrivers,
+                runningDrivers,
+                completedDrivers,
+
+                succinctBytes(readsTables ? rawInputDataSize : 0),
+                readsTables ? rawInputPositions : 0,
+
+                cumulativeMemory,
+                succinctBytes(getMemoryReservation()),
+
+                succinctNanos(totalCpuTime),
+
+                fullyBlocked,
+                blockedReasons);
+    }
+
     public StageInfo getStageInfo(Supplier<Iterable<TaskInfo>> taskInfosSupplier, Supplier<Iterable<StageInfo>> subStageInfosSupplier)
     {
         // stage state must be captured first in order to provide a
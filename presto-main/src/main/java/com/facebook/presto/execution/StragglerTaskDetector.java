@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.operator.TaskStats;
+import com.facebook.presto.spi.QueryId;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.Duration;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Compares the tasks of each source stage across workers: a running task whose leaf splits
+ * take much more wall time per input byte than the splits of the other tasks of the stage
+ * is most likely stuck on a slow or overloaded worker.
+ */
+@ThreadSafe
+public class StragglerTaskDetector
+{
+    private final double wallTimeRatio;
+    private final int minCompletedSplits;
+    private final long minWallTimeNanos;
+
+    @GuardedBy("this")
+    private final Set<TaskId> reportedTasks = new HashSet<>();
+
+    public StragglerTaskDetector(TaskManagerConfig config)
+    {
+        this(config.getStragglerSplitWallTimeRatio(), config.getStragglerSplitMinCompletedSplits(), config.getStragglerSplitMinWallTime());
+    }
+
+    public StragglerTaskDetector(double wallTimeRatio, int minCompletedSplits, Duration minWallTime)
+    {
+        checkArgument(wallTimeRatio >= 1.0, "wallTimeRatio must be at least 1");
+        checkArgument(minCompletedSplits > 0, "minCompletedSplits must be at least 1");
+        this.wallTimeRatio = wallTimeRatio;
+        this.minCompletedSplits = minCompletedSplits;
+        this.minWallTimeNanos = requireNonNull(minWallTime, "minWallTime is null").roundTo(NANOSECONDS);
+    }
+
+    /**
+     * Returns the straggler tasks, among the latest task infos of the source stages of a query,
+     * which have not been returned by a previous call.
+     */
+    public synchronized List<TaskInfo> detectStragglerTasks(Map<StageId, List<TaskInfo>> sourceStageTaskInfos)
+    {
+        ImmutableList.Builder<TaskInfo> stragglers = ImmutableList.builder();
+        for (List<TaskInfo> stageTasks : sourceStageTaskInfos.values()) {
+            for (TaskInfo task : findStragglerTasks(stageTasks)) {
+                if (reportedTasks.add(task.getTaskStatus().getTaskId())) {
+                    stragglers.add(task);
+                }
+            }
+        }
+        return stragglers.build();
+    }
+
+    public synchronized void removeQuery(QueryId queryId)
+    {
+        reportedTasks.removeIf(taskId -> taskId.getQueryId().equals(queryId));
+    }
+
+    @VisibleForTesting
+    List<TaskInfo> findStragglerTasks(List<TaskInfo> tasks)
+    {
+        List<TaskInfo> measuredTasks = tasks.stream()
+                .filter(task -> task.getStats().getCompletedDrivers() >= minCompletedSplits)
+                .filter(task -> task.getStats().getRawInputDataSize().toBytes() > 0)
+                .collect(toImmutableList());
+
+        ImmutableList.Builder<TaskInfo> stragglers = ImmutableList.builder();
+        for (TaskInfo task : measuredTasks) {
+            if (task.getTaskStatus().getState() != TaskState.RUNNING || task.getStats().getTotalScheduledTime().roundTo(NANOSECONDS) < minWallTimeNanos) {
+                continue;
+            }
+            double[] peerWallNanosPerByte = measuredTasks.stream()
+                    .filter(peer -> peer != task)
+                    .mapToDouble(peer -> wallNanosPerByte(peer.getStats()))
+                    .sorted()
+                    .toArray();
+            if (peerWallNanosPerByte.length == 0) {
+                continue;
+            }
+            double peerMedian = peerWallNanosPerByte[peerWallNanosPerByte.length / 2];
+            if (wallNanosPerByte(task.getStats()) > peerMedian * wallTimeRatio) {
+                stragglers.add(task);
+            }
+        }
+        return stragglers.build();
+    }
+
+    private static double wallNanosPerByte(TaskStats stats)
+    {
+        return stats.getTotalScheduledTime().getValue(NANOSECONDS) / stats.getRawInputDataSize().toBytes();
+    }
+}
@@ -24,6 +24,7 @@ import io.airlift.units.Duration;
 import io.airlift.units.MaxDuration;
 import io.airlift.units.MinDuration;
 
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
@@ -47,8 +48,12 @@ public class TaskManagerConfig
     private Integer minDrivers;
     private Integer initialSplitsPerNode;
     private Duration splitConcurrencyAdjustmentInterval = new Duration(100, TimeUnit.MILLISECONDS);
+    private double stragglerSplitWallTimeRatio = 4.0;
+    private int stragglerSplitMinCompletedSplits = 10;
+    private Duration stragglerSplitMinWallTime = new Duration(10, TimeUnit.SECONDS);
 
     private DataSize sinkMaxBufferSize = new DataSize(32, Unit.MEGABYTE);
+    private boolean sinkSpillEnabled;
     private DataSize maxPagePartitioningBufferSize = new DataSize(32, Unit.MEGABYTE);
 
     private Duration clientTimeout = new Duration(2, TimeUnit.MINUTES);
@@ -217,6 +222,48 @@ public class TaskManagerConfig
         return this;
     }
 
+    @DecimalMin("1.0")
+    public double getStragglerSplitWallTimeRatio()
+    {
+        return stragglerSplitWallTimeRatio;
+    }
+
+    @Config("task.straggler-split.wall-time-ratio")
+    @ConfigDescription("Multiple of the average wall time of its peers after which a running leaf split is reported as a straggler")
+    public TaskManagerConfig setStragglerSplitWallTimeRatio(double stragglerSplitWallTimeRatio)
+    {
+        this.stragglerSplitWallTimeRatio = stragglerSplitWallTimeRatio;
+        return this;
+    }
+
+    @Min(1)
+    public int getStragglerSplitMinCompletedSplits()
+    {
+        return stragglerSplitMinCompletedSplits;
+    }
+
+    @Config("task.straggler-split.min-completed-splits")
+    @ConfigDescription("Number of completed peer splits required before straggler splits are detected")
+    public TaskManagerConfig setStragglerSplitMinCompletedSplits(int stragglerSplitMinCompletedSplits)
+    {
+        this.stragglerSplitMinCompletedSplits = stragglerSplitMinCompletedSplits;
+        return this;
+    }
+
+    @NotNull
+    public Duration getStragglerSplitMinWallTime()
+    {
+        return stragglerSplitMinWallTime;
+    }
+
+    @Config("task.straggler-split.min-wall-time")
+    @ConfigDescription("Wall time a leaf split must run before it can be reported as a straggler")
+    public TaskManagerConfig setStragglerSplitMinWallTime(Duration stragglerSplitMinWallTime)
+    {
+        this.stragglerSplitMinWallTime = stragglerSplitMinWallTime;
+        return this;
+    }
+
     @NotNull
     public DataSize getSinkMaxBufferSize()
     {
@@ -230,6 +277,19 @@ public class TaskManagerConfig
         return this;
     }
 
+    public boolean isSinkSpillEnabled()
+    {
+        return sinkSpillEnabled;
+    }
+
+    @Config("sink.spill-enabled")
+    @ConfigDescription("Spill partitioned output buffer pages to disk instead of waiting for readers when the buffer is full")
+    public TaskManagerConfig setSinkSpillEnabled(boolean sinkSpillEnabled)
+    {
+        this.sinkSpillEnabled = sinkSpillEnabled;
+        return this;
+    }
+
     @NotNull
     public DataSize getMaxPagePartitioningBufferSize()
     {
@@ -36,7 +36,11 @@ import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.Futures.allAsList;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.transform;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
@@ -178,21 +182,22 @@ class ClientBuffer
         pagesSupplier.ifPresent(supplier -> loadPagesIfNecessary(supplier, maxSize));
 
         PendingRead oldPendingRead = null;
+        ReadResult readResult;
         try {
             synchronized (this) {
                 // save off the old pending read so we can abort it out side of the lock
                 oldPendingRead = this.pendingRead;
                 this.pendingRead = null;
 
-                // Return results immediately if we have data, there will be no more data, or this is
-                // an out of order request
-                if (!pages.isEmpty() || noMorePages || sequenceId != currentSequenceId.get()) {
-                    return immediateFuture(processRead(sequenceId, maxSize));
+                // wait for more data to arrive if there is none, more may come, and this is an in order request
+                if (pages.isEmpty() && !noMorePages && sequenceId == currentSequenceId.get()) {
+                    pendingRead = new PendingRead(taskInstanceId, sequenceId, maxSize);
+                    return pendingRead.getResultFuture();
                 }
 
-                // otherwise, wait for more data to arrive
-                pendingRead = new PendingRead(taskInstanceId, sequenceId, maxSize);
-                return pendingRead.getResultFuture();
+                // Return results immediately if we have data, there will be no more data, or this is
+                // an out of order request
+                readResult = processRead(sequenceId, maxSize);
             }
         }
         finally {
@@ -202,6 +207,7 @@ class ClientBuffer
                 oldPendingRead.completeResultFutureWithEmpty();
             }
         }
+        return readResult.getBufferResult();
     }
 
     public void setNoMorePages()
@@ -298,14 +304,14 @@ class ClientBuffer
             return;
         }
 
-        BufferResult bufferResult = processRead(pendingRead.getSequenceId(), pendingRead.getMaxSize());
-        pendingRead.getResultFuture().set(bufferResult);
+        ReadResult readResult = processRead(pendingRead.getSequenceId(), pendingRead.getMaxSize());
+        pendingRead.getResultFuture().setFuture(readResult.getBufferResult());
     }
 
     /**
      * @return a result with at least one page if we have pages in buffer, empty result otherwise
      */
-    private synchronized BufferResult processRead(long sequenceId, DataSize maxSize)
+    private synchronized ReadResult processRead(long sequenceId, DataSize maxSize)
     {
         // When pages are added to the partition buffer they are effectively
         // assigned an id starting from zero. When a read is processed, the
@@ -332,13 +338,13 @@ class ClientBuffer
 
         // if request is for pages before the current position, just return an empty result
         if (sequenceId < currentSequenceId.get()) {
-            return emptyResults(taskInstanceId, sequenceId, false);
+            return new ReadResult(emptyResults(taskInstanceId, sequenceId, false));
         }
 
         // if this buffer is finished, notify the client of this, so the client
         // will destroy this buffer
         if (pages.isEmpty() && noMorePages) {
-            return emptyResults(taskInstanceId, currentSequenceId.get(), true);
+            return new ReadResult(emptyResults(taskInstanceId, currentSequenceId.get(), true));
         }
 
         // if request is for pages after the current position, there is a bug somewhere
@@ -350,8 +356,9 @@ class ClientBuffer
 
         // read the new pages
         long maxBytes = maxSize.toBytes();
-        List<SerializedPage> result = new ArrayList<>();
+        List<SerializedPageReference> result = new ArrayList<>();
         long bytes = 0;
+        boolean spilled = false;
 
         for (SerializedPageReference page : pages) {
             bytes += page.getRetainedSizeInBytes();
@@ -359,9 +366,27 @@ class ClientBuffer
             if (!result.isEmpty() && bytes > maxBytes) {
                 break;
             }
-            result.add(page.getSerializedPage());
+            result.add(page);
+            spilled |= page.isSpilled();
+        }
+
+        if (!spilled) {
+            List<SerializedPage> serializedPages = result.stream()
+                    .map(SerializedPageReference::getSerializedPage)
+                    .collect(toImmutableList());
+            return new ReadResult(new BufferResult(taskInstanceId, sequenceId, sequenceId + serializedPages.size(), false, serializedPages));
         }
-        return new BufferResult(taskInstanceId, sequenceId, sequenceId + result.size(), false, result);
+
+        // Spilled pages are read back on the spiller executor, outside of the lock. The pages
+        // may be acknowledged in the meantime, so the read holds a reference to them until it is done.
+        result.forEach(SerializedPageReference::addReference);
+        ListenableFuture<BufferResult> bufferResult = transform(
+                allAsList(result.stream()
+                        .map(SerializedPageReference::loadSerializedPage)
+                        .collect(toImmutableList())),
+                serializedPages -> new BufferResult(taskInstanceId, sequenceId, sequenceId + serializedPages.size(), false, serializedPages),
+                directExecutor());
+        return new ReadResult(bufferResult, result);
     }
 
     /**
@@ -420,6 +445,35 @@ class ClientBuffer
                 .toString();
     }
 
+    private static class ReadResult
+    {
+        private final ListenableFuture<BufferResult> bufferResult;
+        private final List<SerializedPageReference> referencedPages;
+
+        public ReadResult(BufferResult bufferResult)
+        {
+            this(immediateFuture(bufferResult), ImmutableList.of());
+        }
+
+        public ReadResult(ListenableFuture<BufferResult> bufferResult, List<SerializedPageReference> referencedPages)
+        {
+            this.bufferResult = requireNonNull(bufferResult, "bufferResult is null");
+            this.referencedPages = ImmutableList.copyOf(requireNonNull(referencedPages, "referencedPages is null"));
+        }
+
+        /**
+         * Must be called without holding the buffer lock, because dropping the
+         * references of the read pages can trigger callbacks.
+         */
+        public ListenableFuture<BufferResult> getBufferResult()
+        {
+            if (!referencedPages.isEmpty()) {
+                bufferResult.addListener(() -> referencedPages.forEach(SerializedPageReference::dereferencePage), directExecutor());
+            }
+            return bufferResult;
+        }
+    }
+
     @Immutable
     private static class PendingRead
     {
@@ -18,13 +18,18 @@ import com.facebook.presto.OutputBuffers.OutputBufferId;
 import com.facebook.presto.execution.StateMachine;
 import com.facebook.presto.execution.StateMachine.StateChangeListener;
 import com.facebook.presto.execution.SystemMemoryUsageListener;
+import com.facebook.presto.spiller.SerializedPageSpiller;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 
+import javax.annotation.concurrent.GuardedBy;
+
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 import static com.facebook.presto.OutputBuffers.BufferType.PARTITIONED;
 import static com.facebook.presto.execution.buffer.BufferState.FAILED;
@@ -51,15 +56,25 @@ public class PartitionedOutputBuffer
     private final AtomicLong totalPagesAdded = new AtomicLong();
     private final AtomicLong totalRowsAdded = new AtomicLong();
 
+    private final Optional<Supplier<SerializedPageSpiller>> spillerFactory;
+
+    @GuardedBy("this")
+    private SerializedPageSpiller spiller;
+
+    @GuardedBy("this")
+    private boolean spillerClosed;
+
     public PartitionedOutputBuffer(
             String taskInstanceId,
             StateMachine<BufferState> state,
             OutputBuffers outputBuffers,
             DataSize maxBufferSize,
             SystemMemoryUsageListener systemMemoryUsageListener,
-            Executor notificationExecutor)
+            Executor notificationExecutor,
+            Optional<Supplier<SerializedPageSpiller>> spillerFactory)
     {
         this.state = requireNonNull(state, "state is null");
+        this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
 
         requireNonNull(outputBuffers, "outputBuffers is null");
         checkArgument(outputBuffers.getType() == PARTITIONED, "Expected a PARTITIONED output buffer descriptor");
@@ -166,29 +181,74 @@ public class PartitionedOutputBuffer
             return immediateFuture(true);
         }
 
-        // reserve memory
-        long bytesAdded = pages.stream().mapToLong(SerializedPage::getRetainedSizeInBytes).sum();
-        memoryManager.updateMemoryUsage(bytesAdded);
+        // when the buffer is full, write the pages to disk instead of waiting for the readers,
+        // so a slow reader does not hold the upstream operators and their memory
+        List<SerializedPageReference> serializedPageReferences;
+        if (spillerFactory.isPresent() && memoryManager.isFull()) {
+            serializedPageReferences = spillPages(pages);
+        }
+        else {
+            // reserve memory
+            long bytesAdded = pages.stream().mapToLong(SerializedPage::getRetainedSizeInBytes).sum();
+            memoryManager.updateMemoryUsage(bytesAdded);
+
+            // create page reference counts with an initial single reference
+            serializedPageReferences = pages.stream()
+                    .map(bufferedPage -> new SerializedPageReference(bufferedPage, 1, () -> memoryManager.updateMemoryUsage(-bufferedPage.getRetainedSizeInBytes())))
+                    .collect(toImmutableList());
+        }
 
         // update stats
         long rowCount = pages.stream().mapToLong(SerializedPage::getPositionCount).sum();
         totalRowsAdded.addAndGet(rowCount);
         totalPagesAdded.addAndGet(pages.size());
 
-        // create page reference counts with an initial single reference
-        List<SerializedPageReference> serializedPageReferences = pages.stream()
-                .map(bufferedPage -> new SerializedPageReference(bufferedPage, 1, () -> memoryManager.updateMemoryUsage(-bufferedPage.getRetainedSizeInBytes())))
-                .collect(toImmutableList());
-
         // add pages to the buffer (this will increase the reference count by one)
         partitions.get(partitionNumber).enqueuePages(serializedPageReferences);
 
         // drop the initial reference
         serializedPageReferences.forEach(SerializedPageReference::dereferencePage);
 
+        // with spilling enabled the writer waits for the spill writes instead of the readers
+        if (spillerFactory.isPresent()) {
+            return getSpillingFuture();
+        }
         return memoryManager.getNotFullFuture();
     }
 
+    private synchronized List<SerializedPageReference> spillPages(List<SerializedPage> pages)
+    {
+        // the buffer was destroyed or failed concurrently, so the pages will never be read
+        if (spillerClosed) {
+            return ImmutableList.of();
+        }
+
+        if (spiller == null) {
+            spiller = spillerFactory.get().get();
+        }
+
+        // spilled pages do not hold memory, but their spill file is deleted once all of its pages are released
+        return spiller.spill(pages).stream()
+                .map(spilledPage -> new SerializedPageReference(spilledPage, 1, spilledPage::release))
+                .collect(toImmutableList());
+    }
+
+    private synchronized ListenableFuture<?> getSpillingFuture()
+    {
+        if (spiller == null || spillerClosed) {
+            return immediateFuture(true);
+        }
+        return spiller.getSpillingFuture();
+    }
+
+    private synchronized void closeSpiller()
+    {
+        spillerClosed = true;
+        if (spiller != null) {
+            spiller.close();
+        }
+    }
+
     @Override
     public ListenableFuture<BufferResult> get(OutputBufferId outputBufferId, long startingSequenceId, DataSize maxSize)
     {
@@ -227,6 +287,7 @@ public class PartitionedOutputBuffer
         if (state.setIf(FINISHED, oldState -> !oldState.isTerminal())) {
             partitions.forEach(ClientBuffer::destroy);
             memoryManager.setNoBlockOnFull();
+            closeSpiller();
         }
     }
 
@@ -237,6 +298,9 @@ public class PartitionedOutputBuffer
         if (state.setIf(FAILED, oldState -> !oldState.isTerminal())) {
             memoryManager.setNoBlockOnFull();
             // DO NOT destroy buffers or set no more pages.  The coordinator manages the teardown of failed queries.
+            // The spill file is removed now though, because destroy is ignored once the buffer has failed,
+            // so reads of spilled pages from a failed buffer fail as well.
+            closeSpiller();
         }
     }
 
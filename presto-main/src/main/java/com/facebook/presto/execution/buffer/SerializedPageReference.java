@@ -13,6 +13,9 @@
  */
 package com.facebook.presto.execution.buffer;
 
+import com.facebook.presto.spiller.SerializedPageSpiller.SpilledPage;
+import com.google.common.util.concurrent.ListenableFuture;
+
 import javax.annotation.concurrent.ThreadSafe;
 
 import java.util.concurrent.atomic.AtomicInteger;
@@ -20,18 +23,32 @@ import java.util.concurrent.atomic.AtomicInteger;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
 class SerializedPageReference
 {
+    // exactly one of these is set
     private final SerializedPage serializedPage;
+    private final SpilledPage spilledPage;
     private final AtomicInteger referenceCount;
     private final Runnable onDereference;
 
     public SerializedPageReference(SerializedPage serializedPage, int referenceCount, Runnable onDereference)
     {
-        this.serializedPage = requireNonNull(serializedPage, "page is null");
+        this(requireNonNull(serializedPage, "page is null"), null, referenceCount, onDereference);
+    }
+
+    public SerializedPageReference(SpilledPage spilledPage, int referenceCount, Runnable onDereference)
+    {
+        this(null, requireNonNull(spilledPage, "spilledPage is null"), referenceCount, onDereference);
+    }
+
+    private SerializedPageReference(SerializedPage serializedPage, SpilledPage spilledPage, int referenceCount, Runnable onDereference)
+    {
+        this.serializedPage = serializedPage;
+        this.spilledPage = spilledPage;
         checkArgument(referenceCount > 0, "referenceCount must be at least 1");
         this.referenceCount = new AtomicInteger(referenceCount);
         this.onDereference = requireNonNull(onDereference, "onDereference is null");
@@ -45,19 +62,43 @@ class SerializedPageReference
 
     public SerializedPage getSerializedPage()
     {
+        checkState(spilledPage == null, "Page is spilled");
         return serializedPage;
     }
 
+    /**
+     * Returns the page, reading it back from disk if it was spilled. The caller must
+     * hold a reference to the page until the returned future is done.
+     */
+    public ListenableFuture<SerializedPage> loadSerializedPage()
+    {
+        if (spilledPage != null) {
+            return spilledPage.read();
+        }
+        return immediateFuture(serializedPage);
+    }
+
     public int getPositionCount()
     {
+        if (spilledPage != null) {
+            return spilledPage.getPositionCount();
+        }
         return serializedPage.getPositionCount();
     }
 
     public long getRetainedSizeInBytes()
     {
+        if (spilledPage != null) {
+            return spilledPage.getRetainedSizeInBytes();
+        }
         return serializedPage.getRetainedSizeInBytes();
     }
 
+    public boolean isSpilled()
+    {
+        return spilledPage != null;
+    }
+
     public void dereferencePage()
     {
         int remainingReferences = referenceCount.decrementAndGet();
@@ -73,6 +114,7 @@ class SerializedPageReference
     {
         return toStringHelper(this)
                 .add("referenceCount", referenceCount)
+                .add("spilled", isSpilled())
                 .toString();
     }
 }
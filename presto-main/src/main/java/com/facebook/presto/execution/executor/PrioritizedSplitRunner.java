@@ -53,6 +53,7 @@ class PrioritizedSplitRunner
     private final SettableFuture<?> finishedFuture = SettableFuture.create();
 
     private final AtomicBoolean destroyed = new AtomicBoolean();
+    private final AtomicBoolean straggler = new AtomicBoolean();
 
     private final AtomicInteger priorityLevel = new AtomicInteger();
     private final AtomicLong taskScheduledNanos = new AtomicLong();
@@ -123,6 +124,26 @@ class PrioritizedSplitRunner
         return createdNanos;
     }
 
+    /**
+     * Returns the wall time since this split first started running, or zero if it has not started yet.
+     */
+    public long getRunningWallNanos()
+    {
+        long startNanos = start.get();
+        if (startNanos == 0) {
+            return 0;
+        }
+        return ticker.read() - startNanos;
+    }
+
+    /**
+     * Marks this split as a straggler. Returns false if it was already marked.
+     */
+    public boolean markStraggler()
+    {
+        return straggler.compareAndSet(false, true);
+    }
+
     public boolean isFinished()
     {
         boolean finished = split.isFinished();
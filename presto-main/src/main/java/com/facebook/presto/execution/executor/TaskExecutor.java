@@ -20,6 +20,7 @@ import com.facebook.presto.spi.PrestoException;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Ticker;
 import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
 import io.airlift.concurrent.ThreadPoolExecutorMBean;
@@ -90,6 +91,12 @@ public class TaskExecutor
     private final int runnerThreads;
     private final int minimumNumberOfDrivers;
 
+    // a running leaf split is reported as a straggler once its wall time exceeds this multiple
+    // of the average wall time of the leaf splits already completed by the same task
+    private final double stragglerWallTimeRatio;
+    private final int stragglerMinCompletedSplits;
+    private final long stragglerMinWallTimeNanos;
+
     private final Ticker ticker;
 
     private final ScheduledExecutorService splitMonitorExecutor = newSingleThreadScheduledExecutor(daemonThreadsNamed("TaskExecutor"));
@@ -146,6 +153,8 @@ public class TaskExecutor
     private final CounterStat globalCpuTimeMicros = new CounterStat();
     private final CounterStat globalScheduledTimeMicros = new CounterStat();
 
+    private final CounterStat stragglerLeafSplits = new CounterStat();
+
     private final TimeStat blockedQuantaWallTime = new TimeStat(MICROSECONDS);
     private final TimeStat unblockedQuantaWallTime = new TimeStat(MICROSECONDS);
 
@@ -154,7 +163,13 @@ public class TaskExecutor
     @Inject
     public TaskExecutor(TaskManagerConfig config)
     {
-        this(requireNonNull(config, "config is null").getMaxWorkerThreads(), config.getMinDrivers());
+        this(
+                requireNonNull(config, "config is null").getMaxWorkerThreads(),
+                config.getMinDrivers(),
+                config.getStragglerSplitWallTimeRatio(),
+                config.getStragglerSplitMinCompletedSplits(),
+                config.getStragglerSplitMinWallTime(),
+                Ticker.systemTicker());
     }
 
     public TaskExecutor(int runnerThreads, int minDrivers)
@@ -164,8 +179,17 @@ public class TaskExecutor
 
     @VisibleForTesting
     public TaskExecutor(int runnerThreads, int minDrivers, Ticker ticker)
+    {
+        this(runnerThreads, minDrivers, 4.0, 10, new Duration(10, TimeUnit.SECONDS), ticker);
+    }
+
+    @VisibleForTesting
+    public TaskExecutor(int runnerThreads, int minDrivers, double stragglerWallTimeRatio, int stragglerMinCompletedSplits, Duration stragglerMinWallTime, Ticker ticker)
     {
         checkArgument(runnerThreads > 0, "runnerThreads must be at least 1");
+        checkArgument(stragglerWallTimeRatio >= 1.0, "stragglerWallTimeRatio must be at least 1");
+        checkArgument(stragglerMinCompletedSplits > 0, "stragglerMinCompletedSplits must be at least 1");
+        requireNonNull(stragglerMinWallTime, "stragglerMinWallTime is null");
 
         // we manage thread pool size directly, so create an unlimited pool
         this.executor = newCachedThreadPool(threadsNamed("task-processor-%s"));
@@ -175,6 +199,9 @@ public class TaskExecutor
         this.ticker = requireNonNull(ticker, "ticker is null");
 
         this.minimumNumberOfDrivers = minDrivers;
+        this.stragglerWallTimeRatio = stragglerWallTimeRatio;
+        this.stragglerMinCompletedSplits = stragglerMinCompletedSplits;
+        this.stragglerMinWallTimeNanos = stragglerMinWallTime.roundTo(NANOSECONDS);
         this.waitingSplits = new PriorityBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 10);
         this.tasks = new LinkedList<>();
 
@@ -191,6 +218,7 @@ public class TaskExecutor
             addRunnerThread();
         }
         splitMonitorExecutor.scheduleWithFixedDelay(this::monitorActiveSplits, 1, 1, TimeUnit.MINUTES);
+        splitMonitorExecutor.scheduleWithFixedDelay(this::detectStragglerLeafSplits, 10, 10, TimeUnit.SECONDS);
     }
 
     @PreDestroy
@@ -323,6 +351,7 @@ public class TaskExecutor
                 intermediateSplitWaitTime.add(split.getWaitNanos());
             }
             else {
+                split.getTaskHandle().recordCompletedLeafSplit(split.getRunningWallNanos());
                 leafSplitWallTime.add(wallNanos);
                 leafSplitScheduledTime.add(split.getScheduledNanos());
                 leafSplitWaitTime.add(split.getWaitNanos());
@@ -426,6 +455,33 @@ public class TaskExecutor
         }
     }
 
+    @VisibleForTesting
+    public void detectStragglerLeafSplits()
+    {
+        List<TaskHandle> tasks;
+        synchronized (this) {
+            tasks = ImmutableList.copyOf(this.tasks);
+        }
+
+        for (TaskHandle task : tasks) {
+            long completedSplits = task.getCompletedLeafSplits();
+            if (completedSplits < stragglerMinCompletedSplits) {
+                continue;
+            }
+            long averageWallNanos = task.getAverageCompletedLeafSplitWallNanos();
+            long thresholdNanos = Math.max(stragglerMinWallTimeNanos, (long) (averageWallNanos * stragglerWallTimeRatio));
+            for (PrioritizedSplitRunner split : task.listRunningLeafSplits()) {
+                if (split.getRunningWallNanos() > thresholdNanos && split.markStraggler()) {
+                    stragglerLeafSplits.update(1);
+                    log.info("%s is a straggler: the average of the %s leaf splits completed by the task is %s",
+                            split.getInfo(),
+                            completedSplits,
+                            Duration.succinctNanos(averageWallNanos));
+                }
+            }
+        }
+    }
+
     private class TaskRunner
             implements Runnable
     {
@@ -743,6 +799,13 @@ public class TaskExecutor
         return intermediateSplitWallTime;
     }
 
+    @Managed
+    @Nested
+    public CounterStat getStragglerLeafSplits()
+    {
+        return stragglerLeafSplits;
+    }
+
     @Managed
     @Nested
     public CounterStat getGlobalScheduledTimeMicros()
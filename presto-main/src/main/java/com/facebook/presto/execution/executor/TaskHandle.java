@@ -47,6 +47,10 @@ public class TaskHandle
     @GuardedBy("this")
     private long taskThreadUsageNanos;
     @GuardedBy("this")
+    private long completedLeafSplits;
+    @GuardedBy("this")
+    private long completedLeafSplitWallNanos;
+    @GuardedBy("this")
     private boolean destroyed;
     @GuardedBy("this")
     private final SplitConcurrencyController concurrencyController;
@@ -110,6 +114,30 @@ public class TaskHandle
         return runningLeafSplits.size();
     }
 
+    public synchronized List<PrioritizedSplitRunner> listRunningLeafSplits()
+    {
+        return ImmutableList.copyOf(runningLeafSplits);
+    }
+
+    public synchronized void recordCompletedLeafSplit(long wallNanos)
+    {
+        completedLeafSplits++;
+        completedLeafSplitWallNanos += wallNanos;
+    }
+
+    public synchronized long getCompletedLeafSplits()
+    {
+        return completedLeafSplits;
+    }
+
+    public synchronized long getAverageCompletedLeafSplitWallNanos()
+    {
+        if (completedLeafSplits == 0) {
+            return 0;
+        }
+        return completedLeafSplitWallNanos / completedLeafSplits;
+    }
+
     public synchronized long getThreadUsageNanos()
     {
         return taskThreadUsageNanos;
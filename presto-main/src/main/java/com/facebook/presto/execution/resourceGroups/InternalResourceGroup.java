@@ -20,6 +20,7 @@ import com.facebook.presto.spi.resourceGroups.ResourceGroupId;
 import com.facebook.presto.spi.resourceGroups.ResourceGroupInfo;
 import com.facebook.presto.spi.resourceGroups.ResourceGroupState;
 import com.facebook.presto.spi.resourceGroups.SchedulingPolicy;
+import com.google.common.collect.ImmutableList;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import org.weakref.jmx.Managed;
@@ -35,6 +36,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 
@@ -109,6 +111,8 @@ public class InternalResourceGroup
     private UpdateablePriorityQueue<QueryExecution> queuedQueries = new FifoQueue<>();
     @GuardedBy("root")
     private final Set<QueryExecution> runningQueries = new HashSet<>();
+    // Queued and running queries, readable without the root lock so that finished queries are handled only once
+    private final Set<QueryExecution> activeQueries = ConcurrentHashMap.newKeySet();
     @GuardedBy("root")
     private SchedulingPolicy schedulingPolicy = FAIR;
     @GuardedBy("root")
@@ -465,6 +469,7 @@ public class InternalResourceGroup
                 query.fail(new QueryQueueFullException(id));
                 return;
             }
+            activeQueries.add(query);
             if (canRun) {
                 startInBackground(query);
             }
@@ -532,17 +537,24 @@ public class InternalResourceGroup
 
     private void queryFinished(QueryExecution query)
     {
+        if (!activeQueries.remove(query)) {
+            // Query has already been cleaned up
+            return;
+        }
+
+        // Only count the CPU time if the query succeeded, or the failure was the fault of the user.
+        // Building the query info is expensive, so do it before taking the lock.
+        long cpuTimeMillis = 0;
+        if (query.getState() == QueryState.FINISHED || query.getQueryInfo().getErrorType() == USER_ERROR) {
+            cpuTimeMillis = query.getTotalCpuTime().toMillis();
+        }
+
         synchronized (root) {
-            if (!runningQueries.contains(query) && !queuedQueries.contains(query)) {
-                // Query has already been cleaned up
-                return;
-            }
-            // Only count the CPU time if the query succeeded, or the failure was the fault of the user
-            if (query.getState() == QueryState.FINISHED || query.getQueryInfo().getErrorType() == USER_ERROR) {
+            if (cpuTimeMillis > 0) {
                 InternalResourceGroup group = this;
                 while (group != null) {
                     try {
-                        group.cpuUsageMillis = Math.addExact(group.cpuUsageMillis, query.getTotalCpuTime().toMillis());
+                        group.cpuUsageMillis = Math.addExact(group.cpuUsageMillis, cpuTimeMillis);
                     }
                     catch (ArithmeticException e) {
                         group.cpuUsageMillis = Long.MAX_VALUE;
@@ -570,15 +582,27 @@ public class InternalResourceGroup
         }
     }
 
+    protected void internalCollectRunningQueries(ImmutableList.Builder<QueryExecution> queries)
+    {
+        checkState(Thread.holdsLock(root), "Must hold lock to collect running queries");
+        synchronized (root) {
+            queries.addAll(runningQueries);
+            for (InternalResourceGroup subGroup : dirtySubGroups) {
+                subGroup.internalCollectRunningQueries(queries);
+            }
+        }
+    }
+
     // Memory usage stats are expensive to maintain, so this method must be called periodically to update them
-    protected void internalRefreshStats()
+    protected void internalRefreshStats(Map<QueryExecution, Long> memoryReservations)
     {
         checkState(Thread.holdsLock(root), "Must hold lock to refresh stats");
         synchronized (root) {
             if (subGroups.isEmpty()) {
                 cachedMemoryUsageBytes = 0;
                 for (QueryExecution query : runningQueries) {
-                    cachedMemoryUsageBytes += query.getTotalMemoryReservation();
+                    // queries started after the reservations were collected have not allocated anything yet
+                    cachedMemoryUsageBytes += memoryReservations.getOrDefault(query, 0L);
                 }
             }
             else {
@@ -586,7 +610,7 @@ public class InternalResourceGroup
                     InternalResourceGroup subGroup = iterator.next();
                     long oldMemoryUsageBytes = subGroup.cachedMemoryUsageBytes;
                     cachedMemoryUsageBytes -= oldMemoryUsageBytes;
-                    subGroup.internalRefreshStats();
+                    subGroup.internalRefreshStats(memoryReservations);
                     cachedMemoryUsageBytes += subGroup.cachedMemoryUsageBytes;
                     if (!subGroup.isDirty()) {
                         iterator.remove();
@@ -760,11 +784,24 @@ public class InternalResourceGroup
             super(Optional.empty(), name, jmxExportListener, executor);
         }
 
-        public synchronized void processQueuedQueries()
+        public void processQueuedQueries()
         {
-            internalRefreshStats();
-            while (internalStartNext()) {
-                // start all the queries we can
+            // Computing memory reservations walks every stage of every running query,
+            // so do it without holding the lock that guards admission to the whole tree
+            ImmutableList.Builder<QueryExecution> runningQueries = ImmutableList.builder();
+            synchronized (this) {
+                internalCollectRunningQueries(runningQueries);
+            }
+            Map<QueryExecution, Long> memoryReservations = new HashMap<>();
+            for (QueryExecution query : runningQueries.build()) {
+                memoryReservations.put(query, query.getTotalMemoryReservation());
+            }
+
+            synchronized (this) {
+                internalRefreshStats(memoryReservations);
+                while (internalStartNext()) {
+                    // start all the queries we can
+                }
             }
         }
 
@@ -27,9 +27,10 @@ import static java.util.Objects.requireNonNull;
 public final class NodeAssignmentStats
 {
     private final NodeTaskMap nodeTaskMap;
-    private final Map<Node, Integer> assignmentCount = new HashMap<>();
-    private final Map<Node, Integer> splitCountByNode = new HashMap<>();
-    private final Map<String, Integer> queuedSplitCountByNode = new HashMap<>();
+    // weights are in the unit of ConnectorSplit.STANDARD_SPLIT_WEIGHT
+    private final Map<Node, Long> assignedWeight = new HashMap<>();
+    private final Map<Node, Long> splitsWeightByNode = new HashMap<>();
+    private final Map<String, Long> queuedSplitsWeightByNode = new HashMap<>();
 
     public NodeAssignmentStats(NodeTaskMap nodeTaskMap, NodeMap nodeMap, List<RemoteTask> existingTasks)
     {
@@ -37,26 +38,26 @@ public final class NodeAssignmentStats
 
         // pre-populate the assignment counts with zeros. This makes getOrDefault() faster
         for (Node node : nodeMap.getNodesByHostAndPort().values()) {
-            assignmentCount.put(node, 0);
+            assignedWeight.put(node, 0L);
         }
 
         for (RemoteTask task : existingTasks) {
-            checkArgument(queuedSplitCountByNode.put(task.getNodeId(), task.getQueuedPartitionedSplitCount()) == null, "A single stage may not have multiple tasks running on the same node");
+            checkArgument(queuedSplitsWeightByNode.put(task.getNodeId(), task.getQueuedPartitionedSplitsWeight()) == null, "A single stage may not have multiple tasks running on the same node");
         }
     }
 
-    public int getTotalSplitCount(Node node)
+    public long getTotalSplitsWeight(Node node)
     {
-        return assignmentCount.getOrDefault(node, 0) + splitCountByNode.computeIfAbsent(node, nodeTaskMap::getPartitionedSplitsOnNode);
+        return assignedWeight.getOrDefault(node, 0L) + splitsWeightByNode.computeIfAbsent(node, nodeTaskMap::getPartitionedSplitsWeightOnNode);
     }
 
-    public int getQueuedSplitCountForStage(Node node)
+    public long getQueuedSplitsWeightForStage(Node node)
     {
-        return queuedSplitCountByNode.getOrDefault(node.getNodeIdentifier(), 0) + assignmentCount.getOrDefault(node, 0);
+        return queuedSplitsWeightByNode.getOrDefault(node.getNodeIdentifier(), 0L) + assignedWeight.getOrDefault(node, 0L);
     }
 
-    public void addAssignedSplit(Node node)
+    public void addAssignedSplit(Node node, int splitWeight)
     {
-        assignmentCount.merge(node, 1, (x, y) -> x + y);
+        assignedWeight.merge(node, (long) splitWeight, Long::sum);
     }
 }
@@ -50,6 +50,7 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import static com.facebook.presto.execution.scheduler.NodeSchedulerConfig.NetworkTopologyType;
+import static com.facebook.presto.spi.ConnectorSplit.STANDARD_SPLIT_WEIGHT;
 import static com.facebook.presto.spi.NodeState.ACTIVE;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
@@ -271,16 +272,19 @@ public class NodeScheduler
         Multimap<Node, Split> assignments = HashMultimap.create();
         NodeAssignmentStats assignmentStats = new NodeAssignmentStats(nodeTaskMap, nodeMap, existingTasks);
 
+        long maxSplitsWeightPerNode = (long) maxSplitsPerNode * STANDARD_SPLIT_WEIGHT;
+        long maxPendingSplitsWeightPerTask = (long) maxPendingSplitsPerTask * STANDARD_SPLIT_WEIGHT;
+
         Set<Node> blockedNodes = new HashSet<>();
         for (Split split : splits) {
             // node placement is forced by the partitioning
             Node node = partitioning.getNode(split);
 
             // if node is full, don't schedule now, which will push back on the scheduling of splits
-            if (assignmentStats.getTotalSplitCount(node) < maxSplitsPerNode ||
-                    assignmentStats.getQueuedSplitCountForStage(node) < maxPendingSplitsPerTask) {
+            if (assignmentStats.getTotalSplitsWeight(node) < maxSplitsWeightPerNode ||
+                    assignmentStats.getQueuedSplitsWeightForStage(node) < maxPendingSplitsWeightPerTask) {
                 assignments.put(node, split);
-                assignmentStats.addAssignedSplit(node);
+                assignmentStats.addAssignedSplit(node, split.getSplitWeight());
             }
             else {
                 blockedNodes.add(node);
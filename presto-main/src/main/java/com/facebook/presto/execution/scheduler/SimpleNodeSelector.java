@@ -39,6 +39,7 @@ import static com.facebook.presto.execution.scheduler.NodeScheduler.selectDistri
 import static com.facebook.presto.execution.scheduler.NodeScheduler.selectExactNodes;
 import static com.facebook.presto.execution.scheduler.NodeScheduler.selectNodes;
 import static com.facebook.presto.execution.scheduler.NodeScheduler.toWhenHasSplitQueueSpaceFuture;
+import static com.facebook.presto.spi.ConnectorSplit.STANDARD_SPLIT_WEIGHT;
 import static com.facebook.presto.spi.StandardErrorCode.NO_NODES_AVAILABLE;
 import static java.util.Objects.requireNonNull;
 
@@ -54,6 +55,8 @@ public class SimpleNodeSelector
     private final int minCandidates;
     private final int maxSplitsPerNode;
     private final int maxPendingSplitsPerTask;
+    private final long maxSplitsWeightPerNode;
+    private final long maxPendingSplitsWeightPerTask;
 
     public SimpleNodeSelector(
             InternalNodeManager nodeManager,
@@ -71,6 +74,8 @@ public class SimpleNodeSelector
         this.minCandidates = minCandidates;
         this.maxSplitsPerNode = maxSplitsPerNode;
         this.maxPendingSplitsPerTask = maxPendingSplitsPerTask;
+        this.maxSplitsWeightPerNode = (long) maxSplitsPerNode * STANDARD_SPLIT_WEIGHT;
+        this.maxPendingSplitsWeightPerTask = (long) maxPendingSplitsPerTask * STANDARD_SPLIT_WEIGHT;
     }
 
     @Override
@@ -124,32 +129,36 @@ public class SimpleNodeSelector
             }
 
             Node chosenNode = null;
-            int min = Integer.MAX_VALUE;
+            long min = Long.MAX_VALUE;
 
             for (Node node : candidateNodes) {
-                int totalSplitCount = assignmentStats.getTotalSplitCount(node);
-                if (totalSplitCount < min && totalSplitCount < maxSplitsPerNode) {
+                long totalSplitsWeight = assignmentStats.getTotalSplitsWeight(node);
+                if (totalSplitsWeight < min && totalSplitsWeight < maxSplitsWeightPerNode) {
                     chosenNode = node;
-                    min = totalSplitCount;
+                    min = totalSplitsWeight;
                 }
             }
             if (chosenNode == null) {
                 // min is guaranteed to be MAX_VALUE at this line
                 for (Node node : candidateNodes) {
-                    int totalSplitCount = assignmentStats.getQueuedSplitCountForStage(node);
-                    if (totalSplitCount < min && totalSplitCount < maxPendingSplitsPerTask) {
+                    long queuedSplitsWeight = assignmentStats.getQueuedSplitsWeightForStage(node);
+                    if (queuedSplitsWeight < min && queuedSplitsWeight < maxPendingSplitsWeightPerTask) {
                         chosenNode = node;
-                        min = totalSplitCount;
+                        min = queuedSplitsWeight;
                     }
                 }
             }
             if (chosenNode != null) {
                 assignment.put(chosenNode, split);
-                assignmentStats.addAssignedSplit(chosenNode);
+                assignmentStats.addAssignedSplit(chosenNode, split.getSplitWeight());
             }
             else {
                 if (split.isRemotelyAccessible()) {
                     splitWaitingForAnyNode = true;
+                    if (!randomCandidates.hasNext()) {
+                        // every node was a candidate and none had room, so no remaining split can be placed
+                        break;
+                    }
                 }
                 // Exact node set won't matter, if a split is waiting for any node
                 else if (!splitWaitingForAnyNode) {
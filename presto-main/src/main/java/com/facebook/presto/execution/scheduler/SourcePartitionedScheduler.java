@@ -89,22 +89,7 @@ public class SourcePartitionedScheduler
                 if (splitSource.isFinished()) {
                     return handleNoMoreSplits();
                 }
-                batchFuture = splitSource.getNextBatch(splitBatchSize);
-
-                long start = System.nanoTime();
-                Futures.addCallback(batchFuture, new FutureCallback<List<Split>>()
-                {
-                    @Override
-                    public void onSuccess(List<Split> result)
-                    {
-                        stage.recordGetSplitTime(start);
-                    }
-
-                    @Override
-                    public void onFailure(Throwable t)
-                    {
-                    }
-                });
+                batchFuture = getNextBatch();
             }
 
             if (!batchFuture.isDone()) {
@@ -114,6 +99,11 @@ public class SourcePartitionedScheduler
             }
             pendingSplits = ImmutableSet.copyOf(getFutureValue(batchFuture));
             batchFuture = null;
+
+            // let the source produce the next batch while this one is placed and delivered
+            if (!splitSource.isFinished()) {
+                batchFuture = getNextBatch();
+            }
         }
 
         if (!pendingSplits.isEmpty() && state == State.INITIALIZED) {
@@ -139,13 +129,34 @@ public class SourcePartitionedScheduler
         }
 
         // all splits assigned - check if the source is finished
-        boolean finished = splitSource.isFinished();
+        boolean finished = batchFuture == null && splitSource.isFinished();
         if (finished) {
             splitSource.close();
         }
         return new ScheduleResult(finished, newTasks, splitAssignment.values().size());
     }
 
+    private ListenableFuture<List<Split>> getNextBatch()
+    {
+        ListenableFuture<List<Split>> batch = splitSource.getNextBatch(splitBatchSize);
+
+        long start = System.nanoTime();
+        Futures.addCallback(batch, new FutureCallback<List<Split>>()
+        {
+            @Override
+            public void onSuccess(List<Split> result)
+            {
+                stage.recordGetSplitTime(start);
+            }
+
+            @Override
+            public void onFailure(Throwable t)
+            {
+            }
+        });
+        return batch;
+    }
+
     private ScheduleResult handleNoMoreSplits()
     {
         switch (state) {
@@ -17,6 +17,7 @@ import com.facebook.presto.OutputBuffers;
 import com.facebook.presto.OutputBuffers.OutputBufferId;
 import com.facebook.presto.Session;
 import com.facebook.presto.connector.ConnectorId;
+import com.facebook.presto.execution.BasicStageStats;
 import com.facebook.presto.execution.LocationFactory;
 import com.facebook.presto.execution.NodeTaskMap;
 import com.facebook.presto.execution.QueryState;
@@ -27,6 +28,7 @@ import com.facebook.presto.execution.SqlStageExecution;
 import com.facebook.presto.execution.StageId;
 import com.facebook.presto.execution.StageInfo;
 import com.facebook.presto.execution.StageState;
+import com.facebook.presto.execution.TaskInfo;
 import com.facebook.presto.failureDetector.FailureDetector;
 import com.facebook.presto.spi.Node;
 import com.facebook.presto.spi.PrestoException;
@@ -34,6 +36,7 @@ import com.facebook.presto.split.SplitSource;
 import com.facebook.presto.sql.planner.NodePartitionMap;
 import com.facebook.presto.sql.planner.NodePartitioningManager;
 import com.facebook.presto.sql.planner.PartitioningHandle;
+import com.facebook.presto.sql.planner.PlanFragment;
 import com.facebook.presto.sql.planner.StageExecutionPlan;
 import com.facebook.presto.sql.planner.plan.PlanFragmentId;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
@@ -63,6 +66,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import static com.facebook.presto.connector.ConnectorId.isInternalSystemConnector;
+import static com.facebook.presto.execution.BasicStageStats.aggregateBasicStageStats;
 import static com.facebook.presto.execution.StageState.ABORTED;
 import static com.facebook.presto.execution.StageState.CANCELED;
 import static com.facebook.presto.execution.StageState.FAILED;
@@ -103,6 +107,7 @@ public class SqlQueryScheduler
     public SqlQueryScheduler(QueryStateMachine queryStateMachine,
             LocationFactory locationFactory,
             StageExecutionPlan plan,
+            Map<PlanFragmentId, Integer> hashPartitionCounts,
             NodePartitioningManager nodePartitioningManager,
             NodeScheduler nodeScheduler,
             RemoteTaskFactory remoteTaskFactory,
@@ -137,7 +142,14 @@ public class SqlQueryScheduler
                 remoteTaskFactory,
                 session,
                 splitBatchSize,
-                partitioningHandle -> partitioningCache.computeIfAbsent(partitioningHandle, handle -> nodePartitioningManager.getNodePartitioningMap(session, handle)),
+                fragment -> {
+                    Integer hashPartitionCount = hashPartitionCounts.get(fragment.getId());
+                    if (hashPartitionCount != null) {
+                        // sized for the estimated input of this stage, so it is not shared with other stages
+                        return nodePartitioningManager.getNodePartitioningMap(fragment.getPartitioning(), hashPartitionCount);
+                    }
+                    return partitioningCache.computeIfAbsent(fragment.getPartitioning(), handle -> nodePartitioningManager.getNodePartitioningMap(session, handle));
+                },
                 executor,
                 failureDetector,
                 nodeTaskMap,
@@ -198,7 +210,7 @@ public class SqlQueryScheduler
             RemoteTaskFactory remoteTaskFactory,
             Session session,
             int splitBatchSize,
-            Function<PartitioningHandle, NodePartitionMap> partitioningCache,
+            Function<PlanFragment, NodePartitionMap> partitioningCache,
             ExecutorService executor,
             FailureDetector failureDetector,
             NodeTaskMap nodeTaskMap,
@@ -238,7 +250,7 @@ public class SqlQueryScheduler
         }
         else {
             // nodes are pre determined by the nodePartitionMap
-            NodePartitionMap nodePartitionMap = partitioningCache.apply(plan.getFragment().getPartitioning());
+            NodePartitionMap nodePartitionMap = partitioningCache.apply(plan.getFragment());
 
             Map<PlanNodeId, SplitSource> splitSources = plan.getSplitSources();
             if (!splitSources.isEmpty()) {
@@ -340,6 +352,26 @@ public class SqlQueryScheduler
         return new Duration(millis, MILLISECONDS);
     }
 
+    public BasicStageStats getBasicStageStats()
+    {
+        List<BasicStageStats> stageStats = stages.values().stream()
+                .map(SqlStageExecution::getBasicStageStats)
+                .collect(toImmutableList());
+
+        return aggregateBasicStageStats(stageStats);
+    }
+
+    /**
+     * Returns the latest task infos of the running stages which read partitioned sources, without building the stage infos.
+     */
+    public Map<StageId, List<TaskInfo>> getSourceStageTaskInfos()
+    {
+        return stages.values().stream()
+                .filter(stage -> !stage.getState().isDone())
+                .filter(stage -> !stage.getFragment().getPartitionedSources().isEmpty())
+                .collect(toImmutableMap(SqlStageExecution::getStageId, SqlStageExecution::getLatestTaskInfos));
+    }
+
     public void start()
     {
         if (started.compareAndSet(false, true)) {
@@ -45,6 +45,7 @@ import static com.facebook.presto.execution.scheduler.NodeScheduler.selectDistri
 import static com.facebook.presto.execution.scheduler.NodeScheduler.selectExactNodes;
 import static com.facebook.presto.execution.scheduler.NodeScheduler.selectNodes;
 import static com.facebook.presto.execution.scheduler.NodeScheduler.toWhenHasSplitQueueSpaceFuture;
+import static com.facebook.presto.spi.ConnectorSplit.STANDARD_SPLIT_WEIGHT;
 import static com.facebook.presto.spi.StandardErrorCode.NO_NODES_AVAILABLE;
 import static java.util.Objects.requireNonNull;
 
@@ -134,7 +135,7 @@ public class TopologyAwareNodeSelector
                 Node chosenNode = bestNodeSplitCount(candidateNodes.iterator(), minCandidates, maxPendingSplitsPerTask, assignmentStats);
                 if (chosenNode != null) {
                     assignment.put(chosenNode, split);
-                    assignmentStats.addAssignedSplit(chosenNode);
+                    assignmentStats.addAssignedSplit(chosenNode, split.getSplitWeight());
                 }
                 // Exact node set won't matter, if a split is waiting for any node
                 else if (!splitWaitingForAnyNode) {
@@ -178,7 +179,7 @@ public class TopologyAwareNodeSelector
             }
             if (chosenNode != null) {
                 assignment.put(chosenNode, split);
-                assignmentStats.addAssignedSplit(chosenNode);
+                assignmentStats.addAssignedSplit(chosenNode, split.getSplitWeight());
                 topologicCounters[chosenDepth]++;
             }
             else {
@@ -228,17 +229,17 @@ public class TopologyAwareNodeSelector
     private Node bestNodeSplitCount(Iterator<Node> candidates, int minCandidatesWhenFull, int maxPendingSplitsPerTask, NodeAssignmentStats assignmentStats)
     {
         Node bestQueueNotFull = null;
-        int min = Integer.MAX_VALUE;
+        long min = Long.MAX_VALUE;
         int fullCandidatesConsidered = 0;
 
         while (candidates.hasNext() && (fullCandidatesConsidered < minCandidatesWhenFull || bestQueueNotFull == null)) {
             Node node = candidates.next();
-            if (assignmentStats.getTotalSplitCount(node) < maxSplitsPerNode) {
+            if (assignmentStats.getTotalSplitsWeight(node) < (long) maxSplitsPerNode * STANDARD_SPLIT_WEIGHT) {
                 return node;
             }
             fullCandidatesConsidered++;
-            int totalSplitCount = assignmentStats.getQueuedSplitCountForStage(node);
-            if (totalSplitCount < min && totalSplitCount < maxPendingSplitsPerTask) {
+            long queuedSplitsWeight = assignmentStats.getQueuedSplitsWeightForStage(node);
+            if (queuedSplitsWeight < min && queuedSplitsWeight < (long) maxPendingSplitsPerTask * STANDARD_SPLIT_WEIGHT) {
                 bestQueueNotFull = node;
             }
         }
@@ -121,6 +121,7 @@ import com.facebook.presto.operator.window.RankFunction;
 import com.facebook.presto.operator.window.RowNumberFunction;
 import com.facebook.presto.operator.window.SqlWindowFunction;
 import com.facebook.presto.operator.window.WindowFunctionSupplier;
+import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
@@ -898,6 +899,26 @@ public class FunctionRegistry
         }
     }
 
+    /**
+     * Returns true if the function always returns the same result for the same arguments.
+     */
+    public boolean isDeterministic(Signature signature)
+    {
+        return getSpecializedFunctionKey(signature).getFunction().isDeterministic();
+    }
+
+    /**
+     * Returns true if the result of the function depends on the session it is invoked in,
+     * such as the start time of the query, and not only on its arguments.
+     */
+    public boolean isSessionDependent(Signature signature)
+    {
+        if (signature.getKind() != SCALAR) {
+            return false;
+        }
+        return getScalarFunctionImplementation(signature).getMethodHandle().type().parameterList().contains(ConnectorSession.class);
+    }
+
     private SpecializedFunctionKey getSpecializedFunctionKey(Signature signature)
     {
         try {
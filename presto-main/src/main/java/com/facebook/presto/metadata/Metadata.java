@@ -80,6 +80,16 @@ public interface Metadata
      */
     TableStatistics getTableStatistics(Session session, TableHandle tableHandle, Constraint<ColumnHandle> constraint);
 
+    /**
+     * Returns a counter that changes whenever a statement on this coordinator changes a schema, table or view.
+     */
+    long getMetadataVersion();
+
+    /**
+     * Returns an identifier of the data read through the specified table layout, or empty if the connector can not provide one.
+     */
+    Optional<String> getDataVersion(Session session, TableLayoutHandle tableLayoutHandle);
+
     /**
      * Get the names that match the specified table prefix (never null).
      */
@@ -80,6 +80,7 @@ import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.facebook.presto.metadata.QualifiedObjectName.convertFromSchemaTableName;
 import static com.facebook.presto.metadata.TableLayout.fromConnectorLayout;
@@ -116,6 +117,7 @@ public class MetadataManager
     private final TransactionManager transactionManager;
 
     private final ConcurrentMap<String, Collection<ConnectorMetadata>> catalogsByQueryId = new ConcurrentHashMap<>();
+    private final AtomicLong metadataVersion = new AtomicLong();
 
     public MetadataManager(FeaturesConfig featuresConfig,
             TypeManager typeManager,
@@ -348,6 +350,20 @@ public class MetadataManager
         return metadata.getTableStatistics(session.toConnectorSession(connectorId), tableHandle.getConnectorHandle(), constraint);
     }
 
+    @Override
+    public long getMetadataVersion()
+    {
+        return metadataVersion.get();
+    }
+
+    @Override
+    public Optional<String> getDataVersion(Session session, TableLayoutHandle tableLayoutHandle)
+    {
+        ConnectorId connectorId = tableLayoutHandle.getConnectorId();
+        ConnectorMetadata metadata = getMetadata(session, connectorId);
+        return metadata.getDataVersion(session.toConnectorSession(connectorId), tableLayoutHandle.getConnectorHandle());
+    }
+
     @Override
     public Map<String, ColumnHandle> getColumnHandles(Session session, TableHandle tableHandle)
     {
@@ -440,6 +456,7 @@ public class MetadataManager
     @Override
     public void createSchema(Session session, CatalogSchemaName schema, Map<String, Object> properties)
     {
+        metadataVersion.incrementAndGet();
         CatalogMetadata catalogMetadata = getCatalogMetadataForWrite(session, schema.getCatalogName());
         ConnectorId connectorId = catalogMetadata.getConnectorId();
         ConnectorMetadata metadata = catalogMetadata.getMetadata();
@@ -449,6 +466,7 @@ public class MetadataManager
     @Override
     public void dropSchema(Session session, CatalogSchemaName schema)
     {
+        metadataVersion.incrementAndGet();
         CatalogMetadata catalogMetadata = getCatalogMetadataForWrite(session, schema.getCatalogName());
         ConnectorId connectorId = catalogMetadata.getConnectorId();
         ConnectorMetadata metadata = catalogMetadata.getMetadata();
@@ -458,6 +476,7 @@ public class MetadataManager
     @Override
     public void renameSchema(Session session, CatalogSchemaName source, String target)
     {
+        metadataVersion.incrementAndGet();
         CatalogMetadata catalogMetadata = getCatalogMetadataForWrite(session, source.getCatalogName());
         ConnectorId connectorId = catalogMetadata.getConnectorId();
         ConnectorMetadata metadata = catalogMetadata.getMetadata();
@@ -495,6 +514,7 @@ public class MetadataManager
     @Override
     public void createTable(Session session, String catalogName, ConnectorTableMetadata tableMetadata)
     {
+        metadataVersion.incrementAndGet();
         CatalogMetadata catalogMetadata = getCatalogMetadataForWrite(session, catalogName);
         ConnectorId connectorId = catalogMetadata.getConnectorId();
         ConnectorMetadata metadata = catalogMetadata.getMetadata();
@@ -504,6 +524,7 @@ public class MetadataManager
     @Override
     public void renameTable(Session session, TableHandle tableHandle, QualifiedObjectName newTableName)
     {
+        metadataVersion.incrementAndGet();
         String catalogName = newTableName.getCatalogName();
         CatalogMetadata catalogMetadata = getCatalogMetadataForWrite(session, catalogName);
         ConnectorId connectorId = catalogMetadata.getConnectorId();
@@ -518,6 +539,7 @@ public class MetadataManager
     @Override
     public void renameColumn(Session session, TableHandle tableHandle, ColumnHandle source, String target)
     {
+        metadataVersion.incrementAndGet();
         ConnectorId connectorId = tableHandle.getConnectorId();
         ConnectorMetadata metadata = getMetadataForWrite(session, connectorId);
         metadata.renameColumn(session.toConnectorSession(connectorId), tableHandle.getConnectorHandle(), source, target.toLowerCase(ENGLISH));
@@ -526,6 +548,7 @@ public class MetadataManager
     @Override
     public void addColumn(Session session, TableHandle tableHandle, ColumnMetadata column)
     {
+        metadataVersion.incrementAndGet();
         ConnectorId connectorId = tableHandle.getConnectorId();
         ConnectorMetadata metadata = getMetadataForWrite(session, connectorId);
         metadata.addColumn(session.toConnectorSession(connectorId), tableHandle.getConnectorHandle(), column);
@@ -534,6 +557,7 @@ public class MetadataManager
     @Override
     public void dropTable(Session session, TableHandle tableHandle)
     {
+        metadataVersion.incrementAndGet();
         ConnectorId connectorId = tableHandle.getConnectorId();
         ConnectorMetadata metadata = getMetadataForWrite(session, connectorId);
         metadata.dropTable(session.toConnectorSession(connectorId), tableHandle.getConnectorHandle());
@@ -618,6 +642,7 @@ public class MetadataManager
     @Override
     public Optional<ConnectorOutputMetadata> finishCreateTable(Session session, OutputTableHandle tableHandle, Collection<Slice> fragments)
     {
+        metadataVersion.incrementAndGet();
         ConnectorId connectorId = tableHandle.getConnectorId();
         ConnectorMetadata metadata = getMetadata(session, connectorId);
         return metadata.finishCreateTable(session.toConnectorSession(connectorId), tableHandle.getConnectorHandle(), fragments);
@@ -637,6 +662,7 @@ public class MetadataManager
     @Override
     public Optional<ConnectorOutputMetadata> finishInsert(Session session, InsertTableHandle tableHandle, Collection<Slice> fragments)
     {
+        metadataVersion.incrementAndGet();
         ConnectorId connectorId = tableHandle.getConnectorId();
         ConnectorMetadata metadata = getMetadata(session, connectorId);
         return metadata.finishInsert(session.toConnectorSession(connectorId), tableHandle.getConnectorHandle(), fragments);
@@ -664,6 +690,7 @@ public class MetadataManager
     @Override
     public OptionalLong metadataDelete(Session session, TableHandle tableHandle, TableLayoutHandle tableLayoutHandle)
     {
+        metadataVersion.incrementAndGet();
         ConnectorId connectorId = tableHandle.getConnectorId();
         ConnectorMetadata metadata = getMetadataForWrite(session, connectorId);
         return metadata.metadataDelete(session.toConnectorSession(connectorId), tableHandle.getConnectorHandle(), tableLayoutHandle.getConnectorHandle());
@@ -681,6 +708,7 @@ public class MetadataManager
     @Override
     public void finishDelete(Session session, TableHandle tableHandle, Collection<Slice> fragments)
     {
+        metadataVersion.incrementAndGet();
         ConnectorId connectorId = tableHandle.getConnectorId();
         ConnectorMetadata metadata = getMetadata(session, connectorId);
         metadata.finishDelete(session.toConnectorSession(connectorId), tableHandle.getConnectorHandle(), fragments);
@@ -771,6 +799,7 @@ public class MetadataManager
     @Override
     public void createView(Session session, QualifiedObjectName viewName, String viewData, boolean replace)
     {
+        metadataVersion.incrementAndGet();
         CatalogMetadata catalogMetadata = getCatalogMetadataForWrite(session, viewName.getCatalogName());
         ConnectorId connectorId = catalogMetadata.getConnectorId();
         ConnectorMetadata metadata = catalogMetadata.getMetadata();
@@ -781,6 +810,7 @@ public class MetadataManager
     @Override
     public void dropView(Session session, QualifiedObjectName viewName)
     {
+        metadataVersion.incrementAndGet();
         CatalogMetadata catalogMetadata = getCatalogMetadataForWrite(session, viewName.getCatalogName());
         ConnectorId connectorId = catalogMetadata.getConnectorId();
         ConnectorMetadata metadata = catalogMetadata.getMetadata();
@@ -803,6 +833,7 @@ public class MetadataManager
     @Override
     public void grantTablePrivileges(Session session, QualifiedObjectName tableName, Set<Privilege> privileges, String grantee, boolean grantOption)
     {
+        metadataVersion.incrementAndGet();
         CatalogMetadata catalogMetadata = getCatalogMetadataForWrite(session, tableName.getCatalogName());
         ConnectorId connectorId = catalogMetadata.getConnectorId();
         ConnectorMetadata metadata = catalogMetadata.getMetadata();
@@ -813,6 +844,7 @@ public class MetadataManager
     @Override
     public void revokeTablePrivileges(Session session, QualifiedObjectName tableName, Set<Privilege> privileges, String grantee, boolean grantOption)
     {
+        metadataVersion.incrementAndGet();
         CatalogMetadata catalogMetadata = getCatalogMetadataForWrite(session, tableName.getCatalogName());
         ConnectorId connectorId = catalogMetadata.getConnectorId();
         ConnectorMetadata metadata = catalogMetadata.getMetadata();
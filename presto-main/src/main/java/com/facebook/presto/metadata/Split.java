@@ -75,6 +75,11 @@ public final class Split
         return connectorSplit.isRemotelyAccessible();
     }
 
+    public int getSplitWeight()
+    {
+        return connectorSplit.getSplitWeight();
+    }
+
     @Override
     public String toString()
     {
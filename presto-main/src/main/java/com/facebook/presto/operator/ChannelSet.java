@@ -13,49 +13,99 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.Session;
+import com.facebook.presto.memory.LocalMemoryContext;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.PartitioningSpiller;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.google.common.collect.ImmutableList;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
 import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
 import static com.facebook.presto.type.UnknownType.UNKNOWN;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
 
 public class ChannelSet
 {
-    private final GroupByHash hash;
+    private static final int[] HASH_CHANNELS = { 0 };
+    private static final int EXPECTED_SPILLED_PARTITION_POSITIONS = 10_000;
+
+    private final Type type;
+    private final Optional<GroupByHash> hash;
     private final boolean containsNull;
     private final int[] hashChannels;
 
+    // a spilled set loads its partitions into sets of their own
+    private final Optional<PartitioningSpiller> spiller;
+    private final Optional<Integer> spilledHashChannel;
+    private final Session session;
+    private final JoinCompiler joinCompiler;
+    private final LocalMemoryContext partitionMemoryContext;
+    private boolean closed;
+
     public ChannelSet(GroupByHash hash, boolean containsNull, int[] hashChannels)
     {
-        this.hash = hash;
+        this.type = hash.getTypes().get(0);
+        this.hash = Optional.of(hash);
         this.containsNull = containsNull;
         this.hashChannels = hashChannels;
+        this.spiller = Optional.empty();
+        this.spilledHashChannel = Optional.empty();
+        this.session = null;
+        this.joinCompiler = null;
+        this.partitionMemoryContext = null;
+    }
+
+    /**
+     * Creates a set whose values were spilled by their partition, with the hash of each value in
+     * the channel after it when the hash channel is present. The memory of a loaded partition is
+     * accounted to the partition memory context.
+     */
+    public ChannelSet(
+            Type type,
+            boolean containsNull,
+            PartitioningSpiller spiller,
+            Optional<Integer> spilledHashChannel,
+            Session session,
+            JoinCompiler joinCompiler,
+            LocalMemoryContext partitionMemoryContext)
+    {
+        this.type = requireNonNull(type, "type is null");
+        this.hash = Optional.empty();
+        this.containsNull = containsNull;
+        this.hashChannels = new int[0];
+        this.spiller = Optional.of(requireNonNull(spiller, "spiller is null"));
+        this.spilledHashChannel = requireNonNull(spilledHashChannel, "spilledHashChannel is null");
+        this.session = requireNonNull(session, "session is null");
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+        this.partitionMemoryContext = requireNonNull(partitionMemoryContext, "partitionMemoryContext is null");
     }
 
     public Type getType()
     {
-        return hash.getTypes().get(0);
+        return type;
     }
 
     public long getEstimatedSizeInBytes()
     {
-        return hash.getEstimatedSize();
+        return hash.map(GroupByHash::getEstimatedSize).orElse(0L);
     }
 
     public int size()
     {
-        return hash.getGroupCount();
+        return hash.map(GroupByHash::getGroupCount).orElse(0);
     }
 
     public boolean isEmpty()
     {
-        return size() == 0;
+        // a set is only spilled once it outgrew the memory limit
+        return size() == 0 && !isSpilled();
     }
 
     public boolean containsNull()
@@ -65,13 +115,61 @@ public class ChannelSet
 
     public boolean contains(int position, Page page)
     {
-        return hash.contains(position, page, hashChannels);
+        checkState(hash.isPresent(), "set is spilled");
+        return hash.get().contains(position, page, hashChannels);
     }
 
-    public static class ChannelSetBuilder
+    public boolean isSpilled()
+    {
+        return spiller.isPresent();
+    }
+
+    public int getSpilledPartitionCount()
+    {
+        checkState(spiller.isPresent(), "set is not spilled");
+        return spiller.get().getPartitionCount();
+    }
+
+    /**
+     * Loads the spilled values of the partition into a set of their own. The partition of a value is
+     * given by a {@link PartitioningSpiller} created with the same key type. Only one partition is
+     * loaded at a time, and it is accounted for until {@link #releaseSpilledPartition()} is called.
+     */
+    public synchronized ChannelSet loadSpilledPartition(int partition)
     {
-        private static final int[] HASH_CHANNELS = { 0 };
+        checkState(spiller.isPresent(), "set is not spilled");
+        checkState(!closed, "set is closed");
+        checkState(partitionMemoryContext.getBytes() == 0, "a partition is already loaded");
+
+        GroupByHash partitionHash = createGroupByHash(session, ImmutableList.of(type), HASH_CHANNELS, spilledHashChannel, EXPECTED_SPILLED_PARTITION_POSITIONS, joinCompiler);
+        Iterator<Page> values = spiller.get().getSpilledPages(partition);
+        while (values.hasNext()) {
+            partitionHash.addPage(values.next());
+            partitionMemoryContext.setBytes(partitionHash.getEstimatedSize());
+        }
+        return new ChannelSet(partitionHash, containsNull, HASH_CHANNELS);
+    }
 
+    public synchronized void releaseSpilledPartition()
+    {
+        checkState(spiller.isPresent(), "set is not spilled");
+        partitionMemoryContext.setBytes(0);
+    }
+
+    public synchronized void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (spiller.isPresent()) {
+            partitionMemoryContext.setBytes(0);
+            spiller.get().close();
+        }
+    }
+
+    public static class ChannelSetBuilder
+    {
         private final GroupByHash hash;
         private final OperatorContext operatorContext;
         private final Page nullBlockPage;
@@ -86,7 +184,20 @@ public class ChannelSet
 
         public ChannelSet build()
         {
-            return new ChannelSet(hash, hash.contains(0, nullBlockPage, HASH_CHANNELS), HASH_CHANNELS);
+            return new ChannelSet(hash, containsNull(), HASH_CHANNELS);
+        }
+
+        public boolean containsNull()
+        {
+            return hash.contains(0, nullBlockPage, HASH_CHANNELS);
+        }
+
+        /**
+         * Returns the values of the set laid out like the added pages, including the hash channel if there is one.
+         */
+        public Iterator<Page> buildValuePages()
+        {
+            return hash.buildValuePages();
         }
 
         public long getEstimatedSize()
@@ -301,6 +301,10 @@ public class Driver
                     // get an output page from current operator
                     current.getOperatorContext().startIntervalTimer();
                     Page page = current.getOutput();
+                    if (page != null && !next.isLazyInputSupported()) {
+                        // assure the page is in memory before handing to an operator that does not handle lazy blocks
+                        page.assureLoaded();
+                    }
                     current.getOperatorContext().recordGetOutput(page);
 
                     // if we got an output page, add it to the next operator
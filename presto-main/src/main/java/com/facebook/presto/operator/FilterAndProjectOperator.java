@@ -82,6 +82,14 @@ public class FilterAndProjectOperator
         return !finishing && !currentOutput.hasNext();
     }
 
+    // projections load the input columns they pass through, so output pages never
+    // refer to lazy blocks of an input page that the source has already moved past
+    @Override
+    public boolean isLazyInputSupported()
+    {
+        return true;
+    }
+
     @Override
     public final void addInput(Page page)
     {
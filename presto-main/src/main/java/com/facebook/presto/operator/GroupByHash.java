@@ -18,7 +18,9 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.gen.JoinCompiler;
+import com.google.common.collect.AbstractIterator;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
@@ -64,6 +66,34 @@ public interface GroupByHash
 
     void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset);
 
+    /**
+     * Returns the values of all groups laid out as {@link #getTypes()}.
+     */
+    default Iterator<Page> buildValuePages()
+    {
+        return new AbstractIterator<Page>()
+        {
+            private final PageBuilder pageBuilder = new PageBuilder(getTypes());
+            private int groupId;
+
+            @Override
+            protected Page computeNext()
+            {
+                if (groupId == getGroupCount()) {
+                    return endOfData();
+                }
+
+                pageBuilder.reset();
+                while (!pageBuilder.isFull() && groupId < getGroupCount()) {
+                    pageBuilder.declarePosition();
+                    appendValuesTo(groupId, pageBuilder, 0);
+                    groupId++;
+                }
+                return pageBuilder.build();
+            }
+        };
+    }
+
     void addPage(Page page);
 
     GroupByIdBlock getGroupIds(Page page);
@@ -18,15 +18,22 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.PartitioningSpiller;
+import com.facebook.presto.spiller.PartitioningSpillerFactory;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.airlift.concurrent.MoreFutures.tryGetFutureValue;
 import static java.util.Objects.requireNonNull;
 
@@ -44,9 +51,29 @@ public class HashSemiJoinOperator
         private final List<Type> probeTypes;
         private final int probeJoinChannel;
         private final List<Type> types;
+        private final Optional<PartitioningSpillerFactory> partitioningSpillerFactory;
+        private final ReferenceCount referenceCount;
+        private final SpilledSetPartitionLoader spilledSetPartitionLoader;
         private boolean closed;
 
+        @VisibleForTesting
         public HashSemiJoinOperatorFactory(int operatorId, PlanNodeId planNodeId, SetSupplier setSupplier, List<? extends Type> probeTypes, int probeJoinChannel)
+        {
+            this(operatorId,
+                    planNodeId,
+                    setSupplier,
+                    probeTypes,
+                    probeJoinChannel,
+                    Optional.empty());
+        }
+
+        public HashSemiJoinOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                SetSupplier setSupplier,
+                List<? extends Type> probeTypes,
+                int probeJoinChannel,
+                Optional<PartitioningSpillerFactory> partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -54,11 +81,35 @@ public class HashSemiJoinOperator
             this.probeTypes = ImmutableList.copyOf(probeTypes);
             checkArgument(probeJoinChannel >= 0, "probeJoinChannel is negative");
             this.probeJoinChannel = probeJoinChannel;
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
 
             this.types = ImmutableList.<Type>builder()
                     .addAll(probeTypes)
                     .add(BOOLEAN)
                     .build();
+
+            // when all semi join operators finish, release the set (deleting its spilled values)
+            this.referenceCount = new ReferenceCount();
+            this.referenceCount.getFreeFuture().addListener(setSupplier::destroy, directExecutor());
+
+            this.spilledSetPartitionLoader = new SpilledSetPartitionLoader(setSupplier.getChannelSet());
+        }
+
+        private HashSemiJoinOperatorFactory(HashSemiJoinOperatorFactory other)
+        {
+            requireNonNull(other, "other is null");
+            operatorId = other.operatorId;
+            planNodeId = other.planNodeId;
+            setSupplier = other.setSupplier;
+            probeTypes = other.probeTypes;
+            probeJoinChannel = other.probeJoinChannel;
+            types = other.types;
+            partitioningSpillerFactory = other.partitioningSpillerFactory;
+            referenceCount = other.referenceCount;
+            spilledSetPartitionLoader = other.spilledSetPartitionLoader;
+
+            referenceCount.retain();
+            spilledSetPartitionLoader.addFactory();
         }
 
         @Override
@@ -72,31 +123,66 @@ public class HashSemiJoinOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, HashSemiJoinOperator.class.getSimpleName());
-            return new HashSemiJoinOperator(operatorContext, setSupplier, probeTypes, probeJoinChannel);
+
+            referenceCount.retain();
+            return new HashSemiJoinOperator(
+                    operatorContext,
+                    setSupplier,
+                    probeTypes,
+                    probeJoinChannel,
+                    partitioningSpillerFactory,
+                    spilledSetPartitionLoader.addProbe(),
+                    referenceCount::release);
         }
 
         @Override
         public void close()
         {
+            if (closed) {
+                return;
+            }
             closed = true;
+            spilledSetPartitionLoader.closeFactory();
+            referenceCount.release();
         }
 
         @Override
         public OperatorFactory duplicate()
         {
-            return new HashSemiJoinOperatorFactory(operatorId, planNodeId, setSupplier, probeTypes, probeJoinChannel);
+            return new HashSemiJoinOperatorFactory(this);
         }
     }
 
     private final int probeJoinChannel;
+    private final List<Type> probeTypes;
     private final List<Type> types;
     private final ListenableFuture<ChannelSet> channelSetFuture;
+    private final Optional<PartitioningSpillerFactory> partitioningSpillerFactory;
+    private final SpilledSetPartitionLoader.Probe spilledSetProbe;
+    private final Runnable onClose;
 
     private ChannelSet channelSet;
     private Page outputPage;
     private boolean finishing;
-
-    public HashSemiJoinOperator(OperatorContext operatorContext, SetSupplier channelSetFuture, List<Type> probeTypes, int probeJoinChannel)
+    private boolean closed;
+
+    // when the set is spilled, the probe is spilled with the same partitioning and joined partition by partition
+    private Optional<PartitioningSpiller> probeSpiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = NOT_BLOCKED;
+    private boolean probeFlushed;
+    private int currentPartition = -1;
+    private ListenableFuture<ChannelSet> partitionSetFuture;
+    private ChannelSet partitionSet;
+    private Iterator<Page> partitionProbePages;
+
+    public HashSemiJoinOperator(
+            OperatorContext operatorContext,
+            SetSupplier channelSetFuture,
+            List<Type> probeTypes,
+            int probeJoinChannel,
+            Optional<PartitioningSpillerFactory> partitioningSpillerFactory,
+            SpilledSetPartitionLoader.Probe spilledSetProbe,
+            Runnable onClose)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
 
@@ -107,6 +193,10 @@ public class HashSemiJoinOperator
 
         this.channelSetFuture = channelSetFuture.getChannelSet();
         this.probeJoinChannel = probeJoinChannel;
+        this.probeTypes = ImmutableList.copyOf(probeTypes);
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
+        this.spilledSetProbe = requireNonNull(spilledSetProbe, "spilledSetProbe is null");
+        this.onClose = requireNonNull(onClose, "onClose is null");
 
         this.types = ImmutableList.<Type>builder()
                 .addAll(probeTypes)
@@ -130,29 +220,48 @@ public class HashSemiJoinOperator
     public void finish()
     {
         finishing = true;
+        if (!probeSpiller.isPresent()) {
+            // no rows of this operator wait for the partitions of the set
+            spilledSetProbe.close();
+        }
     }
 
     @Override
     public boolean isFinished()
     {
-        return finishing && outputPage == null;
+        if (!finishing || outputPage != null) {
+            return false;
+        }
+        if (!probeSpiller.isPresent()) {
+            return true;
+        }
+        return probeFlushed && currentPartition >= probeSpiller.get().getPartitionCount();
     }
 
     @Override
     public ListenableFuture<?> isBlocked()
     {
-        return channelSetFuture;
+        if (!channelSetFuture.isDone()) {
+            return channelSetFuture;
+        }
+        if (partitionSetFuture != null && !partitionSetFuture.isDone()) {
+            return partitionSetFuture;
+        }
+        return spillInProgress;
     }
 
     @Override
     public boolean needsInput()
     {
-        if (finishing || outputPage != null) {
+        if (finishing || outputPage != null || !spillInProgress.isDone()) {
             return false;
         }
 
         if (channelSet == null) {
             channelSet = tryGetFutureValue(channelSetFuture).orElse(null);
+            if (channelSet != null && !channelSet.isSpilled()) {
+                spilledSetProbe.close();
+            }
         }
         return channelSet != null;
     }
@@ -164,7 +273,91 @@ public class HashSemiJoinOperator
         checkState(!finishing, "Operator is finishing");
         checkState(channelSet != null, "Set has not been built yet");
         checkState(outputPage == null, "Operator still has pending output");
+        checkState(spillInProgress.isDone(), "Previous spill hasn't yet finished");
+
+        if (channelSet.isSpilled()) {
+            if (!probeSpiller.isPresent()) {
+                checkState(partitioningSpillerFactory.isPresent(), "Set is spilled, but spill is disabled for the probe");
+                probeSpiller = Optional.of(partitioningSpillerFactory.get().create(
+                        probeTypes,
+                        ImmutableList.of(probeJoinChannel),
+                        operatorContext.getSpillContext(),
+                        operatorContext.getSystemMemoryContext().newAggregatedMemoryContext()));
+                checkState(probeSpiller.get().getPartitionCount() == channelSet.getSpilledPartitionCount(), "probe and set are partitioned differently");
+            }
+            spillInProgress = probeSpiller.get().spill(page);
+            return;
+        }
+
+        outputPage = markPage(page, channelSet);
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        if (outputPage == null && finishing && probeSpiller.isPresent() && spillInProgress.isDone()) {
+            // the last page may still be spilling when the operator is finished, so flush only now
+            if (!probeFlushed) {
+                probeFlushed = true;
+                spillInProgress = probeSpiller.get().flush();
+                return null;
+            }
+            outputPage = getSpilledOutput();
+        }
 
+        Page result = outputPage;
+        outputPage = null;
+        return result;
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        partitionSet = null;
+        partitionProbePages = null;
+        spilledSetProbe.close();
+        probeSpiller.ifPresent(PartitioningSpiller::close);
+        onClose.run();
+    }
+
+    private Page getSpilledOutput()
+    {
+        int partitionCount = probeSpiller.get().getPartitionCount();
+        while (partitionProbePages == null || !partitionProbePages.hasNext()) {
+            if (partitionSet != null) {
+                partitionSet = null;
+                spilledSetProbe.releasePartition();
+            }
+            if (partitionSetFuture == null) {
+                currentPartition++;
+                if (currentPartition >= partitionCount) {
+                    partitionProbePages = null;
+                    spilledSetProbe.close();
+                    return null;
+                }
+                // the partition is loaded once all operators probing the set ask for it
+                partitionSetFuture = spilledSetProbe.loadPartition(currentPartition);
+            }
+            if (!partitionSetFuture.isDone()) {
+                return null;
+            }
+            partitionSet = getFutureValue(partitionSetFuture);
+            partitionSetFuture = null;
+            partitionProbePages = probeSpiller.get().getSpilledPages(currentPartition);
+        }
+        return markPage(partitionProbePages.next(), partitionSet);
+    }
+
+    /**
+     * Marks the rows of the page found in the lookup set, which holds either the entire set or
+     * the values of the partition of the rows. Empty and null semantics follow the entire set.
+     */
+    private Page markPage(Page page, ChannelSet lookupSet)
+    {
         // create the block builder for the new boolean column
         // we know the exact size required for the block
         BlockBuilder blockBuilder = BOOLEAN.createFixedSizeBlockBuilder(page.getPositionCount());
@@ -182,7 +375,7 @@ public class HashSemiJoinOperator
                 }
             }
             else {
-                boolean contains = channelSet.contains(position, probeJoinPage);
+                boolean contains = lookupSet.contains(position, probeJoinPage);
                 if (!contains && channelSet.containsNull()) {
                     blockBuilder.appendNull();
                 }
@@ -199,14 +392,6 @@ public class HashSemiJoinOperator
         System.arraycopy(sourceBlocks, 0, outputBlocks, 0, sourceBlocks.length);
         outputBlocks[sourceBlocks.length] = blockBuilder.build();
 
-        outputPage = new Page(outputBlocks);
-    }
-
-    @Override
-    public Page getOutput()
-    {
-        Page result = outputPage;
-        outputPage = null;
-        return result;
+        return new Page(outputBlocks);
     }
 }
@@ -20,7 +20,6 @@ import it.unimi.dsi.fastutil.longs.LongArrayList;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.function.Function;
 
 import static com.facebook.presto.SystemSessionProperties.isFastInequalityJoin;
 import static java.util.Objects.requireNonNull;
@@ -32,7 +31,7 @@ public class JoinHashSupplier
     private final PagesHash pagesHash;
     private final LongArrayList addresses;
     private final List<List<Block>> channels;
-    private final Function<Optional<JoinFilterFunction>, PositionLinks> positionLinks;
+    private final PositionLinks.Factory positionLinks;
     private final Optional<JoinFilterFunctionFactory> filterFunctionFactory;
 
     public JoinHashSupplier(
@@ -51,6 +50,7 @@ public class JoinHashSupplier
         PositionLinks.Builder positionLinksBuilder;
         if (filterFunctionFactory.isPresent() &&
                 filterFunctionFactory.get().getSortChannel().isPresent() &&
+                (filterFunctionFactory.get().getSortChannelLowerBoundFactory().isPresent() || filterFunctionFactory.get().getSortChannelUpperBoundFactory().isPresent()) &&
                 isFastInequalityJoin(session)) {
             positionLinksBuilder = SortedPositionLinks.builder(
                     addresses.size(),
@@ -84,9 +84,15 @@ public class JoinHashSupplier
         // are not thread safe...
         Optional<JoinFilterFunction> filterFunction =
                 filterFunctionFactory.map(factory -> factory.create(session.toConnectorSession(), addresses, channels));
+        Optional<JoinFilterFunction> lowerBoundFunction = filterFunctionFactory
+                .flatMap(JoinFilterFunctionFactory::getSortChannelLowerBoundFactory)
+                .map(factory -> factory.create(session.toConnectorSession(), addresses, channels));
+        Optional<JoinFilterFunction> upperBoundFunction = filterFunctionFactory
+                .flatMap(JoinFilterFunctionFactory::getSortChannelUpperBoundFactory)
+                .map(factory -> factory.create(session.toConnectorSession(), addresses, channels));
         return new JoinHash(
                 pagesHash,
                 filterFunction,
-                positionLinks.apply(filterFunction));
+                positionLinks.create(lowerBoundFunction, upperBoundFunction));
     }
 }
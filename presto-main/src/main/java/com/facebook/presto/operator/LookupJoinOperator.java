@@ -130,6 +130,12 @@ public class LookupJoinOperator
         return lookupSource != null && probe == null;
     }
 
+    @Override
+    public boolean isLazyInputSupported()
+    {
+        return true;
+    }
+
     @Override
     public void addInput(Page page)
     {
@@ -21,6 +21,7 @@ import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.gen.JoinCompiler;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
@@ -46,6 +47,14 @@ public class MarkDistinctHash
         return groupByHash.getEstimatedSize();
     }
 
+    /**
+     * Returns the distinct values seen so far, laid out as the distinct channels followed by the hash channel if there is one.
+     */
+    public Iterator<Page> buildDistinctValuePages()
+    {
+        return groupByHash.buildValuePages();
+    }
+
     public Block markDistinctRows(Page page)
     {
         GroupByIdBlock ids = groupByHash.getGroupIds(page);
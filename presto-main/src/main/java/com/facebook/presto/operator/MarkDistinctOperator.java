@@ -16,18 +16,29 @@ package com.facebook.presto.operator;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.PartitioningSpiller;
+import com.facebook.presto.spiller.PartitioningSpillerFactory;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.DataSize;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
 public class MarkDistinctOperator
@@ -41,9 +52,12 @@ public class MarkDistinctOperator
         private final Optional<Integer> hashChannel;
         private final List<Integer> markDistinctChannels;
         private final List<Type> types;
+        private final DataSize memoryLimitBeforeSpill;
+        private final Optional<PartitioningSpillerFactory> partitioningSpillerFactory;
         private final JoinCompiler joinCompiler;
         private boolean closed;
 
+        @VisibleForTesting
         public MarkDistinctOperatorFactory(
                 int operatorId,
                 PlanNodeId planNodeId,
@@ -51,12 +65,34 @@ public class MarkDistinctOperator
                 Collection<Integer> markDistinctChannels,
                 Optional<Integer> hashChannel,
                 JoinCompiler joinCompiler)
+        {
+            this(operatorId,
+                    planNodeId,
+                    sourceTypes,
+                    markDistinctChannels,
+                    hashChannel,
+                    new DataSize(0, MEGABYTE),
+                    Optional.empty(),
+                    joinCompiler);
+        }
+
+        public MarkDistinctOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> sourceTypes,
+                Collection<Integer> markDistinctChannels,
+                Optional<Integer> hashChannel,
+                DataSize memoryLimitBeforeSpill,
+                Optional<PartitioningSpillerFactory> partitioningSpillerFactory,
+                JoinCompiler joinCompiler)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
             this.markDistinctChannels = ImmutableList.copyOf(requireNonNull(markDistinctChannels, "markDistinctChannels is null"));
             checkArgument(!markDistinctChannels.isEmpty(), "markDistinctChannels is empty");
             this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+            this.memoryLimitBeforeSpill = requireNonNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null");
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
             this.types = ImmutableList.<Type>builder()
                     .addAll(sourceTypes)
@@ -75,7 +111,14 @@ public class MarkDistinctOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, MarkDistinctOperator.class.getSimpleName());
-            return new MarkDistinctOperator(operatorContext, types, markDistinctChannels, hashChannel, joinCompiler);
+            return new MarkDistinctOperator(
+                    operatorContext,
+                    types,
+                    markDistinctChannels,
+                    hashChannel,
+                    memoryLimitBeforeSpill,
+                    partitioningSpillerFactory,
+                    joinCompiler);
         }
 
         @Override
@@ -87,30 +130,66 @@ public class MarkDistinctOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new MarkDistinctOperatorFactory(operatorId, planNodeId, types.subList(0, types.size() - 1), markDistinctChannels, hashChannel, joinCompiler);
+            return new MarkDistinctOperatorFactory(
+                    operatorId,
+                    planNodeId,
+                    types.subList(0, types.size() - 1),
+                    markDistinctChannels,
+                    hashChannel,
+                    memoryLimitBeforeSpill,
+                    partitioningSpillerFactory,
+                    joinCompiler);
         }
     }
 
     private final OperatorContext operatorContext;
     private final List<Type> types;
-    private final MarkDistinctHash markDistinctHash;
+    private final List<Integer> markDistinctChannels;
+    private final Optional<Integer> hashChannel;
+    private final List<Type> distinctTypes;
+    private final long memoryLimitBeforeSpill;
+    private final Optional<PartitioningSpillerFactory> partitioningSpillerFactory;
+    private final JoinCompiler joinCompiler;
+
+    private MarkDistinctHash markDistinctHash;
 
     private Page outputPage;
     private boolean finishing;
 
-    public MarkDistinctOperator(OperatorContext operatorContext, List<Type> types, List<Integer> markDistinctChannels, Optional<Integer> hashChannel, JoinCompiler joinCompiler)
+    // once the hash outgrows the memory limit, its distinct values and all following rows are spilled by partition
+    private Optional<PartitioningSpiller> distinctValuesSpiller = Optional.empty();
+    private Optional<PartitioningSpiller> rowsSpiller = Optional.empty();
+    private Iterator<Page> unspilledDistinctValues = emptyIterator();
+    private boolean distinctValuesFlushed;
+    private ListenableFuture<?> spillInProgress = NOT_BLOCKED;
+    private boolean rowsFlushed;
+    private int currentPartition = -1;
+    private Iterator<Page> partitionRows;
+
+    public MarkDistinctOperator(
+            OperatorContext operatorContext,
+            List<Type> types,
+            List<Integer> markDistinctChannels,
+            Optional<Integer> hashChannel,
+            DataSize memoryLimitBeforeSpill,
+            Optional<PartitioningSpillerFactory> partitioningSpillerFactory,
+            JoinCompiler joinCompiler)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
 
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
-        requireNonNull(hashChannel, "hashChannel is null");
-        requireNonNull(markDistinctChannels, "markDistinctChannels is null");
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.markDistinctChannels = ImmutableList.copyOf(requireNonNull(markDistinctChannels, "markDistinctChannels is null"));
+        this.memoryLimitBeforeSpill = requireNonNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null").toBytes();
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
 
         ImmutableList.Builder<Type> distinctTypes = ImmutableList.builder();
         for (int channel : markDistinctChannels) {
             distinctTypes.add(types.get(channel));
         }
-        this.markDistinctHash = new MarkDistinctHash(operatorContext.getSession(), distinctTypes.build(), Ints.toArray(markDistinctChannels), hashChannel, joinCompiler);
+        this.distinctTypes = distinctTypes.build();
+        this.markDistinctHash = new MarkDistinctHash(operatorContext.getSession(), this.distinctTypes, Ints.toArray(markDistinctChannels), hashChannel, joinCompiler);
     }
 
     @Override
@@ -134,16 +213,31 @@ public class MarkDistinctOperator
     @Override
     public boolean isFinished()
     {
-        return finishing && outputPage == null;
+        if (!finishing || outputPage != null) {
+            return false;
+        }
+        if (!rowsSpiller.isPresent()) {
+            return true;
+        }
+        return rowsFlushed && currentPartition >= rowsSpiller.get().getPartitionCount();
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return spillInProgress;
     }
 
     @Override
     public boolean needsInput()
     {
-        operatorContext.setMemoryReservation(markDistinctHash.getEstimatedSize());
         if (finishing || outputPage != null) {
             return false;
         }
+        if (distinctValuesSpiller.isPresent()) {
+            return spillDistinctValues();
+        }
+        updateMemoryReservation();
         return true;
     }
 
@@ -153,9 +247,150 @@ public class MarkDistinctOperator
         requireNonNull(page, "page is null");
         checkState(!finishing, "Operator is finishing");
         checkState(outputPage == null, "Operator still has pending output");
-        operatorContext.setMemoryReservation(markDistinctHash.getEstimatedSize());
+        checkState(spillInProgress.isDone(), "Previous spill hasn't yet finished");
+
+        if (rowsSpiller.isPresent()) {
+            checkState(!unspilledDistinctValues.hasNext(), "Distinct values are still spilling");
+            spillInProgress = rowsSpiller.get().spill(page);
+            return;
+        }
+
+        updateMemoryReservation();
+        outputPage = markPage(page, page, markDistinctHash);
+
+        if (partitioningSpillerFactory.isPresent() && memoryLimitBeforeSpill > 0 && markDistinctHash.getEstimatedSize() > memoryLimitBeforeSpill) {
+            startSpill();
+        }
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        if (outputPage == null && finishing && rowsSpiller.isPresent() && spillDistinctValues()) {
+            // the last page may still be spilling when the operator is finished, so flush only now
+            if (!rowsFlushed) {
+                rowsFlushed = true;
+                spillInProgress = rowsSpiller.get().flush();
+                return null;
+            }
+            outputPage = getSpilledOutput();
+        }
+
+        Page result = outputPage;
+        outputPage = null;
+        return result;
+    }
+
+    @Override
+    public void close()
+    {
+        markDistinctHash = null;
+        partitionRows = null;
+        distinctValuesSpiller.ifPresent(PartitioningSpiller::close);
+        rowsSpiller.ifPresent(PartitioningSpiller::close);
+    }
+
+    private void startSpill()
+    {
+        List<Integer> distinctValueChannels = IntStream.range(0, distinctTypes.size()).boxed().collect(toImmutableList());
+        distinctValuesSpiller = Optional.of(partitioningSpillerFactory.get().create(
+                getDistinctValueTypes(),
+                distinctValueChannels,
+                operatorContext.getSpillContext(),
+                operatorContext.getSystemMemoryContext().newAggregatedMemoryContext()));
+        rowsSpiller = Optional.of(partitioningSpillerFactory.get().create(
+                types.subList(0, types.size() - 1),
+                markDistinctChannels,
+                operatorContext.getSpillContext(),
+                operatorContext.getSystemMemoryContext().newAggregatedMemoryContext()));
+
+        unspilledDistinctValues = markDistinctHash.buildDistinctValuePages();
+        spillDistinctValues();
+    }
+
+    /**
+     * Spills the distinct values of the in memory hash, a page at a time while the previous spill
+     * is done, and flushes them at the end. Returns whether no spill is in progress anymore.
+     */
+    private boolean spillDistinctValues()
+    {
+        while (spillInProgress.isDone() && unspilledDistinctValues.hasNext()) {
+            spillInProgress = distinctValuesSpiller.get().spill(unspilledDistinctValues.next());
+        }
+        if (!spillInProgress.isDone()) {
+            return false;
+        }
+        if (!distinctValuesFlushed) {
+            // the hash is only dropped once all its values are spilled
+            distinctValuesFlushed = true;
+            markDistinctHash = null;
+            updateMemoryReservation();
+            spillInProgress = distinctValuesSpiller.get().flush();
+        }
+        return spillInProgress.isDone();
+    }
+
+    private Page getSpilledOutput()
+    {
+        int partitionCount = rowsSpiller.get().getPartitionCount();
+        while (partitionRows == null || !partitionRows.hasNext()) {
+            currentPartition++;
+            markDistinctHash = null;
+            updateMemoryReservation();
+            if (currentPartition >= partitionCount) {
+                partitionRows = null;
+                return null;
+            }
+            partitionRows = rowsSpiller.get().getSpilledPages(currentPartition);
+            if (partitionRows.hasNext()) {
+                markDistinctHash = loadSpilledPartition(currentPartition);
+                updateMemoryReservation();
+            }
+        }
+        Page page = partitionRows.next();
+        return markPage(page, getDistinctValuesPage(page), markDistinctHash);
+    }
+
+    private MarkDistinctHash loadSpilledPartition(int partition)
+    {
+        Optional<Integer> distinctValuesHashChannel = hashChannel.map(channel -> distinctTypes.size());
+        int[] distinctValueChannels = IntStream.range(0, distinctTypes.size()).toArray();
+        MarkDistinctHash hash = new MarkDistinctHash(operatorContext.getSession(), distinctTypes, distinctValueChannels, distinctValuesHashChannel, joinCompiler);
 
-        Block markerBlock = markDistinctHash.markDistinctRows(page);
+        // values seen before the spill are marked already
+        Iterator<Page> distinctValues = distinctValuesSpiller.get().getSpilledPages(partition);
+        while (distinctValues.hasNext()) {
+            hash.markDistinctRows(distinctValues.next());
+        }
+        return hash;
+    }
+
+    private List<Type> getDistinctValueTypes()
+    {
+        if (hashChannel.isPresent()) {
+            return ImmutableList.<Type>builder()
+                    .addAll(distinctTypes)
+                    .add(BIGINT)
+                    .build();
+        }
+        return distinctTypes;
+    }
+
+    private Page getDistinctValuesPage(Page page)
+    {
+        Block[] blocks = new Block[markDistinctChannels.size() + (hashChannel.isPresent() ? 1 : 0)];
+        for (int i = 0; i < markDistinctChannels.size(); i++) {
+            blocks[i] = page.getBlock(markDistinctChannels.get(i));
+        }
+        if (hashChannel.isPresent()) {
+            blocks[markDistinctChannels.size()] = page.getBlock(hashChannel.get());
+        }
+        return new Page(page.getPositionCount(), blocks);
+    }
+
+    private static Page markPage(Page page, Page distinctPage, MarkDistinctHash hash)
+    {
+        Block markerBlock = hash.markDistinctRows(distinctPage);
 
         // add the new boolean column to the page
         Block[] sourceBlocks = page.getBlocks();
@@ -164,14 +399,11 @@ public class MarkDistinctOperator
         System.arraycopy(sourceBlocks, 0, outputBlocks, 0, sourceBlocks.length);
         outputBlocks[sourceBlocks.length] = markerBlock;
 
-        outputPage = new Page(outputBlocks);
+        return new Page(outputBlocks);
     }
 
-    @Override
-    public Page getOutput()
+    private void updateMemoryReservation()
     {
-        Page result = outputPage;
-        outputPage = null;
-        return result;
+        operatorContext.setMemoryReservation(markDistinctHash == null ? 0 : markDistinctHash.getEstimatedSize());
     }
 }
@@ -0,0 +1,514 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.SortOrder;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Joins a probe input with a build input that are both sorted on the join keys
+ * in the same order. Only the build rows that share the key of the current probe row
+ * are buffered, so no hash table is built for the build side.
+ */
+public class MergeJoinOperator
+        implements Operator
+{
+    public static class MergeJoinOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private final PlanNodeId planNodeId;
+        private final MergeJoinSource mergeJoinSource;
+        private final List<Type> probeTypes;
+        private final List<Integer> probeJoinChannels;
+        private final List<Integer> probeOutputChannels;
+        private final List<Integer> buildJoinChannels;
+        private final List<Integer> buildOutputChannels;
+        private final List<SortOrder> sortOrders;
+        private final boolean probeOuter;
+        private final List<Type> types;
+
+        private boolean closed;
+
+        public MergeJoinOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                MergeJoinSource mergeJoinSource,
+                List<Type> probeTypes,
+                List<Integer> probeJoinChannels,
+                List<Integer> probeOutputChannels,
+                List<Integer> buildJoinChannels,
+                List<Integer> buildOutputChannels,
+                List<SortOrder> sortOrders,
+                boolean probeOuter)
+        {
+            this.operatorId = operatorId;
+            this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
+            this.mergeJoinSource = requireNonNull(mergeJoinSource, "mergeJoinSource is null");
+            this.probeTypes = ImmutableList.copyOf(requireNonNull(probeTypes, "probeTypes is null"));
+            this.probeJoinChannels = ImmutableList.copyOf(requireNonNull(probeJoinChannels, "probeJoinChannels is null"));
+            this.probeOutputChannels = ImmutableList.copyOf(requireNonNull(probeOutputChannels, "probeOutputChannels is null"));
+            this.buildJoinChannels = ImmutableList.copyOf(requireNonNull(buildJoinChannels, "buildJoinChannels is null"));
+            this.buildOutputChannels = ImmutableList.copyOf(requireNonNull(buildOutputChannels, "buildOutputChannels is null"));
+            this.sortOrders = ImmutableList.copyOf(requireNonNull(sortOrders, "sortOrders is null"));
+            this.probeOuter = probeOuter;
+            checkArgument(!probeJoinChannels.isEmpty(), "probeJoinChannels is empty");
+            checkArgument(probeJoinChannels.size() == buildJoinChannels.size(), "probeJoinChannels and buildJoinChannels must have the same size");
+            checkArgument(probeJoinChannels.size() == sortOrders.size(), "probeJoinChannels and sortOrders must have the same size");
+
+            ImmutableList.Builder<Type> types = ImmutableList.builder();
+            probeOutputChannels.forEach(channel -> types.add(probeTypes.get(channel)));
+            buildOutputChannels.forEach(channel -> types.add(mergeJoinSource.getTypes().get(channel)));
+            this.types = types.build();
+        }
+
+        @Override
+        public List<Type> getTypes()
+        {
+            return types;
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            checkState(!closed, "Factory is already closed");
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, MergeJoinOperator.class.getSimpleName());
+            return new MergeJoinOperator(
+                    operatorContext,
+                    mergeJoinSource,
+                    types,
+                    probeTypes,
+                    probeJoinChannels,
+                    probeOutputChannels,
+                    buildJoinChannels,
+                    buildOutputChannels,
+                    sortOrders,
+                    probeOuter);
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+
+        @Override
+        public OperatorFactory duplicate()
+        {
+            throw new UnsupportedOperationException("Merge join can not be duplicated");
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final MergeJoinSource mergeJoinSource;
+    private final List<Type> types;
+    private final List<Type> probeTypes;
+    private final List<Type> buildTypes;
+    private final List<Type> joinTypes;
+    private final int[] probeJoinChannels;
+    private final int[] probeOutputChannels;
+    private final int[] buildJoinChannels;
+    private final int[] buildOutputChannels;
+    private final List<SortOrder> sortOrders;
+    private final boolean probeOuter;
+    private final PageBuilder pageBuilder;
+
+    private ListenableFuture<?> blocked = NOT_BLOCKED;
+    private boolean finishing;
+    private boolean closed;
+
+    private Page probePage;
+    private int probePosition;
+
+    // next build row that has not been skipped or added to the current group
+    private Page buildPage;
+    private int buildPosition;
+    private boolean buildFinished;
+
+    // build rows sharing the key of the last matched probe row
+    private final List<Page> groupPages = new ArrayList<>();
+    private Page groupKeyPage;
+    private int groupKeyPosition;
+    private int groupSegmentStart;
+    private boolean collectingGroup;
+    private long groupSizeInBytes;
+
+    // progress of joining the current probe row with the group
+    private boolean joiningGroup;
+    private int groupPageIndex;
+    private int groupPagePosition;
+
+    public MergeJoinOperator(
+            OperatorContext operatorContext,
+            MergeJoinSource mergeJoinSource,
+            List<Type> types,
+            List<Type> probeTypes,
+            List<Integer> probeJoinChannels,
+            List<Integer> probeOutputChannels,
+            List<Integer> buildJoinChannels,
+            List<Integer> buildOutputChannels,
+            List<SortOrder> sortOrders,
+            boolean probeOuter)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.mergeJoinSource = requireNonNull(mergeJoinSource, "mergeJoinSource is null");
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        this.probeTypes = ImmutableList.copyOf(requireNonNull(probeTypes, "probeTypes is null"));
+        this.buildTypes = mergeJoinSource.getTypes();
+        this.probeJoinChannels = Ints.toArray(requireNonNull(probeJoinChannels, "probeJoinChannels is null"));
+        this.probeOutputChannels = Ints.toArray(requireNonNull(probeOutputChannels, "probeOutputChannels is null"));
+        this.buildJoinChannels = Ints.toArray(requireNonNull(buildJoinChannels, "buildJoinChannels is null"));
+        this.buildOutputChannels = Ints.toArray(requireNonNull(buildOutputChannels, "buildOutputChannels is null"));
+        this.sortOrders = ImmutableList.copyOf(requireNonNull(sortOrders, "sortOrders is null"));
+        this.probeOuter = probeOuter;
+        this.joinTypes = probeJoinChannels.stream()
+                .map(probeTypes::get)
+                .collect(toImmutableList());
+        this.pageBuilder = new PageBuilder(this.types);
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    @Override
+    public void finish()
+    {
+        finishing = true;
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        // an inner join can not produce any more rows once the build side is exhausted
+        boolean noMoreMatches = !probeOuter && buildFinished && groupPages.isEmpty() && !collectingGroup;
+        boolean finished = pageBuilder.isEmpty() && ((finishing && probePage == null) || noMoreMatches);
+        if (finished) {
+            close();
+        }
+        return finished;
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return blocked;
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return !finishing && probePage == null;
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        requireNonNull(page, "page is null");
+        checkState(!finishing, "Operator is finishing");
+        checkState(probePage == null, "Current page has not been completely processed yet");
+
+        if (page.getPositionCount() > 0) {
+            probePage = page;
+            probePosition = 0;
+        }
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        if (!blocked.isDone()) {
+            return null;
+        }
+        blocked = NOT_BLOCKED;
+
+        while (probePage != null && !pageBuilder.isFull()) {
+            if (!processProbePosition()) {
+                break;
+            }
+            if (probePosition == probePage.getPositionCount()) {
+                probePage = null;
+            }
+        }
+
+        if (pageBuilder.isFull() || (probePage == null && !pageBuilder.isEmpty())) {
+            Page page = pageBuilder.build();
+            pageBuilder.reset();
+            return page;
+        }
+        return null;
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        mergeJoinSource.close();
+        clearGroup();
+        buildPage = null;
+        probePage = null;
+    }
+
+    /**
+     * Returns true when the current probe row has been fully processed, or false when the
+     * build side is not ready or the output is full.
+     */
+    private boolean processProbePosition()
+    {
+        if (joiningGroup) {
+            if (!appendGroupMatches()) {
+                return false;
+            }
+            joiningGroup = false;
+            probePosition++;
+            return true;
+        }
+
+        if (collectingGroup) {
+            if (!collectGroup()) {
+                return false;
+            }
+            return startJoiningGroup();
+        }
+
+        if (hasNullJoinKey()) {
+            appendUnmatchedProbeRow();
+            return true;
+        }
+
+        if (!groupPages.isEmpty()) {
+            if (compareProbeToBuild(groupKeyPage, groupKeyPosition) == 0) {
+                return startJoiningGroup();
+            }
+            // probe keys are increasing, so the group is not needed anymore
+            clearGroup();
+        }
+
+        while (true) {
+            if (!loadBuildPage()) {
+                return false;
+            }
+            if (buildPage == null) {
+                appendUnmatchedProbeRow();
+                return true;
+            }
+
+            int comparison = compareProbeToBuild(buildPage, buildPosition);
+            if (comparison > 0) {
+                buildPosition++;
+                continue;
+            }
+            if (comparison < 0) {
+                appendUnmatchedProbeRow();
+                return true;
+            }
+
+            collectingGroup = true;
+            groupKeyPage = buildPage;
+            groupKeyPosition = buildPosition;
+            groupSegmentStart = buildPosition;
+            if (!collectGroup()) {
+                return false;
+            }
+            return startJoiningGroup();
+        }
+    }
+
+    /**
+     * Makes sure buildPage points at an unprocessed build row, or is null if the build side is exhausted.
+     * Returns false if the build side is not ready.
+     */
+    private boolean loadBuildPage()
+    {
+        while (buildPage == null || buildPosition == buildPage.getPositionCount()) {
+            buildPage = mergeJoinSource.pollPage();
+            buildPosition = 0;
+            if (buildPage == null) {
+                if (mergeJoinSource.isFinished()) {
+                    buildFinished = true;
+                    return true;
+                }
+                blocked = mergeJoinSource.waitForReading();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds all build rows with the key of the group to the group, which may span multiple build pages.
+     * Returns false if the build side is not ready.
+     */
+    private boolean collectGroup()
+    {
+        while (true) {
+            if (buildPage != null && buildPosition < buildPage.getPositionCount()) {
+                if (compareBuildRows(groupKeyPage, groupKeyPosition, buildPage, buildPosition) == 0) {
+                    buildPosition++;
+                    continue;
+                }
+                addGroupSegment(buildPage, groupSegmentStart, buildPosition);
+                collectingGroup = false;
+                return true;
+            }
+
+            if (buildPage != null) {
+                addGroupSegment(buildPage, groupSegmentStart, buildPosition);
+                buildPage = null;
+            }
+            if (!loadBuildPage()) {
+                return false;
+            }
+            if (buildPage == null) {
+                collectingGroup = false;
+                return true;
+            }
+            groupSegmentStart = 0;
+        }
+    }
+
+    private void addGroupSegment(Page page, int start, int end)
+    {
+        if (start == end) {
+            return;
+        }
+        Page segment = page.getRegion(start, end - start);
+        groupPages.add(segment);
+        groupSizeInBytes += segment.getRetainedSizeInBytes();
+        operatorContext.setMemoryReservation(groupSizeInBytes);
+    }
+
+    private void clearGroup()
+    {
+        groupPages.clear();
+        groupKeyPage = null;
+        groupSizeInBytes = 0;
+        operatorContext.setMemoryReservation(0);
+    }
+
+    private boolean startJoiningGroup()
+    {
+        joiningGroup = true;
+        groupPageIndex = 0;
+        groupPagePosition = 0;
+        return processProbePosition();
+    }
+
+    /**
+     * Returns false if the output became full before all rows of the group were appended.
+     */
+    private boolean appendGroupMatches()
+    {
+        while (groupPageIndex < groupPages.size()) {
+            Page groupPage = groupPages.get(groupPageIndex);
+            while (groupPagePosition < groupPage.getPositionCount()) {
+                if (pageBuilder.isFull()) {
+                    return false;
+                }
+                pageBuilder.declarePosition();
+                appendProbeRow();
+                for (int i = 0; i < buildOutputChannels.length; i++) {
+                    Type type = buildTypes.get(buildOutputChannels[i]);
+                    type.appendTo(groupPage.getBlock(buildOutputChannels[i]), groupPagePosition, pageBuilder.getBlockBuilder(probeOutputChannels.length + i));
+                }
+                groupPagePosition++;
+            }
+            groupPageIndex++;
+            groupPagePosition = 0;
+        }
+        return true;
+    }
+
+    private void appendUnmatchedProbeRow()
+    {
+        if (probeOuter) {
+            pageBuilder.declarePosition();
+            appendProbeRow();
+            for (int i = 0; i < buildOutputChannels.length; i++) {
+                pageBuilder.getBlockBuilder(probeOutputChannels.length + i).appendNull();
+            }
+        }
+        probePosition++;
+    }
+
+    private void appendProbeRow()
+    {
+        for (int i = 0; i < probeOutputChannels.length; i++) {
+            Type type = probeTypes.get(probeOutputChannels[i]);
+            type.appendTo(probePage.getBlock(probeOutputChannels[i]), probePosition, pageBuilder.getBlockBuilder(i));
+        }
+    }
+
+    private boolean hasNullJoinKey()
+    {
+        for (int channel : probeJoinChannels) {
+            if (probePage.getBlock(channel).isNull(probePosition)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int compareProbeToBuild(Page page, int position)
+    {
+        for (int i = 0; i < probeJoinChannels.length; i++) {
+            Block probeBlock = probePage.getBlock(probeJoinChannels[i]);
+            Block buildBlock = page.getBlock(buildJoinChannels[i]);
+            int comparison = sortOrders.get(i).compareBlockValue(joinTypes.get(i), probeBlock, probePosition, buildBlock, position);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    private int compareBuildRows(Page leftPage, int leftPosition, Page rightPage, int rightPosition)
+    {
+        for (int i = 0; i < buildJoinChannels.length; i++) {
+            Block leftBlock = leftPage.getBlock(buildJoinChannels[i]);
+            Block rightBlock = rightPage.getBlock(buildJoinChannels[i]);
+            int comparison = sortOrders.get(i).compareBlockValue(joinTypes.get(i), leftBlock, leftPosition, rightBlock, rightPosition);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+}
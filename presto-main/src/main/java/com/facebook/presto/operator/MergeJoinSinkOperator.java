@@ -0,0 +1,168 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Feeds the sorted build side of a merge join into a {@link MergeJoinSource}.
+ * The pages waiting in the source are accounted to this operator, which therefore
+ * only finishes once the join has consumed them or does not need them anymore.
+ */
+public class MergeJoinSinkOperator
+        implements Operator
+{
+    public static class MergeJoinSinkOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private final PlanNodeId planNodeId;
+        private final MergeJoinSource mergeJoinSource;
+
+        private boolean closed;
+
+        public MergeJoinSinkOperatorFactory(int operatorId, PlanNodeId planNodeId, List<Type> types, long maxBufferedBytes)
+        {
+            this.operatorId = operatorId;
+            this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
+            this.mergeJoinSource = new MergeJoinSource(types, maxBufferedBytes);
+        }
+
+        public MergeJoinSource getMergeJoinSource()
+        {
+            return mergeJoinSource;
+        }
+
+        @Override
+        public List<Type> getTypes()
+        {
+            return mergeJoinSource.getTypes();
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            checkState(!closed, "Factory is already closed");
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, MergeJoinSinkOperator.class.getSimpleName());
+            return new MergeJoinSinkOperator(operatorContext, mergeJoinSource);
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+
+        @Override
+        public OperatorFactory duplicate()
+        {
+            throw new UnsupportedOperationException("Merge join sink can not be duplicated");
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final MergeJoinSource mergeJoinSource;
+    private boolean finishing;
+
+    public MergeJoinSinkOperator(OperatorContext operatorContext, MergeJoinSource mergeJoinSource)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.mergeJoinSource = requireNonNull(mergeJoinSource, "mergeJoinSource is null");
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return mergeJoinSource.getTypes();
+    }
+
+    @Override
+    public void finish()
+    {
+        if (finishing) {
+            return;
+        }
+        finishing = true;
+        mergeJoinSource.finish();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        // once the join is closed the remaining build input is not needed
+        return mergeJoinSource.isClosed() || (finishing && mergeJoinSource.isFinished());
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        updateMemoryReservation();
+        if (finishing) {
+            return mergeJoinSource.waitForDrained();
+        }
+        return mergeJoinSource.waitForWriting();
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return !finishing && !mergeJoinSource.isClosed() && mergeJoinSource.waitForWriting().isDone();
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        requireNonNull(page, "page is null");
+        checkState(!finishing, "Operator is already finished");
+
+        if (page.getPositionCount() == 0) {
+            return;
+        }
+        mergeJoinSource.addPage(page);
+        operatorContext.recordGeneratedOutput(page.getSizeInBytes(), page.getPositionCount());
+        updateMemoryReservation();
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        return null;
+    }
+
+    @Override
+    public void close()
+    {
+        finish();
+        operatorContext.setMemoryReservation(0);
+    }
+
+    private void updateMemoryReservation()
+    {
+        operatorContext.setMemoryReservation(mergeJoinSource.getBufferedBytes());
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+
+import static com.facebook.presto.operator.Operator.NOT_BLOCKED;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Bounded queue that hands the sorted pages of the build side of a merge join
+ * over to the join operator. The build side is blocked while the queue is full,
+ * so the memory held here does not grow with the size of the build input.
+ */
+@ThreadSafe
+public class MergeJoinSource
+{
+    private final List<Type> types;
+    private final long maxBufferedBytes;
+
+    @GuardedBy("this")
+    private final Queue<Page> pages = new ArrayDeque<>();
+    @GuardedBy("this")
+    private long bufferedBytes;
+    @GuardedBy("this")
+    private boolean finished;
+    @GuardedBy("this")
+    private boolean closed;
+    @GuardedBy("this")
+    private SettableFuture<?> notEmptyFuture = SettableFuture.create();
+    @GuardedBy("this")
+    private SettableFuture<?> notFullFuture;
+    @GuardedBy("this")
+    private SettableFuture<?> drainedFuture;
+
+    public MergeJoinSource(List<Type> types, long maxBufferedBytes)
+    {
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        checkArgument(maxBufferedBytes > 0, "maxBufferedBytes must be positive");
+        this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    /**
+     * Returns a future that is done once the queue can accept more pages.
+     */
+    public synchronized ListenableFuture<?> waitForWriting()
+    {
+        if (notFullFuture == null) {
+            return NOT_BLOCKED;
+        }
+        return notFullFuture;
+    }
+
+    /**
+     * Returns a future that is done once all pages have been consumed or discarded.
+     */
+    public synchronized ListenableFuture<?> waitForDrained()
+    {
+        if (pages.isEmpty()) {
+            return NOT_BLOCKED;
+        }
+        if (drainedFuture == null) {
+            drainedFuture = SettableFuture.create();
+        }
+        return drainedFuture;
+    }
+
+    /**
+     * Returns the retained size of the pages that have not been consumed yet.
+     */
+    public synchronized long getBufferedBytes()
+    {
+        return bufferedBytes;
+    }
+
+    public void addPage(Page page)
+    {
+        requireNonNull(page, "page is null");
+
+        SettableFuture<?> futureToComplete;
+        synchronized (this) {
+            checkState(!finished, "source is already finished");
+            if (closed) {
+                // the join operator is done, so the remaining build pages are not needed
+                return;
+            }
+
+            pages.add(page);
+            bufferedBytes += page.getRetainedSizeInBytes();
+            if (bufferedBytes >= maxBufferedBytes && notFullFuture == null) {
+                notFullFuture = SettableFuture.create();
+            }
+            futureToComplete = notEmptyFuture;
+        }
+        futureToComplete.set(null);
+    }
+
+    /**
+     * Called by the build side once all pages have been added.
+     */
+    public void finish()
+    {
+        SettableFuture<?> futureToComplete;
+        synchronized (this) {
+            finished = true;
+            futureToComplete = notEmptyFuture;
+        }
+        futureToComplete.set(null);
+    }
+
+    /**
+     * Returns a future that is done once a page is available or the build side is finished.
+     */
+    public synchronized ListenableFuture<?> waitForReading()
+    {
+        if (!pages.isEmpty() || finished || closed) {
+            return NOT_BLOCKED;
+        }
+        if (notEmptyFuture.isDone()) {
+            notEmptyFuture = SettableFuture.create();
+        }
+        return notEmptyFuture;
+    }
+
+    /**
+     * Returns the next page of the build side, or null if none is currently available.
+     */
+    public Page pollPage()
+    {
+        Page page;
+        SettableFuture<?> notFullFutureToComplete = null;
+        SettableFuture<?> drainedFutureToComplete = null;
+        synchronized (this) {
+            page = pages.poll();
+            if (page == null) {
+                return null;
+            }
+            bufferedBytes -= page.getRetainedSizeInBytes();
+            if (bufferedBytes < maxBufferedBytes && notFullFuture != null) {
+                notFullFutureToComplete = notFullFuture;
+                notFullFuture = null;
+            }
+            if (pages.isEmpty() && drainedFuture != null) {
+                drainedFutureToComplete = drainedFuture;
+                drainedFuture = null;
+            }
+        }
+        if (notFullFutureToComplete != null) {
+            notFullFutureToComplete.set(null);
+        }
+        if (drainedFutureToComplete != null) {
+            drainedFutureToComplete.set(null);
+        }
+        return page;
+    }
+
+    /**
+     * Returns true once the build side is finished and all of its pages have been consumed.
+     */
+    public synchronized boolean isFinished()
+    {
+        return finished && pages.isEmpty();
+    }
+
+    public synchronized boolean isClosed()
+    {
+        return closed;
+    }
+
+    /**
+     * Called by the join operator when it does not need any more build pages.
+     * The build side is unblocked and its remaining pages are discarded.
+     */
+    public void close()
+    {
+        SettableFuture<?> notFullFutureToComplete;
+        SettableFuture<?> drainedFutureToComplete;
+        synchronized (this) {
+            closed = true;
+            pages.clear();
+            bufferedBytes = 0;
+            notFullFutureToComplete = notFullFuture;
+            notFullFuture = null;
+            drainedFutureToComplete = drainedFuture;
+            drainedFuture = null;
+        }
+        if (notFullFutureToComplete != null) {
+            notFullFutureToComplete.set(null);
+        }
+        if (drainedFutureToComplete != null) {
+            drainedFutureToComplete.set(null);
+        }
+    }
+}
@@ -47,6 +47,20 @@ public interface Operator
      */
     boolean needsInput();
 
+    /**
+     * Returns true if this operator accepts pages with unloaded lazy blocks.
+     * Such an operator must be done reading the blocks of a page before
+     * {@code needsInput()} returns true again, because the source may reuse
+     * its readers for the next page.  For the same reason its output pages
+     * must not contain unloaded lazy blocks taken from its input.  Pages for
+     * all other operators are loaded by the driver before {@code addInput()}
+     * is called.
+     */
+    default boolean isLazyInputSupported()
+    {
+        return false;
+    }
+
     /**
      * Adds an input page to the operator.  This method will only be called if
      * {@code needsInput()} returns true.
@@ -147,7 +147,7 @@ public class OperatorContext
         addInputUserNanos.getAndAdd(nanosBetween(intervalUserStart.get(), currentThreadUserTime()));
 
         if (page != null) {
-            inputDataSize.update(page.getSizeInBytes());
+            inputDataSize.update(page.getLoadedSizeInBytes());
             inputPositions.update(page.getPositionCount());
         }
     }
@@ -177,7 +177,7 @@ public class OperatorContext
         getOutputUserNanos.getAndAdd(nanosBetween(intervalUserStart.get(), currentThreadUserTime()));
 
         if (page != null) {
-            outputDataSize.update(page.getSizeInBytes());
+            outputDataSize.update(page.getLoadedSizeInBytes());
             outputPositions.update(page.getPositionCount());
         }
     }
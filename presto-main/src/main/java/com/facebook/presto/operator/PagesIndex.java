@@ -64,11 +64,13 @@ public class PagesIndex
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(PagesIndex.class).instanceSize();
     private static final Logger log = Logger.get(PagesIndex.class);
+    private static final int INITIAL_BLOCKS_PER_CHANNEL = 1024;
 
     private final OrderingCompiler orderingCompiler;
     private final JoinCompiler joinCompiler;
 
     private final List<Type> types;
+    private final int expectedPositions;
     private final LongArrayList valueAddresses;
     private final ObjectArrayList<Block>[] channels;
 
@@ -82,12 +84,13 @@ public class PagesIndex
         this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
         this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        this.expectedPositions = expectedPositions;
         this.valueAddresses = new LongArrayList(expectedPositions);
 
         //noinspection rawtypes
         channels = (ObjectArrayList<Block>[]) new ObjectArrayList[types.size()];
         for (int i = 0; i < channels.length; i++) {
-            channels[i] = ObjectArrayList.wrap(new Block[1024], 0);
+            channels[i] = ObjectArrayList.wrap(new Block[INITIAL_BLOCKS_PER_CHANNEL], 0);
         }
     }
 
@@ -149,12 +152,20 @@ public class PagesIndex
         return channels[channel];
     }
 
+    /**
+     * Removes all pages from the index and shrinks the internal arrays back to their
+     * initial capacity, so that a single large group does not pin memory for the rest
+     * of the lifetime of the index.
+     */
     public void clear()
     {
         for (ObjectArrayList<Block> channel : channels) {
             channel.clear();
+            channel.trim(INITIAL_BLOCKS_PER_CHANNEL);
         }
         valueAddresses.clear();
+        valueAddresses.trim(expectedPositions);
+        nextBlockToCompact = 0;
         positionCount = 0;
         pagesMemorySize = 0;
 
@@ -17,13 +17,17 @@ import com.facebook.presto.execution.buffer.OutputBuffer;
 import com.facebook.presto.execution.buffer.PagesSerde;
 import com.facebook.presto.execution.buffer.PagesSerdeFactory;
 import com.facebook.presto.execution.buffer.SerializedPage;
+import com.facebook.presto.operator.aggregation.TypedSet;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.block.PageBuilderStatus;
 import com.facebook.presto.spi.block.RunLengthEncodedBlock;
 import com.facebook.presto.spi.predicate.NullableValue;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.SkewedKeys;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -36,12 +40,15 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 import static com.facebook.presto.execution.buffer.PageSplitterUtil.splitPage;
 import static com.facebook.presto.spi.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+import static com.facebook.presto.spi.type.TypeUtils.writeNativeValue;
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Objects.requireNonNull;
@@ -58,6 +65,8 @@ public class PartitionedOutputOperator
         private final OutputBuffer outputBuffer;
         private final boolean replicatesAnyRow;
         private final OptionalInt nullChannel;
+        private final OptionalInt skewedKeyChannel;
+        private final Optional<SkewedKeys> skewedKeys;
         private final DataSize maxMemory;
 
         public PartitionedOutputFactory(
@@ -66,6 +75,8 @@ public class PartitionedOutputOperator
                 List<Optional<NullableValue>> partitionConstants,
                 boolean replicatesAnyRow,
                 OptionalInt nullChannel,
+                OptionalInt skewedKeyChannel,
+                Optional<SkewedKeys> skewedKeys,
                 OutputBuffer outputBuffer,
                 DataSize maxMemory)
         {
@@ -74,6 +85,8 @@ public class PartitionedOutputOperator
             this.partitionConstants = requireNonNull(partitionConstants, "partitionConstants is null");
             this.replicatesAnyRow = replicatesAnyRow;
             this.nullChannel = requireNonNull(nullChannel, "nullChannel is null");
+            this.skewedKeyChannel = requireNonNull(skewedKeyChannel, "skewedKeyChannel is null");
+            this.skewedKeys = requireNonNull(skewedKeys, "skewedKeys is null");
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
             this.maxMemory = requireNonNull(maxMemory, "maxMemory is null");
         }
@@ -96,6 +109,8 @@ public class PartitionedOutputOperator
                     partitionConstants,
                     replicatesAnyRow,
                     nullChannel,
+                    skewedKeyChannel,
+                    skewedKeys,
                     outputBuffer,
                     serdeFactory,
                     maxMemory);
@@ -114,6 +129,8 @@ public class PartitionedOutputOperator
         private final List<Optional<NullableValue>> partitionConstants;
         private final boolean replicatesAnyRow;
         private final OptionalInt nullChannel;
+        private final OptionalInt skewedKeyChannel;
+        private final Optional<SkewedKeys> skewedKeys;
         private final OutputBuffer outputBuffer;
         private final PagesSerdeFactory serdeFactory;
         private final DataSize maxMemory;
@@ -128,6 +145,8 @@ public class PartitionedOutputOperator
                 List<Optional<NullableValue>> partitionConstants,
                 boolean replicatesAnyRow,
                 OptionalInt nullChannel,
+                OptionalInt skewedKeyChannel,
+                Optional<SkewedKeys> skewedKeys,
                 OutputBuffer outputBuffer,
                 PagesSerdeFactory serdeFactory,
                 DataSize maxMemory)
@@ -141,6 +160,8 @@ public class PartitionedOutputOperator
             this.partitionConstants = requireNonNull(partitionConstants, "partitionConstants is null");
             this.replicatesAnyRow = replicatesAnyRow;
             this.nullChannel = requireNonNull(nullChannel, "nullChannel is null");
+            this.skewedKeyChannel = requireNonNull(skewedKeyChannel, "skewedKeyChannel is null");
+            this.skewedKeys = requireNonNull(skewedKeys, "skewedKeys is null");
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
             this.serdeFactory = requireNonNull(serdeFactory, "serdeFactory is null");
             this.maxMemory = requireNonNull(maxMemory, "maxMemory is null");
@@ -165,6 +186,8 @@ public class PartitionedOutputOperator
                     partitionConstants,
                     replicatesAnyRow,
                     nullChannel,
+                    skewedKeyChannel,
+                    skewedKeys,
                     outputBuffer,
                     serdeFactory,
                     maxMemory);
@@ -188,6 +211,8 @@ public class PartitionedOutputOperator
                     partitionConstants,
                     replicatesAnyRow,
                     nullChannel,
+                    skewedKeyChannel,
+                    skewedKeys,
                     outputBuffer,
                     serdeFactory,
                     maxMemory);
@@ -209,6 +234,8 @@ public class PartitionedOutputOperator
             List<Optional<NullableValue>> partitionConstants,
             boolean replicatesAnyRow,
             OptionalInt nullChannel,
+            OptionalInt skewedKeyChannel,
+            Optional<SkewedKeys> skewedKeys,
             OutputBuffer outputBuffer,
             PagesSerdeFactory serdeFactory,
             DataSize maxMemory)
@@ -221,6 +248,8 @@ public class PartitionedOutputOperator
                 partitionConstants,
                 replicatesAnyRow,
                 nullChannel,
+                skewedKeyChannel,
+                skewedKeys,
                 outputBuffer,
                 serdeFactory,
                 sourceTypes,
@@ -311,9 +340,13 @@ public class PartitionedOutputOperator
         private final List<PageBuilder> pageBuilders;
         private final boolean replicatesAnyRow;
         private final OptionalInt nullChannel; // when present, send the position to every partition if this channel is null.
+        private final OptionalInt skewedKeyChannel; // when present, spread or replicate the position if this channel holds a skewed value or null.
+        private final Optional<TypedSet> skewedValues;
+        private final boolean replicateSkewedValues;
         private final AtomicLong rowsAdded = new AtomicLong();
         private final AtomicLong pagesAdded = new AtomicLong();
         private boolean hasAnyRowBeenReplicated;
+        private int nextSpreadPartition;
 
         public PagePartitioner(
                 PartitionFunction partitionFunction,
@@ -321,6 +354,8 @@ public class PartitionedOutputOperator
                 List<Optional<NullableValue>> partitionConstants,
                 boolean replicatesAnyRow,
                 OptionalInt nullChannel,
+                OptionalInt skewedKeyChannel,
+                Optional<SkewedKeys> skewedKeys,
                 OutputBuffer outputBuffer,
                 PagesSerdeFactory serdeFactory,
                 List<Type> sourceTypes,
@@ -333,6 +368,11 @@ public class PartitionedOutputOperator
                     .collect(toImmutableList());
             this.replicatesAnyRow = replicatesAnyRow;
             this.nullChannel = requireNonNull(nullChannel, "nullChannel is null");
+            this.skewedKeyChannel = requireNonNull(skewedKeyChannel, "skewedKeyChannel is null");
+            requireNonNull(skewedKeys, "skewedKeys is null");
+            checkArgument(skewedKeyChannel.isPresent() == skewedKeys.isPresent(), "skewedKeyChannel and skewedKeys must be both present or both absent");
+            this.skewedValues = skewedKeys.map(keys -> createSkewedValuesSet(sourceTypes.get(skewedKeyChannel.getAsInt()), keys.getValues()));
+            this.replicateSkewedValues = skewedKeys.map(SkewedKeys::isReplicated).orElse(false);
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
             this.sourceTypes = requireNonNull(sourceTypes, "sourceTypes is null");
             this.serde = requireNonNull(serdeFactory, "serdeFactory is null").createPagesSerde();
@@ -345,6 +385,24 @@ public class PartitionedOutputOperator
                 pageBuilders.add(PageBuilder.withMaxPageSize(pageSize, sourceTypes));
             }
             this.pageBuilders = pageBuilders.build();
+            // start the spread at a different partition in each operator so that the first partitions are not favored
+            this.nextSpreadPartition = ThreadLocalRandom.current().nextInt(partitionFunction.getPartitionCount());
+        }
+
+        private static TypedSet createSkewedValuesSet(Type type, List<NullableValue> values)
+        {
+            BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus(), values.size());
+            for (NullableValue value : values) {
+                checkArgument(value.getType().equals(type), "skewed value type %s does not match key type %s", value.getType(), type);
+                writeNativeValue(type, blockBuilder, value.getValue());
+            }
+            Block block = blockBuilder.build();
+
+            TypedSet set = new TypedSet(type, block.getPositionCount());
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                set.add(block, position);
+            }
+            return set;
         }
 
         // Does not include size of SharedBuffer
@@ -374,6 +432,17 @@ public class PartitionedOutputOperator
                     }
                     hasAnyRowBeenReplicated = true;
                 }
+                else if (skewedKeyChannel.isPresent() && isSkewed(page.getBlock(skewedKeyChannel.getAsInt()), position)) {
+                    if (replicateSkewedValues && !page.getBlock(skewedKeyChannel.getAsInt()).isNull(position)) {
+                        for (PageBuilder pageBuilder : pageBuilders) {
+                            appendRow(pageBuilder, page, position);
+                        }
+                    }
+                    else {
+                        appendRow(pageBuilders.get(nextSpreadPartition), page, position);
+                        nextSpreadPartition = (nextSpreadPartition + 1) % pageBuilders.size();
+                    }
+                }
                 else {
                     int partition = partitionFunction.getPartition(partitionFunctionArgs, position);
 
@@ -384,6 +453,11 @@ public class PartitionedOutputOperator
             return flush(false);
         }
 
+        private boolean isSkewed(Block block, int position)
+        {
+            return block.isNull(position) || skewedValues.get().contains(block, position);
+        }
+
         private Page getPartitionFunctionArguments(Page page)
         {
             Block[] blocks = new Block[partitionChannels.size()];
@@ -16,7 +16,6 @@ package com.facebook.presto.operator;
 import com.facebook.presto.spi.Page;
 
 import java.util.Optional;
-import java.util.function.Function;
 
 /**
  * This class is responsible for iterating over build rows, which have
@@ -47,10 +46,18 @@ public interface PositionLinks
          */
         int link(int left, int right);
 
+        Factory build();
+    }
+
+    interface Factory
+    {
         /**
          * JoinFilterFunction has to be created and supplied for each thread using PositionLinks
          * since JoinFilterFunction is not thread safe...
+         *
+         * @param lowerBoundFunction conjuncts of the join filter bounding the sort channel from below
+         * @param upperBoundFunction conjuncts of the join filter bounding the sort channel from above
          */
-        Function<Optional<JoinFilterFunction>, PositionLinks> build();
+        PositionLinks create(Optional<JoinFilterFunction> lowerBoundFunction, Optional<JoinFilterFunction> upperBoundFunction);
     }
 }
@@ -17,19 +17,29 @@ import com.facebook.presto.operator.ChannelSet.ChannelSetBuilder;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.PartitioningSpiller;
+import com.facebook.presto.spiller.PartitioningSpillerFactory;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.units.DataSize;
 
 import javax.annotation.concurrent.ThreadSafe;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.concurrent.MoreFutures.tryGetFutureValue;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
@@ -40,6 +50,7 @@ public class SetBuilderOperator
     {
         private final Type type;
         private final SettableFuture<ChannelSet> channelSetFuture = SettableFuture.create();
+        private final SettableFuture<?> destroyed = SettableFuture.create();
 
         public SetSupplier(Type type)
         {
@@ -61,6 +72,23 @@ public class SetBuilderOperator
             boolean wasSet = channelSetFuture.set(requireNonNull(channelSet, "channelSet is null"));
             checkState(wasSet, "ChannelSet already set");
         }
+
+        /**
+         * Releases the set once no operator will read it anymore.
+         */
+        public void destroy()
+        {
+            // set may not be built yet, so close it once it is
+            channelSetFuture.addListener(() -> {
+                tryGetFutureValue(channelSetFuture).ifPresent(ChannelSet::close);
+                destroyed.set(null);
+            }, directExecutor());
+        }
+
+        public ListenableFuture<?> isDestroyed()
+        {
+            return destroyed;
+        }
     }
 
     public static class SetBuilderOperatorFactory
@@ -72,9 +100,32 @@ public class SetBuilderOperator
         private final SetSupplier setProvider;
         private final int setChannel;
         private final int expectedPositions;
+        private final DataSize memoryLimitBeforeSpill;
+        private final Optional<PartitioningSpillerFactory> partitioningSpillerFactory;
         private boolean closed;
         private final JoinCompiler joinCompiler;
 
+        @VisibleForTesting
+        public SetBuilderOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                Type type,
+                int setChannel,
+                Optional<Integer> hashChannel,
+                int expectedPositions,
+                JoinCompiler joinCompiler)
+        {
+            this(operatorId,
+                    planNodeId,
+                    type,
+                    setChannel,
+                    hashChannel,
+                    expectedPositions,
+                    new DataSize(0, MEGABYTE),
+                    Optional.empty(),
+                    joinCompiler);
+        }
+
         public SetBuilderOperatorFactory(
                 int operatorId,
                 PlanNodeId planNodeId,
@@ -82,6 +133,8 @@ public class SetBuilderOperator
                 int setChannel,
                 Optional<Integer> hashChannel,
                 int expectedPositions,
+                DataSize memoryLimitBeforeSpill,
+                Optional<PartitioningSpillerFactory> partitioningSpillerFactory,
                 JoinCompiler joinCompiler)
         {
             this.operatorId = operatorId;
@@ -91,6 +144,8 @@ public class SetBuilderOperator
             this.setChannel = setChannel;
             this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
             this.expectedPositions = expectedPositions;
+            this.memoryLimitBeforeSpill = requireNonNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null");
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
         }
 
@@ -110,7 +165,15 @@ public class SetBuilderOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, SetBuilderOperator.class.getSimpleName());
-            return new SetBuilderOperator(operatorContext, setProvider, setChannel, hashChannel, expectedPositions, joinCompiler);
+            return new SetBuilderOperator(
+                    operatorContext,
+                    setProvider,
+                    setChannel,
+                    hashChannel,
+                    expectedPositions,
+                    memoryLimitBeforeSpill,
+                    partitioningSpillerFactory,
+                    joinCompiler);
         }
 
         @Override
@@ -122,7 +185,16 @@ public class SetBuilderOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new SetBuilderOperatorFactory(operatorId, planNodeId, setProvider.getType(), setChannel, hashChannel, expectedPositions, joinCompiler);
+            return new SetBuilderOperatorFactory(
+                    operatorId,
+                    planNodeId,
+                    setProvider.getType(),
+                    setChannel,
+                    hashChannel,
+                    expectedPositions,
+                    memoryLimitBeforeSpill,
+                    partitioningSpillerFactory,
+                    joinCompiler);
         }
     }
 
@@ -130,10 +202,21 @@ public class SetBuilderOperator
     private final SetSupplier setSupplier;
     private final int setChannel;
     private final Optional<Integer> hashChannel;
+    private final long memoryLimitBeforeSpill;
+    private final Optional<PartitioningSpillerFactory> partitioningSpillerFactory;
+    private final JoinCompiler joinCompiler;
 
-    private final ChannelSetBuilder channelSetBuilder;
+    private ChannelSetBuilder channelSetBuilder;
 
-    private boolean finished;
+    // once the set outgrows the memory limit, all its values are spilled by partition
+    private Optional<PartitioningSpiller> spiller = Optional.empty();
+    private Iterator<Page> unspilledValues = emptyIterator();
+    private boolean spilledNull;
+    private boolean spillFlushed;
+    private ListenableFuture<?> spillInProgress = NOT_BLOCKED;
+
+    private boolean finishing;
+    private ChannelSet channelSet;
 
     public SetBuilderOperator(
             OperatorContext operatorContext,
@@ -141,6 +224,8 @@ public class SetBuilderOperator
             int setChannel,
             Optional<Integer> hashChannel,
             int expectedPositions,
+            DataSize memoryLimitBeforeSpill,
+            Optional<PartitioningSpillerFactory> partitioningSpillerFactory,
             JoinCompiler joinCompiler)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
@@ -148,6 +233,9 @@ public class SetBuilderOperator
         this.setChannel = setChannel;
 
         this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.memoryLimitBeforeSpill = requireNonNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null").toBytes();
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
         // Set builder is has a single channel which goes in channel 0, if hash is present, add a hachBlock to channel 1
         Optional<Integer> channelSetHashChannel = hashChannel.isPresent() ? Optional.of(1) : Optional.empty();
         this.channelSetBuilder = new ChannelSetBuilder(
@@ -173,37 +261,88 @@ public class SetBuilderOperator
     @Override
     public void finish()
     {
-        if (finished) {
+        finishing = true;
+        if (channelSet != null) {
             return;
         }
 
-        ChannelSet channelSet = channelSetBuilder.build();
+        if (spiller.isPresent()) {
+            // finish is called again once the operator is unblocked
+            if (!spillValues()) {
+                return;
+            }
+            if (!spillFlushed) {
+                spillFlushed = true;
+                spillInProgress = spiller.get().flush();
+                if (!spillInProgress.isDone()) {
+                    return;
+                }
+            }
+            channelSet = new ChannelSet(
+                    setSupplier.getType(),
+                    spilledNull,
+                    spiller.get(),
+                    hashChannel.map(channel -> 1),
+                    operatorContext.getSession(),
+                    joinCompiler,
+                    operatorContext.getSystemMemoryContext().newLocalMemoryContext());
+        }
+        else {
+            channelSet = channelSetBuilder.build();
+        }
         setSupplier.setChannelSet(channelSet);
         operatorContext.recordGeneratedOutput(channelSet.getEstimatedSizeInBytes(), channelSet.size());
-        finished = true;
     }
 
     @Override
     public boolean isFinished()
     {
-        return finished;
+        if (channelSet == null) {
+            return false;
+        }
+        // the spilled set is accounted to this operator until it is destroyed
+        return !channelSet.isSpilled() || setSupplier.isDestroyed().isDone();
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (channelSet != null && channelSet.isSpilled()) {
+            return setSupplier.isDestroyed();
+        }
+        return spillInProgress;
     }
 
     @Override
     public boolean needsInput()
     {
-        return !finished;
+        if (finishing) {
+            return false;
+        }
+        return !spiller.isPresent() || spillValues();
     }
 
     @Override
     public void addInput(Page page)
     {
         requireNonNull(page, "page is null");
-        checkState(!isFinished(), "Operator is already finished");
+        checkState(!finishing, "Operator is already finishing");
+        checkState(spillInProgress.isDone(), "Previous spill hasn't yet finished");
 
         Block sourceBlock = page.getBlock(setChannel);
         Page sourcePage = hashChannel.isPresent() ? new Page(sourceBlock, page.getBlock(hashChannel.get())) : new Page(sourceBlock);
+
+        if (spiller.isPresent()) {
+            checkState(!unspilledValues.hasNext(), "Values of the set are still spilling");
+            spilledNull |= containsNull(sourceBlock);
+            spillInProgress = spiller.get().spill(sourcePage);
+            return;
+        }
+
         channelSetBuilder.addPage(sourcePage);
+        if (partitioningSpillerFactory.isPresent() && memoryLimitBeforeSpill > 0 && channelSetBuilder.getEstimatedSize() > memoryLimitBeforeSpill) {
+            startSpill();
+        }
     }
 
     @Override
@@ -211,4 +350,59 @@ public class SetBuilderOperator
     {
         return null;
     }
+
+    @Override
+    public void close()
+    {
+        // a published set is closed once destroyed, or when the operator is closed early
+        if (channelSet != null) {
+            channelSet.close();
+        }
+        else {
+            spiller.ifPresent(PartitioningSpiller::close);
+        }
+    }
+
+    private void startSpill()
+    {
+        List<Type> types = hashChannel.isPresent() ? ImmutableList.of(setSupplier.getType(), BIGINT) : ImmutableList.of(setSupplier.getType());
+        spiller = Optional.of(partitioningSpillerFactory.get().create(
+                types,
+                ImmutableList.of(0),
+                operatorContext.getSpillContext(),
+                operatorContext.getSystemMemoryContext().newAggregatedMemoryContext()));
+
+        spilledNull = channelSetBuilder.containsNull();
+        unspilledValues = channelSetBuilder.buildValuePages();
+        spillValues();
+    }
+
+    /**
+     * Spills the values of the in memory set, a page at a time while the previous spill is done.
+     * Returns whether all values are spilled and no spill is in progress.
+     */
+    private boolean spillValues()
+    {
+        while (spillInProgress.isDone() && unspilledValues.hasNext()) {
+            spillInProgress = spiller.get().spill(unspilledValues.next());
+        }
+        if (!spillInProgress.isDone()) {
+            return false;
+        }
+        if (channelSetBuilder != null) {
+            channelSetBuilder = null;
+            operatorContext.setMemoryReservation(0);
+        }
+        return true;
+    }
+
+    private static boolean containsNull(Block block)
+    {
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
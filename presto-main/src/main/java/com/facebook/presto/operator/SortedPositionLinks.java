@@ -23,7 +23,6 @@ import org.openjdk.jol.info.ClassLayout;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.function.Function;
 
 import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
 import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
@@ -32,8 +31,9 @@ import static io.airlift.slice.SizeOf.sizeOf;
 import static java.util.Objects.requireNonNull;
 
 /**
- * This class assumes that lessThanFunction is a superset of the whole filtering
- * condition used in a join. In other words, we can use SortedPositionLinks
+ * This class keeps the position links sorted ascending by the sort channel and
+ * assumes that lowerBoundFunction and upperBoundFunction are a superset of the whole
+ * filtering condition used in a join. In other words, we can use SortedPositionLinks
  * with following join condition:
  *
  * filterFunction_1(...) AND filterFunction_2(....) AND ... AND filterFunction_n(...)
@@ -43,15 +43,17 @@ import static java.util.Objects.requireNonNull;
  *
  * filterFunction_1(...) OR filterFunction_2(....) OR ... OR filterFunction_n(...)
  *
- * To use lessThanFunction in this class, it must be an expression in form of:
+ * To use a function as a bound in this class, it must be a conjunction of expressions in form of:
  *
- * f(probeColumn1, probeColumn2, ..., probeColumnN) COMPARE g(buildColumn1, ..., buildColumnN)
+ * g(buildColumn1, ..., buildColumnN) COMPARE f(probeColumn1, probeColumn2, ..., probeColumnN)
  *
- * where COMPARE is one of: < <= > >=
+ * where COMPARE is one of: > >= for lowerBoundFunction and one of: < <= for upperBoundFunction.
  *
  * That allows us to define an order of the elements in positionLinks (this defining which
- * element is smaller) using g(...) function and to perform a binary search using
- * f(probePosition) value.
+ * element is smaller) using g(...) function, to perform a binary search for the first element
+ * matching lowerBoundFunction using f(probePosition) value, and to stop the iteration at
+ * the first element not matching upperBoundFunction. Band joins, like
+ * {@code build.x BETWEEN probe.a AND probe.b}, therefore only visit the matching elements.
  */
 public final class SortedPositionLinks
         implements PositionLinks
@@ -120,7 +122,7 @@ public final class SortedPositionLinks
         }
 
         @Override
-        public Function<Optional<JoinFilterFunction>, PositionLinks> build()
+        public Factory build()
         {
             ArrayPositionLinks.Builder builder = ArrayPositionLinks.builder(size);
             int[][] sortedPositionLinks = new int[size][];
@@ -148,26 +150,34 @@ public final class SortedPositionLinks
                 }
             }
 
-            return lessThanFunction -> {
-                checkState(lessThanFunction.isPresent(), "Using SortedPositionLinks without lessThanFunction");
+            return (lowerBoundFunction, upperBoundFunction) -> {
+                checkState(lowerBoundFunction.isPresent() || upperBoundFunction.isPresent(), "Using SortedPositionLinks without bound functions");
                 return new SortedPositionLinks(
-                        builder.build().apply(lessThanFunction),
+                        builder.build().create(Optional.empty(), Optional.empty()),
                         sortedPositionLinks,
-                        lessThanFunction.get());
+                        lowerBoundFunction,
+                        upperBoundFunction);
             };
         }
     }
 
     private final PositionLinks positionLinks;
     private final int[][] sortedPositionLinks;
-    private final JoinFilterFunction lessThanFunction;
+    // we do quick checks for `null` bound functions, which match every position
+    private final JoinFilterFunction lowerBoundFunction;
+    private final JoinFilterFunction upperBoundFunction;
     private final long sizeInBytes;
 
-    private SortedPositionLinks(PositionLinks positionLinks, int[][] sortedPositionLinks, JoinFilterFunction lessThanFunction)
+    private SortedPositionLinks(
+            PositionLinks positionLinks,
+            int[][] sortedPositionLinks,
+            Optional<JoinFilterFunction> lowerBoundFunction,
+            Optional<JoinFilterFunction> upperBoundFunction)
     {
         this.positionLinks = requireNonNull(positionLinks, "positionLinks is null");
         this.sortedPositionLinks = requireNonNull(sortedPositionLinks, "sortedPositionLinks is null");
-        this.lessThanFunction = requireNonNull(lessThanFunction, "lessThanFunction is null");
+        this.lowerBoundFunction = requireNonNull(lowerBoundFunction, "lowerBoundFunction is null").orElse(null);
+        this.upperBoundFunction = requireNonNull(upperBoundFunction, "upperBoundFunction is null").orElse(null);
         this.sizeInBytes = INSTANCE_SIZE + positionLinks.getSizeInBytes() + sizeOfPositionLinks(sortedPositionLinks);
     }
 
@@ -192,8 +202,9 @@ public final class SortedPositionLinks
         if (nextPosition < 0) {
             return -1;
         }
-        // break a position links chain if next position should be filtered out
-        if (applyLessThanFunction(nextPosition, probePosition, allProbeChannelsPage)) {
+        // break a position links chain if next position is above the upper bound,
+        // all following positions are above the upper bound as well
+        if (applyUpperBoundFunction(nextPosition, probePosition, allProbeChannelsPage)) {
             return nextPosition;
         }
         return -1;
@@ -202,33 +213,31 @@ public final class SortedPositionLinks
     @Override
     public int start(int startingPosition, int probePosition, Page allProbeChannelsPage)
     {
-        // check if filtering function to startingPosition
-        if (applyLessThanFunction(startingPosition, probePosition, allProbeChannelsPage)) {
-            return startingPosition;
-        }
+        int position = startingPosition;
+        if (!applyLowerBoundFunction(startingPosition, probePosition, allProbeChannelsPage)) {
+            int[] positions = sortedPositionLinks[startingPosition];
+            if (positions == null) {
+                return -1;
+            }
 
-        if (sortedPositionLinks[startingPosition] == null) {
-            return -1;
+            // do a binary search for the first position which is not below the lower bound
+            int offset = lowerBound(positions, 0, positions.length - 1, probePosition, allProbeChannelsPage);
+            if (!applyLowerBoundFunction(positions[offset], probePosition, allProbeChannelsPage)) {
+                return -1;
+            }
+            position = positions[offset];
         }
 
-        int left = 0;
-        int right = sortedPositionLinks[startingPosition].length - 1;
-
-        // do a binary search for the first position for which filter function applies
-        int offset = lowerBound(startingPosition, left, right, probePosition, allProbeChannelsPage);
-        if (offset < 0) {
-            return -1;
-        }
-        if (!applyLessThanFunction(startingPosition, offset, probePosition, allProbeChannelsPage)) {
+        if (!applyUpperBoundFunction(position, probePosition, allProbeChannelsPage)) {
             return -1;
         }
-        return sortedPositionLinks[startingPosition][offset];
+        return position;
     }
 
     /**
-     * Find the first element in position links that is NOT smaller than probePosition
+     * Find the first element in positions that is NOT below the lower bound for probePosition
      */
-    private int lowerBound(int startingPosition, int first, int last, int probePosition, Page allProbeChannelsPage)
+    private int lowerBound(int[] positions, int first, int last, int probePosition, Page allProbeChannelsPage)
     {
         int middle;
         int step;
@@ -236,7 +245,7 @@ public final class SortedPositionLinks
         while (count > 0) {
             step = count / 2;
             middle = first + step;
-            if (!applyLessThanFunction(startingPosition, middle, probePosition, allProbeChannelsPage)) {
+            if (!applyLowerBoundFunction(positions[middle], probePosition, allProbeChannelsPage)) {
                 first = ++middle;
                 count -= step + 1;
             }
@@ -253,14 +262,14 @@ public final class SortedPositionLinks
         return sizeInBytes;
     }
 
-    private boolean applyLessThanFunction(int leftPosition, int leftOffset, int rightPosition, Page rightPage)
+    private boolean applyLowerBoundFunction(int leftPosition, int rightPosition, Page rightPage)
     {
-        return applyLessThanFunction(sortedPositionLinks[leftPosition][leftOffset], rightPosition, rightPage);
+        return lowerBoundFunction == null || lowerBoundFunction.filter(leftPosition, rightPosition, rightPage);
     }
 
-    private boolean applyLessThanFunction(long leftPosition, int rightPosition, Page rightPage)
+    private boolean applyUpperBoundFunction(int leftPosition, int rightPosition, Page rightPage)
     {
-        return lessThanFunction.filter((int) leftPosition, rightPosition, rightPage);
+        return upperBoundFunction == null || upperBoundFunction.filter(leftPosition, rightPosition, rightPage);
     }
 
     private static class PositionComparator
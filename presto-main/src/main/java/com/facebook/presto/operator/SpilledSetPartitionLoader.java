@@ -0,0 +1,214 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Loads the partitions of a spilled set for the semi join operators probing it. Partitions are
+ * loaded one at a time, in order, once every operator still probing asked for the partition,
+ * so each partition is loaded only once and shared by all operators until they release it.
+ * <p>
+ * All operators must be created before the first partition is loaded, so the set may only be
+ * spilled when the probe runs with a fixed number of drivers. Drivers created per split would
+ * wait for splits that can not start while the waiting drivers hold the split slots.
+ */
+@ThreadSafe
+class SpilledSetPartitionLoader
+{
+    private final ListenableFuture<ChannelSet> channelSetFuture;
+
+    @GuardedBy("this")
+    private int openFactories = 1;
+    @GuardedBy("this")
+    private int probes;
+
+    @GuardedBy("this")
+    private int nextPartition;
+    @GuardedBy("this")
+    private SettableFuture<ChannelSet> nextPartitionSet = SettableFuture.create();
+    @GuardedBy("this")
+    private int waitingProbes;
+    @GuardedBy("this")
+    private int holdingProbes;
+    @GuardedBy("this")
+    private boolean loading;
+
+    public SpilledSetPartitionLoader(ListenableFuture<ChannelSet> channelSetFuture)
+    {
+        this.channelSetFuture = requireNonNull(channelSetFuture, "channelSetFuture is null");
+    }
+
+    public synchronized void addFactory()
+    {
+        checkState(openFactories > 0, "all factories are closed");
+        openFactories++;
+    }
+
+    /**
+     * Once all factories are closed no more operators probe the set, so partitions can be loaded.
+     */
+    public void closeFactory()
+    {
+        synchronized (this) {
+            checkState(openFactories > 0, "all factories are closed");
+            openFactories--;
+        }
+        loadNextPartitionIfReady();
+    }
+
+    public synchronized Probe addProbe()
+    {
+        checkState(openFactories > 0, "all factories are closed");
+        probes++;
+        return new Probe();
+    }
+
+    private ListenableFuture<ChannelSet> waitForPartition(int partition)
+    {
+        ListenableFuture<ChannelSet> partitionSet;
+        synchronized (this) {
+            checkArgument(partition == nextPartition, "expected partition %s, but got %s", nextPartition, partition);
+            waitingProbes++;
+            partitionSet = nextPartitionSet;
+        }
+        loadNextPartitionIfReady();
+        return partitionSet;
+    }
+
+    private synchronized void releasePartition()
+    {
+        checkState(holdingProbes > 0, "partition is not held");
+        holdingProbes--;
+        if (holdingProbes == 0 && !loading) {
+            getFutureValue(channelSetFuture).releaseSpilledPartition();
+        }
+    }
+
+    private void removeProbe(int partition)
+    {
+        synchronized (this) {
+            // a closed operator may still wait for or hold a partition
+            if (partition >= 0) {
+                if (partition < nextPartition) {
+                    releasePartition();
+                }
+                else {
+                    waitingProbes--;
+                }
+            }
+            probes--;
+        }
+        loadNextPartitionIfReady();
+    }
+
+    private void loadNextPartitionIfReady()
+    {
+        int partition;
+        SettableFuture<ChannelSet> partitionSetFuture;
+        synchronized (this) {
+            if (loading || openFactories > 0 || waitingProbes == 0 || waitingProbes < probes) {
+                return;
+            }
+            // every operator asks for the next partition only after releasing the previous one
+            checkState(holdingProbes == 0, "previous partition is still held");
+
+            partition = nextPartition;
+            partitionSetFuture = nextPartitionSet;
+            holdingProbes = waitingProbes;
+            waitingProbes = 0;
+            nextPartition++;
+            nextPartitionSet = SettableFuture.create();
+            loading = true;
+        }
+
+        // the partition is read from disk, so load it without holding the lock
+        ChannelSet partitionSet;
+        try {
+            partitionSet = getFutureValue(channelSetFuture).loadSpilledPartition(partition);
+        }
+        catch (RuntimeException e) {
+            synchronized (this) {
+                loading = false;
+            }
+            partitionSetFuture.setException(e);
+            throw e;
+        }
+
+        synchronized (this) {
+            loading = false;
+            if (holdingProbes == 0) {
+                // all operators holding the partition were closed while it was loaded
+                getFutureValue(channelSetFuture).releaseSpilledPartition();
+            }
+        }
+        partitionSetFuture.set(partitionSet);
+        loadNextPartitionIfReady();
+    }
+
+    /**
+     * Partitions of a single operator probing the set.
+     */
+    public class Probe
+    {
+        private ListenableFuture<ChannelSet> partitionSet;
+        private int partition = -1;
+        private boolean closed;
+
+        /**
+         * Returns the set of the partition once all operators probing the set asked for it.
+         * The partitions have to be asked for in order, each after the previous one is released.
+         */
+        public ListenableFuture<ChannelSet> loadPartition(int partition)
+        {
+            checkState(!closed, "probe is closed");
+            checkState(partitionSet == null, "previous partition is not released");
+            this.partition = partition;
+            partitionSet = waitForPartition(partition);
+            return partitionSet;
+        }
+
+        public void releasePartition()
+        {
+            checkState(!closed, "probe is closed");
+            checkState(partitionSet != null && partitionSet.isDone(), "partition is not loaded");
+            partitionSet = null;
+            partition = -1;
+            SpilledSetPartitionLoader.this.releasePartition();
+        }
+
+        /**
+         * Stops probing the set. Partitions are no longer loaded for this operator.
+         */
+        public void close()
+        {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            removeProbe(partition);
+            partitionSet = null;
+            partition = -1;
+        }
+    }
+}
@@ -259,20 +259,18 @@ public class TableScanOperator
             source = pageSourceProvider.createPageSource(operatorContext.getSession(), split, columns);
         }
 
+        // the page is handed out with its lazy blocks unloaded; the driver loads it unless
+        // the next operator accepts lazy input, so bytes read by those loads are picked up
+        // by the stats update of the following call
         Page page = source.getNextPage();
-        if (page != null) {
-            // assure the page is in memory before handing to another operator
-            page.assureLoaded();
-
-            // update operator stats
-            long endCompletedBytes = source.getCompletedBytes();
-            long endReadTimeNanos = source.getReadTimeNanos();
-            operatorContext.recordGeneratedInput(endCompletedBytes - completedBytes, page.getPositionCount(), endReadTimeNanos - readTimeNanos);
-            completedBytes = endCompletedBytes;
-            readTimeNanos = endReadTimeNanos;
-        }
 
-        // updating system memory usage should happen after page is loaded.
+        // update operator stats
+        long endCompletedBytes = source.getCompletedBytes();
+        long endReadTimeNanos = source.getReadTimeNanos();
+        operatorContext.recordGeneratedInput(endCompletedBytes - completedBytes, page == null ? 0 : page.getPositionCount(), endReadTimeNanos - readTimeNanos);
+        completedBytes = endCompletedBytes;
+        readTimeNanos = endReadTimeNanos;
+
         systemMemoryContext.setBytes(source.getSystemMemoryUsage());
 
         return page;
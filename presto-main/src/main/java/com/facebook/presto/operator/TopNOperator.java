@@ -20,14 +20,28 @@ import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Ordering;
+import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
-import java.util.PriorityQueue;
-
+import java.util.Set;
+
+import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
+import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
+import static com.facebook.presto.operator.SyntheticAddress.encodeSyntheticAddress;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.SmallintType.SMALLINT;
+import static com.facebook.presto.spi.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.spi.type.TinyintType.TINYINT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
@@ -112,8 +126,9 @@ public class TopNOperator
         }
     }
 
-    private static final int MAX_INITIAL_PRIORITY_QUEUE_SIZE = 10000;
-    private static final DataSize OVERHEAD_PER_VALUE = new DataSize(100, DataSize.Unit.BYTE); // for estimating in-memory size. This is a completely arbitrary number
+    private static final int MAX_INITIAL_HEAP_SIZE = 10000;
+    private static final int COMPACTION_RATIO = 4;
+    private static final Set<Type> LONG_SORT_TYPES = ImmutableSet.of(BIGINT, INTEGER, SMALLINT, TINYINT, DATE, TIMESTAMP);
 
     private final OperatorContext operatorContext;
     private final List<Type> types;
@@ -124,12 +139,10 @@ public class TopNOperator
     private final boolean partial;
     private final DataSize maxPartialMemory;
 
-    private final PageBuilder pageBuilder;
-
     private TopNBuilder topNBuilder;
     private boolean finishing;
 
-    private Iterator<Block[]> outputIterator;
+    private Iterator<Page> outputIterator;
 
     public TopNOperator(
             OperatorContext operatorContext,
@@ -154,8 +167,6 @@ public class TopNOperator
         this.partial = partial;
         this.maxPartialMemory = requireNonNull(maxPartialMemory, "maxPartialMemory is null");
 
-        this.pageBuilder = new PageBuilder(types);
-
         if (n == 0) {
             finishing = true;
         }
@@ -200,6 +211,7 @@ public class TopNOperator
             topNBuilder = new TopNBuilder(
                     n,
                     partial,
+                    types,
                     sortTypes,
                     sortChannels,
                     sortOrders,
@@ -232,35 +244,53 @@ public class TopNOperator
             }
         }
 
-        pageBuilder.reset();
-        while (!pageBuilder.isFull() && outputIterator.hasNext()) {
-            Block[] next = outputIterator.next();
-            pageBuilder.declarePosition();
-            for (int i = 0; i < next.length; i++) {
-                Type type = types.get(i);
-                type.appendTo(next[i], 0, pageBuilder.getBlockBuilder(i));
-            }
+        if (outputIterator == null || !outputIterator.hasNext()) {
+            return null;
         }
-
-        return pageBuilder.build();
+        return outputIterator.next();
     }
 
+    /**
+     * Keeps the candidate rows in the pages they arrived in, and tracks them with a heap of
+     * synthetic addresses (page index, position) ordered so that the worst candidate is at the top.
+     * Pages that contribute no candidate are never retained, and the retained pages are compacted
+     * once most of their positions have been evicted from the heap.
+     */
     private static class TopNBuilder
     {
         private final int n;
         private final boolean partial;
+        private final List<Type> types;
         private final List<Type> sortTypes;
         private final List<Integer> sortChannels;
         private final List<SortOrder> sortOrders;
         private final OperatorContext operatorContext;
         private final LocalMemoryContext systemMemoryContext;
         private final long maxPartialMemory;
-        private final PriorityQueue<Block[]> globalCandidates;
 
-        private long memorySize;
+        // fast path for a single bigint-like or double sort key, which is compared without going through the block comparators
+        private final boolean primitiveSortKey;
+        private final boolean doubleSortKey;
+        private final Type firstSortType;
+        private final int firstSortChannel;
+        private final SortOrder firstSortOrder;
+
+        private final ObjectArrayList<Page> pages = new ObjectArrayList<>();
+        private final IntArrayList pageCandidateCounts = new IntArrayList();
+        private long retainedPagesSize;
+        private long retainedPositions;
+
+        private long[] heap;
+        private int heapSize;
+
+        // sort key of the row at the top of the heap, only maintained for the primitive fast path
+        private boolean heapTopNull;
+        private long heapTopLong;
+        private double heapTopDouble;
 
         private TopNBuilder(int n,
                 boolean partial,
+                List<Type> types,
                 List<Type> sortTypes,
                 List<Integer> sortChannels,
                 List<SortOrder> sortOrders,
@@ -270,6 +300,7 @@ public class TopNOperator
             this.n = n;
             this.partial = partial;
 
+            this.types = types;
             this.sortTypes = sortTypes;
             this.sortChannels = sortChannels;
             this.sortOrders = sortOrders;
@@ -278,42 +309,107 @@ public class TopNOperator
             this.systemMemoryContext = operatorContext.getSystemMemoryContext().newLocalMemoryContext();
             this.maxPartialMemory = maxPartialMemory.toBytes();
 
-            Ordering<Block[]> comparator = Ordering.from(new RowComparator(sortTypes, sortChannels, sortOrders)).reverse();
-            this.globalCandidates = new PriorityQueue<>(Math.min(n, MAX_INITIAL_PRIORITY_QUEUE_SIZE), comparator);
+            this.firstSortType = sortTypes.get(0);
+            this.firstSortChannel = sortChannels.get(0);
+            this.firstSortOrder = sortOrders.get(0);
+            this.doubleSortKey = sortTypes.size() == 1 && firstSortType.equals(DOUBLE);
+            this.primitiveSortKey = doubleSortKey || (sortTypes.size() == 1 && LONG_SORT_TYPES.contains(firstSortType));
+
+            this.heap = new long[Math.min(n, MAX_INITIAL_HEAP_SIZE)];
         }
 
         public void processPage(Page page)
         {
-            long sizeDelta = mergeWithGlobalCandidates(page);
-            memorySize += sizeDelta;
-        }
+            int position = 0;
+            if (heapSize == n) {
+                // reject the page as a whole if none of its rows beats the current top N
+                position = findFirstCandidate(page.getBlocks(), 0, page.getPositionCount());
+                if (position == page.getPositionCount()) {
+                    return;
+                }
+            }
 
-        private long mergeWithGlobalCandidates(Page page)
-        {
-            long sizeDelta = 0;
+            int pageIndex = pages.size();
+            pages.add(page);
+            pageCandidateCounts.add(0);
+            retainedPagesSize += page.getRetainedSizeInBytes();
+            retainedPositions += page.getPositionCount();
 
             Block[] blocks = page.getBlocks();
-            for (int position = 0; position < page.getPositionCount(); position++) {
-                if (globalCandidates.size() < n || compare(position, blocks, globalCandidates.peek()) < 0) {
-                    sizeDelta += addRow(position, blocks);
+            while (position < page.getPositionCount()) {
+                if (heapSize < n) {
+                    addRow(pageIndex, position);
+                    position++;
+                    continue;
+                }
+
+                position = findFirstCandidate(blocks, position, page.getPositionCount());
+                if (position < page.getPositionCount()) {
+                    replaceTop(pageIndex, position);
+                    position++;
                 }
             }
 
-            return sizeDelta;
+            if (pageCandidateCounts.getInt(pageIndex) == 0) {
+                releasePage(pageIndex);
+            }
+            if (retainedPositions > (long) COMPACTION_RATIO * heapSize) {
+                compact();
+            }
+        }
+
+        private int findFirstCandidate(Block[] blocks, int startPosition, int endPosition)
+        {
+            for (int position = startPosition; position < endPosition; position++) {
+                if (compareToTop(blocks, position) < 0) {
+                    return position;
+                }
+            }
+            return endPosition;
         }
 
-        private int compare(int position, Block[] blocks, Block[] currentMax)
+        private int compareToTop(Block[] blocks, int position)
         {
+            if (primitiveSortKey) {
+                Block block = blocks[firstSortChannel];
+                boolean isNull = block.isNull(position);
+                if (isNull || heapTopNull) {
+                    if (isNull && heapTopNull) {
+                        return 0;
+                    }
+                    return isNull == firstSortOrder.isNullsFirst() ? -1 : 1;
+                }
+                int result;
+                if (doubleSortKey) {
+                    result = Double.compare(firstSortType.getDouble(block, position), heapTopDouble);
+                }
+                else {
+                    result = Long.compare(firstSortType.getLong(block, position), heapTopLong);
+                }
+                return firstSortOrder.isAscending() ? result : -result;
+            }
+
+            Page topPage = pages.get(decodeSliceIndex(heap[0]));
+            int topPosition = decodePosition(heap[0]);
             for (int i = 0; i < sortChannels.size(); i++) {
-                Type type = sortTypes.get(i);
                 int sortChannel = sortChannels.get(i);
-                SortOrder sortOrder = sortOrders.get(i);
-
-                Block block = blocks[sortChannel];
-                Block currentMaxValue = currentMax[sortChannel];
+                int compare = sortOrders.get(i).compareBlockValue(sortTypes.get(i), blocks[sortChannel], position, topPage.getBlock(sortChannel), topPosition);
+                if (compare != 0) {
+                    return compare;
+                }
+            }
+            return 0;
+        }
 
-                // compare the right value to the left block but negate the result since we are evaluating in the opposite order
-                int compare = -sortOrder.compareBlockValue(type, currentMaxValue, 0, block, position);
+        private int compareRows(long leftAddress, long rightAddress)
+        {
+            Page leftPage = pages.get(decodeSliceIndex(leftAddress));
+            int leftPosition = decodePosition(leftAddress);
+            Page rightPage = pages.get(decodeSliceIndex(rightAddress));
+            int rightPosition = decodePosition(rightAddress);
+            for (int i = 0; i < sortChannels.size(); i++) {
+                int sortChannel = sortChannels.get(i);
+                int compare = sortOrders.get(i).compareBlockValue(sortTypes.get(i), leftPage.getBlock(sortChannel), leftPosition, rightPage.getBlock(sortChannel), rightPosition);
                 if (compare != 0) {
                     return compare;
                 }
@@ -321,42 +417,134 @@ public class TopNOperator
             return 0;
         }
 
-        private long addRow(int position, Block[] blocks)
+        private void addRow(int pageIndex, int position)
         {
-            long sizeDelta = 0;
-            Block[] row = getValues(position, blocks);
+            if (heapSize == heap.length) {
+                heap = Arrays.copyOf(heap, Math.max(1, Math.min(n, heap.length * 2)));
+            }
+            heap[heapSize] = encodeSyntheticAddress(pageIndex, position);
+            heapSize++;
+            siftUp(heapSize - 1);
+            pageCandidateCounts.set(pageIndex, pageCandidateCounts.getInt(pageIndex) + 1);
+            updateHeapTop();
+        }
+
+        private void replaceTop(int pageIndex, int position)
+        {
+            int evictedPageIndex = decodeSliceIndex(heap[0]);
+            heap[0] = encodeSyntheticAddress(pageIndex, position);
+            siftDown(0);
+            pageCandidateCounts.set(pageIndex, pageCandidateCounts.getInt(pageIndex) + 1);
+
+            int remaining = pageCandidateCounts.getInt(evictedPageIndex) - 1;
+            pageCandidateCounts.set(evictedPageIndex, remaining);
+            if (remaining == 0 && evictedPageIndex != pageIndex) {
+                releasePage(evictedPageIndex);
+            }
+            updateHeapTop();
+        }
 
-            sizeDelta += sizeOfRow(row);
-            globalCandidates.add(row);
+        private void releasePage(int pageIndex)
+        {
+            Page page = pages.get(pageIndex);
+            retainedPagesSize -= page.getRetainedSizeInBytes();
+            retainedPositions -= page.getPositionCount();
+            pages.set(pageIndex, null);
+        }
 
-            while (globalCandidates.size() > n) {
-                Block[] previous = globalCandidates.remove();
-                sizeDelta -= sizeOfRow(previous);
+        private void updateHeapTop()
+        {
+            if (!primitiveSortKey || heapSize == 0) {
+                return;
+            }
+            Block block = pages.get(decodeSliceIndex(heap[0])).getBlock(firstSortChannel);
+            int position = decodePosition(heap[0]);
+            heapTopNull = block.isNull(position);
+            if (heapTopNull) {
+                return;
+            }
+            if (doubleSortKey) {
+                heapTopDouble = firstSortType.getDouble(block, position);
+            }
+            else {
+                heapTopLong = firstSortType.getLong(block, position);
             }
-            return sizeDelta;
         }
 
-        private static long sizeOfRow(Block[] row)
+        // the heap is ordered so that the worst row, the one with the greatest sort key, is at the top
+        private void siftUp(int index)
         {
-            long size = OVERHEAD_PER_VALUE.toBytes();
-            for (Block value : row) {
-                size += value.getRetainedSizeInBytes();
+            long address = heap[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (compareRows(heap[parent], address) >= 0) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
             }
-            return size;
+            heap[index] = address;
         }
 
-        private static Block[] getValues(int position, Block[] blocks)
+        private void siftDown(int index)
         {
-            Block[] row = new Block[blocks.length];
-            for (int i = 0; i < blocks.length; i++) {
-                row[i] = blocks[i].getSingleValueBlock(position);
+            long address = heap[index];
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && compareRows(heap[child + 1], heap[child]) > 0) {
+                    child++;
+                }
+                if (compareRows(address, heap[child]) >= 0) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
             }
-            return row;
+            heap[index] = address;
+        }
+
+        /**
+         * Copies the candidate rows into a single page, so that pages mostly made of evicted rows can be released.
+         * The relative order of the rows is unchanged, so the heap stays valid.
+         */
+        private void compact()
+        {
+            PageBuilder pageBuilder = new PageBuilder(types);
+            for (int i = 0; i < heapSize; i++) {
+                appendRow(pageBuilder, heap[i]);
+                heap[i] = encodeSyntheticAddress(0, i);
+            }
+            Page page = pageBuilder.build();
+
+            pages.clear();
+            pages.add(page);
+            pageCandidateCounts.clear();
+            pageCandidateCounts.add(heapSize);
+            retainedPagesSize = page.getRetainedSizeInBytes();
+            retainedPositions = page.getPositionCount();
+        }
+
+        private void appendRow(PageBuilder pageBuilder, long address)
+        {
+            Page page = pages.get(decodeSliceIndex(address));
+            int position = decodePosition(address);
+            pageBuilder.declarePosition();
+            for (int channel = 0; channel < types.size(); channel++) {
+                types.get(channel).appendTo(page.getBlock(channel), position, pageBuilder.getBlockBuilder(channel));
+            }
+        }
+
+        private long getEstimatedSize()
+        {
+            return retainedPagesSize + (long) heapSize * Long.BYTES;
         }
 
         private boolean isFull()
         {
-            long memorySize = this.memorySize;
+            long memorySize = getEstimatedSize();
             if (partial) {
                 systemMemoryContext.setBytes(memorySize);
                 return (memorySize > maxPartialMemory);
@@ -367,14 +555,38 @@ public class TopNOperator
             }
         }
 
-        public Iterator<Block[]> build()
+        public Iterator<Page> build()
         {
-            ImmutableList.Builder<Block[]> minSortedGlobalCandidates = ImmutableList.builder();
-            while (!globalCandidates.isEmpty()) {
-                Block[] row = globalCandidates.remove();
-                minSortedGlobalCandidates.add(row);
+            // pop the rows from worst to best, filling the addresses from the end
+            long[] sortedAddresses = new long[heapSize];
+            while (heapSize > 0) {
+                sortedAddresses[heapSize - 1] = heap[0];
+                heapSize--;
+                heap[0] = heap[heapSize];
+                if (heapSize > 0) {
+                    siftDown(0);
+                }
             }
-            return minSortedGlobalCandidates.build().reverse().iterator();
+
+            PageBuilder pageBuilder = new PageBuilder(types);
+            return new AbstractIterator<Page>()
+            {
+                private int nextAddress;
+
+                @Override
+                protected Page computeNext()
+                {
+                    if (nextAddress == sortedAddresses.length) {
+                        return endOfData();
+                    }
+                    pageBuilder.reset();
+                    while (!pageBuilder.isFull() && nextAddress < sortedAddresses.length) {
+                        appendRow(pageBuilder, sortedAddresses[nextAddress]);
+                        nextAddress++;
+                    }
+                    return pageBuilder.build();
+                }
+            };
         }
     }
 }
@@ -381,7 +381,10 @@ public class WindowOperator
         }
 
         Page page = extractOutput();
-        operatorContext.setMemoryReservation(pagesIndex.getEstimatedSize().toBytes());
+        long windowFunctionsSize = windowFunctions.stream()
+                .mapToLong(FramedWindowFunction::getRetainedSizeInBytes)
+                .sum();
+        operatorContext.setMemoryReservation(pagesIndex.getEstimatedSize().toBytes() + windowFunctionsSize);
         return page;
     }
 
@@ -415,6 +418,12 @@ public class WindowOperator
                     }
                     else {
                         state = State.NEEDS_INPUT;
+                        // Flush the completed partitions rather than holding them until the page builder fills up
+                        if (!pageBuilder.isEmpty()) {
+                            Page page = pageBuilder.build();
+                            pageBuilder.reset();
+                            return page;
+                        }
                         return null;
                     }
                 }
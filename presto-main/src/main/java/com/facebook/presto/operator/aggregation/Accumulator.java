@@ -33,6 +33,23 @@ public interface Accumulator
 
     void addInput(WindowIndex index, List<Integer> channels, int startPosition, int endPosition);
 
+    /**
+     * Returns true if {@link #removeInput(WindowIndex, List, int, int)} is supported.
+     */
+    default boolean hasRemoveInput()
+    {
+        return false;
+    }
+
+    /**
+     * Removes the rows in the specified range, which must have been added
+     * earlier, from the state of this accumulator.
+     */
+    default void removeInput(WindowIndex index, List<Integer> channels, int startPosition, int endPosition)
+    {
+        throw new UnsupportedOperationException("removeInput is not supported by " + getClass().getSimpleName());
+    }
+
     void addIntermediate(Block block);
 
     void evaluateIntermediate(BlockBuilder blockBuilder);
@@ -27,6 +27,7 @@ import com.facebook.presto.spi.function.Description;
 import com.facebook.presto.spi.function.InputFunction;
 import com.facebook.presto.spi.function.LiteralParameters;
 import com.facebook.presto.spi.function.OutputFunction;
+import com.facebook.presto.spi.function.RemoveInputFunction;
 import com.facebook.presto.spi.function.SqlType;
 import com.facebook.presto.spi.type.TypeSignature;
 import com.facebook.presto.type.Constraint;
@@ -42,6 +43,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -172,6 +174,17 @@ public class AggregationCompiler
         return getOnlyElement(combineFunctions);
     }
 
+    public static Optional<Method> getRemoveInputFunction(Class<?> clazz, Method inputFunction)
+    {
+        // Only include methods that take the same parameters as the input function
+        List<Method> removeInputFunctions = findPublicStaticMethodsWithAnnotation(clazz, RemoveInputFunction.class).stream()
+                .filter(method -> Arrays.equals(method.getParameterTypes(), inputFunction.getParameterTypes()))
+                .collect(toImmutableList());
+
+        checkArgument(removeInputFunctions.size() <= 1, String.format("There must be at most one @RemoveInputFunction in class %s for the @InputFunction %s", clazz.toGenericString(), inputFunction.toGenericString()));
+        return removeInputFunctions.stream().findFirst();
+    }
+
     private static List<Method> getOutputFunctions(Class<?> clazz, Class<?> stateClass)
     {
         // Only include methods that match this state class
@@ -38,6 +38,7 @@ import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static com.facebook.presto.metadata.SignatureBinder.applyBoundVariables;
 import static com.facebook.presto.operator.aggregation.AggregationCompiler.isParameterBlock;
@@ -102,16 +103,19 @@ public class BindableAggregationFunction
         AccumulatorStateSerializer<?> stateSerializer = StateCompiler.generateStateSerializer(stateClass, classLoader);
         Type intermediateType = stateSerializer.getSerializedType();
         Method combineFunction = AggregationCompiler.getCombineFunction(definitionClass, stateClass);
+        Optional<Method> removeInputFunction = AggregationCompiler.getRemoveInputFunction(definitionClass, inputFunction);
         AccumulatorStateFactory<?> stateFactory = StateCompiler.generateStateFactory(stateClass, classLoader);
 
         try {
             MethodHandle inputHandle = lookup().unreflect(inputFunction);
+            Optional<MethodHandle> removeInputHandle = removeInputFunction.isPresent() ? Optional.of(lookup().unreflect(removeInputFunction.get())) : Optional.empty();
             MethodHandle combineHandle = lookup().unreflect(combineFunction);
             MethodHandle outputHandle = outputFunction == null ? null : lookup().unreflect(outputFunction);
             metadata = new AggregationMetadata(
                     generateAggregationName(getSignature().getName(), outputType.getTypeSignature(), signaturesFromTypes(inputTypes)),
                     getParameterMetadata(inputFunction, inputTypes),
                     inputHandle,
+                    removeInputHandle,
                     combineHandle,
                     outputHandle,
                     stateClass,
@@ -23,7 +23,7 @@ import java.util.function.LongConsumer;
 import static java.util.Objects.requireNonNull;
 
 class BroadcastExchanger
-        implements Consumer<Page>
+        implements LocalExchanger
 {
     private final List<Consumer<PageReference>> buffers;
     private final LongConsumer memoryTracker;
@@ -13,7 +13,6 @@
  */
 package com.facebook.presto.operator.exchange;
 
-import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.planner.PartitioningHandle;
 import com.google.common.collect.ImmutableList;
@@ -27,6 +26,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -46,7 +46,7 @@ public class LocalExchange
 {
     private static final DataSize DEFAULT_MAX_BUFFERED_BYTES = new DataSize(32, MEGABYTE);
     private final List<Type> types;
-    private final Supplier<Consumer<Page>> exchangerSupplier;
+    private final Supplier<LocalExchanger> exchangerSupplier;
 
     private final List<LocalExchangeSource> sources;
 
@@ -107,13 +107,17 @@ public class LocalExchange
 
         ImmutableList.Builder<LocalExchangeSource> sources = ImmutableList.builder();
         for (int i = 0; i < bufferCount; i++) {
-            sources.add(new LocalExchangeSource(types, source -> checkAllSourcesFinished()));
+            int partition = i;
+            sources.add(new LocalExchangeSource(types, source -> flushSinks(partition), source -> checkAllSourcesFinished()));
         }
         this.sources = sources.build();
 
         List<Consumer<PageReference>> buffers = this.sources.stream()
                 .map(buffer -> (Consumer<PageReference>) buffer::addPage)
                 .collect(toImmutableList());
+        List<Consumer<List<PageReference>>> batchBuffers = this.sources.stream()
+                .map(buffer -> (Consumer<List<PageReference>>) buffer::addPages)
+                .collect(toImmutableList());
 
         this.memoryManager = new LocalExchangeMemoryManager(maxBufferedBytes.toBytes());
         if (partitioning.equals(SINGLE_DISTRIBUTION)) {
@@ -126,7 +130,10 @@ public class LocalExchange
             exchangerSupplier = () -> new RandomExchanger(buffers, memoryManager::updateMemoryUsage);
         }
         else if (partitioning.equals(FIXED_HASH_DISTRIBUTION)) {
-            exchangerSupplier = () -> new PartitioningExchanger(buffers, memoryManager::updateMemoryUsage, types, partitionChannels, partitionHashChannel);
+            List<BooleanSupplier> waitingReaders = this.sources.stream()
+                    .map(source -> (BooleanSupplier) source::isWaitingForPages)
+                    .collect(toImmutableList());
+            exchangerSupplier = () -> new PartitioningExchanger(batchBuffers, waitingReaders, memoryManager::updateMemoryUsage, types, partitionChannels, partitionHashChannel);
         }
         else {
             throw new IllegalArgumentException("Unsupported local exchange partitioning " + partitioning);
@@ -161,6 +168,17 @@ public class LocalExchange
         return sources.get(partitionIndex);
     }
 
+    private void flushSinks(int partition)
+    {
+        checkNotHoldsLock(this);
+
+        List<LocalExchangeSink> openSinks;
+        synchronized (this) {
+            openSinks = ImmutableList.copyOf(sinks);
+        }
+        openSinks.forEach(sink -> sink.flush(partition));
+    }
+
     private void checkAllSourcesFinished()
     {
         checkNotHoldsLock(this);
@@ -197,7 +215,7 @@ public class LocalExchange
             }
 
             // Note: exchanger can be stateful so create a new one for each sink
-            Consumer<Page> exchanger = exchangerSupplier.get();
+            LocalExchanger exchanger = exchangerSupplier.get();
             LocalExchangeSink sink = new LocalExchangeSink(types, exchanger, memoryManager, this::sinkFinished);
             sinks.add(sink);
             return sink;
@@ -16,11 +16,10 @@ package com.facebook.presto.operator.exchange;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
-import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -37,10 +36,13 @@ public class LocalExchangeMemoryManager
     private final long maxBufferedBytes;
     private final AtomicLong bufferedBytes = new AtomicLong();
 
-    @GuardedBy("this")
-    private SettableFuture<?> notFullFuture = NOT_FULL;
+    // Producers and consumers update the memory usage for every page, so the common
+    // case (not full, or nobody waiting) is lock free.  A blocked writer installs a
+    // new future and then re-checks the buffered bytes, so a concurrent release that
+    // missed the new future can not leave the writer blocked.
+    private final AtomicReference<SettableFuture<?>> notFullFuture = new AtomicReference<>(NOT_FULL);
 
-    private final AtomicBoolean blockOnFull = new AtomicBoolean(true);
+    private volatile boolean blockOnFull = true;
 
     public LocalExchangeMemoryManager(long maxBufferedBytes)
     {
@@ -50,48 +52,50 @@ public class LocalExchangeMemoryManager
 
     public void updateMemoryUsage(long bytesAdded)
     {
-        SettableFuture<?> future;
-        synchronized (this) {
-            bufferedBytes.addAndGet(bytesAdded);
-
-            // if we are full, then breakout
-            if (bufferedBytes.get() > maxBufferedBytes || notFullFuture.isDone()) {
-                return;
-            }
-
-            // otherwise, we are not full, so complete the future
-            future = notFullFuture;
-            notFullFuture = NOT_FULL;
+        // if we are full, then breakout
+        if (bufferedBytes.addAndGet(bytesAdded) > maxBufferedBytes) {
+            return;
         }
 
-        // complete future outside of lock since this can invoke callbacks
-        future.set(null);
+        // otherwise, we are not full, so complete the future
+        completeNotFullFuture();
     }
 
-    public synchronized ListenableFuture<?> getNotFullFuture()
+    public ListenableFuture<?> getNotFullFuture()
     {
+        SettableFuture<?> future = notFullFuture.get();
         // if we are full and still blocking and the current not full future is already complete, create a new one
-        if (bufferedBytes.get() > maxBufferedBytes && blockOnFull.get() && notFullFuture.isDone()) {
-            notFullFuture = SettableFuture.create();
+        if (bufferedBytes.get() <= maxBufferedBytes || !blockOnFull || !future.isDone()) {
+            return future;
+        }
+
+        SettableFuture<?> newFuture = SettableFuture.create();
+        if (!notFullFuture.compareAndSet(future, newFuture)) {
+            // another writer installed a future first
+            return notFullFuture.get();
+        }
+
+        // memory may have been released (or blocking disabled) before the new future was visible
+        if (bufferedBytes.get() <= maxBufferedBytes || !blockOnFull) {
+            completeNotFullFuture();
         }
-        return notFullFuture;
+        return newFuture;
     }
 
     public void setNoBlockOnFull()
     {
-        blockOnFull.set(false);
-
-        SettableFuture<?> future;
-        synchronized (this) {
-            if (notFullFuture.isDone()) {
-                return;
-            }
+        blockOnFull = false;
+        completeNotFullFuture();
+    }
 
-            future = notFullFuture;
-            notFullFuture = NOT_FULL;
+    private void completeNotFullFuture()
+    {
+        SettableFuture<?> future = notFullFuture.get();
+        if (future.isDone() || !notFullFuture.compareAndSet(future, NOT_FULL)) {
+            return;
         }
 
-        // complete future outside of lock since this can invoke callbacks
+        // only the thread that swapped the future out completes it, so callbacks run once
         future.set(null);
     }
 
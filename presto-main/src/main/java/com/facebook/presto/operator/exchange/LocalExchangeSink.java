@@ -36,15 +36,15 @@ public class LocalExchangeSink
     }
 
     private final List<Type> types;
-    private final Consumer<Page> exchanger;
+    private final LocalExchanger exchanger;
     private final LocalExchangeMemoryManager memoryManager;
     private final Consumer<LocalExchangeSink> onFinish;
 
     private final AtomicBoolean finished = new AtomicBoolean();
 
-    public LocalExchangeSink(
+    LocalExchangeSink(
             List<Type> types,
-            Consumer<Page> exchanger,
+            LocalExchanger exchanger,
             LocalExchangeMemoryManager memoryManager,
             Consumer<LocalExchangeSink> onFinish)
     {
@@ -62,6 +62,7 @@ public class LocalExchangeSink
     public void finish()
     {
         if (finished.compareAndSet(false, true)) {
+            exchanger.flush();
             onFinish.accept(this);
         }
     }
@@ -86,6 +87,16 @@ public class LocalExchangeSink
         // there can be a race where finished is set between the check above and here
         // it is expected that the exchanger ignores pages after finish
         exchanger.accept(page);
+
+        // the page may have been held back after finish already flushed the exchanger
+        if (isFinished()) {
+            exchanger.flush();
+        }
+    }
+
+    void flush(int partition)
+    {
+        exchanger.flush(partition);
     }
 
     public ListenableFuture<?> waitForWriting()
@@ -93,6 +104,11 @@ public class LocalExchangeSink
         if (isFinished()) {
             return NOT_BLOCKED;
         }
-        return memoryManager.getNotFullFuture();
+        ListenableFuture<?> notFullFuture = memoryManager.getNotFullFuture();
+        if (!notFullFuture.isDone()) {
+            // hand off held back pages before blocking, so the readers can drain the exchange
+            exchanger.flush();
+        }
+        return notFullFuture;
     }
 }
@@ -42,6 +42,7 @@ public class LocalExchangeSource
     }
 
     private final List<Type> types;
+    private final Consumer<LocalExchangeSource> onWaiting;
     private final Consumer<LocalExchangeSource> onFinish;
 
     private final BlockingQueue<PageReference> buffer = new LinkedBlockingDeque<>();
@@ -49,15 +50,17 @@ public class LocalExchangeSource
 
     private final Object lock = new Object();
 
+    // volatile so writers can check for a waiting reader without taking the lock
     @GuardedBy("lock")
-    private SettableFuture<?> notEmptyFuture = NOT_EMPTY;
+    private volatile SettableFuture<?> notEmptyFuture = NOT_EMPTY;
 
     @GuardedBy("lock")
     private boolean finishing;
 
-    public LocalExchangeSource(List<? extends Type> types, Consumer<LocalExchangeSource> onFinish)
+    public LocalExchangeSource(List<? extends Type> types, Consumer<LocalExchangeSource> onWaiting, Consumer<LocalExchangeSource> onFinish)
     {
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        this.onWaiting = requireNonNull(onWaiting, "onWaiting is null");
         this.onFinish = requireNonNull(onFinish, "onFinish is null");
     }
 
@@ -74,6 +77,14 @@ public class LocalExchangeSource
     }
 
     void addPage(PageReference pageReference)
+    {
+        addPages(ImmutableList.of(pageReference));
+    }
+
+    /**
+     * Adds a batch of pages with a single lock acquisition and reader notification.
+     */
+    void addPages(List<PageReference> pageReferences)
     {
         checkNotHoldsLock();
 
@@ -84,19 +95,19 @@ public class LocalExchangeSource
             if (!finishing) {
                 // buffered bytes must be updated before adding to the buffer to assure
                 // the count does not go negative
-                bufferedBytes.addAndGet(pageReference.getRetainedSizeInBytes());
-                buffer.add(pageReference);
+                bufferedBytes.addAndGet(pageReferences.stream().mapToLong(PageReference::getRetainedSizeInBytes).sum());
+                buffer.addAll(pageReferences);
                 added = true;
             }
 
-            // we just added a page (or we are finishing) so we are not empty
+            // we just added pages (or we are finishing) so we are not empty
             notEmptyFuture = this.notEmptyFuture;
             this.notEmptyFuture = NOT_EMPTY;
         }
 
         if (!added) {
-            // dereference the page outside of lock
-            pageReference.removePage();
+            // dereference the pages outside of lock
+            pageReferences.forEach(PageReference::removePage);
         }
 
         // notify readers outside of lock since this may result in a callback
@@ -128,13 +139,31 @@ public class LocalExchangeSource
     {
         checkNotHoldsLock();
 
+        ListenableFuture<?> future;
+        boolean startedWaiting = false;
         synchronized (lock) {
             // if we need to block readers, and the current future is complete, create a new one
             if (!finishing && buffer.isEmpty() && notEmptyFuture.isDone()) {
                 notEmptyFuture = SettableFuture.create();
+                startedWaiting = true;
             }
-            return notEmptyFuture;
+            future = notEmptyFuture;
+        }
+
+        if (startedWaiting) {
+            // writers may be holding back pages for this source, so let them hand the pages off
+            // outside of lock since this adds pages to this source
+            onWaiting.accept(this);
         }
+        return future;
+    }
+
+    /**
+     * Returns true if a reader is blocked waiting for this source to get a page.
+     */
+    public boolean isWaitingForPages()
+    {
+        return !notEmptyFuture.isDone();
     }
 
     public boolean isFinished()
@@ -0,0 +1,36 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.exchange;
+
+import com.facebook.presto.spi.Page;
+
+import java.util.function.Consumer;
+
+interface LocalExchanger
+        extends Consumer<Page>
+{
+    /**
+     * Hands off any pages the exchanger is holding back to batch small pages.
+     */
+    default void flush()
+    {
+    }
+
+    /**
+     * Hands off any pages the exchanger is holding back for the specified partition.
+     */
+    default void flush(int partition)
+    {
+    }
+}
@@ -24,30 +24,45 @@ import com.google.common.primitives.Ints;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.LongConsumer;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Objects.requireNonNull;
 
 class PartitioningExchanger
-        implements Consumer<Page>
+        implements LocalExchanger
 {
-    private final List<Consumer<PageReference>> buffers;
+    // Pages split from small input pages are held back until a partition has this many
+    // bytes, so readers are not woken up (and the buffer lock is not taken) for every
+    // few rows.  Pages split from large input pages are handed off immediately, and so
+    // are pages for a reader that is waiting: batching must not leave a reader idle.
+    static final long MIN_BATCH_SIZE_IN_BYTES = 64 * 1024;
+
+    private final List<Consumer<List<PageReference>>> buffers;
+    private final List<BooleanSupplier> waitingReaders;
     private final LongConsumer memoryTracker;
     private final LocalPartitionGenerator partitionGenerator;
     private final IntList[] partitionAssignments;
+    private final List<List<PageReference>> pendingPages;
+    private final long[] pendingBytes;
 
     public PartitioningExchanger(
-            List<Consumer<PageReference>> partitions,
+            List<Consumer<List<PageReference>>> partitions,
+            List<BooleanSupplier> waitingReaders,
             LongConsumer memoryTracker,
             List<? extends Type> types,
             List<Integer> partitionChannels,
             Optional<Integer> hashChannel)
     {
         this.buffers = ImmutableList.copyOf(requireNonNull(partitions, "partitions is null"));
+        this.waitingReaders = ImmutableList.copyOf(requireNonNull(waitingReaders, "waitingReaders is null"));
+        checkArgument(buffers.size() == this.waitingReaders.size(), "partitions and waitingReaders must have the same size");
         this.memoryTracker = requireNonNull(memoryTracker, "memoryTracker is null");
 
         HashGenerator hashGenerator;
@@ -66,6 +81,13 @@ class PartitioningExchanger
         for (int i = 0; i < partitionAssignments.length; i++) {
             partitionAssignments[i] = new IntArrayList();
         }
+
+        ImmutableList.Builder<List<PageReference>> pendingPages = ImmutableList.builder();
+        for (int i = 0; i < partitions.size(); i++) {
+            pendingPages.add(new ArrayList<>());
+        }
+        this.pendingPages = pendingPages.build();
+        pendingBytes = new long[partitions.size()];
     }
 
     @Override
@@ -85,6 +107,7 @@ class PartitioningExchanger
         // build a page for each partition
         Block[] sourceBlocks = page.getBlocks();
         Block[] outputBlocks = new Block[sourceBlocks.length];
+        long addedBytes = 0;
         for (int partition = 0; partition < buffers.size(); partition++) {
             List<Integer> positions = partitionAssignments[partition];
             if (!positions.isEmpty()) {
@@ -93,9 +116,40 @@ class PartitioningExchanger
                 }
 
                 Page pageSplit = new Page(positions.size(), outputBlocks);
-                memoryTracker.accept(pageSplit.getRetainedSizeInBytes());
-                buffers.get(partition).accept(new PageReference(pageSplit, 1, () -> memoryTracker.accept(-pageSplit.getRetainedSizeInBytes())));
+                long retainedSizeInBytes = pageSplit.getRetainedSizeInBytes();
+                addedBytes += retainedSizeInBytes;
+                pendingPages.get(partition).add(new PageReference(pageSplit, 1, () -> memoryTracker.accept(-retainedSizeInBytes)));
+                pendingBytes[partition] += retainedSizeInBytes;
+            }
+        }
+
+        // held back pages are tracked too, so a full exchange still blocks the writer
+        memoryTracker.accept(addedBytes);
+
+        for (int partition = 0; partition < buffers.size(); partition++) {
+            if (pendingBytes[partition] >= MIN_BATCH_SIZE_IN_BYTES || waitingReaders.get(partition).getAsBoolean()) {
+                flush(partition);
             }
         }
     }
+
+    @Override
+    public synchronized void flush()
+    {
+        for (int partition = 0; partition < buffers.size(); partition++) {
+            flush(partition);
+        }
+    }
+
+    @Override
+    public synchronized void flush(int partition)
+    {
+        List<PageReference> pages = pendingPages.get(partition);
+        if (pages.isEmpty()) {
+            return;
+        }
+        buffers.get(partition).accept(ImmutableList.copyOf(pages));
+        pages.clear();
+        pendingBytes[partition] = 0;
+    }
 }
@@ -24,7 +24,7 @@ import java.util.function.LongConsumer;
 import static java.util.Objects.requireNonNull;
 
 class RandomExchanger
-        implements Consumer<Page>
+        implements LocalExchanger
 {
     private final List<Consumer<PageReference>> buffers;
     private final LongConsumer memoryTracker;
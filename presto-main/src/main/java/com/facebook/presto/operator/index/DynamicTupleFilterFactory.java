@@ -70,7 +70,7 @@ public class DynamicTupleFilterFactory
                 .collect(toImmutableList());
 
         this.outputTypes = ImmutableList.copyOf(outputTypes);
-        PageFunctionCompiler pageFunctionCompiler = new PageFunctionCompiler(metadata);
+        PageFunctionCompiler pageFunctionCompiler = new PageFunctionCompiler(metadata, 0);
         this.outputProjections = IntStream.range(0, outputTypes.size())
                 .mapToObj(field -> pageFunctionCompiler.compileProjection(Expressions.field(field, outputTypes.get(field))))
                 .collect(toImmutableList());
@@ -18,6 +18,7 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.DictionaryBlock;
 import com.facebook.presto.spi.block.DictionaryId;
+import com.facebook.presto.spi.block.LazyBlock;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Iterators;
 
@@ -83,16 +84,16 @@ public class PageProcessor
             }
 
             if (projections.isEmpty()) {
-                return new PageProcessorOutput(page.getRetainedSizeInBytes(), Iterators.singletonIterator(new Page(selectedPositions.size())));
+                return new PageProcessorOutput(page.getLoadedRetainedSizeInBytes(), Iterators.singletonIterator(new Page(selectedPositions.size())));
             }
 
             if (selectedPositions.size() != page.getPositionCount()) {
-                return new PageProcessorOutput(page.getRetainedSizeInBytes(), new PositionsPageProcessorIterator(session, page, selectedPositions));
+                return new PageProcessorOutput(page.getLoadedRetainedSizeInBytes(), new PositionsPageProcessorIterator(session, page, selectedPositions));
             }
         }
 
         return new PageProcessorOutput(
-                page.getRetainedSizeInBytes(),
+                page.getLoadedRetainedSizeInBytes(),
                 new PositionsPageProcessorIterator(session, page, SelectedPositions.positionsRange(0, page.getPositionCount())));
     }
 
@@ -134,7 +135,7 @@ public class PageProcessor
                 Page page = result.get();
 
                 // if we produced a large page, halve the batch size for the next call
-                long pageSize = page.getSizeInBytes();
+                long pageSize = page.getLoadedSizeInBytes();
                 if (page.getPositionCount() > 1 && pageSize > MAX_PAGE_SIZE_IN_BYTES) {
                     projectBatchSize = projectBatchSize / 2;
                 }
@@ -180,7 +181,9 @@ public class PageProcessor
                     blocks[i] = previouslyComputedResults[i];
                 }
 
-                pageSize += blocks[i].getSizeInBytes();
+                if (!(blocks[i] instanceof LazyBlock) || ((LazyBlock) blocks[i]).isLoaded()) {
+                    pageSize += blocks[i].getSizeInBytes();
+                }
             }
             return Optional.of(new Page(positionsBatch.size(), blocks));
         }
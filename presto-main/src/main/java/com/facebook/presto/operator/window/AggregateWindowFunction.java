@@ -20,6 +20,9 @@ import com.facebook.presto.operator.aggregation.InternalAggregationFunction;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.function.WindowFunction;
 import com.facebook.presto.spi.function.WindowIndex;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.type.ArrayType;
+import com.facebook.presto.type.MapType;
 import com.google.common.collect.ImmutableList;
 
 import java.util.List;
@@ -30,26 +33,37 @@ import static java.util.Objects.requireNonNull;
 public class AggregateWindowFunction
         implements WindowFunction
 {
+    // a segment tree aggregates at most two partial leaves row by row and combines whole
+    // leaves and nodes for the rest, so it is cheaper once a frame spans more than two leaves
+    static final int MIN_SEGMENT_TREE_FRAME_SIZE = 2 * AggregationSegmentTree.DEFAULT_LEAF_SIZE;
+
     private final InternalAggregationFunction function;
     private final List<Integer> argumentChannels;
     private final AccumulatorFactory accumulatorFactory;
+    private final boolean segmentTreeSupported;
 
     private WindowIndex windowIndex;
     private Accumulator accumulator;
     private int currentStart;
     private int currentEnd;
+    private AggregationSegmentTree segmentTree;
 
     private AggregateWindowFunction(InternalAggregationFunction function, List<Integer> argumentChannels)
     {
         this.function = requireNonNull(function, "function is null");
         this.argumentChannels = ImmutableList.copyOf(argumentChannels);
         this.accumulatorFactory = function.bind(createArgs(function), Optional.empty());
+        // the intermediate state of these aggregations grows with the number of rows, so
+        // a segment tree would hold a copy of the partition for every level of the tree
+        Type intermediateType = function.getIntermediateType();
+        this.segmentTreeSupported = !(intermediateType instanceof ArrayType) && !(intermediateType instanceof MapType);
     }
 
     @Override
     public void reset(WindowIndex windowIndex)
     {
         this.windowIndex = windowIndex;
+        this.segmentTree = null;
         resetAccumulator();
     }
 
@@ -65,6 +79,23 @@ public class AggregateWindowFunction
             accumulate(currentEnd + 1, frameEnd);
             currentEnd = frameEnd;
         }
+        else if (accumulator.hasRemoveInput() && (currentStart >= 0) && (frameStart > currentStart) && (frameStart <= currentEnd) && (frameEnd >= currentEnd)) {
+            // sliding frame: remove the rows that left the frame and add the rows that entered it
+            accumulator.removeInput(windowIndex, argumentChannels, currentStart, frameStart - 1);
+            accumulate(currentEnd + 1, frameEnd);
+            currentStart = frameStart;
+            currentEnd = frameEnd;
+        }
+        else if (segmentTreeSupported && (frameEnd - frameStart + 1 > MIN_SEGMENT_TREE_FRAME_SIZE)) {
+            // large frame that can not be updated incrementally
+            if (segmentTree == null) {
+                segmentTree = new AggregationSegmentTree(accumulatorFactory, windowIndex, argumentChannels);
+            }
+            accumulator = accumulatorFactory.createAccumulator();
+            segmentTree.addFrame(accumulator, frameStart, frameEnd);
+            currentStart = frameStart;
+            currentEnd = frameEnd;
+        }
         else {
             // different frame
             resetAccumulator();
@@ -76,6 +107,14 @@ public class AggregateWindowFunction
         accumulator.evaluateFinal(output);
     }
 
+    /**
+     * Returns the size of the segment tree built for the current partition, if any.
+     */
+    public long getRetainedSizeInBytes()
+    {
+        return segmentTree == null ? 0 : segmentTree.getRetainedSizeInBytes();
+    }
+
     private void accumulate(int start, int end)
     {
         accumulator.addInput(windowIndex, argumentChannels, start, end);
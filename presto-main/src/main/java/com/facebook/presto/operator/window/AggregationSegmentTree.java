@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.window;
+
+import com.facebook.presto.operator.aggregation.Accumulator;
+import com.facebook.presto.operator.aggregation.AccumulatorFactory;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.function.WindowIndex;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Segment tree of intermediate aggregation states over the rows of a window partition.
+ * The first level holds the state of each run of {@code leafSize} rows and every
+ * following level combines pairs of states of the level below, so the aggregation of
+ * any frame can be computed from at most {@code 2 * leafSize} rows and
+ * {@code 2 * log(partition size)} intermediate states.
+ */
+class AggregationSegmentTree
+{
+    @VisibleForTesting
+    static final int DEFAULT_LEAF_SIZE = 32;
+
+    private final AccumulatorFactory accumulatorFactory;
+    private final WindowIndex windowIndex;
+    private final List<Integer> argumentChannels;
+    private final int leafSize;
+    private final List<Block> levels = new ArrayList<>();
+
+    public AggregationSegmentTree(AccumulatorFactory accumulatorFactory, WindowIndex windowIndex, List<Integer> argumentChannels)
+    {
+        this(accumulatorFactory, windowIndex, argumentChannels, DEFAULT_LEAF_SIZE);
+    }
+
+    @VisibleForTesting
+    AggregationSegmentTree(AccumulatorFactory accumulatorFactory, WindowIndex windowIndex, List<Integer> argumentChannels, int leafSize)
+    {
+        checkArgument(leafSize > 0, "leafSize must be positive");
+        this.accumulatorFactory = requireNonNull(accumulatorFactory, "accumulatorFactory is null");
+        this.windowIndex = requireNonNull(windowIndex, "windowIndex is null");
+        this.argumentChannels = requireNonNull(argumentChannels, "argumentChannels is null");
+        this.leafSize = leafSize;
+
+        int leafCount = (windowIndex.size() + leafSize - 1) / leafSize;
+        Type intermediateType = accumulatorFactory.createAccumulator().getIntermediateType();
+
+        BlockBuilder leaves = intermediateType.createBlockBuilder(new BlockBuilderStatus(), leafCount);
+        for (int leaf = 0; leaf < leafCount; leaf++) {
+            Accumulator accumulator = accumulatorFactory.createAccumulator();
+            accumulator.addInput(windowIndex, argumentChannels, leaf * leafSize, Math.min((leaf + 1) * leafSize, windowIndex.size()) - 1);
+            accumulator.evaluateIntermediate(leaves);
+        }
+        levels.add(leaves.build());
+
+        Block level = levels.get(0);
+        while (level.getPositionCount() > 1) {
+            int nodeCount = (level.getPositionCount() + 1) / 2;
+            BlockBuilder nodes = intermediateType.createBlockBuilder(new BlockBuilderStatus(), nodeCount);
+            for (int node = 0; node < nodeCount; node++) {
+                Accumulator accumulator = accumulatorFactory.createAccumulator();
+                accumulator.addIntermediate(level.getRegion(node * 2, Math.min(2, level.getPositionCount() - node * 2)));
+                accumulator.evaluateIntermediate(nodes);
+            }
+            level = nodes.build();
+            levels.add(level);
+        }
+    }
+
+    /**
+     * Adds the rows from {@code start} to {@code end} (inclusive) to the accumulator, in order.
+     */
+    public void addFrame(Accumulator accumulator, int start, int end)
+    {
+        checkArgument(start >= 0 && start <= end && end < windowIndex.size(), "invalid frame");
+
+        int firstLeaf = start / leafSize;
+        int lastLeaf = end / leafSize;
+        if (firstLeaf == lastLeaf) {
+            accumulator.addInput(windowIndex, argumentChannels, start, end);
+            return;
+        }
+
+        // partial leaves at the edges of the frame are aggregated from the rows
+        if (start % leafSize != 0) {
+            accumulator.addInput(windowIndex, argumentChannels, start, (firstLeaf + 1) * leafSize - 1);
+            firstLeaf++;
+        }
+        int tailStart = -1;
+        if (end != Math.min((lastLeaf + 1) * leafSize, windowIndex.size()) - 1) {
+            tailStart = lastLeaf * leafSize;
+            lastLeaf--;
+        }
+
+        // combine the covering nodes from left to right, so order sensitive aggregations see the rows in order
+        List<Block> rightNodes = new ArrayList<>();
+        int low = firstLeaf;
+        int high = lastLeaf + 1;
+        for (int level = 0; low < high; level++) {
+            Block nodes = levels.get(level);
+            if ((low & 1) == 1) {
+                accumulator.addIntermediate(nodes.getRegion(low, 1));
+                low++;
+            }
+            if ((high & 1) == 1) {
+                high--;
+                rightNodes.add(nodes.getRegion(high, 1));
+            }
+            low /= 2;
+            high /= 2;
+        }
+        for (int i = rightNodes.size() - 1; i >= 0; i--) {
+            accumulator.addIntermediate(rightNodes.get(i));
+        }
+
+        if (tailStart >= 0) {
+            accumulator.addInput(windowIndex, argumentChannels, tailStart, end);
+        }
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return levels.stream()
+                .mapToLong(Block::getRetainedSizeInBytes)
+                .sum();
+    }
+}
@@ -37,4 +37,13 @@ public final class FramedWindowFunction
     {
         return frame;
     }
+
+    public long getRetainedSizeInBytes()
+    {
+        // only aggregations keep state, in a segment tree, that grows with the partition
+        if (function instanceof AggregateWindowFunction) {
+            return ((AggregateWindowFunction) function).getRetainedSizeInBytes();
+        }
+        return 0;
+    }
 }
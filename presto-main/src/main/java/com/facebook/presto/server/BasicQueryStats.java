@@ -55,6 +55,9 @@ public class BasicQueryStats
     private final boolean fullyBlocked;
     private final Set<BlockedReason> blockedReasons;
 
+    private final DataSize rawInputDataSize;
+    private final long rawInputPositions;
+
     private final OptionalDouble progressPercentage;
 
     public BasicQueryStats(
@@ -72,6 +75,8 @@ public class BasicQueryStats
             Duration totalCpuTime,
             boolean fullyBlocked,
             Set<BlockedReason> blockedReasons,
+            DataSize rawInputDataSize,
+            long rawInputPositions,
             OptionalDouble progressPercentage)
     {
         this.createTime = createTime;
@@ -96,6 +101,9 @@ public class BasicQueryStats
 
         this.fullyBlocked = fullyBlocked;
         this.blockedReasons = ImmutableSet.copyOf(requireNonNull(blockedReasons, "blockedReasons is null"));
+        this.rawInputDataSize = requireNonNull(rawInputDataSize, "rawInputDataSize is null");
+        checkArgument(rawInputPositions >= 0, "rawInputPositions is negative");
+        this.rawInputPositions = rawInputPositions;
 
         this.progressPercentage = requireNonNull(progressPercentage, "progressPercentage is null");
     }
@@ -116,6 +124,8 @@ public class BasicQueryStats
                 queryStats.getTotalCpuTime(),
                 queryStats.isFullyBlocked(),
                 queryStats.getBlockedReasons(),
+                queryStats.getRawInputDataSize(),
+                queryStats.getRawInputPositions(),
                 queryStats.getProgressPercentage());
     }
 
@@ -203,6 +213,18 @@ public class BasicQueryStats
         return blockedReasons;
     }
 
+    @JsonProperty
+    public DataSize getRawInputDataSize()
+    {
+        return rawInputDataSize;
+    }
+
+    @JsonProperty
+    public long getRawInputPositions()
+    {
+        return rawInputPositions;
+    }
+
     @JsonProperty
     public OptionalDouble getProgressPercentage()
     {
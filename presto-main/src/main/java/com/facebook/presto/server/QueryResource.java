@@ -17,7 +17,6 @@ import com.facebook.presto.execution.QueryInfo;
 import com.facebook.presto.execution.QueryManager;
 import com.facebook.presto.execution.StageId;
 import com.facebook.presto.spi.QueryId;
-import com.google.common.collect.ImmutableList;
 
 import javax.inject.Inject;
 import javax.ws.rs.DELETE;
@@ -49,16 +48,7 @@ public class QueryResource
     @GET
     public List<BasicQueryInfo> getAllQueryInfo()
     {
-        return extractBasicQueryInfo(queryManager.getAllQueryInfo());
-    }
-
-    private static List<BasicQueryInfo> extractBasicQueryInfo(List<QueryInfo> allQueryInfo)
-    {
-        ImmutableList.Builder<BasicQueryInfo> basicQueryInfo = ImmutableList.builder();
-        for (QueryInfo queryInfo : allQueryInfo) {
-            basicQueryInfo.add(new BasicQueryInfo(queryInfo));
-        }
-        return basicQueryInfo.build();
+        return queryManager.getAllBasicQueryInfo();
     }
 
     @GET
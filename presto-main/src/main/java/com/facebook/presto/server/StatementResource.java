@@ -24,6 +24,8 @@ import com.facebook.presto.client.StageStats;
 import com.facebook.presto.client.StatementStats;
 import com.facebook.presto.execution.QueryInfo;
 import com.facebook.presto.execution.QueryManager;
+import com.facebook.presto.execution.QueryResultCache;
+import com.facebook.presto.execution.QueryResultCache.CachedQueryResult;
 import com.facebook.presto.execution.QueryState;
 import com.facebook.presto.execution.QueryStats;
 import com.facebook.presto.execution.StageInfo;
@@ -126,6 +128,7 @@ public class StatementResource
     private final SessionPropertyManager sessionPropertyManager;
     private final ExchangeClientSupplier exchangeClientSupplier;
     private final BlockEncodingSerde blockEncodingSerde;
+    private final QueryResultCache resultCache;
 
     private final ConcurrentMap<QueryId, Query> queries = new ConcurrentHashMap<>();
     private final ScheduledExecutorService queryPurger = newSingleThreadScheduledExecutor(threadsNamed("query-purger"));
@@ -135,12 +138,14 @@ public class StatementResource
             QueryManager queryManager,
             SessionPropertyManager sessionPropertyManager,
             ExchangeClientSupplier exchangeClientSupplier,
-            BlockEncodingSerde blockEncodingSerde)
+            BlockEncodingSerde blockEncodingSerde,
+            QueryResultCache resultCache)
     {
         this.queryManager = requireNonNull(queryManager, "queryManager is null");
         this.sessionPropertyManager = requireNonNull(sessionPropertyManager, "sessionPropertyManager is null");
         this.exchangeClientSupplier = requireNonNull(exchangeClientSupplier, "exchangeClientSupplier is null");
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
+        this.resultCache = requireNonNull(resultCache, "resultCache is null");
 
         queryPurger.scheduleWithFixedDelay(new PurgeQueriesRunnable(queries, queryManager), 200, 200, MILLISECONDS);
     }
@@ -176,7 +181,8 @@ public class StatementResource
                 queryManager,
                 sessionPropertyManager,
                 exchangeClient,
-                blockEncodingSerde);
+                blockEncodingSerde,
+                resultCache);
         queries.put(query.getQueryId(), query);
 
         return getQueryResults(query, Optional.empty(), uriInfo, new Duration(1, MILLISECONDS));
@@ -277,6 +283,7 @@ public class StatementResource
         private final QueryId queryId;
         private final ExchangeClient exchangeClient;
         private final PagesSerde serde;
+        private final QueryResultCache resultCache;
 
         private final AtomicLong resultId = new AtomicLong();
         private final Session session;
@@ -311,13 +318,20 @@ public class StatementResource
         @GuardedBy("this")
         private Long updateCount;
 
+        @GuardedBy("this")
+        private CachedQueryResult cachedResult;
+
+        @GuardedBy("this")
+        private Iterator<SerializedPage> cachedPages;
+
         public Query(
                 SessionSupplier sessionSupplier,
                 String query,
                 QueryManager queryManager,
                 SessionPropertyManager sessionPropertyManager,
                 ExchangeClient exchangeClient,
-                BlockEncodingSerde blockEncodingSerde)
+                BlockEncodingSerde blockEncodingSerde,
+                QueryResultCache resultCache)
         {
             requireNonNull(sessionSupplier, "sessionFactory is null");
             requireNonNull(query, "query is null");
@@ -332,6 +346,7 @@ public class StatementResource
             this.exchangeClient = exchangeClient;
             requireNonNull(blockEncodingSerde, "serde is null");
             this.serde = new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session)).createPagesSerde();
+            this.resultCache = requireNonNull(resultCache, "resultCache is null");
         }
 
         public void cancel()
@@ -343,6 +358,7 @@ public class StatementResource
         public void dispose()
         {
             exchangeClient.close();
+            resultCache.removeQuery(queryId);
         }
 
         public QueryId getQueryId()
@@ -439,7 +455,7 @@ public class StatementResource
                 if (queryInfo.getState() != QueryState.FINISHED) {
                     exchangeClient.close();
                 }
-                else if (!queryInfo.getOutputStage().isPresent()) {
+                else if (!queryInfo.getOutputStage().isPresent() && cachedResult == null) {
                     // For simple executions (e.g. drop table), there will never be an output stage,
                     // so close the exchange as soon as the query is done.
                     exchangeClient.close();
@@ -450,6 +466,11 @@ public class StatementResource
                 }
             }
 
+            // all output of the query has been returned, so it can be used to answer identical queries
+            if (queryInfo.getState() == QueryState.FINISHED && exchangeClient.isClosed() && cachedResult == null) {
+                resultCache.finishRecording(queryId);
+            }
+
             // only return a next if the query is not done or there is more data to send (due to buffering)
             URI nextResultsUri = null;
             if ((!queryInfo.isFinalQueryInfo()) || (!exchangeClient.isClosed())) {
@@ -503,6 +524,18 @@ public class StatementResource
                 queryInfo = queryManager.getQueryInfo(queryId);
             }
 
+            // the query was answered from the result cache, so there are no stages to read from
+            if (cachedResult == null && isQueryStarted(queryInfo)) {
+                cachedResult = resultCache.getServedResult(queryId).orElse(null);
+                if (cachedResult != null) {
+                    cachedPages = cachedResult.getPages().iterator();
+                    columns = createColumnsList(queryInfo.getFieldNames(), cachedResult.getTypes());
+                }
+            }
+            if (cachedResult != null) {
+                return getCachedData();
+            }
+
             StageInfo outputStage = queryInfo.getOutputStage().orElse(null);
             // if query did not finish starting or does not have output, just return
             if (!isQueryStarted(queryInfo) || outputStage == null) {
@@ -526,6 +559,8 @@ public class StatementResource
                     break;
                 }
 
+                resultCache.recordPage(queryId, serializedPage);
+
                 Page page = serde.deserialize(serializedPage);
                 bytes += page.getSizeInBytes();
                 pages.add(new RowIterable(session.toConnectorSession(), types, page));
@@ -541,6 +576,27 @@ public class StatementResource
             return Iterables.concat(pages.build());
         }
 
+        private synchronized Iterable<List<Object>> getCachedData()
+        {
+            ImmutableList.Builder<RowIterable> pages = ImmutableList.builder();
+            long bytes = 0;
+            while (bytes < DESIRED_RESULT_BYTES && cachedPages.hasNext()) {
+                Page page = serde.deserialize(cachedPages.next());
+                bytes += page.getSizeInBytes();
+                pages.add(new RowIterable(session.toConnectorSession(), cachedResult.getTypes(), page));
+            }
+
+            if (!cachedPages.hasNext()) {
+                exchangeClient.close();
+            }
+
+            if (bytes == 0) {
+                return null;
+            }
+
+            return Iterables.concat(pages.build());
+        }
+
         private static boolean isQueryStarted(QueryInfo queryInfo)
         {
             QueryState state = queryInfo.getState();
@@ -597,9 +653,11 @@ public class StatementResource
             StageInfo outputStage = queryInfo.getOutputStage()
                     .orElseThrow(() -> new IllegalArgumentException("outputStage not present"));
 
-            List<String> names = queryInfo.getFieldNames();
-            List<Type> types = outputStage.getTypes();
+            return createColumnsList(queryInfo.getFieldNames(), outputStage.getTypes());
+        }
 
+        private static List<Column> createColumnsList(List<String> names, List<Type> types)
+        {
             checkArgument(names.size() == types.size(), "names and types size mismatch");
 
             ImmutableList.Builder<Column> list = ImmutableList.builder();
@@ -78,6 +78,7 @@ import static com.facebook.presto.execution.TaskState.ABORTED;
 import static com.facebook.presto.execution.TaskState.FAILED;
 import static com.facebook.presto.execution.TaskStatus.failWith;
 import static com.facebook.presto.server.remotetask.RequestErrorTracker.logError;
+import static com.facebook.presto.spi.ConnectorSplit.STANDARD_SPLIT_WEIGHT;
 import static com.facebook.presto.util.Failures.toFailure;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -122,6 +123,8 @@ public final class HttpRemoteTask
     @GuardedBy("this")
     private volatile int pendingSourceSplitCount;
     @GuardedBy("this")
+    private volatile long pendingSourceSplitsWeight;
+    @GuardedBy("this")
     private final Set<PlanNodeId> noMoreSplits = new HashSet<>();
     @GuardedBy("this")
     private final AtomicReference<OutputBuffers> outputBuffers = new AtomicReference<>();
@@ -210,6 +213,11 @@ public final class HttpRemoteTask
                     .filter(initialSplits::containsKey)
                     .mapToInt(partitionedSource -> initialSplits.get(partitionedSource).size())
                     .sum();
+            pendingSourceSplitsWeight = planFragment.getPartitionedSources().stream()
+                    .filter(initialSplits::containsKey)
+                    .flatMap(partitionedSource -> initialSplits.get(partitionedSource).stream())
+                    .mapToLong(Split::getSplitWeight)
+                    .sum();
 
             List<BufferInfo> bufferStates = outputBuffers.getBuffers()
                     .keySet().stream()
@@ -250,14 +258,14 @@ public final class HttpRemoteTask
                     cleanUpTask();
                 }
                 else {
-                    partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+                    updatePartitionedSplitCountTracker();
                     updateSplitQueueSpace();
                 }
             });
 
             long timeout = minErrorDuration.toMillis() / MIN_RETRIES;
             this.requestTimeout = new Duration(timeout + taskStatusRefreshMaxWait.toMillis(), MILLISECONDS);
-            partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+            updatePartitionedSplitCountTracker();
             updateSplitQueueSpace();
         }
     }
@@ -314,14 +322,17 @@ public final class HttpRemoteTask
 
             checkState(!noMoreSplits.contains(sourceId), "noMoreSplits has already been set for %s", sourceId);
             int added = 0;
+            long addedWeight = 0;
             for (Split split : splits) {
                 if (pendingSplits.put(sourceId, new ScheduledSplit(nextSplitId.getAndIncrement(), sourceId, split))) {
                     added++;
+                    addedWeight += split.getSplitWeight();
                 }
             }
             if (planFragment.isPartitionedSources(sourceId)) {
                 pendingSourceSplitCount += added;
-                partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+                pendingSourceSplitsWeight += addedWeight;
+                updatePartitionedSplitCountTracker();
             }
             needsUpdate.set(true);
         }
@@ -379,6 +390,38 @@ public final class HttpRemoteTask
         return pendingSourceSplitCount;
     }
 
+    @Override
+    public long getPartitionedSplitsWeight()
+    {
+        TaskStatus taskStatus = getTaskStatus();
+        if (taskStatus.getState().isDone()) {
+            return 0;
+        }
+        return getPendingSourceSplitsWeight() + taskStatus.getQueuedPartitionedSplitsWeight() + taskStatus.getRunningPartitionedSplitsWeight();
+    }
+
+    @Override
+    public long getQueuedPartitionedSplitsWeight()
+    {
+        TaskStatus taskStatus = getTaskStatus();
+        if (taskStatus.getState().isDone()) {
+            return 0;
+        }
+        return getPendingSourceSplitsWeight() + taskStatus.getQueuedPartitionedSplitsWeight();
+    }
+
+    @SuppressWarnings("FieldAccessNotGuarded")
+    private long getPendingSourceSplitsWeight()
+    {
+        return pendingSourceSplitsWeight;
+    }
+
+    private void updatePartitionedSplitCountTracker()
+    {
+        partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+        partitionedSplitCountTracker.setPartitionedSplitsWeight(getPartitionedSplitsWeight());
+    }
+
     @Override
     public void addStateChangeListener(StateChangeListener<TaskStatus> stateChangeListener)
     {
@@ -387,6 +430,14 @@ public final class HttpRemoteTask
         }
     }
 
+    @Override
+    public void addTaskInfoListener(StateChangeListener<TaskInfo> stateChangeListener)
+    {
+        try (SetThreadName ignored = new SetThreadName("HttpRemoteTask-%s", taskId)) {
+            taskInfoFetcher.addStateChangeListener(stateChangeListener);
+        }
+    }
+
     @Override
     public synchronized ListenableFuture<?> whenSplitQueueHasSpace(int threshold)
     {
@@ -408,7 +459,7 @@ public final class HttpRemoteTask
         if (!whenSplitQueueHasSpaceThreshold.isPresent()) {
             return;
         }
-        splitQueueHasSpace = getQueuedPartitionedSplitCount() < whenSplitQueueHasSpaceThreshold.getAsInt();
+        splitQueueHasSpace = getQueuedPartitionedSplitsWeight() < (long) whenSplitQueueHasSpaceThreshold.getAsInt() * STANDARD_SPLIT_WEIGHT;
         if (splitQueueHasSpace) {
             whenSplitQueueHasSpace.complete(null, executor);
         }
@@ -422,18 +473,21 @@ public final class HttpRemoteTask
         for (TaskSource source : sources) {
             PlanNodeId planNodeId = source.getPlanNodeId();
             int removed = 0;
+            long removedWeight = 0;
             for (ScheduledSplit split : source.getSplits()) {
                 if (pendingSplits.remove(planNodeId, split)) {
                     removed++;
+                    removedWeight += split.getSplit().getSplitWeight();
                 }
             }
             if (planFragment.isPartitionedSources(planNodeId)) {
                 pendingSourceSplitCount -= removed;
+                pendingSourceSplitsWeight -= removedWeight;
             }
         }
         updateSplitQueueSpace();
 
-        partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+        updatePartitionedSplitCountTracker();
     }
 
     private void updateTaskInfo(TaskInfo taskInfo)
@@ -552,7 +606,8 @@ public final class HttpRemoteTask
         // clear pending splits to free memory
         pendingSplits.clear();
         pendingSourceSplitCount = 0;
-        partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+        pendingSourceSplitsWeight = 0;
+        updatePartitionedSplitCountTracker();
         splitQueueHasSpace = true;
         whenSplitQueueHasSpace.complete(null, executor);
 
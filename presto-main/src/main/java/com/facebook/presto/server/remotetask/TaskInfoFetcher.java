@@ -116,6 +116,11 @@ public class TaskInfoFetcher
         return taskInfo.get();
     }
 
+    public void addStateChangeListener(StateMachine.StateChangeListener<TaskInfo> stateChangeListener)
+    {
+        taskInfo.addStateChangeListener(stateChangeListener);
+    }
+
     public synchronized void start()
     {
         if (running) {
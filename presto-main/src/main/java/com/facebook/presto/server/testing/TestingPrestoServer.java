@@ -18,6 +18,7 @@ import com.facebook.presto.connector.ConnectorManager;
 import com.facebook.presto.cost.CostCalculator;
 import com.facebook.presto.eventlistener.EventListenerManager;
 import com.facebook.presto.execution.QueryManager;
+import com.facebook.presto.execution.QueryPlanCache;
 import com.facebook.presto.execution.TaskManager;
 import com.facebook.presto.execution.resourceGroups.InternalResourceGroupManager;
 import com.facebook.presto.execution.resourceGroups.ResourceGroupManager;
@@ -107,6 +108,7 @@ public class TestingPrestoServer
     private final Optional<InternalResourceGroupManager> resourceGroupManager;
     private final SplitManager splitManager;
     private final ClusterMemoryManager clusterMemoryManager;
+    private final QueryPlanCache queryPlanCache;
     private final LocalMemoryManager localMemoryManager;
     private final InternalNodeManager nodeManager;
     private final ServiceSelectorManager serviceSelectorManager;
@@ -258,10 +260,12 @@ public class TestingPrestoServer
         if (coordinator) {
             resourceGroupManager = Optional.of((InternalResourceGroupManager) injector.getInstance(ResourceGroupManager.class));
             clusterMemoryManager = injector.getInstance(ClusterMemoryManager.class);
+            queryPlanCache = injector.getInstance(QueryPlanCache.class);
         }
         else {
             resourceGroupManager = Optional.empty();
             clusterMemoryManager = null;
+            queryPlanCache = null;
         }
         localMemoryManager = injector.getInstance(LocalMemoryManager.class);
         nodeManager = injector.getInstance(InternalNodeManager.class);
@@ -385,6 +389,12 @@ public class TestingPrestoServer
         return clusterMemoryManager;
     }
 
+    public QueryPlanCache getQueryPlanCache()
+    {
+        checkState(coordinator, "not a coordinator");
+        return queryPlanCache;
+    }
+
     public GracefulShutdownHandler getGracefulShutdownHandler()
     {
         return gracefulShutdownHandler;
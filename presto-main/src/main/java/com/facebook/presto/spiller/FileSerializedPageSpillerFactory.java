@@ -0,0 +1,105 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.operator.SpillContext;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.facebook.presto.spi.StandardErrorCode.OUT_OF_SPILL_SPACE;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.lang.String.format;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.getFileStore;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+
+public class FileSerializedPageSpillerFactory
+        implements SerializedPageSpillerFactory
+{
+    private final ListeningExecutorService executor;
+    private final SpillerStats spillerStats;
+    private final List<Path> spillPaths;
+    private final double minimumFreeSpaceThreshold;
+    private int roundRobinIndex;
+
+    @Inject
+    public FileSerializedPageSpillerFactory(SpillerStats spillerStats, FeaturesConfig featuresConfig)
+    {
+        this(
+                listeningDecorator(newFixedThreadPool(
+                        requireNonNull(featuresConfig, "featuresConfig is null").getSpillerThreads(),
+                        daemonThreadsNamed("serialized-page-spiller-%s"))),
+                spillerStats,
+                featuresConfig.getSpillerSpillPaths(),
+                featuresConfig.getSpillMaxUsedSpaceThreshold());
+    }
+
+    public FileSerializedPageSpillerFactory(ListeningExecutorService executor, SpillerStats spillerStats, List<Path> spillPaths, double maxUsedSpaceThreshold)
+    {
+        this.executor = requireNonNull(executor, "executor is null");
+        this.spillerStats = requireNonNull(spillerStats, "spillerStats is null");
+        this.spillPaths = ImmutableList.copyOf(requireNonNull(spillPaths, "spillPaths is null"));
+        spillPaths.forEach(path -> {
+            try {
+                createDirectories(path);
+            }
+            catch (IOException e) {
+                throw new IllegalArgumentException(
+                        format("could not create spill path %s; adjust experimental.spiller-spill-path config property or filesystem permissions", path), e);
+            }
+        });
+        this.minimumFreeSpaceThreshold = maxUsedSpaceThreshold;
+    }
+
+    @Override
+    public SerializedPageSpiller create(SpillContext spillContext)
+    {
+        return new SerializedPageSpiller(getNextSpillPath(), executor, spillerStats, spillContext);
+    }
+
+    private synchronized Path getNextSpillPath()
+    {
+        int spillPathsCount = spillPaths.size();
+        for (int i = 0; i < spillPathsCount; ++i) {
+            int pathIndex = (roundRobinIndex + i) % spillPathsCount;
+            Path path = spillPaths.get(pathIndex);
+            if (hasEnoughDiskSpace(path)) {
+                roundRobinIndex = (roundRobinIndex + i + 1) % spillPathsCount;
+                return path;
+            }
+        }
+        throw new PrestoException(OUT_OF_SPILL_SPACE, "No free space available for spill");
+    }
+
+    private boolean hasEnoughDiskSpace(Path path)
+    {
+        try {
+            FileStore fileStore = getFileStore(path);
+            return fileStore.getUsableSpace() > fileStore.getTotalSpace() * (1.0 - minimumFreeSpaceThreshold);
+        }
+        catch (IOException e) {
+            throw new PrestoException(OUT_OF_SPILL_SPACE, "Cannot determine free space for spill", e);
+        }
+    }
+}
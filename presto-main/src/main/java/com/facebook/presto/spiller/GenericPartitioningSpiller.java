@@ -0,0 +1,195 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.memory.AggregatedMemoryContext;
+import com.facebook.presto.memory.LocalMemoryContext;
+import com.facebook.presto.operator.HashGenerator;
+import com.facebook.presto.operator.InterpretedHashGenerator;
+import com.facebook.presto.operator.SpillContext;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.slice.XxHash64;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+@NotThreadSafe
+public class GenericPartitioningSpiller
+        implements PartitioningSpiller
+{
+    private final List<Type> types;
+    private final HashGenerator hashGenerator;
+    private final SpillContext spillContext;
+    private final AggregatedMemoryContext memoryContext;
+    private final LocalMemoryContext bufferMemoryContext;
+    private final SingleStreamSpillerFactory singleStreamSpillerFactory;
+    private final List<PageBuilder> pageBuilders;
+    private final List<SingleStreamSpiller> spillers;
+    private final Closer closer = Closer.create();
+    private ListenableFuture<?> spillInProgress = Futures.immediateFuture(null);
+
+    public GenericPartitioningSpiller(
+            List<Type> types,
+            List<Integer> partitionChannels,
+            int partitionCount,
+            int maxBufferedPageSize,
+            SpillContext spillContext,
+            AggregatedMemoryContext memoryContext,
+            SingleStreamSpillerFactory singleStreamSpillerFactory)
+    {
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        requireNonNull(partitionChannels, "partitionChannels is null");
+        checkArgument(partitionCount > 0, "partitionCount must be positive");
+        this.hashGenerator = new InterpretedHashGenerator(
+                partitionChannels.stream()
+                        .map(types::get)
+                        .collect(ImmutableList.toImmutableList()),
+                Ints.toArray(partitionChannels));
+        this.spillContext = requireNonNull(spillContext, "spillContext can not be null");
+        this.memoryContext = requireNonNull(memoryContext, "memoryContext can not be null");
+        this.bufferMemoryContext = memoryContext.newLocalMemoryContext();
+        this.singleStreamSpillerFactory = requireNonNull(singleStreamSpillerFactory, "singleStreamSpillerFactory can not be null");
+
+        ImmutableList.Builder<PageBuilder> pageBuilders = ImmutableList.builder();
+        for (int partition = 0; partition < partitionCount; partition++) {
+            pageBuilders.add(PageBuilder.withMaxPageSize(maxBufferedPageSize, types));
+        }
+        this.pageBuilders = pageBuilders.build();
+        this.spillers = new ArrayList<>(Collections.nCopies(partitionCount, null));
+    }
+
+    @Override
+    public int getPartitionCount()
+    {
+        return pageBuilders.size();
+    }
+
+    @Override
+    public int getPartition(Page page, int position)
+    {
+        // mix the bits so that the rows of one partition are not all in the same exchange or local exchange partition
+        long hash = XxHash64.hash(hashGenerator.hashPosition(position, page));
+        return (int) ((hash & Long.MAX_VALUE) % pageBuilders.size());
+    }
+
+    @Override
+    public ListenableFuture<?> spill(Page page)
+    {
+        checkNoSpillInProgress();
+
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            PageBuilder pageBuilder = pageBuilders.get(getPartition(page, position));
+            pageBuilder.declarePosition();
+            for (int channel = 0; channel < types.size(); channel++) {
+                types.get(channel).appendTo(page.getBlock(channel), position, pageBuilder.getBlockBuilder(channel));
+            }
+        }
+
+        List<ListenableFuture<?>> spills = new ArrayList<>();
+        for (int partition = 0; partition < pageBuilders.size(); partition++) {
+            if (pageBuilders.get(partition).isFull()) {
+                spills.add(flush(partition));
+            }
+        }
+        updateMemory();
+
+        spillInProgress = Futures.allAsList(spills);
+        return spillInProgress;
+    }
+
+    @Override
+    public ListenableFuture<?> flush()
+    {
+        checkNoSpillInProgress();
+
+        List<ListenableFuture<?>> spills = new ArrayList<>();
+        for (int partition = 0; partition < pageBuilders.size(); partition++) {
+            if (!pageBuilders.get(partition).isEmpty()) {
+                spills.add(flush(partition));
+            }
+        }
+        updateMemory();
+
+        spillInProgress = Futures.allAsList(spills);
+        return spillInProgress;
+    }
+
+    @Override
+    public Iterator<Page> getSpilledPages(int partition)
+    {
+        checkNoSpillInProgress();
+        checkState(pageBuilders.get(partition).isEmpty(), "partition has not been flushed");
+
+        SingleStreamSpiller spiller = spillers.get(partition);
+        if (spiller == null) {
+            return Collections.emptyIterator();
+        }
+        return spiller.getSpilledPages();
+    }
+
+    @Override
+    public void close()
+    {
+        bufferMemoryContext.setBytes(0);
+        try {
+            closer.close();
+        }
+        catch (IOException e) {
+            throw new RuntimeException("could not close some single stream spillers", e);
+        }
+    }
+
+    private ListenableFuture<?> flush(int partition)
+    {
+        PageBuilder pageBuilder = pageBuilders.get(partition);
+        Page page = pageBuilder.build();
+        pageBuilder.reset();
+
+        SingleStreamSpiller spiller = spillers.get(partition);
+        if (spiller == null) {
+            spiller = singleStreamSpillerFactory.create(types, spillContext, memoryContext.newLocalMemoryContext());
+            closer.register(spiller);
+            spillers.set(partition, spiller);
+        }
+        return spiller.spill(page);
+    }
+
+    private void updateMemory()
+    {
+        bufferMemoryContext.setBytes(pageBuilders.stream()
+                .mapToLong(PageBuilder::getRetainedSizeInBytes)
+                .sum());
+    }
+
+    private void checkNoSpillInProgress()
+    {
+        checkState(spillInProgress.isDone(), "previous spill still in progress");
+    }
+}
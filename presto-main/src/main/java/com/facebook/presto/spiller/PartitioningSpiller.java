@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.spi.Page;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+public interface PartitioningSpiller
+        extends Closeable
+{
+    /**
+     * Returns the number of partitions rows are spread across.
+     */
+    int getPartitionCount();
+
+    /**
+     * Returns the partition of the row at the position. Rows with equal partitioning keys
+     * always go to the same partition, even across spillers created with the same key types.
+     */
+    int getPartition(Page page, int position);
+
+    /**
+     * Adds the rows of the page to the partitions of their keys. Partitions that collected
+     * enough rows are spilled in the background. Returns completed future once spilling has finished.
+     * Next spill can be initiated as soon as previous one completes.
+     */
+    ListenableFuture<?> spill(Page page);
+
+    /**
+     * Spills the rows still buffered in all partitions. Returns completed future once spilling has finished.
+     */
+    ListenableFuture<?> flush();
+
+    /**
+     * Returns all rows previously added to the partition. Method requires the issued spill request
+     * and a flush to be completed. The partition may be read more than once.
+     */
+    Iterator<Page> getSpilledPages(int partition);
+
+    /**
+     * Close releases/removes all underlying resources used during spilling
+     * like for example all created temporary files.
+     */
+    @Override
+    void close();
+}
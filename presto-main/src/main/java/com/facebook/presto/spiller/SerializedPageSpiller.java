@@ -0,0 +1,385 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.execution.buffer.PageCompression;
+import com.facebook.presto.execution.buffer.SerializedPage;
+import com.facebook.presto.operator.SpillContext;
+import com.facebook.presto.spi.PrestoException;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static com.facebook.presto.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
+import static com.facebook.presto.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.transform;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes already serialized pages to spill files and reads them back individually, in
+ * any order, while more pages are being spilled. Unlike {@link SingleStreamSpiller}, the
+ * pages are released one at a time: pages are appended to segment files of a bounded size,
+ * and a segment file is deleted once all of its pages have been released.
+ * <p>
+ * Writes and reads are done on the spiller executor. Writes are issued in order, so the
+ * future returned by {@link #getSpillingFuture()} completes when all pages spilled so far are on disk.
+ */
+@ThreadSafe
+public class SerializedPageSpiller
+        implements Closeable
+{
+    private static final long DEFAULT_MAX_SEGMENT_SIZE = new DataSize(64, MEGABYTE).toBytes();
+
+    private final Path spillPath;
+    private final ListeningExecutorService executor;
+    private final SpillerStats spillerStats;
+    private final SpillContext localSpillContext;
+    private final long maxSegmentSize;
+
+    @GuardedBy("this")
+    private final List<Segment> segments = new ArrayList<>();
+
+    @GuardedBy("this")
+    private Segment currentSegment;
+
+    @GuardedBy("this")
+    private ListenableFuture<?> spillingFuture = immediateFuture(null);
+
+    @GuardedBy("this")
+    private boolean closed;
+
+    public SerializedPageSpiller(Path spillPath, ListeningExecutorService executor, SpillerStats spillerStats, SpillContext spillContext)
+    {
+        this(spillPath, executor, spillerStats, spillContext, DEFAULT_MAX_SEGMENT_SIZE);
+    }
+
+    @VisibleForTesting
+    SerializedPageSpiller(Path spillPath, ListeningExecutorService executor, SpillerStats spillerStats, SpillContext spillContext, long maxSegmentSize)
+    {
+        checkArgument(maxSegmentSize > 0, "maxSegmentSize must be positive");
+        this.spillPath = requireNonNull(spillPath, "spillPath is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.spillerStats = requireNonNull(spillerStats, "spillerStats is null");
+        this.localSpillContext = requireNonNull(spillContext, "spillContext is null").newLocalSpillContext();
+        this.maxSegmentSize = maxSegmentSize;
+    }
+
+    /**
+     * Assigns the pages a place on disk and schedules the write. The returned pages can be read
+     * immediately; reads wait for the write to complete.
+     */
+    public synchronized List<SpilledPage> spill(List<SerializedPage> pages)
+    {
+        checkState(!closed, "spiller is closed");
+        // fail fast if an earlier write failed
+        if (spillingFuture.isDone()) {
+            getFutureValue(spillingFuture);
+        }
+
+        List<PageWrite> writes = new ArrayList<>(pages.size());
+        for (SerializedPage page : pages) {
+            int sizeInBytes = page.getSizeInBytes();
+            if (currentSegment == null || (currentSegment.getSize() > 0 && currentSegment.getSize() + sizeInBytes > maxSegmentSize)) {
+                startNewSegment();
+            }
+            Segment segment = currentSegment;
+            long offset = segment.allocate(sizeInBytes);
+            localSpillContext.updateBytes(sizeInBytes);
+            spillerStats.addToTotalSpilledBytes(sizeInBytes);
+
+            writes.add(new PageWrite(segment, offset, page));
+        }
+
+        // chain the writes, so a completed spilling future means all earlier pages are written
+        ListenableFuture<?> written = transform(spillingFuture, ignored -> {
+            writes.forEach(PageWrite::write);
+            return null;
+        }, executor);
+        spillingFuture = written;
+
+        return writes.stream()
+                .map(write -> new SpilledPage(write, written))
+                .collect(toImmutableList());
+    }
+
+    /**
+     * Returns a future that completes when all pages spilled so far have been written.
+     */
+    public synchronized ListenableFuture<?> getSpillingFuture()
+    {
+        return spillingFuture;
+    }
+
+    @VisibleForTesting
+    synchronized int getSegmentCount()
+    {
+        return segments.size();
+    }
+
+    @GuardedBy("this")
+    private void startNewSegment()
+    {
+        if (currentSegment != null) {
+            currentSegment.seal();
+            deleteIfReleased(currentSegment);
+        }
+        try {
+            Path file = Files.createTempFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX);
+            currentSegment = new Segment(file, FileChannel.open(file, READ, WRITE));
+        }
+        catch (IOException e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to create spill file", e);
+        }
+        segments.add(currentSegment);
+    }
+
+    private synchronized void release(Segment segment)
+    {
+        segment.releasePage();
+        deleteIfReleased(segment);
+    }
+
+    @GuardedBy("this")
+    private void deleteIfReleased(Segment segment)
+    {
+        if (closed || !segment.isReleased()) {
+            return;
+        }
+        segments.remove(segment);
+        localSpillContext.updateBytes(-segment.getSize());
+        // pending writes to the segment must finish before the file is closed
+        spillingFuture.addListener(segment::delete, executor);
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            segments.forEach(Segment::delete);
+            segments.clear();
+        }
+        finally {
+            localSpillContext.close();
+        }
+    }
+
+    private static class PageWrite
+    {
+        private final Segment segment;
+        private final long offset;
+        private final SerializedPage page;
+
+        public PageWrite(Segment segment, long offset, SerializedPage page)
+        {
+            this.segment = segment;
+            this.offset = offset;
+            this.page = page;
+        }
+
+        public void write()
+        {
+            segment.write(offset, page.getSlice().toByteBuffer());
+        }
+
+        public Segment getSegment()
+        {
+            return segment;
+        }
+
+        public long getOffset()
+        {
+            return offset;
+        }
+
+        public SerializedPage getPage()
+        {
+            return page;
+        }
+    }
+
+    private final class Segment
+    {
+        private final Path file;
+        private final FileChannel channel;
+
+        @GuardedBy("SerializedPageSpiller.this")
+        private long size;
+        @GuardedBy("SerializedPageSpiller.this")
+        private int unreleasedPages;
+        @GuardedBy("SerializedPageSpiller.this")
+        private boolean sealed;
+
+        private Segment(Path file, FileChannel channel)
+        {
+            this.file = requireNonNull(file, "file is null");
+            this.channel = requireNonNull(channel, "channel is null");
+        }
+
+        public long getSize()
+        {
+            return size;
+        }
+
+        public long allocate(int sizeInBytes)
+        {
+            long offset = size;
+            size += sizeInBytes;
+            unreleasedPages++;
+            return offset;
+        }
+
+        public void releasePage()
+        {
+            checkState(unreleasedPages > 0, "all pages of the segment are already released");
+            unreleasedPages--;
+        }
+
+        public void seal()
+        {
+            sealed = true;
+        }
+
+        public boolean isReleased()
+        {
+            return sealed && unreleasedPages == 0;
+        }
+
+        public void write(long offset, ByteBuffer buffer)
+        {
+            // positional writes do not move the channel position, so writes and reads do not need to be synchronized
+            try {
+                long position = offset;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+            }
+            catch (IOException e) {
+                throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to spill pages", e);
+            }
+        }
+
+        public ByteBuffer read(long offset, int length)
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            try {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, offset + buffer.position()) < 0) {
+                        throw new EOFException("Unexpected end of spill file");
+                    }
+                }
+            }
+            catch (IOException e) {
+                throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to read spilled pages", e);
+            }
+            return buffer;
+        }
+
+        public void delete()
+        {
+            try {
+                channel.close();
+                Files.deleteIfExists(file);
+            }
+            catch (IOException e) {
+                throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to delete spill file", e);
+            }
+        }
+    }
+
+    public class SpilledPage
+    {
+        private final Segment segment;
+        private final long offset;
+        private final int sizeInBytes;
+        private final PageCompression compression;
+        private final int positionCount;
+        private final int uncompressedSizeInBytes;
+        private final int retainedSizeInBytes;
+        private final ListenableFuture<?> writtenFuture;
+
+        private SpilledPage(PageWrite write, ListenableFuture<?> writtenFuture)
+        {
+            SerializedPage page = write.getPage();
+            this.segment = write.getSegment();
+            this.offset = write.getOffset();
+            this.sizeInBytes = page.getSizeInBytes();
+            this.compression = page.getCompression();
+            this.positionCount = page.getPositionCount();
+            this.uncompressedSizeInBytes = page.getUncompressedSizeInBytes();
+            this.retainedSizeInBytes = page.getRetainedSizeInBytes();
+            this.writtenFuture = requireNonNull(writtenFuture, "writtenFuture is null");
+        }
+
+        public int getPositionCount()
+        {
+            return positionCount;
+        }
+
+        /**
+         * Returns the retained size the page had before it was spilled, which is what it retains again once read back.
+         */
+        public int getRetainedSizeInBytes()
+        {
+            return retainedSizeInBytes;
+        }
+
+        /**
+         * Reads the page back on the spiller executor once it has been written.
+         */
+        public ListenableFuture<SerializedPage> read()
+        {
+            return transform(writtenFuture, ignored -> {
+                ByteBuffer buffer = segment.read(offset, sizeInBytes);
+                return new SerializedPage(Slices.wrappedBuffer(buffer.array()), compression, positionCount, uncompressedSizeInBytes);
+            }, executor);
+        }
+
+        /**
+         * Drops the page. The spill file holding it is deleted once all of its pages are released.
+         */
+        public void release()
+        {
+            SerializedPageSpiller.this.release(segment);
+        }
+    }
+}
@@ -13,19 +13,52 @@
  */
 package com.facebook.presto.sql;
 
+import com.facebook.presto.sql.tree.Node;
+import com.facebook.presto.sql.tree.NodeLocation;
 import com.facebook.presto.sql.tree.OrderBy;
 import com.facebook.presto.sql.tree.SortItem;
 import com.google.common.collect.ImmutableList;
+import org.openjdk.jol.info.ClassLayout;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static io.airlift.slice.SizeOf.sizeOfObjectArray;
 
 public class NodeUtils
 {
+    // every node has an optional location
+    private static final int NODE_LOCATION_SIZE = ClassLayout.parseClass(Optional.class).instanceSize() + ClassLayout.parseClass(NodeLocation.class).instanceSize();
+
+    private static final ConcurrentMap<Class<?>, Integer> NODE_INSTANCE_SIZES = new ConcurrentHashMap<>();
+
     private NodeUtils() {}
 
     public static List<SortItem> getSortItemsFromOrderBy(Optional<OrderBy> orderBy)
     {
         return orderBy.map(OrderBy::getSortItems).orElse(ImmutableList.of());
     }
+
+    /**
+     * Estimates the memory retained by the syntax tree rooted at the specified node,
+     * not including the names and literal values referenced by the nodes.
+     */
+    public static long estimateRetainedSizeInBytes(Node root)
+    {
+        long size = 0;
+        Deque<Node> nodes = new ArrayDeque<>();
+        nodes.push(root);
+        while (!nodes.isEmpty()) {
+            Node node = nodes.pop();
+            List<? extends Node> children = node.getChildren();
+            size += NODE_INSTANCE_SIZES.computeIfAbsent(node.getClass(), nodeClass -> ClassLayout.parseClass(nodeClass).instanceSize());
+            size += NODE_LOCATION_SIZE + sizeOfObjectArray(children.size());
+            children.forEach(nodes::push);
+        }
+        return size;
+    }
 }
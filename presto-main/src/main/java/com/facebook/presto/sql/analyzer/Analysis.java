@@ -13,11 +13,13 @@
  */
 package com.facebook.presto.sql.analyzer;
 
+import com.facebook.presto.execution.ParameterExtractor;
 import com.facebook.presto.metadata.QualifiedObjectName;
 import com.facebook.presto.metadata.Signature;
 import com.facebook.presto.metadata.TableHandle;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.tree.Cast;
 import com.facebook.presto.sql.tree.ExistsPredicate;
 import com.facebook.presto.sql.tree.Expression;
 import com.facebook.presto.sql.tree.FunctionCall;
@@ -29,6 +31,7 @@ import com.facebook.presto.sql.tree.LambdaArgumentDeclaration;
 import com.facebook.presto.sql.tree.Node;
 import com.facebook.presto.sql.tree.NodeRef;
 import com.facebook.presto.sql.tree.OrderBy;
+import com.facebook.presto.sql.tree.Parameter;
 import com.facebook.presto.sql.tree.QuantifiedComparisonExpression;
 import com.facebook.presto.sql.tree.Query;
 import com.facebook.presto.sql.tree.QuerySpecification;
@@ -46,12 +49,14 @@ import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
@@ -69,7 +74,7 @@ public class Analysis
 {
     @Nullable
     private final Statement root;
-    private final List<Expression> parameters;
+    private List<Expression> parameters;
     private String updateType;
 
     private final Map<NodeRef<Table>, Query> namedQueries = new LinkedHashMap<>();
@@ -425,6 +430,11 @@ public class Analysis
         return functionSignature.get(NodeRef.of(function));
     }
 
+    public Collection<Signature> getFunctionSignatures()
+    {
+        return unmodifiableCollection(functionSignature.values());
+    }
+
     public void addFunctionSignatures(Map<NodeRef<FunctionCall>, Signature> infos)
     {
         functionSignature.putAll(infos);
@@ -570,6 +580,32 @@ public class Analysis
         return parameters;
     }
 
+    /**
+     * Leaves the parameters of the statement unbound in plans created from this analysis, so the plan
+     * can be reused for other parameter values of the same types. Returns the parameters of the statement
+     * with the coercions the analysis added to them, in parameter order. The values of the parameters
+     * must be bound to the plan with {@link com.facebook.presto.sql.planner.PlanParameterBinder} before
+     * the plan is optimized.
+     */
+    public List<Expression> unbindParameters()
+    {
+        Expression[] placeholders = new Expression[parameters.size()];
+        Expression[] unboundParameters = new Expression[parameters.size()];
+        for (Parameter parameter : ParameterExtractor.getParameters(root)) {
+            Expression unboundParameter = parameter;
+            Type coercion = getCoercion(parameter);
+            if (coercion != null) {
+                unboundParameter = new Cast(parameter, coercion.getTypeSignature().toString(), false, isTypeOnlyCoercion(parameter));
+            }
+            placeholders[parameter.getPosition()] = parameter;
+            unboundParameters[parameter.getPosition()] = unboundParameter;
+        }
+        checkState(Arrays.stream(placeholders).allMatch(Objects::nonNull), "Not all parameters were found in the statement");
+
+        parameters = ImmutableList.copyOf(placeholders);
+        return ImmutableList.copyOf(unboundParameters);
+    }
+
     public boolean isDescribe()
     {
         return isDescribe;
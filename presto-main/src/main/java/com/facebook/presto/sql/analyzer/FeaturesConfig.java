@@ -21,7 +21,10 @@ import io.airlift.configuration.DefunctConfig;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -42,6 +45,9 @@ public class FeaturesConfig
     private boolean distributedIndexJoinsEnabled;
     private boolean distributedJoinsEnabled = true;
     private boolean colocatedJoinsEnabled;
+    private boolean mergeJoinsEnabled;
+    private String skewedJoinKeys = "";
+    private double skewedJoinNullFraction = 0.1;
     private boolean fastInequalityJoins = true;
     private boolean reorderJoins = true;
     private boolean redistributeWrites = true;
@@ -157,6 +163,48 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isMergeJoinsEnabled()
+    {
+        return mergeJoinsEnabled;
+    }
+
+    @Config("merge-joins-enabled")
+    @ConfigDescription("Experimental: Use a merge join when both inputs are sorted on the join keys")
+    public FeaturesConfig setMergeJoinsEnabled(boolean mergeJoinsEnabled)
+    {
+        this.mergeJoinsEnabled = mergeJoinsEnabled;
+        return this;
+    }
+
+    @NotNull
+    public String getSkewedJoinKeys()
+    {
+        return skewedJoinKeys;
+    }
+
+    @Config("skewed-join-keys")
+    @ConfigDescription("Comma separated table.column=value entries naming join key values that are known to be skewed, such as sentinel ids")
+    public FeaturesConfig setSkewedJoinKeys(String skewedJoinKeys)
+    {
+        this.skewedJoinKeys = skewedJoinKeys;
+        return this;
+    }
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getSkewedJoinNullFraction()
+    {
+        return skewedJoinNullFraction;
+    }
+
+    @Config("skewed-join-null-fraction")
+    @ConfigDescription("Fraction of null join keys, according to table statistics, above which null keys are spread across partitions")
+    public FeaturesConfig setSkewedJoinNullFraction(double skewedJoinNullFraction)
+    {
+        this.skewedJoinNullFraction = skewedJoinNullFraction;
+        return this;
+    }
+
     @Config("fast-inequality-joins")
     @ConfigDescription("Use faster handling of inequality joins if it is possible")
     public FeaturesConfig setFastInequalityJoins(boolean fastInequalityJoins)
@@ -21,6 +21,7 @@ import com.facebook.presto.operator.project.PageFilter;
 import com.facebook.presto.operator.project.PageProcessor;
 import com.facebook.presto.operator.project.PageProjection;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.sql.planner.CompilerConfig;
 import com.facebook.presto.sql.relational.RowExpression;
 import com.google.common.base.Throwables;
 import com.google.common.cache.CacheBuilder;
@@ -49,10 +50,12 @@ import static com.facebook.presto.sql.gen.BytecodeUtils.invoke;
 import static com.facebook.presto.sql.relational.Expressions.constant;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
 
 public class ExpressionCompiler
 {
     private final Metadata metadata;
+    private final PageFunctionCompiler pageFunctionCompiler;
 
     private final LoadingCache<CacheKey, Class<? extends CursorProcessor>> cursorProcessors = CacheBuilder.newBuilder().recordStats().maximumSize(1000).build(
             new CacheLoader<CacheKey, Class<? extends CursorProcessor>>()
@@ -65,10 +68,16 @@ public class ExpressionCompiler
                 }
             });
 
-    @Inject
     public ExpressionCompiler(Metadata metadata)
     {
-        this.metadata = metadata;
+        this(metadata, new PageFunctionCompiler(metadata, new CompilerConfig()));
+    }
+
+    @Inject
+    public ExpressionCompiler(Metadata metadata, PageFunctionCompiler pageFunctionCompiler)
+    {
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        this.pageFunctionCompiler = requireNonNull(pageFunctionCompiler, "pageFunctionCompiler is null");
     }
 
     @Managed
@@ -99,7 +108,6 @@ public class ExpressionCompiler
 
     public Supplier<PageProcessor> compilePageProcessor(Optional<RowExpression> filter, List<? extends RowExpression> projections)
     {
-        PageFunctionCompiler pageFunctionCompiler = new PageFunctionCompiler(metadata);
         Optional<Supplier<PageFilter>> filterFunctionSupplier = filter.map(pageFunctionCompiler::compileFilter);
         List<Supplier<PageProjection>> pageProjectionSuppliers = projections.stream()
                 .map(pageFunctionCompiler::compileProjection)
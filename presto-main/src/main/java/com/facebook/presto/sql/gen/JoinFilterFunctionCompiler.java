@@ -70,6 +70,7 @@ import static com.facebook.presto.sql.gen.BytecodeUtils.invoke;
 import static com.facebook.presto.sql.gen.LambdaAndTryExpressionExtractor.extractLambdaAndTryExpressions;
 import static com.facebook.presto.sql.gen.TryCodeGenerator.defineTryMethod;
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -109,6 +110,24 @@ public class JoinFilterFunctionCompiler
         return joinFilterFunctionFactories.getUnchecked(new JoinFilterCacheKey(filter, leftBlocksSize, sortChannel));
     }
 
+    /**
+     * Compiles a join filter together with its conjuncts bounding the sort channel, which are used
+     * to search build positions sorted by the sort channel.
+     */
+    public JoinFilterFunctionFactory compileJoinFilterFunction(
+            RowExpression filter,
+            int leftBlocksSize,
+            SortExpression sortChannel,
+            Optional<RowExpression> sortChannelLowerBound,
+            Optional<RowExpression> sortChannelUpperBound)
+    {
+        checkArgument(sortChannelLowerBound.isPresent() || sortChannelUpperBound.isPresent(), "sort channel must be bounded");
+        return new SortedJoinFilterFunctionFactory(
+                compileJoinFilterFunction(filter, leftBlocksSize, Optional.of(sortChannel)),
+                sortChannelLowerBound.map(bound -> compileJoinFilterFunction(bound, leftBlocksSize, Optional.empty())),
+                sortChannelUpperBound.map(bound -> compileJoinFilterFunction(bound, leftBlocksSize, Optional.empty())));
+    }
+
     private JoinFilterFunctionFactory internalCompileFilterFunctionFactory(RowExpression filterExpression, int leftBlocksSize, Optional<SortExpression> sortChannel)
     {
         Class<? extends InternalJoinFilterFunction> internalJoinFilterFunction = compileInternalJoinFilterFunction(filterExpression, leftBlocksSize);
@@ -316,6 +335,22 @@ public class JoinFilterFunctionCompiler
         {
             return Optional.empty();
         }
+
+        /**
+         * Conjuncts of the filter bounding the sort channel from below.
+         */
+        default Optional<JoinFilterFunctionFactory> getSortChannelLowerBoundFactory()
+        {
+            return Optional.empty();
+        }
+
+        /**
+         * Conjuncts of the filter bounding the sort channel from above.
+         */
+        default Optional<JoinFilterFunctionFactory> getSortChannelUpperBoundFactory()
+        {
+            return Optional.empty();
+        }
     }
 
     private static RowExpressionVisitor<BytecodeNode, Scope> fieldReferenceCompiler(
@@ -371,13 +406,14 @@ public class JoinFilterFunctionCompiler
             }
             JoinFilterCacheKey that = (JoinFilterCacheKey) o;
             return leftBlocksSize == that.leftBlocksSize &&
-                    Objects.equals(filter, that.filter);
+                    Objects.equals(filter, that.filter) &&
+                    Objects.equals(sortChannel, that.sortChannel);
         }
 
         @Override
         public int hashCode()
         {
-            return Objects.hash(filter, leftBlocksSize);
+            return Objects.hash(filter, leftBlocksSize, sortChannel);
         }
 
         @Override
@@ -386,6 +422,7 @@ public class JoinFilterFunctionCompiler
             return toStringHelper(this)
                     .add("filter", filter)
                     .add("leftBlocksSize", leftBlocksSize)
+                    .add("sortChannel", sortChannel)
                     .toString();
         }
     }
@@ -433,4 +470,46 @@ public class JoinFilterFunctionCompiler
             return sortChannel;
         }
     }
+
+    private static class SortedJoinFilterFunctionFactory
+            implements JoinFilterFunctionFactory
+    {
+        private final JoinFilterFunctionFactory filterFunctionFactory;
+        private final Optional<JoinFilterFunctionFactory> lowerBoundFactory;
+        private final Optional<JoinFilterFunctionFactory> upperBoundFactory;
+
+        public SortedJoinFilterFunctionFactory(
+                JoinFilterFunctionFactory filterFunctionFactory,
+                Optional<JoinFilterFunctionFactory> lowerBoundFactory,
+                Optional<JoinFilterFunctionFactory> upperBoundFactory)
+        {
+            this.filterFunctionFactory = requireNonNull(filterFunctionFactory, "filterFunctionFactory is null");
+            this.lowerBoundFactory = requireNonNull(lowerBoundFactory, "lowerBoundFactory is null");
+            this.upperBoundFactory = requireNonNull(upperBoundFactory, "upperBoundFactory is null");
+        }
+
+        @Override
+        public JoinFilterFunction create(ConnectorSession session, LongArrayList addresses, List<List<Block>> channels)
+        {
+            return filterFunctionFactory.create(session, addresses, channels);
+        }
+
+        @Override
+        public Optional<SortExpression> getSortChannel()
+        {
+            return filterFunctionFactory.getSortChannel();
+        }
+
+        @Override
+        public Optional<JoinFilterFunctionFactory> getSortChannelLowerBoundFactory()
+        {
+            return lowerBoundFactory;
+        }
+
+        @Override
+        public Optional<JoinFilterFunctionFactory> getSortChannelUpperBoundFactory()
+        {
+            return upperBoundFactory;
+        }
+    }
 }
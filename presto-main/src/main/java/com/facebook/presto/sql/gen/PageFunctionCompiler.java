@@ -40,6 +40,7 @@ import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.gen.LambdaBytecodeGenerator.LambdaExpressionField;
+import com.facebook.presto.sql.planner.CompilerConfig;
 import com.facebook.presto.sql.relational.CallExpression;
 import com.facebook.presto.sql.relational.ConstantExpression;
 import com.facebook.presto.sql.relational.DeterminismEvaluator;
@@ -50,10 +51,16 @@ import com.facebook.presto.sql.relational.RowExpression;
 import com.facebook.presto.sql.relational.RowExpressionVisitor;
 import com.facebook.presto.sql.relational.Signatures;
 import com.google.common.base.VerifyException;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.primitives.Primitives;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 
 import javax.inject.Inject;
 
@@ -88,6 +95,7 @@ import static com.facebook.presto.sql.gen.BytecodeUtils.invoke;
 import static com.facebook.presto.sql.gen.LambdaAndTryExpressionExtractor.extractLambdaAndTryExpressions;
 import static com.facebook.presto.sql.gen.TryCodeGenerator.defineTryMethod;
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.base.Verify.verify;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -97,17 +105,55 @@ public class PageFunctionCompiler
     private final Metadata metadata;
     private final DeterminismEvaluator determinismEvaluator;
 
+    private final LoadingCache<RowExpression, Supplier<PageProjection>> projectionCache;
+    private final LoadingCache<RowExpression, Supplier<PageFilter>> filterCache;
+
     @Inject
-    public PageFunctionCompiler(Metadata metadata)
+    public PageFunctionCompiler(Metadata metadata, CompilerConfig config)
+    {
+        this(metadata, requireNonNull(config, "config is null").getExpressionCacheSize());
+    }
+
+    public PageFunctionCompiler(Metadata metadata, int expressionCacheSize)
     {
         this.metadata = requireNonNull(metadata, "metadata is null");
         this.determinismEvaluator = new DeterminismEvaluator(metadata.getFunctionRegistry());
+
+        this.projectionCache = CacheBuilder.newBuilder()
+                .recordStats()
+                .maximumSize(expressionCacheSize)
+                .build(CacheLoader.from(this::compileProjectionInternal));
+        this.filterCache = CacheBuilder.newBuilder()
+                .recordStats()
+                .maximumSize(expressionCacheSize)
+                .build(CacheLoader.from(this::compileFilterInternal));
+    }
+
+    @Managed
+    @Nested
+    public CacheStatsMBean getProjectionCache()
+    {
+        return new CacheStatsMBean(projectionCache);
+    }
+
+    @Managed
+    @Nested
+    public CacheStatsMBean getFilterCache()
+    {
+        return new CacheStatsMBean(filterCache);
     }
 
     public Supplier<PageProjection> compileProjection(RowExpression projection)
     {
         requireNonNull(projection, "projection is null");
 
+        return getCached(projectionCache, projection);
+    }
+
+    private Supplier<PageProjection> compileProjectionInternal(RowExpression projection)
+    {
+        requireNonNull(projection, "projection is null");
+
         if (projection instanceof InputReferenceExpression) {
             InputReferenceExpression input = (InputReferenceExpression) projection;
             InputPageProjection projectionFunction = new InputPageProjection(input.getField(), input.getType());
@@ -300,6 +346,24 @@ public class PageFunctionCompiler
     {
         requireNonNull(filter, "filter is null");
 
+        return getCached(filterCache, filter);
+    }
+
+    private static <T> Supplier<T> getCached(LoadingCache<RowExpression, Supplier<T>> cache, RowExpression expression)
+    {
+        try {
+            return cache.getUnchecked(expression);
+        }
+        catch (UncheckedExecutionException e) {
+            throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
+    private Supplier<PageFilter> compileFilterInternal(RowExpression filter)
+    {
+        requireNonNull(filter, "filter is null");
+
         PageFieldsToInputParametersRewriter.Result result = rewritePageFieldsToInputParameters(filter);
 
         CallSiteBinder callSiteBinder = new CallSiteBinder();
@@ -15,10 +15,14 @@ package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.spi.function.Description;
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+
+import javax.validation.constraints.Min;
 
 public class CompilerConfig
 {
     private boolean interpreterEnabled;
+    private int expressionCacheSize = 10_000;
 
     public boolean isInterpreterEnabled()
     {
@@ -32,4 +36,18 @@ public class CompilerConfig
         this.interpreterEnabled = interpreterEnabled;
         return this;
     }
+
+    @Min(0)
+    public int getExpressionCacheSize()
+    {
+        return expressionCacheSize;
+    }
+
+    @Config("compiler.expression-cache-size")
+    @ConfigDescription("Reuse compiled projection and filter classes for up to this many distinct expressions")
+    public CompilerConfig setExpressionCacheSize(int expressionCacheSize)
+    {
+        this.expressionCacheSize = expressionCacheSize;
+        return this;
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner;
+
+import com.facebook.presto.cost.PlanNodeCost;
+import com.facebook.presto.sql.planner.plan.PlanFragmentId;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+import java.util.OptionalDouble;
+
+import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Chooses the number of partitions of hash distributed stages from the estimated
+ * number of rows produced by the stages that feed them. Stages without a usable
+ * estimate keep the default partition count.
+ */
+public final class HashPartitionCountCalculator
+{
+    private HashPartitionCountCalculator() {}
+
+    public static Map<PlanFragmentId, Integer> calculateHashPartitionCounts(SubPlan plan, Map<PlanNodeId, PlanNodeCost> costs, int maxPartitionCount, long rowsPerPartition)
+    {
+        requireNonNull(plan, "plan is null");
+        requireNonNull(costs, "costs is null");
+        checkArgument(maxPartitionCount > 0, "maxPartitionCount must be positive");
+        checkArgument(rowsPerPartition > 0, "rowsPerPartition must be positive");
+
+        ImmutableMap.Builder<PlanFragmentId, Integer> partitionCounts = ImmutableMap.builder();
+        calculateHashPartitionCounts(plan, costs, maxPartitionCount, rowsPerPartition, partitionCounts);
+        return partitionCounts.build();
+    }
+
+    private static void calculateHashPartitionCounts(
+            SubPlan plan,
+            Map<PlanNodeId, PlanNodeCost> costs,
+            int maxPartitionCount,
+            long rowsPerPartition,
+            ImmutableMap.Builder<PlanFragmentId, Integer> partitionCounts)
+    {
+        PlanFragment fragment = plan.getFragment();
+        if (fragment.getPartitioning().equals(FIXED_HASH_DISTRIBUTION)) {
+            OptionalDouble inputRows = estimateInputRows(plan, costs);
+            if (inputRows.isPresent()) {
+                long partitionCount = Math.max(1, (long) Math.ceil(inputRows.getAsDouble() / rowsPerPartition));
+                if (partitionCount < maxPartitionCount) {
+                    partitionCounts.put(fragment.getId(), (int) partitionCount);
+                }
+            }
+        }
+
+        for (SubPlan child : plan.getChildren()) {
+            calculateHashPartitionCounts(child, costs, maxPartitionCount, rowsPerPartition, partitionCounts);
+        }
+    }
+
+    private static OptionalDouble estimateInputRows(SubPlan plan, Map<PlanNodeId, PlanNodeCost> costs)
+    {
+        if (plan.getChildren().isEmpty()) {
+            return OptionalDouble.empty();
+        }
+
+        double rows = 0;
+        for (SubPlan child : plan.getChildren()) {
+            PlanNodeCost cost = costs.get(child.getFragment().getRoot().getId());
+            if (cost == null || cost.getOutputRowCount().isValueUnknown()) {
+                return OptionalDouble.empty();
+            }
+            rows += cost.getOutputRowCount().getValue();
+        }
+        return OptionalDouble.of(rows);
+    }
+}
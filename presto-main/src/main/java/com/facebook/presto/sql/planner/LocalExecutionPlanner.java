@@ -43,6 +43,8 @@ import com.facebook.presto.operator.LocalPlannerAware;
 import com.facebook.presto.operator.LookupJoinOperators;
 import com.facebook.presto.operator.LookupSourceFactory;
 import com.facebook.presto.operator.MarkDistinctOperator.MarkDistinctOperatorFactory;
+import com.facebook.presto.operator.MergeJoinOperator.MergeJoinOperatorFactory;
+import com.facebook.presto.operator.MergeJoinSinkOperator.MergeJoinSinkOperatorFactory;
 import com.facebook.presto.operator.MetadataDeleteOperator.MetadataDeleteOperatorFactory;
 import com.facebook.presto.operator.NestedLoopJoinPagesSupplier;
 import com.facebook.presto.operator.OperatorFactory;
@@ -92,6 +94,7 @@ import com.facebook.presto.spi.block.BlockEncodingSerde;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.predicate.NullableValue;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.PartitioningSpillerFactory;
 import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.split.MappedRecordSet;
 import com.facebook.presto.split.PageSinkManager;
@@ -103,6 +106,7 @@ import com.facebook.presto.sql.gen.JoinFilterFunctionCompiler.JoinFilterFunction
 import com.facebook.presto.sql.parser.SqlParser;
 import com.facebook.presto.sql.planner.Partitioning.ArgumentBinding;
 import com.facebook.presto.sql.planner.SortExpressionExtractor.SortExpression;
+import com.facebook.presto.sql.planner.SortExpressionExtractor.SortExpressionContext;
 import com.facebook.presto.sql.planner.optimizations.IndexJoinOptimizer;
 import com.facebook.presto.sql.planner.plan.AggregationNode;
 import com.facebook.presto.sql.planner.plan.AssignUniqueId;
@@ -203,6 +207,7 @@ import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_BRO
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.plan.ExchangeNode.Scope.LOCAL;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.FULL;
+import static com.facebook.presto.sql.planner.plan.JoinNode.Type.LEFT;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.RIGHT;
 import static com.facebook.presto.sql.planner.plan.TableWriterNode.CreateHandle;
 import static com.facebook.presto.sql.planner.plan.TableWriterNode.InsertHandle;
@@ -216,6 +221,7 @@ import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
 import static java.util.Objects.requireNonNull;
@@ -225,6 +231,8 @@ public class LocalExecutionPlanner
 {
     private static final Logger log = Logger.get(LocalExecutionPlanner.class);
 
+    private static final DataSize MERGE_JOIN_BUFFER_SIZE = new DataSize(1, MEGABYTE);
+
     private final Metadata metadata;
     private final SqlParser sqlParser;
     private final CostCalculator costCalculator;
@@ -243,6 +251,7 @@ public class LocalExecutionPlanner
     private final DataSize maxPartialAggregationMemorySize;
     private final DataSize maxPagePartitioningBufferSize;
     private final SpillerFactory spillerFactory;
+    private final PartitioningSpillerFactory partitioningSpillerFactory;
     private final BlockEncodingSerde blockEncodingSerde;
     private final PagesIndex.Factory pagesIndexFactory;
     private final JoinCompiler joinCompiler;
@@ -265,6 +274,7 @@ public class LocalExecutionPlanner
             CompilerConfig compilerConfig,
             TaskManagerConfig taskManagerConfig,
             SpillerFactory spillerFactory,
+            PartitioningSpillerFactory partitioningSpillerFactory,
             BlockEncodingSerde blockEncodingSerde,
             PagesIndex.Factory pagesIndexFactory,
             JoinCompiler joinCompiler,
@@ -285,6 +295,7 @@ public class LocalExecutionPlanner
         this.indexJoinLookupStats = requireNonNull(indexJoinLookupStats, "indexJoinLookupStats is null");
         this.maxIndexMemorySize = requireNonNull(taskManagerConfig, "taskManagerConfig is null").getMaxIndexMemoryUsage();
         this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         this.maxPartialAggregationMemorySize = taskManagerConfig.getMaxPartialAggregationMemoryUsage();
         this.maxPagePartitioningBufferSize = taskManagerConfig.getMaxPagePartitioningBufferSize();
@@ -351,6 +362,10 @@ public class LocalExecutionPlanner
         if (partitioningScheme.isReplicateNullsAndAny() && partitioningColumns.size() == 1) {
             nullChannel = OptionalInt.of(outputLayout.indexOf(getOnlyElement(partitioningColumns)));
         }
+        OptionalInt skewedKeyChannel = OptionalInt.empty();
+        if (partitioningScheme.getSkewedKeys().isPresent()) {
+            skewedKeyChannel = OptionalInt.of(outputLayout.indexOf(getOnlyElement(partitioningColumns)));
+        }
 
         return plan(
                 session,
@@ -363,6 +378,8 @@ public class LocalExecutionPlanner
                         partitionConstants,
                         partitioningScheme.isReplicateNullsAndAny(),
                         nullChannel,
+                        skewedKeyChannel,
+                        partitioningScheme.getSkewedKeys(),
                         outputBuffer,
                         maxPagePartitioningBufferSize));
     }
@@ -950,7 +967,15 @@ public class LocalExecutionPlanner
 
             List<Integer> channels = getChannelsForSymbols(node.getDistinctSymbols(), source.getLayout());
             Optional<Integer> hashChannel = node.getHashSymbol().map(channelGetter(source));
-            MarkDistinctOperatorFactory operator = new MarkDistinctOperatorFactory(context.getNextOperatorId(), node.getId(), source.getTypes(), channels, hashChannel, joinCompiler);
+            MarkDistinctOperatorFactory operator = new MarkDistinctOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    source.getTypes(),
+                    channels,
+                    hashChannel,
+                    getOperatorMemoryLimitBeforeSpill(context.getSession()),
+                    node.isSpillable() ? Optional.of(partitioningSpillerFactory) : Optional.empty(),
+                    joinCompiler);
             return new PhysicalOperation(operator, makeLayout(node), source);
         }
 
@@ -1476,6 +1501,10 @@ public class LocalExecutionPlanner
                 return createNestedLoopJoin(node, context);
             }
 
+            if (node.getMergeJoinSortOrders().isPresent()) {
+                return createMergeJoin(node, node.getMergeJoinSortOrders().get(), context);
+            }
+
             List<Symbol> leftSymbols = Lists.transform(clauses, JoinNode.EquiJoinClause::getLeft);
             List<Symbol> rightSymbols = Lists.transform(clauses, JoinNode.EquiJoinClause::getRight);
 
@@ -1527,6 +1556,59 @@ public class LocalExecutionPlanner
             return operation;
         }
 
+        private PhysicalOperation createMergeJoin(JoinNode node, List<SortOrder> sortOrders, LocalExecutionPlanContext context)
+        {
+            PhysicalOperation probeSource = node.getLeft().accept(this, context);
+            checkState(context.getDriverInstanceCount().orElse(1) == 1, "Expected merge join probe to not be parallel");
+
+            LocalExecutionPlanContext buildContext = context.createSubContext();
+            PhysicalOperation buildSource = node.getRight().accept(this, buildContext);
+            checkState(buildContext.getDriverInstanceCount().orElse(1) == 1, "Expected merge join build to not be parallel");
+
+            MergeJoinSinkOperatorFactory mergeJoinSinkOperatorFactory = new MergeJoinSinkOperatorFactory(
+                    buildContext.getNextOperatorId(),
+                    node.getId(),
+                    buildSource.getTypes(),
+                    MERGE_JOIN_BUFFER_SIZE.toBytes());
+            context.addDriverFactory(
+                    buildContext.isInputDriver(),
+                    false,
+                    ImmutableList.<OperatorFactory>builder()
+                            .addAll(buildSource.getOperatorFactories())
+                            .add(mergeJoinSinkOperatorFactory)
+                            .build(),
+                    buildContext.getDriverInstanceCount());
+
+            List<Symbol> probeOutputSymbols = node.getOutputSymbols().stream()
+                    .filter(symbol -> node.getLeft().getOutputSymbols().contains(symbol))
+                    .collect(toImmutableList());
+            List<Symbol> buildOutputSymbols = node.getOutputSymbols().stream()
+                    .filter(symbol -> node.getRight().getOutputSymbols().contains(symbol))
+                    .collect(toImmutableList());
+            List<Symbol> probeSymbols = Lists.transform(node.getCriteria(), JoinNode.EquiJoinClause::getLeft);
+            List<Symbol> buildSymbols = Lists.transform(node.getCriteria(), JoinNode.EquiJoinClause::getRight);
+
+            OperatorFactory operator = new MergeJoinOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    mergeJoinSinkOperatorFactory.getMergeJoinSource(),
+                    probeSource.getTypes(),
+                    getChannelsForSymbols(probeSymbols, probeSource.getLayout()),
+                    getChannelsForSymbols(probeOutputSymbols, probeSource.getLayout()),
+                    getChannelsForSymbols(buildSymbols, buildSource.getLayout()),
+                    getChannelsForSymbols(buildOutputSymbols, buildSource.getLayout()),
+                    sortOrders,
+                    node.getType() == LEFT);
+
+            ImmutableMap.Builder<Symbol, Integer> outputMappings = ImmutableMap.builder();
+            List<Symbol> outputSymbols = node.getOutputSymbols();
+            for (int i = 0; i < outputSymbols.size(); i++) {
+                outputMappings.put(outputSymbols.get(i), i);
+            }
+
+            return new PhysicalOperation(operator, outputMappings.build(), probeSource);
+        }
+
         private PhysicalOperation createLookupJoin(JoinNode node,
                 PlanNode probeNode,
                 List<Symbol> probeSymbols,
@@ -1574,7 +1656,7 @@ public class LocalExecutionPlanner
             Optional<JoinFilterFunctionFactory> filterFunctionFactory = node.getFilter()
                     .map(filterExpression -> compileJoinFilterFunction(
                             filterExpression,
-                            node.getSortExpression(),
+                            node.getSortExpressionContext(),
                             probeLayout,
                             buildSource.getLayout(),
                             context.getTypes(),
@@ -1608,7 +1690,7 @@ public class LocalExecutionPlanner
 
         private JoinFilterFunctionFactory compileJoinFilterFunction(
                 Expression filterExpression,
-                Optional<Expression> sortExpression,
+                Optional<SortExpressionContext> sortExpressionContext,
                 Map<Symbol, Integer> probeLayout,
                 Map<Symbol, Integer> buildLayout,
                 Map<Symbol, Type> types,
@@ -1619,22 +1701,33 @@ public class LocalExecutionPlanner
             Map<Integer, Type> sourceTypes = joinSourcesLayout.entrySet().stream()
                     .collect(toImmutableMap(Map.Entry::getValue, entry -> types.get(entry.getKey())));
 
-            Expression rewrittenFilter = new SymbolToInputRewriter(joinSourcesLayout).rewrite(filterExpression);
-            Optional<Expression> rewrittenSortExpression = sortExpression.map(
-                    expression -> new SymbolToInputRewriter(buildLayout).rewrite(expression));
+            RowExpression translatedFilter = toJoinFilterRowExpression(filterExpression, joinSourcesLayout, sourceTypes, session);
+            if (!sortExpressionContext.isPresent()) {
+                return joinFilterFunctionCompiler.compileJoinFilterFunction(translatedFilter, buildLayout.size(), Optional.empty());
+            }
 
-            Optional<SortExpression> sortChannel = rewrittenSortExpression.map(SortExpression::fromExpression);
+            Expression rewrittenSortExpression = new SymbolToInputRewriter(buildLayout).rewrite(sortExpressionContext.get().getSortExpression());
+            return joinFilterFunctionCompiler.compileJoinFilterFunction(
+                    translatedFilter,
+                    buildLayout.size(),
+                    SortExpression.fromExpression(rewrittenSortExpression),
+                    sortExpressionContext.get().getLowerBound().map(bound -> toJoinFilterRowExpression(bound, joinSourcesLayout, sourceTypes, session)),
+                    sortExpressionContext.get().getUpperBound().map(bound -> toJoinFilterRowExpression(bound, joinSourcesLayout, sourceTypes, session)));
+        }
+
+        private RowExpression toJoinFilterRowExpression(Expression expression, Map<Symbol, Integer> joinSourcesLayout, Map<Integer, Type> sourceTypes, Session session)
+        {
+            Expression rewrittenExpression = new SymbolToInputRewriter(joinSourcesLayout).rewrite(expression);
 
             Map<NodeRef<Expression>, Type> expressionTypes = getExpressionTypesFromInput(
                     session,
                     metadata,
                     sqlParser,
                     sourceTypes,
-                    rewrittenFilter,
+                    rewrittenExpression,
                     emptyList() /* parameters have already been replaced */);
 
-            RowExpression translatedFilter = toRowExpression(rewrittenFilter, expressionTypes);
-            return joinFilterFunctionCompiler.compileJoinFilterFunction(translatedFilter, buildLayout.size(), sortChannel);
+            return toRowExpression(rewrittenExpression, expressionTypes);
         }
 
         private OperatorFactory createLookupJoin(
@@ -1692,6 +1785,10 @@ public class LocalExecutionPlanner
             int buildChannel = buildSource.getLayout().get(node.getFilteringSourceJoinSymbol());
 
             Optional<Integer> buildHashChannel = node.getFilteringSourceHashSymbol().map(channelGetter(buildSource));
+            // the partitions of a spilled set are loaded once all semi join operators asked for them, which
+            // never happens when the probe creates a driver per split, as those drivers run a few at a time
+            boolean spillable = node.isSpillable() && !isSplitDriven(probeSource);
+            Optional<PartitioningSpillerFactory> setSpillerFactory = spillable ? Optional.of(partitioningSpillerFactory) : Optional.empty();
 
             SetBuilderOperatorFactory setBuilderOperatorFactory = new SetBuilderOperatorFactory(
                     buildContext.getNextOperatorId(),
@@ -1700,6 +1797,8 @@ public class LocalExecutionPlanner
                     buildChannel,
                     buildHashChannel,
                     10_000,
+                    getOperatorMemoryLimitBeforeSpill(context.getSession()),
+                    setSpillerFactory,
                     joinCompiler);
             SetSupplier setProvider = setBuilderOperatorFactory.getSetProvider();
             context.addDriverFactory(buildContext.isInputDriver(),
@@ -1716,7 +1815,13 @@ public class LocalExecutionPlanner
                     .put(node.getSemiJoinOutput(), probeSource.getLayout().size())
                     .build();
 
-            HashSemiJoinOperatorFactory operator = new HashSemiJoinOperatorFactory(context.getNextOperatorId(), node.getId(), setProvider, probeSource.getTypes(), probeChannel);
+            HashSemiJoinOperatorFactory operator = new HashSemiJoinOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    setProvider,
+                    probeSource.getTypes(),
+                    probeChannel,
+                    setSpillerFactory);
             return new PhysicalOperation(operator, outputMappings, probeSource);
         }
 
@@ -2064,6 +2169,15 @@ public class LocalExecutionPlanner
         };
     }
 
+    /**
+     * Returns whether the drivers of the pipeline are created per split, rather than all when the task starts.
+     */
+    private static boolean isSplitDriven(PhysicalOperation operation)
+    {
+        OperatorFactory source = operation.getOperatorFactories().get(0);
+        return source instanceof SourceOperatorFactory && !(source instanceof ExchangeOperatorFactory);
+    }
+
     /**
      * Encapsulates an physical operator plus the mapping of logical symbols to channel/field
      */
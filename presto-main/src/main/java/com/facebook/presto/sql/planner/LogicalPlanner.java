@@ -58,6 +58,7 @@ import com.facebook.presto.sql.tree.NullLiteral;
 import com.facebook.presto.sql.tree.Query;
 import com.facebook.presto.sql.tree.Statement;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import java.util.ArrayList;
@@ -124,22 +125,47 @@ public class LogicalPlanner
     public Plan plan(Analysis analysis, Stage stage)
     {
         PlanNode root = planStatement(analysis, analysis.getStatement());
+        return plan(root, symbolAllocator, stage);
+    }
+
+    /**
+     * Plans the statement without optimizing the plan or computing its cost, so the plan can be
+     * cached before the parameters of the statement are bound to it.
+     *
+     * @see Analysis#unbindParameters()
+     */
+    public Plan planUnoptimized(Analysis analysis)
+    {
+        PlanNode root = planStatement(analysis, analysis.getStatement());
+        return new Plan(root, ImmutableMap.copyOf(symbolAllocator.getTypes()), ImmutableMap.of());
+    }
 
+    /**
+     * Optimizes and validates a plan created by {@link #planUnoptimized(Analysis)}. The id allocator
+     * of this planner must not allocate the ids of the nodes already in the plan.
+     */
+    public Plan optimize(Plan plan)
+    {
+        return plan(plan.getRoot(), new SymbolAllocator(plan.getTypes()), Stage.OPTIMIZED_AND_VALIDATED);
+    }
+
+    private Plan plan(PlanNode root, SymbolAllocator allocator, Stage stage)
+    {
         if (stage.ordinal() >= Stage.OPTIMIZED.ordinal()) {
             for (PlanOptimizer optimizer : planOptimizers) {
-                root = optimizer.optimize(root, session, symbolAllocator.getTypes(), symbolAllocator, idAllocator);
+                root = optimizer.optimize(root, session, allocator.getTypes(), allocator, idAllocator);
                 requireNonNull(root, format("%s returned a null plan", optimizer.getClass().getName()));
             }
         }
 
         if (stage.ordinal() >= Stage.OPTIMIZED_AND_VALIDATED.ordinal()) {
             // make sure we produce a valid plan after optimizations run. This is mainly to catch programming errors
-            PlanSanityChecker.validate(root, session, metadata, sqlParser, symbolAllocator.getTypes());
+            PlanSanityChecker.validate(root, session, metadata, sqlParser, allocator.getTypes());
         }
 
-        Map<PlanNodeId, PlanNodeCost> planNodeCosts = costCalculator.calculateCostForPlan(session, symbolAllocator.getTypes(), root);
+        Map<PlanNodeId, PlanNodeCost> planNodeCosts = costCalculator.calculateCostForPlan(session, allocator.getTypes(), root);
 
-        return new Plan(root, symbolAllocator.getTypes(), planNodeCosts);
+        return new Plan(root, allocator.getTypes(), planNodeCosts);
     }
 
     public PlanNode planStatement(Analysis analysis, Statement statement)
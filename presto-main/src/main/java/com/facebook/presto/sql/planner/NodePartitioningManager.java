@@ -96,6 +96,14 @@ public class NodePartitioningManager
         return new PartitionFunction(bucketFunction, partitioningScheme.getBucketToPartition().get());
     }
 
+    public NodePartitionMap getNodePartitioningMap(PartitioningHandle partitioningHandle, int hashPartitionCount)
+    {
+        requireNonNull(partitioningHandle, "partitioningHandle is null");
+        checkArgument(partitioningHandle.getConnectorHandle() instanceof SystemPartitioningHandle, "Partition count can only be chosen for system partitionings: %s", partitioningHandle);
+
+        return ((SystemPartitioningHandle) partitioningHandle.getConnectorHandle()).getNodePartitionMap(nodeScheduler, hashPartitionCount);
+    }
+
     public NodePartitionMap getNodePartitioningMap(Session session, PartitioningHandle partitioningHandle)
     {
         requireNonNull(session, "session is null");
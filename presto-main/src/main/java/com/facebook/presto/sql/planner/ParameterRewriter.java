@@ -56,7 +56,12 @@ public class ParameterRewriter
     public Expression rewriteParameter(Parameter node, Void context, ExpressionTreeRewriter<Void> treeRewriter)
     {
         checkState(parameterValues.size() > node.getPosition(), "Too few parameter values");
-        return coerceIfNecessary(node, parameterValues.get(node.getPosition()));
+        Expression value = parameterValues.get(node.getPosition());
+        if (value instanceof Parameter) {
+            // the parameter is left unbound, and coerced when its value is bound to the plan
+            return value;
+        }
+        return coerceIfNecessary(node, value);
     }
 
     private Expression coerceIfNecessary(Expression original, Expression rewritten)
@@ -17,10 +17,30 @@ import com.facebook.presto.sql.planner.plan.PlanNodeId;
 
 public class PlanNodeIdAllocator
 {
-    private int nextId = 0;
+    private int nextId;
+
+    public PlanNodeIdAllocator()
+    {
+        this(0);
+    }
+
+    /**
+     * Creates an allocator which continues after the ids allocated by another allocator.
+     *
+     * @see #getAllocatedIdCount()
+     */
+    public PlanNodeIdAllocator(int allocatedIdCount)
+    {
+        this.nextId = allocatedIdCount;
+    }
 
     public PlanNodeId getNextId()
     {
         return new PlanNodeId(Integer.toString(nextId++));
     }
+
+    public int getAllocatedIdCount()
+    {
+        return nextId;
+    }
 }
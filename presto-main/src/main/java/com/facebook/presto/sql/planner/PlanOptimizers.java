@@ -32,8 +32,22 @@ import com.facebook.presto.sql.planner.iterative.rule.MergeLimitWithDistinct;
 import com.facebook.presto.sql.planner.iterative.rule.MergeLimitWithSort;
 import com.facebook.presto.sql.planner.iterative.rule.MergeLimitWithTopN;
 import com.facebook.presto.sql.planner.iterative.rule.MergeLimits;
+import com.facebook.presto.sql.planner.iterative.rule.PruneAggregationColumns;
+import com.facebook.presto.sql.planner.iterative.rule.PruneAggregationSourceColumns;
+import com.facebook.presto.sql.planner.iterative.rule.PruneFilterColumns;
+import com.facebook.presto.sql.planner.iterative.rule.PruneJoinChildrenColumns;
+import com.facebook.presto.sql.planner.iterative.rule.PruneJoinColumns;
+import com.facebook.presto.sql.planner.iterative.rule.PruneLimitColumns;
+import com.facebook.presto.sql.planner.iterative.rule.PruneMarkDistinctColumns;
+import com.facebook.presto.sql.planner.iterative.rule.PruneOutputColumns;
+import com.facebook.presto.sql.planner.iterative.rule.PruneProjectColumns;
+import com.facebook.presto.sql.planner.iterative.rule.PruneSemiJoinColumns;
+import com.facebook.presto.sql.planner.iterative.rule.PruneSemiJoinFilteringSourceColumns;
+import com.facebook.presto.sql.planner.iterative.rule.PruneSortColumns;
 import com.facebook.presto.sql.planner.iterative.rule.PruneTableScanColumns;
+import com.facebook.presto.sql.planner.iterative.rule.PruneTopNColumns;
 import com.facebook.presto.sql.planner.iterative.rule.PruneValuesColumns;
+import com.facebook.presto.sql.planner.iterative.rule.PruneWindowColumns;
 import com.facebook.presto.sql.planner.iterative.rule.PushAggregationThroughOuterJoin;
 import com.facebook.presto.sql.planner.iterative.rule.PushLimitThroughMarkDistinct;
 import com.facebook.presto.sql.planner.iterative.rule.PushLimitThroughProject;
@@ -121,6 +135,34 @@ public class PlanOptimizers
         Set<Rule> predicatePushDownRules = ImmutableSet.of(
                 new MergeFilters());
 
+        // per node counterparts of PruneUnreferencedOutputs; the remaining passes of the legacy
+        // optimizer stay until rules also cover unions, applies, exchanges and the other nodes
+        Set<Rule> columnPruningRules = ImmutableSet.of(
+                new PruneAggregationColumns(),
+                new PruneAggregationSourceColumns(),
+                new PruneFilterColumns(),
+                new PruneJoinChildrenColumns(),
+                new PruneJoinColumns(),
+                new PruneLimitColumns(),
+                new PruneMarkDistinctColumns(),
+                new PruneOutputColumns(),
+                new PruneProjectColumns(),
+                new PruneSemiJoinColumns(),
+                new PruneSemiJoinFilteringSourceColumns(),
+                new PruneSortColumns(),
+                new PruneTableScanColumns(),
+                new PruneTopNColumns(),
+                new PruneValuesColumns(),
+                new PruneWindowColumns());
+
+        IterativeOptimizer columnPruning = new IterativeOptimizer(
+                stats,
+                ImmutableList.of(new PruneUnreferencedOutputs()),
+                ImmutableSet.<Rule>builder()
+                        .addAll(columnPruningRules)
+                        .add(new RemoveRedundantIdentityProjections())
+                        .build());
+
         IterativeOptimizer inlineProjections = new IterativeOptimizer(
                 stats,
                 ImmutableSet.of(
@@ -192,7 +234,7 @@ public class PlanOptimizers
                                 new ImplementFilteredAggregations())
                 ),
                 new PredicatePushDown(metadata, sqlParser),
-                new PruneUnreferencedOutputs(),
+                columnPruning,
                 new IterativeOptimizer(
                         stats,
                         ImmutableSet.of(
@@ -217,7 +259,7 @@ public class PlanOptimizers
                                 new SwapAdjacentWindowsBySpecifications(),
                                 new MergeAdjacentWindows())),
                 inlineProjections,
-                new PruneUnreferencedOutputs(), // Make sure to run this at the end to help clean the plan for logging/execution and not remove info that other optimizers might need at an earlier point
+                columnPruning, // Make sure to run this at the end to help clean the plan for logging/execution and not remove info that other optimizers might need at an earlier point
                 new IterativeOptimizer(
                         stats,
                         ImmutableSet.of(new RemoveRedundantIdentityProjections())
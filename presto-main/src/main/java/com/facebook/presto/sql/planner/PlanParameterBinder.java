@@ -0,0 +1,215 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner;
+
+import com.facebook.presto.sql.planner.plan.AggregationNode;
+import com.facebook.presto.sql.planner.plan.AggregationNode.Aggregation;
+import com.facebook.presto.sql.planner.plan.ApplyNode;
+import com.facebook.presto.sql.planner.plan.Assignments;
+import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.ProjectNode;
+import com.facebook.presto.sql.planner.plan.SimplePlanRewriter;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.facebook.presto.sql.planner.plan.ValuesNode;
+import com.facebook.presto.sql.planner.plan.WindowNode;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.ExpressionRewriter;
+import com.facebook.presto.sql.tree.ExpressionTreeRewriter;
+import com.facebook.presto.sql.tree.FunctionCall;
+import com.facebook.presto.sql.tree.Parameter;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.sql.planner.ExpressionExtractor.extractExpressionsNonRecursive;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Binds parameter values to a plan created from an analysis whose parameters were left unbound.
+ *
+ * @see com.facebook.presto.sql.analyzer.Analysis#unbindParameters()
+ */
+public final class PlanParameterBinder
+{
+    private PlanParameterBinder() {}
+
+    /**
+     * @param unboundParameters the parameters of the statement with their coercions, as returned by
+     * {@link com.facebook.presto.sql.analyzer.Analysis#unbindParameters()}
+     * @param parameterValues the values of the parameters
+     */
+    public static PlanNode bindParameters(PlanNode plan, List<Expression> unboundParameters, List<Expression> parameterValues)
+    {
+        requireNonNull(plan, "plan is null");
+        checkArgument(unboundParameters.size() == parameterValues.size(), "Expected %s parameter values, but got %s", unboundParameters.size(), parameterValues.size());
+        if (parameterValues.isEmpty()) {
+            return plan;
+        }
+
+        ImmutableList.Builder<Expression> boundParameters = ImmutableList.builder();
+        for (Expression unboundParameter : unboundParameters) {
+            boundParameters.add(ExpressionTreeRewriter.rewriteWith(new ParameterRewriter(parameterValues), unboundParameter));
+        }
+        return SimplePlanRewriter.rewriteWith(new Rewriter(boundParameters.build()), plan);
+    }
+
+    private static class Rewriter
+            extends SimplePlanRewriter<Void>
+    {
+        private final List<Expression> boundParameters;
+
+        public Rewriter(List<Expression> boundParameters)
+        {
+            this.boundParameters = boundParameters;
+        }
+
+        @Override
+        public PlanNode visitPlan(PlanNode node, RewriteContext<Void> context)
+        {
+            checkState(extractExpressionsNonRecursive(node).isEmpty(), "Unhandled plan node with expressions");
+            return super.visitPlan(node, context);
+        }
+
+        @Override
+        public PlanNode visitAggregation(AggregationNode node, RewriteContext<Void> context)
+        {
+            PlanNode source = context.rewrite(node.getSource());
+            Map<Symbol, Aggregation> assignments = node.getAssignments().entrySet().stream()
+                    .collect(toImmutableMap(Map.Entry::getKey, entry -> {
+                        Aggregation aggregation = entry.getValue();
+                        return new Aggregation((FunctionCall) bind(aggregation.getCall()), aggregation.getSignature(), aggregation.getMask());
+                    }));
+            return new AggregationNode(
+                    node.getId(),
+                    source,
+                    assignments,
+                    node.getGroupingSets(),
+                    node.getStep(),
+                    node.getHashSymbol(),
+                    node.getGroupIdSymbol());
+        }
+
+        @Override
+        public PlanNode visitWindow(WindowNode node, RewriteContext<Void> context)
+        {
+            PlanNode source = context.rewrite(node.getSource());
+            Map<Symbol, WindowNode.Function> functions = node.getWindowFunctions().entrySet().stream()
+                    .collect(toImmutableMap(Map.Entry::getKey, entry -> {
+                        WindowNode.Function function = entry.getValue();
+                        return new WindowNode.Function((FunctionCall) bind(function.getFunctionCall()), function.getSignature(), function.getFrame());
+                    }));
+            return new WindowNode(
+                    node.getId(),
+                    source,
+                    node.getSpecification(),
+                    functions,
+                    node.getHashSymbol(),
+                    node.getPrePartitionedInputs(),
+                    node.getPreSortedOrderPrefix());
+        }
+
+        @Override
+        public PlanNode visitProject(ProjectNode node, RewriteContext<Void> context)
+        {
+            PlanNode source = context.rewrite(node.getSource());
+            Assignments assignments = node.getAssignments().rewrite(this::bind);
+            return new ProjectNode(node.getId(), source, assignments);
+        }
+
+        @Override
+        public PlanNode visitFilter(FilterNode node, RewriteContext<Void> context)
+        {
+            PlanNode source = context.rewrite(node.getSource());
+            return new FilterNode(node.getId(), source, bind(node.getPredicate()));
+        }
+
+        @Override
+        public PlanNode visitTableScan(TableScanNode node, RewriteContext<Void> context)
+        {
+            Expression originalConstraint = null;
+            if (node.getOriginalConstraint() != null) {
+                originalConstraint = bind(node.getOriginalConstraint());
+            }
+            return new TableScanNode(
+                    node.getId(),
+                    node.getTable(),
+                    node.getOutputSymbols(),
+                    node.getAssignments(),
+                    node.getLayout(),
+                    node.getCurrentConstraint(),
+                    originalConstraint);
+        }
+
+        @Override
+        public PlanNode visitJoin(JoinNode node, RewriteContext<Void> context)
+        {
+            PlanNode left = context.rewrite(node.getLeft());
+            PlanNode right = context.rewrite(node.getRight());
+            Optional<Expression> filter = node.getFilter().map(this::bind);
+            return new JoinNode(
+                    node.getId(),
+                    node.getType(),
+                    left,
+                    right,
+                    node.getCriteria(),
+                    node.getOutputSymbols(),
+                    filter,
+                    node.getLeftHashSymbol(),
+                    node.getRightHashSymbol(),
+                    node.getDistributionType(),
+                    node.getMergeJoinSortOrders());
+        }
+
+        @Override
+        public PlanNode visitValues(ValuesNode node, RewriteContext<Void> context)
+        {
+            return new ValuesNode(
+                    node.getId(),
+                    node.getOutputSymbols(),
+                    node.getRows().stream()
+                            .map(row -> row.stream()
+                                    .map(this::bind)
+                                    .collect(toImmutableList()))
+                            .collect(toImmutableList()));
+        }
+
+        @Override
+        public PlanNode visitApply(ApplyNode node, RewriteContext<Void> context)
+        {
+            PlanNode input = context.rewrite(node.getInput());
+            PlanNode subquery = context.rewrite(node.getSubquery());
+            return new ApplyNode(node.getId(), input, subquery, node.getSubqueryAssignments().rewrite(this::bind), node.getCorrelation());
+        }
+
+        private Expression bind(Expression expression)
+        {
+            return ExpressionTreeRewriter.rewriteWith(new ExpressionRewriter<Void>()
+            {
+                @Override
+                public Expression rewriteParameter(Parameter node, Void context, ExpressionTreeRewriter<Void> treeRewriter)
+                {
+                    return boundParameters.get(node.getPosition());
+                }
+            }, expression);
+        }
+    }
+}
@@ -580,7 +580,8 @@ class QueryPlanner
                             subPlan.getRoot(),
                             entry.getValue(),
                             builder.build(),
-                            Optional.empty()));
+                            Optional.empty(),
+                            false));
         }
 
         AggregationNode aggregationNode = new AggregationNode(
@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner;
+
+import com.facebook.presto.spi.predicate.NullableValue;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Values of the partitioning column of a hash partitioned join input that are known to be
+ * much more frequent than the others. Rows holding one of these values are not sent to the
+ * partition of their hash: the probe side spreads them across all partitions, and the build
+ * side sends them to every partition so that each probe row still finds its matches.
+ * Rows with a null key can not match anything, so both sides spread them; the values are
+ * empty when only null keys are skewed.
+ */
+public class SkewedKeys
+{
+    private final List<NullableValue> values;
+    private final boolean replicated;
+
+    @JsonCreator
+    public SkewedKeys(
+            @JsonProperty("values") List<NullableValue> values,
+            @JsonProperty("replicated") boolean replicated)
+    {
+        this.values = ImmutableList.copyOf(requireNonNull(values, "values is null"));
+        this.replicated = replicated;
+    }
+
+    @JsonProperty
+    public List<NullableValue> getValues()
+    {
+        return values;
+    }
+
+    /**
+     * Returns true if rows with a skewed value are sent to every partition instead of being spread.
+     */
+    @JsonProperty
+    public boolean isReplicated()
+    {
+        return replicated;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SkewedKeys that = (SkewedKeys) o;
+        return replicated == that.replicated &&
+                Objects.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(values, replicated);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("values", values)
+                .add("replicated", replicated)
+                .toString();
+    }
+}
@@ -14,19 +14,34 @@
 package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.sql.tree.AstVisitor;
+import com.facebook.presto.sql.tree.BetweenPredicate;
 import com.facebook.presto.sql.tree.ComparisonExpression;
 import com.facebook.presto.sql.tree.Expression;
 import com.facebook.presto.sql.tree.FieldReference;
 import com.facebook.presto.sql.tree.Node;
 import com.facebook.presto.sql.tree.SymbolReference;
+import com.google.common.collect.ImmutableList;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
+import static com.facebook.presto.sql.ExpressionUtils.combineConjuncts;
+import static com.facebook.presto.sql.ExpressionUtils.extractConjuncts;
+import static com.facebook.presto.sql.tree.ComparisonExpressionType.GREATER_THAN;
+import static com.facebook.presto.sql.tree.ComparisonExpressionType.GREATER_THAN_OR_EQUAL;
+import static com.facebook.presto.sql.tree.ComparisonExpressionType.LESS_THAN;
+import static com.facebook.presto.sql.tree.ComparisonExpressionType.LESS_THAN_OR_EQUAL;
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -34,6 +49,10 @@ import static java.util.Objects.requireNonNull;
  *
  * A.a < B.x
  *
+ * and conjunctions of them bounding the same build symbol, like band joins:
+ *
+ * B.x BETWEEN A.a AND A.b
+ *
  * It could be extended to handle any expressions like:
  *
  * A.a * sin(A.b) / log(B.x) < cos(B.z)
@@ -51,34 +70,69 @@ public final class SortExpressionExtractor
     private SortExpressionExtractor() {}
 
     public static Optional<Expression> extractSortExpression(Set<Symbol> buildSymbols, Expression filter)
+    {
+        return extractSortExpressionContext(buildSymbols, filter)
+                .map(SortExpressionContext::getSortExpression);
+    }
+
+    public static Optional<SortExpressionContext> extractSortExpressionContext(Set<Symbol> buildSymbols, Expression filter)
     {
         if (!DeterminismEvaluator.isDeterministic(filter)) {
             return Optional.empty();
         }
 
-        if (filter instanceof ComparisonExpression) {
-            ComparisonExpression comparison = (ComparisonExpression) filter;
-            switch (comparison.getType()) {
-                case GREATER_THAN:
-                case GREATER_THAN_OR_EQUAL:
-                case LESS_THAN:
-                case LESS_THAN_OR_EQUAL:
-                    Optional<SymbolReference> sortChannel = asBuildSymbolReference(buildSymbols, comparison.getRight());
-                    boolean hasBuildReferencesOnOtherSide = hasBuildSymbolReference(buildSymbols, comparison.getLeft());
-                    if (!sortChannel.isPresent()) {
-                        sortChannel = asBuildSymbolReference(buildSymbols, comparison.getLeft());
-                        hasBuildReferencesOnOtherSide = hasBuildSymbolReference(buildSymbols, comparison.getRight());
-                    }
-                    if (sortChannel.isPresent() && !hasBuildReferencesOnOtherSide) {
-                        return sortChannel.map(symbolReference -> (Expression) symbolReference);
-                    }
-                    return Optional.empty();
-                default:
-                    return Optional.empty();
+        // bound conjuncts, normalized so that the build symbol is on the left side, grouped by build symbol
+        Map<SymbolReference, List<ComparisonExpression>> bounds = new LinkedHashMap<>();
+        for (Expression conjunct : extractConjuncts(filter)) {
+            for (Expression comparison : expandBetween(conjunct)) {
+                asBuildSymbolBound(buildSymbols, comparison)
+                        .ifPresent(bound -> bounds.computeIfAbsent((SymbolReference) bound.getLeft(), key -> new ArrayList<>()).add(bound));
             }
         }
 
-        return Optional.empty();
+        // prefer a symbol that is bounded from both sides, since then the iteration over sorted positions can stop early
+        return bounds.values().stream()
+                .map(SortExpressionContext::new)
+                .sorted(comparing((SortExpressionContext context) -> !(context.getLowerBound().isPresent() && context.getUpperBound().isPresent())))
+                .findFirst();
+    }
+
+    private static List<Expression> expandBetween(Expression conjunct)
+    {
+        if (conjunct instanceof BetweenPredicate) {
+            BetweenPredicate between = (BetweenPredicate) conjunct;
+            return ImmutableList.of(
+                    new ComparisonExpression(GREATER_THAN_OR_EQUAL, between.getValue(), between.getMin()),
+                    new ComparisonExpression(LESS_THAN_OR_EQUAL, between.getValue(), between.getMax()));
+        }
+        return ImmutableList.of(conjunct);
+    }
+
+    private static Optional<ComparisonExpression> asBuildSymbolBound(Set<Symbol> buildSymbols, Expression expression)
+    {
+        if (!(expression instanceof ComparisonExpression)) {
+            return Optional.empty();
+        }
+        ComparisonExpression comparison = (ComparisonExpression) expression;
+        switch (comparison.getType()) {
+            case GREATER_THAN:
+            case GREATER_THAN_OR_EQUAL:
+            case LESS_THAN:
+            case LESS_THAN_OR_EQUAL:
+                Optional<SymbolReference> sortChannel = asBuildSymbolReference(buildSymbols, comparison.getRight());
+                boolean hasBuildReferencesOnOtherSide = hasBuildSymbolReference(buildSymbols, comparison.getLeft());
+                if (sortChannel.isPresent() && !hasBuildReferencesOnOtherSide) {
+                    return Optional.of(new ComparisonExpression(comparison.getType().flip(), sortChannel.get(), comparison.getLeft()));
+                }
+                sortChannel = asBuildSymbolReference(buildSymbols, comparison.getLeft());
+                hasBuildReferencesOnOtherSide = hasBuildSymbolReference(buildSymbols, comparison.getRight());
+                if (sortChannel.isPresent() && !hasBuildReferencesOnOtherSide) {
+                    return Optional.of(new ComparisonExpression(comparison.getType(), sortChannel.get(), comparison.getRight()));
+                }
+                return Optional.empty();
+            default:
+                return Optional.empty();
+        }
     }
 
     private static Optional<SymbolReference> asBuildSymbolReference(Set<Symbol> buildLayout, Expression expression)
@@ -127,6 +181,65 @@ public final class SortExpressionExtractor
         }
     }
 
+    /**
+     * Sort expression together with the conjuncts of the join filter that bound it. When build rows
+     * are sorted ascending by the sort expression, rows matching the lower bound form a suffix
+     * and rows matching the upper bound form a prefix of the sorted rows.
+     */
+    public static class SortExpressionContext
+    {
+        private final Expression sortExpression;
+        private final List<ComparisonExpression> lowerBoundConjuncts;
+        private final List<ComparisonExpression> upperBoundConjuncts;
+
+        public SortExpressionContext(List<ComparisonExpression> boundConjuncts)
+        {
+            requireNonNull(boundConjuncts, "boundConjuncts is null");
+            checkArgument(!boundConjuncts.isEmpty(), "boundConjuncts is empty");
+            this.sortExpression = boundConjuncts.get(0).getLeft();
+            checkArgument(boundConjuncts.stream().allMatch(conjunct -> conjunct.getLeft().equals(sortExpression)), "all conjuncts must bound the same sort expression");
+            this.lowerBoundConjuncts = boundConjuncts.stream()
+                    .filter(conjunct -> conjunct.getType() == GREATER_THAN || conjunct.getType() == GREATER_THAN_OR_EQUAL)
+                    .collect(toImmutableList());
+            this.upperBoundConjuncts = boundConjuncts.stream()
+                    .filter(conjunct -> conjunct.getType() == LESS_THAN || conjunct.getType() == LESS_THAN_OR_EQUAL)
+                    .collect(toImmutableList());
+        }
+
+        public Expression getSortExpression()
+        {
+            return sortExpression;
+        }
+
+        public Optional<Expression> getLowerBound()
+        {
+            return combine(lowerBoundConjuncts);
+        }
+
+        public Optional<Expression> getUpperBound()
+        {
+            return combine(upperBoundConjuncts);
+        }
+
+        private static Optional<Expression> combine(List<ComparisonExpression> conjuncts)
+        {
+            if (conjuncts.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(combineConjuncts(ImmutableList.<Expression>copyOf(conjuncts)));
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("sortExpression", sortExpression)
+                    .add("lowerBound", getLowerBound())
+                    .add("upperBound", getUpperBound())
+                    .toString();
+        }
+    }
+
     public static class SortExpression
     {
         private final int channel;
@@ -130,6 +130,11 @@ public final class SystemPartitioningHandle
     }
 
     public NodePartitionMap getNodePartitionMap(Session session, NodeScheduler nodeScheduler)
+    {
+        return getNodePartitionMap(nodeScheduler, getHashPartitionCount(session));
+    }
+
+    public NodePartitionMap getNodePartitionMap(NodeScheduler nodeScheduler, int hashPartitionCount)
     {
         NodeSelector nodeSelector = nodeScheduler.createNodeSelector(null);
         List<Node> nodes;
@@ -140,7 +145,7 @@ public final class SystemPartitioningHandle
             nodes = nodeSelector.selectRandomNodes(1);
         }
         else if (partitioning == SystemPartitioning.FIXED) {
-            nodes = nodeSelector.selectRandomNodes(getHashPartitionCount(session));
+            nodes = nodeSelector.selectRandomNodes(hashPartitionCount);
         }
         else {
             throw new IllegalArgumentException("Unsupported plan distribution " + partitioning);
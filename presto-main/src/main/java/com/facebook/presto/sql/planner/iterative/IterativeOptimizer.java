@@ -31,10 +31,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.facebook.presto.spi.StandardErrorCode.OPTIMIZER_TIMEOUT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.lang.String.format;
 
 public class IterativeOptimizer
@@ -43,6 +45,7 @@ public class IterativeOptimizer
     private final List<PlanOptimizer> legacyRules;
     private final Set<Rule> rules;
     private final StatsRecorder stats;
+    private final Map<Class<? extends PlanNode>, List<Rule>> rulesByNodeClass = new ConcurrentHashMap<>();
 
     public IterativeOptimizer(StatsRecorder stats, Set<Rule> rules)
     {
@@ -112,7 +115,7 @@ public class IterativeOptimizer
             }
 
             done = true;
-            for (Rule rule : rules) {
+            for (Rule rule : getCandidateRules(node)) {
                 Optional<PlanNode> transformed;
                 long duration;
                 try {
@@ -138,6 +141,13 @@ public class IterativeOptimizer
         return progress;
     }
 
+    private List<Rule> getCandidateRules(PlanNode node)
+    {
+        return rulesByNodeClass.computeIfAbsent(node.getClass(), nodeClass -> rules.stream()
+                .filter(rule -> rule.getPattern().matches(nodeClass))
+                .collect(toImmutableList()));
+    }
+
     private boolean isTimeLimitExhausted(Context context)
     {
         return ((System.nanoTime() - context.getStartTimeInNanos()) / 1_000_000) >= context.getTimeoutInMilliseconds();
@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.iterative;
+
+import com.facebook.presto.sql.planner.plan.PlanNode;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Describes the plan nodes a {@link Rule} can transform, so that the
+ * optimizer only offers each node to rules that may apply to it.
+ */
+public final class Pattern
+{
+    private static final Pattern ANY = new Pattern(PlanNode.class);
+
+    private final Class<? extends PlanNode> nodeClass;
+
+    private Pattern(Class<? extends PlanNode> nodeClass)
+    {
+        this.nodeClass = requireNonNull(nodeClass, "nodeClass is null");
+    }
+
+    public static Pattern any()
+    {
+        return ANY;
+    }
+
+    public static Pattern node(Class<? extends PlanNode> nodeClass)
+    {
+        return new Pattern(nodeClass);
+    }
+
+    public boolean matches(Class<? extends PlanNode> nodeClass)
+    {
+        return this.nodeClass.isAssignableFrom(nodeClass);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("nodeClass", nodeClass.getSimpleName())
+                .toString();
+    }
+}
@@ -22,5 +22,13 @@ import java.util.Optional;
 
 public interface Rule
 {
+    /**
+     * Returns the pattern of plan nodes this rule may transform.
+     */
+    default Pattern getPattern()
+    {
+        return Pattern.any();
+    }
+
     Optional<PlanNode> apply(PlanNode node, Lookup lookup, PlanNodeIdAllocator idAllocator, SymbolAllocator symbolAllocator, Session session);
 }
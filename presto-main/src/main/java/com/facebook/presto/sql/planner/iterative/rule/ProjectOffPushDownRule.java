@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.iterative.rule;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.SymbolAllocator;
+import com.facebook.presto.sql.planner.iterative.Lookup;
+import com.facebook.presto.sql.planner.iterative.Pattern;
+import com.facebook.presto.sql.planner.iterative.Rule;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.ProjectNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.sql.planner.iterative.rule.Util.pruneInputs;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Base for the rules which push the pruning of the outputs that a projection
+ * does not reference into the node below it. This is the per node counterpart
+ * of the top down rewrite done by PruneUnreferencedOutputs.
+ */
+public abstract class ProjectOffPushDownRule<N extends PlanNode>
+        implements Rule
+{
+    private static final Pattern PATTERN = Pattern.node(ProjectNode.class);
+
+    private final Class<N> targetNodeClass;
+
+    protected ProjectOffPushDownRule(Class<N> targetNodeClass)
+    {
+        this.targetNodeClass = requireNonNull(targetNodeClass, "targetNodeClass is null");
+    }
+
+    @Override
+    public Pattern getPattern()
+    {
+        return PATTERN;
+    }
+
+    @Override
+    public Optional<PlanNode> apply(PlanNode node, Lookup lookup, PlanNodeIdAllocator idAllocator, SymbolAllocator symbolAllocator, Session session)
+    {
+        if (!(node instanceof ProjectNode)) {
+            return Optional.empty();
+        }
+
+        ProjectNode parent = (ProjectNode) node;
+
+        PlanNode child = lookup.resolve(parent.getSource());
+        if (!targetNodeClass.isInstance(child)) {
+            return Optional.empty();
+        }
+
+        N targetNode = targetNodeClass.cast(child);
+
+        return pruneInputs(targetNode.getOutputSymbols(), parent.getAssignments().getExpressions())
+                .flatMap(prunedOutputs -> pushDownProjectOff(idAllocator, targetNode, ImmutableSet.copyOf(prunedOutputs)))
+                .map(prunedChild -> parent.replaceChildren(ImmutableList.of(prunedChild)));
+    }
+
+    /**
+     * Returns the replacement of the target node which only needs to produce the referenced outputs,
+     * or Optional.empty() if the target node cannot be pruned.
+     */
+    protected abstract Optional<PlanNode> pushDownProjectOff(PlanNodeIdAllocator idAllocator, N targetNode, Set<Symbol> referencedOutputs);
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.iterative.rule;
+
+import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.plan.AggregationNode;
+import com.facebook.presto.sql.planner.plan.AggregationNode.Aggregation;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public class PruneAggregationColumns
+        extends ProjectOffPushDownRule<AggregationNode>
+{
+    public PruneAggregationColumns()
+    {
+        super(AggregationNode.class);
+    }
+
+    @Override
+    protected Optional<PlanNode> pushDownProjectOff(PlanNodeIdAllocator idAllocator, AggregationNode aggregationNode, Set<Symbol> referencedOutputs)
+    {
+        Map<Symbol, Aggregation> prunedAggregations = Maps.filterKeys(
+                aggregationNode.getAssignments(),
+                referencedOutputs::contains);
+
+        if (prunedAggregations.size() == aggregationNode.getAssignments().size()) {
+            // only grouping keys are unreferenced, and they cannot be pruned
+            return Optional.empty();
+        }
+
+        return Optional.of(
+                new AggregationNode(
+                        aggregationNode.getId(),
+                        aggregationNode.getSource(),
+                        prunedAggregations,
+                        aggregationNode.getGroupingSets(),
+                        aggregationNode.getStep(),
+                        aggregationNode.getHashSymbol(),
+                        aggregationNode.getGroupIdSymbol()));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.iterative.rule;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.sql.planner.DependencyExtractor;
+import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.SymbolAllocator;
+import com.facebook.presto.sql.planner.iterative.Lookup;
+import com.facebook.presto.sql.planner.iterative.Pattern;
+import com.facebook.presto.sql.planner.iterative.Rule;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.sql.planner.iterative.rule.Util.restrictChildOutputs;
+
+/**
+ * Prunes the outputs of the children of a join which the join neither uses nor returns.
+ */
+public class PruneJoinChildrenColumns
+        implements Rule
+{
+    private static final Pattern PATTERN = Pattern.node(JoinNode.class);
+
+    @Override
+    public Pattern getPattern()
+    {
+        return PATTERN;
+    }
+
+    @Override
+    public Optional<PlanNode> apply(PlanNode node, Lookup lookup, PlanNodeIdAllocator idAllocator, SymbolAllocator symbolAllocator, Session session)
+    {
+        if (!(node instanceof JoinNode)) {
+            return Optional.empty();
+        }
+
+        JoinNode joinNode = (JoinNode) node;
+        if (joinNode.isCrossJoin()) {
+            // a cross join returns all the outputs of its children
+            return Optional.empty();
+        }
+
+        ImmutableSet.Builder<Symbol> requiredInputs = ImmutableSet.<Symbol>builder()
+                .addAll(joinNode.getOutputSymbols());
+        for (JoinNode.EquiJoinClause clause : joinNode.getCriteria()) {
+            requiredInputs.add(clause.getLeft());
+            requiredInputs.add(clause.getRight());
+        }
+        joinNode.getFilter().ifPresent(filter -> requiredInputs.addAll(DependencyExtractor.extractUnique(filter)));
+        joinNode.getLeftHashSymbol().ifPresent(requiredInputs::add);
+        joinNode.getRightHashSymbol().ifPresent(requiredInputs::add);
+        Set<Symbol> globallyUsableInputs = requiredInputs.build();
+
+        // the symbols of the two sides are disjoint, so the same set restricts both of them
+        return restrictChildOutputs(idAllocator, joinNode, globallyUsableInputs, globallyUsableInputs);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.iterative.rule;
+
+import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.plan.MarkDistinctNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.sql.planner.iterative.rule.Util.restrictChildOutputs;
+
+public class PruneMarkDistinctColumns
+        extends ProjectOffPushDownRule<MarkDistinctNode>
+{
+    public PruneMarkDistinctColumns()
+    {
+        super(MarkDistinctNode.class);
+    }
+
+    @Override
+    protected Optional<PlanNode> pushDownProjectOff(PlanNodeIdAllocator idAllocator, MarkDistinctNode markDistinctNode, Set<Symbol> referencedOutputs)
+    {
+        if (!referencedOutputs.contains(markDistinctNode.getMarkerSymbol())) {
+            return Optional.of(markDistinctNode.getSource());
+        }
+
+        ImmutableSet.Builder<Symbol> requiredInputs = ImmutableSet.<Symbol>builder()
+                .addAll(referencedOutputs)
+                .addAll(markDistinctNode.getDistinctSymbols());
+        markDistinctNode.getHashSymbol().ifPresent(requiredInputs::add);
+
+        return restrictChildOutputs(idAllocator, markDistinctNode, requiredInputs.build());
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.iterative.rule;
+
+import com.facebook.presto.sql.planner.DependencyExtractor;
+import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.WindowNode;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.sql.planner.iterative.rule.Util.restrictOutputs;
+
+public class PruneWindowColumns
+        extends ProjectOffPushDownRule<WindowNode>
+{
+    public PruneWindowColumns()
+    {
+        super(WindowNode.class);
+    }
+
+    @Override
+    protected Optional<PlanNode> pushDownProjectOff(PlanNodeIdAllocator idAllocator, WindowNode windowNode, Set<Symbol> referencedOutputs)
+    {
+        Map<Symbol, WindowNode.Function> referencedFunctions = Maps.filterKeys(
+                windowNode.getWindowFunctions(),
+                referencedOutputs::contains);
+
+        if (referencedFunctions.isEmpty()) {
+            return Optional.of(windowNode.getSource());
+        }
+
+        ImmutableSet.Builder<Symbol> referencedInputs = ImmutableSet.<Symbol>builder()
+                .addAll(referencedOutputs)
+                .addAll(windowNode.getPartitionBy())
+                .addAll(windowNode.getOrderBy());
+        windowNode.getHashSymbol().ifPresent(referencedInputs::add);
+        for (WindowNode.Function function : referencedFunctions.values()) {
+            referencedInputs.addAll(DependencyExtractor.extractUnique(function.getFunctionCall()));
+            function.getFrame().getStartValue().ifPresent(referencedInputs::add);
+            function.getFrame().getEndValue().ifPresent(referencedInputs::add);
+        }
+
+        PlanNode prunedSource = restrictOutputs(idAllocator, windowNode.getSource(), referencedInputs.build())
+                .orElse(windowNode.getSource());
+
+        if (prunedSource == windowNode.getSource() && referencedFunctions.size() == windowNode.getWindowFunctions().size()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(
+                new WindowNode(
+                        windowNode.getId(),
+                        prunedSource,
+                        windowNode.getSpecification(),
+                        referencedFunctions,
+                        windowNode.getHashSymbol(),
+                        windowNode.getPrePartitionedInputs(),
+                        windowNode.getPreSortedOrderPrefix()));
+    }
+}
@@ -18,6 +18,7 @@ import com.facebook.presto.metadata.FunctionRegistry;
 import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
 import com.facebook.presto.sql.planner.SymbolAllocator;
 import com.facebook.presto.sql.planner.iterative.Lookup;
+import com.facebook.presto.sql.planner.iterative.Pattern;
 import com.facebook.presto.sql.planner.iterative.Rule;
 import com.facebook.presto.sql.planner.optimizations.ScalarAggregationToJoinRewriter;
 import com.facebook.presto.sql.planner.plan.AggregationNode;
@@ -36,6 +37,8 @@ import static java.util.Objects.requireNonNull;
 public class TransformCorrelatedScalarAggregationToJoin
         implements Rule
 {
+    private static final Pattern PATTERN = Pattern.node(ApplyNode.class);
+
     private final FunctionRegistry functionRegistry;
 
     public TransformCorrelatedScalarAggregationToJoin(FunctionRegistry functionRegistry)
@@ -43,6 +46,12 @@ public class TransformCorrelatedScalarAggregationToJoin
         this.functionRegistry = requireNonNull(functionRegistry, "functionRegistry is null");
     }
 
+    @Override
+    public Pattern getPattern()
+    {
+        return PATTERN;
+    }
+
     @Override
     public Optional<PlanNode> apply(PlanNode node, Lookup lookup, PlanNodeIdAllocator idAllocator, SymbolAllocator symbolAllocator, Session session)
     {
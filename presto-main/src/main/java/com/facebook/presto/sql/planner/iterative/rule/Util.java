@@ -14,8 +14,11 @@
 package com.facebook.presto.sql.planner.iterative.rule;
 
 import com.facebook.presto.sql.planner.DependencyExtractor;
+import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
 import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.plan.Assignments;
 import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.ProjectNode;
 import com.facebook.presto.sql.tree.Expression;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
@@ -26,6 +29,9 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
 class Util
 {
     private Util()
@@ -62,4 +68,55 @@ class Util
                 parent.replaceChildren(
                         child.getSources())));
     }
+
+    /**
+     * Restricts the outputs of the node to the permitted ones, by adding an identity projection on top of it.
+     *
+     * If all outputs are permitted, return Optional.empty() to indicate that no pruning is necessary.
+     */
+    public static Optional<PlanNode> restrictOutputs(PlanNodeIdAllocator idAllocator, PlanNode node, Set<Symbol> permittedOutputs)
+    {
+        List<Symbol> restrictedOutputs = node.getOutputSymbols().stream()
+                .filter(permittedOutputs::contains)
+                .collect(toImmutableList());
+
+        if (restrictedOutputs.size() == node.getOutputSymbols().size()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(
+                new ProjectNode(
+                        idAllocator.getNextId(),
+                        node,
+                        Assignments.identity(restrictedOutputs)));
+    }
+
+    /**
+     * Restricts the outputs of each child of the node to the corresponding set of permitted outputs.
+     *
+     * If no child has outputs to prune, return Optional.empty() to indicate that no pruning is necessary.
+     */
+    @SafeVarargs
+    public static Optional<PlanNode> restrictChildOutputs(PlanNodeIdAllocator idAllocator, PlanNode node, Set<Symbol>... permittedChildOutputs)
+    {
+        checkArgument(
+                node.getSources().size() == permittedChildOutputs.length,
+                "Mismatched child (%s) and permitted outputs (%s) sizes",
+                node.getSources().size(),
+                permittedChildOutputs.length);
+
+        ImmutableList.Builder<PlanNode> newChildren = ImmutableList.builder();
+        boolean rewroteChildren = false;
+        for (int i = 0; i < permittedChildOutputs.length; i++) {
+            PlanNode oldChild = node.getSources().get(i);
+            Optional<PlanNode> newChild = restrictOutputs(idAllocator, oldChild, permittedChildOutputs[i]);
+            rewroteChildren |= newChild.isPresent();
+            newChildren.add(newChild.orElse(oldChild));
+        }
+
+        if (!rewroteChildren) {
+            return Optional.empty();
+        }
+        return Optional.of(node.replaceChildren(newChildren.build()));
+    }
 }
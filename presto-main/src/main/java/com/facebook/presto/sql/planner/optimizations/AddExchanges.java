@@ -16,15 +16,20 @@ package com.facebook.presto.sql.planner.optimizations;
 import com.facebook.presto.Session;
 import com.facebook.presto.SystemSessionProperties;
 import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.metadata.TableHandle;
 import com.facebook.presto.metadata.TableLayoutResult;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.Constraint;
 import com.facebook.presto.spi.GroupingProperty;
 import com.facebook.presto.spi.LocalProperty;
+import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.SortingProperty;
 import com.facebook.presto.spi.predicate.NullableValue;
 import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.statistics.ColumnStatistics;
+import com.facebook.presto.spi.statistics.TableStatistics;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.VarcharType;
 import com.facebook.presto.sql.parser.SqlParser;
 import com.facebook.presto.sql.planner.DependencyExtractor;
 import com.facebook.presto.sql.planner.DomainTranslator;
@@ -33,6 +38,7 @@ import com.facebook.presto.sql.planner.LookupSymbolResolver;
 import com.facebook.presto.sql.planner.Partitioning;
 import com.facebook.presto.sql.planner.PartitioningScheme;
 import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
+import com.facebook.presto.sql.planner.SkewedKeys;
 import com.facebook.presto.sql.planner.Symbol;
 import com.facebook.presto.sql.planner.SymbolAllocator;
 import com.facebook.presto.sql.planner.plan.AggregationNode;
@@ -97,7 +103,11 @@ import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import static com.facebook.presto.SystemSessionProperties.getSkewedJoinKeys;
+import static com.facebook.presto.SystemSessionProperties.getSkewedJoinNullFraction;
 import static com.facebook.presto.SystemSessionProperties.isColocatedJoinEnabled;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
 import static com.facebook.presto.sql.ExpressionUtils.combineConjuncts;
 import static com.facebook.presto.sql.ExpressionUtils.extractConjuncts;
 import static com.facebook.presto.sql.ExpressionUtils.stripDeterministicConjuncts;
@@ -108,6 +118,7 @@ import static com.facebook.presto.sql.planner.FragmentTableScanCounter.hasMultip
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_ARBITRARY_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
+import static com.facebook.presto.sql.planner.optimizations.ActualProperties.Global.arbitraryPartition;
 import static com.facebook.presto.sql.planner.optimizations.ActualProperties.Global.partitionedOn;
 import static com.facebook.presto.sql.planner.optimizations.ActualProperties.Global.singleStreamPartition;
 import static com.facebook.presto.sql.planner.optimizations.LocalProperties.grouped;
@@ -117,14 +128,18 @@ import static com.facebook.presto.sql.planner.plan.ExchangeNode.Type.REPARTITION
 import static com.facebook.presto.sql.planner.plan.ExchangeNode.gatheringExchange;
 import static com.facebook.presto.sql.planner.plan.ExchangeNode.partitionedExchange;
 import static com.facebook.presto.sql.planner.plan.ExchangeNode.replicatedExchange;
+import static com.facebook.presto.sql.planner.plan.JoinNode.Type.INNER;
+import static com.facebook.presto.sql.planner.plan.JoinNode.Type.LEFT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static io.airlift.slice.Slices.utf8Slice;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
+import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 
@@ -762,6 +777,7 @@ public class AddExchanges
 
             PlanWithProperties left;
             PlanWithProperties right;
+            Optional<List<NullableValue>> skewedKeyValues = Optional.empty();
 
             JoinNode.DistributionType distributionType = node.getDistributionType().orElseThrow(() -> new IllegalArgumentException("distributionType not yet set"));
             if (distributionType == JoinNode.DistributionType.PARTITIONED) {
@@ -789,11 +805,12 @@ public class AddExchanges
                                 left.getProperties());
                     }
                     else {
+                        skewedKeyValues = getSkewedJoinKeyValues(node);
                         left = withDerivedProperties(
-                                partitionedExchange(idAllocator.getNextId(), REMOTE, left.getNode(), leftSymbols, Optional.empty()),
+                                partitionedExchange(idAllocator.getNextId(), REMOTE, left.getNode(), createJoinPartitioningScheme(left.getNode(), leftSymbols, skewedKeyValues, false)),
                                 left.getProperties());
                         right = withDerivedProperties(
-                                partitionedExchange(idAllocator.getNextId(), REMOTE, right.getNode(), rightSymbols, Optional.empty()),
+                                partitionedExchange(idAllocator.getNextId(), REMOTE, right.getNode(), createJoinPartitioningScheme(right.getNode(), rightSymbols, skewedKeyValues, true)),
                                 right.getProperties());
                     }
                 }
@@ -837,9 +854,129 @@ public class AddExchanges
                     node.getFilter(),
                     node.getLeftHashSymbol(),
                     node.getRightHashSymbol(),
-                    node.getDistributionType());
+                    node.getDistributionType(),
+                    node.getMergeJoinSortOrders());
+
+            ActualProperties properties = deriveProperties(result, ImmutableList.of(left.getProperties(), right.getProperties()));
+            if (skewedKeyValues.isPresent()) {
+                // rows with a skewed key are spread over all partitions, so the output is no longer partitioned on the join keys
+                properties = ActualProperties.builderFrom(properties)
+                        .global(arbitraryPartition())
+                        .build();
+            }
+            return new PlanWithProperties(result, properties);
+        }
+
+        private Optional<List<NullableValue>> getSkewedJoinKeyValues(JoinNode node)
+        {
+            // replicated build rows would produce duplicate unmatched rows for RIGHT and FULL joins
+            if (node.getCriteria().size() != 1 || (node.getType() != INNER && node.getType() != LEFT)) {
+                return Optional.empty();
+            }
+
+            JoinNode.EquiJoinClause clause = getOnlyElement(node.getCriteria());
+            Optional<ScannedColumn> probeColumn = findScannedColumn(node.getLeft(), clause.getLeft());
+            List<NullableValue> values = probeColumn
+                    .map(column -> getSkewedJoinKeyValues(column, types.get(clause.getLeft())))
+                    .orElse(ImmutableList.of());
+            if (!values.isEmpty() || hasSkewedNulls(probeColumn) || hasSkewedNulls(findScannedColumn(node.getRight(), clause.getRight()))) {
+                return Optional.of(values);
+            }
+            return Optional.empty();
+        }
+
+        private List<NullableValue> getSkewedJoinKeyValues(ScannedColumn column, Type type)
+        {
+            List<String> skewedJoinKeys = getSkewedJoinKeys(session);
+            if (skewedJoinKeys.isEmpty()) {
+                return ImmutableList.of();
+            }
+
+            SchemaTableName tableName = metadata.getTableMetadata(session, column.getTable()).getTable();
+            String columnName = tableName.getTableName() + "." + metadata.getColumnMetadata(session, column.getTable(), column.getColumn()).getName();
+            String qualifiedColumnName = tableName.getSchemaName() + "." + columnName;
+            ImmutableList.Builder<NullableValue> values = ImmutableList.builder();
+            for (String key : skewedJoinKeys) {
+                // entries are [schema.]table.column=value
+                int separator = key.indexOf('=');
+                if (separator < 0) {
+                    continue;
+                }
+                String name = key.substring(0, separator).trim().toLowerCase(ENGLISH);
+                if (name.equals(columnName) || name.equals(qualifiedColumnName)) {
+                    parseSkewedJoinKey(type, key.substring(separator + 1).trim()).ifPresent(values::add);
+                }
+            }
+            return values.build();
+        }
+
+        private boolean hasSkewedNulls(Optional<ScannedColumn> column)
+        {
+            double threshold = getSkewedJoinNullFraction(session);
+            if (!column.isPresent() || threshold >= 1) {
+                return false;
+            }
+
+            TableScanNode scan = column.get().getScan();
+            TableStatistics statistics = metadata.getTableStatistics(session, scan.getTable(), new Constraint<>(scan.getCurrentConstraint(), bindings -> true));
+            ColumnStatistics columnStatistics = statistics.getColumnStatistics().get(column.get().getColumn());
+            if (columnStatistics == null || columnStatistics.getNullsCount().isValueUnknown() || statistics.getRowCount().isValueUnknown() || statistics.getRowCount().getValue() == 0) {
+                return false;
+            }
+            return columnStatistics.getNullsCount().getValue() / statistics.getRowCount().getValue() > threshold;
+        }
+
+        /**
+         * Follows the symbol through filters and identity projections down to the table column it is read from.
+         */
+        private Optional<ScannedColumn> findScannedColumn(PlanNode node, Symbol symbol)
+        {
+            if (node instanceof TableScanNode) {
+                TableScanNode scan = (TableScanNode) node;
+                return Optional.ofNullable(scan.getAssignments().get(symbol))
+                        .map(column -> new ScannedColumn(scan, column));
+            }
+            if (node instanceof FilterNode) {
+                return findScannedColumn(((FilterNode) node).getSource(), symbol);
+            }
+            if (node instanceof ProjectNode) {
+                Expression expression = ((ProjectNode) node).getAssignments().get(symbol);
+                if (expression instanceof SymbolReference) {
+                    return findScannedColumn(((ProjectNode) node).getSource(), Symbol.from(expression));
+                }
+            }
+            return Optional.empty();
+        }
+
+        private Optional<NullableValue> parseSkewedJoinKey(Type type, String key)
+        {
+            try {
+                if (type.equals(BIGINT)) {
+                    return Optional.of(NullableValue.of(type, Long.parseLong(key)));
+                }
+                if (type.equals(INTEGER)) {
+                    return Optional.of(NullableValue.of(type, (long) Integer.parseInt(key)));
+                }
+            }
+            catch (NumberFormatException e) {
+                // a value that does not fit the key type can not be skewed
+                return Optional.empty();
+            }
+            if (type instanceof VarcharType) {
+                return Optional.of(NullableValue.of(type, utf8Slice(key)));
+            }
+            return Optional.empty();
+        }
 
-            return new PlanWithProperties(result, deriveProperties(result, ImmutableList.of(left.getProperties(), right.getProperties())));
+        private PartitioningScheme createJoinPartitioningScheme(PlanNode source, List<Symbol> partitioningColumns, Optional<List<NullableValue>> skewedKeyValues, boolean replicated)
+        {
+            return new PartitioningScheme(
+                    Partitioning.create(FIXED_HASH_DISTRIBUTION, partitioningColumns),
+                    source.getOutputSymbols(),
+                    Optional.empty(),
+                    false,
+                    Optional.empty(),
+                    skewedKeyValues.map(values -> new SkewedKeys(values, replicated)));
         }
 
         @Override
@@ -876,6 +1013,7 @@ public class AddExchanges
                                         filteringSource.getNode().getOutputSymbols(),
                                         Optional.empty(),
                                         true,
+                                        Optional.empty(),
                                         Optional.empty())),
                                 filteringSource.getProperties());
                     }
@@ -910,6 +1048,7 @@ public class AddExchanges
                                     filteringSource.getNode().getOutputSymbols(),
                                     Optional.empty(),
                                     true,
+                                    Optional.empty(),
                                     Optional.empty())),
                             filteringSource.getProperties());
                 }
@@ -1074,6 +1213,7 @@ public class AddExchanges
                                                 source.getNode().getOutputSymbols(),
                                                 Optional.empty(),
                                                 nullsAndAnyReplicated,
+                                                Optional.empty(),
                                                 Optional.empty())),
                                 source.getProperties());
                     }
@@ -1349,6 +1489,33 @@ public class AddExchanges
     }
 
     @VisibleForTesting
+    private static class ScannedColumn
+    {
+        private final TableScanNode scan;
+        private final ColumnHandle column;
+
+        public ScannedColumn(TableScanNode scan, ColumnHandle column)
+        {
+            this.scan = requireNonNull(scan, "scan is null");
+            this.column = requireNonNull(column, "column is null");
+        }
+
+        public TableScanNode getScan()
+        {
+            return scan;
+        }
+
+        public TableHandle getTable()
+        {
+            return scan.getTable();
+        }
+
+        public ColumnHandle getColumn()
+        {
+            return column;
+        }
+    }
+
     static class PlanWithProperties
     {
         private final PlanNode node;
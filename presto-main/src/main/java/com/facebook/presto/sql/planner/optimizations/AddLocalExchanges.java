@@ -15,6 +15,7 @@ package com.facebook.presto.sql.planner.optimizations;
 
 import com.facebook.presto.Session;
 import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.spi.ConstantProperty;
 import com.facebook.presto.spi.GroupingProperty;
 import com.facebook.presto.spi.LocalProperty;
 import com.facebook.presto.spi.SortingProperty;
@@ -54,6 +55,7 @@ import com.google.common.collect.Lists;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -62,9 +64,12 @@ import java.util.Set;
 
 import static com.facebook.presto.SystemSessionProperties.getTaskConcurrency;
 import static com.facebook.presto.SystemSessionProperties.getTaskWriterCount;
+import static com.facebook.presto.SystemSessionProperties.isMergeJoinEnabled;
+import static com.facebook.presto.SystemSessionProperties.isSpillEnabled;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_ARBITRARY_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
+import static com.facebook.presto.sql.planner.optimizations.MergeJoins.getMergeJoinClauses;
 import static com.facebook.presto.sql.planner.optimizations.StreamPreferredProperties.any;
 import static com.facebook.presto.sql.planner.optimizations.StreamPreferredProperties.defaultParallelism;
 import static com.facebook.presto.sql.planner.optimizations.StreamPreferredProperties.exactlyPartitionedOn;
@@ -109,6 +114,7 @@ public class AddLocalExchanges
         private final PlanNodeIdAllocator idAllocator;
         private final Session session;
         private final Map<Symbol, Type> types;
+        private final Map<PlanNode, StreamProperties> derivedProperties = new IdentityHashMap<>();
 
         public Rewriter(SymbolAllocator symbolAllocator, PlanNodeIdAllocator idAllocator, Session session)
         {
@@ -309,7 +315,17 @@ public class AddLocalExchanges
         {
             // mark distinct requires that all data partitioned
             StreamPreferredProperties requiredProperties = parentPreferences.withDefaultParallelism(session).withPartitioning(node.getDistinctSymbols());
-            return planAndEnforceChildren(node, requiredProperties, requiredProperties);
+            PlanWithProperties child = planAndEnforce(node.getSource(), requiredProperties, requiredProperties);
+
+            MarkDistinctNode result = new MarkDistinctNode(
+                    node.getId(),
+                    child.getNode(),
+                    node.getMarkerSymbol(),
+                    node.getDistinctSymbols(),
+                    node.getHashSymbol(),
+                    isSpillEnabled(session) && isUnordered(child.getProperties()));
+
+            return deriveProperties(result, child.getProperties());
         }
 
         @Override
@@ -432,6 +448,34 @@ public class AddLocalExchanges
         @Override
         public PlanWithProperties visitJoin(JoinNode node, StreamPreferredProperties parentPreferences)
         {
+            if (isMergeJoinEnabled(session) && getMergeJoinClauses(node, derivePropertiesRecursively(node.getLeft()), derivePropertiesRecursively(node.getRight())).isPresent()) {
+                // both inputs are already sorted on the join keys, so keep each of them in a single
+                // ordered stream and let the join be executed by merging them
+                PlanWithProperties probe = planAndEnforce(node.getLeft(), singleStream().withOrderSensitivity(), singleStream().withOrderSensitivity());
+                PlanWithProperties build = planAndEnforce(node.getRight(), singleStream().withOrderSensitivity(), singleStream().withOrderSensitivity());
+                Optional<List<SortingProperty<JoinNode.EquiJoinClause>>> mergeJoinClauses = getMergeJoinClauses(node, probe.getProperties(), build.getProperties());
+                if (mergeJoinClauses.isPresent()) {
+                    // record the decision, so the local execution planner does not need to derive it again
+                    JoinNode mergeJoin = new JoinNode(
+                            node.getId(),
+                            node.getType(),
+                            probe.getNode(),
+                            build.getNode(),
+                            mergeJoinClauses.get().stream()
+                                    .map(SortingProperty::getColumn)
+                                    .collect(toImmutableList()),
+                            node.getOutputSymbols(),
+                            node.getFilter(),
+                            node.getLeftHashSymbol(),
+                            node.getRightHashSymbol(),
+                            node.getDistributionType(),
+                            Optional.of(mergeJoinClauses.get().stream()
+                                    .map(SortingProperty::getOrder)
+                                    .collect(toImmutableList())));
+                    return deriveProperties(mergeJoin, ImmutableList.of(probe.getProperties(), build.getProperties()));
+                }
+            }
+
             PlanWithProperties probe = planAndEnforce(
                     node.getLeft(),
                     defaultParallelism(session),
@@ -462,7 +506,19 @@ public class AddLocalExchanges
             // this filter source consumes the input completely, so we do not pass through parent preferences
             PlanWithProperties filteringSource = planAndEnforce(node.getFilteringSource(), singleStream(), singleStream());
 
-            return rebaseAndDeriveProperties(node, ImmutableList.of(source, filteringSource));
+            SemiJoinNode result = new SemiJoinNode(
+                    node.getId(),
+                    source.getNode(),
+                    filteringSource.getNode(),
+                    node.getSourceJoinSymbol(),
+                    node.getFilteringSourceJoinSymbol(),
+                    node.getSemiJoinOutput(),
+                    node.getSourceHashSymbol(),
+                    node.getFilteringSourceHashSymbol(),
+                    node.getDistributionType(),
+                    isSpillEnabled(session) && isUnordered(source.getProperties()));
+
+            return deriveProperties(result, ImmutableList.of(source.getProperties(), filteringSource.getProperties()));
         }
 
         @Override
@@ -557,6 +613,14 @@ public class AddLocalExchanges
             return deriveProperties(exchangeNode, planWithProperties.getProperties());
         }
 
+        private boolean isUnordered(StreamProperties properties)
+        {
+            // spilling operators output their rows grouped by spill partition, which is only
+            // allowed when no ordering or grouping of the rows could be relied on above them
+            return !properties.isOrdered() && properties.getLocalProperties().stream()
+                    .allMatch(ConstantProperty.class::isInstance);
+        }
+
         private PlanWithProperties rebaseAndDeriveProperties(PlanNode node, List<PlanWithProperties> children)
         {
             PlanNode result = replaceChildren(
@@ -584,10 +648,17 @@ public class AddLocalExchanges
 
         private StreamProperties derivePropertiesRecursively(PlanNode node)
         {
-            List<StreamProperties> inputProperties = node.getSources().stream()
-                    .map(this::derivePropertiesRecursively)
-                    .collect(toImmutableList());
-            return StreamPropertyDerivations.deriveProperties(node, inputProperties, metadata, session, types, parser);
+            // every join consults the properties of its whole subtree, so remember them
+            // to keep planning of deeply nested joins linear in the size of the plan
+            StreamProperties properties = derivedProperties.get(node);
+            if (properties == null) {
+                List<StreamProperties> inputProperties = node.getSources().stream()
+                        .map(this::derivePropertiesRecursively)
+                        .collect(toImmutableList());
+                properties = StreamPropertyDerivations.deriveProperties(node, inputProperties, metadata, session, types, parser);
+                derivedProperties.put(node, properties);
+            }
+            return properties;
         }
     }
 
@@ -85,7 +85,8 @@ public class CanonicalizeExpressions
                             Optional.of(canonicalizedExpression),
                             node.getLeftHashSymbol(),
                             node.getRightHashSymbol(),
-                            node.getDistributionType());
+                            node.getDistributionType(),
+                            node.getMergeJoinSortOrders());
                 }
             }
 
@@ -73,7 +73,8 @@ public class DetermineJoinDistributionType
                     node.getFilter(),
                     node.getLeftHashSymbol(),
                     node.getRightHashSymbol(),
-                    Optional.of(targetJoinDistributionType));
+                    Optional.of(targetJoinDistributionType),
+                    Optional.empty());
         }
 
         @Override
@@ -91,7 +92,8 @@ public class DetermineJoinDistributionType
                     node.getSemiJoinOutput(),
                     node.getSourceHashSymbol(),
                     node.getFilteringSourceHashSymbol(),
-                    Optional.of(targetJoinDistributionType));
+                    Optional.of(targetJoinDistributionType),
+                    node.isSpillable());
         }
 
         @Override
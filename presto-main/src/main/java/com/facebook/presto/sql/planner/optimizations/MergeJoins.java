@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.spi.LocalProperty;
+import com.facebook.presto.spi.SortingProperty;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.optimizations.StreamPropertyDerivations.StreamProperties;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.google.common.collect.ImmutableList;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.sql.planner.plan.JoinNode.Type.INNER;
+import static com.facebook.presto.sql.planner.plan.JoinNode.Type.LEFT;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+/**
+ * Decides whether a join can be executed by merging its inputs instead of building a hash table.
+ * This is the case when both sides are a single stream sorted on the join keys in the same order.
+ * <p>
+ * Tables stored sorted by a connector do not qualify: each split is read by a driver of its own
+ * and the splits of a task are not read in key order, so the scan is not a single ordered stream.
+ */
+final class MergeJoins
+{
+    private MergeJoins() {}
+
+    /**
+     * Returns the join clauses in the order both inputs are sorted on, each paired with
+     * the sort order of its keys, or empty if the inputs are not suitable for a merge join.
+     */
+    static Optional<List<SortingProperty<JoinNode.EquiJoinClause>>> getMergeJoinClauses(JoinNode node, StreamProperties leftProperties, StreamProperties rightProperties)
+    {
+        if (!isMergeJoinCandidate(node) || !leftProperties.isOrdered() || !rightProperties.isOrdered()) {
+            return Optional.empty();
+        }
+
+        Map<Symbol, JoinNode.EquiJoinClause> clausesByLeftSymbol = new HashMap<>();
+        for (JoinNode.EquiJoinClause clause : node.getCriteria()) {
+            if (clausesByLeftSymbol.put(clause.getLeft(), clause) != null) {
+                return Optional.empty();
+            }
+        }
+
+        // the probe side determines the key order, the build side must be sorted the same way
+        ImmutableList.Builder<SortingProperty<JoinNode.EquiJoinClause>> clauses = ImmutableList.builder();
+        for (LocalProperty<Symbol> property : LocalProperties.normalizeAndPrune(leftProperties.getLocalProperties())) {
+            if (clausesByLeftSymbol.isEmpty()) {
+                break;
+            }
+            if (!(property instanceof SortingProperty)) {
+                return Optional.empty();
+            }
+            SortingProperty<Symbol> sortingProperty = (SortingProperty<Symbol>) property;
+            JoinNode.EquiJoinClause clause = clausesByLeftSymbol.remove(sortingProperty.getColumn());
+            if (clause == null) {
+                return Optional.empty();
+            }
+            clauses.add(new SortingProperty<>(clause, sortingProperty.getOrder()));
+        }
+        if (!clausesByLeftSymbol.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<SortingProperty<JoinNode.EquiJoinClause>> result = clauses.build();
+        List<LocalProperty<Symbol>> desiredRightProperties = result.stream()
+                .<LocalProperty<Symbol>>map(clause -> new SortingProperty<>(clause.getColumn().getRight(), clause.getOrder()))
+                .collect(toImmutableList());
+        if (LocalProperties.match(rightProperties.getLocalProperties(), desiredRightProperties).stream().anyMatch(Optional::isPresent)) {
+            return Optional.empty();
+        }
+        return Optional.of(result);
+    }
+
+    private static boolean isMergeJoinCandidate(JoinNode node)
+    {
+        return (node.getType() == INNER || node.getType() == LEFT) &&
+                !node.getCriteria().isEmpty() &&
+                !node.getFilter().isPresent();
+    }
+}
@@ -176,6 +176,11 @@ public class PartialAggregationPushDown
                 return context.defaultRewrite(node);
             }
 
+            if (child.getMergeJoinSortOrders().isPresent()) {
+                // an aggregation below a merge join would not preserve the order of its input
+                return context.defaultRewrite(node);
+            }
+
             // TODO: leave partial aggregation above Join?
             if (allAggregationsOn(node.getAggregations(), child.getLeft().getOutputSymbols())) {
                 return pushPartialToLeftChild(node, child, context);
@@ -222,7 +227,8 @@ public class PartialAggregationPushDown
                     child.getFilter(),
                     child.getLeftHashSymbol(),
                     child.getRightHashSymbol(),
-                    child.getDistributionType());
+                    child.getDistributionType(),
+                    child.getMergeJoinSortOrders());
         }
 
         private AggregationNode replaceAggregationSource(
@@ -327,7 +333,8 @@ public class PartialAggregationPushDown
                     partial.getOutputSymbols(),
                     exchange.getPartitioningScheme().getHashColumn(),
                     exchange.getPartitioningScheme().isReplicateNullsAndAny(),
-                    exchange.getPartitioningScheme().getBucketToPartition());
+                    exchange.getPartitioningScheme().getBucketToPartition(),
+                    exchange.getPartitioningScheme().getSkewedKeys());
 
             return new ExchangeNode(
                     idAllocator.getNextId(),
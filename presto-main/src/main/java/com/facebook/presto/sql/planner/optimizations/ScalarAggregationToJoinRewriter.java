@@ -129,6 +129,7 @@ public class ScalarAggregationToJoinRewriter
                 joinExpression,
                 Optional.empty(),
                 Optional.empty(),
+                Optional.empty(),
                 Optional.empty());
 
         Optional<AggregationNode> aggregationNode = createAggregationNode(
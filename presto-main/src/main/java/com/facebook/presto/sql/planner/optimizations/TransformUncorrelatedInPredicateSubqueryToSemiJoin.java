@@ -106,7 +106,8 @@ public class TransformUncorrelatedInPredicateSubqueryToSemiJoin
                     semiJoinSymbol,
                     Optional.empty(),
                     Optional.empty(),
-                    Optional.empty()
+                    Optional.empty(),
+                    false
             );
         }
     }
@@ -66,6 +66,7 @@ public class TransformUncorrelatedScalarToJoin
                         Optional.empty(),
                         Optional.empty(),
                         Optional.empty(),
+                        Optional.empty(),
                         Optional.empty());
             }
             return rewrittenNode;
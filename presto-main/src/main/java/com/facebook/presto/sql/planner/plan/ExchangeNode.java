@@ -113,6 +113,7 @@ public class ExchangeNode
                         child.getOutputSymbols(),
                         hashColumns,
                         replicateNullsAndAny,
+                        Optional.empty(),
                         Optional.empty()));
     }
 
@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.sql.planner.plan;
 
+import com.facebook.presto.spi.block.SortOrder;
+import com.facebook.presto.sql.planner.SortExpressionExtractor.SortExpressionContext;
 import com.facebook.presto.sql.planner.Symbol;
 import com.facebook.presto.sql.tree.Expression;
 import com.facebook.presto.sql.tree.Join;
@@ -28,7 +30,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
 
-import static com.facebook.presto.sql.planner.SortExpressionExtractor.extractSortExpression;
+import static com.facebook.presto.sql.planner.SortExpressionExtractor.extractSortExpressionContext;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.INNER;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
@@ -53,6 +55,11 @@ public class JoinNode
     private final Optional<Symbol> leftHashSymbol;
     private final Optional<Symbol> rightHashSymbol;
     private final Optional<DistributionType> distributionType;
+    /**
+     * Present if the join is executed by merging its inputs, which are both
+     * sorted on the criteria in the listed orders (one per criterion).
+     */
+    private final Optional<List<SortOrder>> mergeJoinSortOrders;
 
     @JsonCreator
     public JoinNode(@JsonProperty("id") PlanNodeId id,
@@ -64,7 +71,8 @@ public class JoinNode
             @JsonProperty("filter") Optional<Expression> filter,
             @JsonProperty("leftHashSymbol") Optional<Symbol> leftHashSymbol,
             @JsonProperty("rightHashSymbol") Optional<Symbol> rightHashSymbol,
-            @JsonProperty("distributionType") Optional<DistributionType> distributionType)
+            @JsonProperty("distributionType") Optional<DistributionType> distributionType,
+            @JsonProperty("mergeJoinSortOrders") Optional<List<SortOrder>> mergeJoinSortOrders)
     {
         super(id);
         requireNonNull(type, "type is null");
@@ -76,6 +84,7 @@ public class JoinNode
         requireNonNull(leftHashSymbol, "leftHashSymbol is null");
         requireNonNull(rightHashSymbol, "rightHashSymbol is null");
         requireNonNull(distributionType, "distributionType is null");
+        requireNonNull(mergeJoinSortOrders, "mergeJoinSortOrders is null");
 
         this.type = type;
         this.left = left;
@@ -86,6 +95,7 @@ public class JoinNode
         this.leftHashSymbol = leftHashSymbol;
         this.rightHashSymbol = rightHashSymbol;
         this.distributionType = distributionType;
+        this.mergeJoinSortOrders = mergeJoinSortOrders.map(ImmutableList::copyOf);
 
         List<Symbol> inputSymbols = ImmutableList.<Symbol>builder()
                 .addAll(left.getOutputSymbols())
@@ -93,6 +103,7 @@ public class JoinNode
                 .build();
         checkArgument(inputSymbols.containsAll(outputSymbols), "Left and right join inputs do not contain all output symbols");
         checkArgument(!isCrossJoin() || inputSymbols.equals(outputSymbols), "Cross join does not support output symbols pruning or reordering");
+        checkArgument(!mergeJoinSortOrders.isPresent() || mergeJoinSortOrders.get().size() == criteria.size(), "Merge join requires a sort order for each criterion");
     }
 
     public enum DistributionType
@@ -172,7 +183,12 @@ public class JoinNode
 
     public Optional<Expression> getSortExpression()
     {
-        return filter.map(filter -> extractSortExpression(ImmutableSet.copyOf(right.getOutputSymbols()), filter).orElse(null));
+        return getSortExpressionContext().map(SortExpressionContext::getSortExpression);
+    }
+
+    public Optional<SortExpressionContext> getSortExpressionContext()
+    {
+        return filter.flatMap(filter -> extractSortExpressionContext(ImmutableSet.copyOf(right.getOutputSymbols()), filter));
     }
 
     @JsonProperty("leftHashSymbol")
@@ -206,6 +222,12 @@ public class JoinNode
         return distributionType;
     }
 
+    @JsonProperty("mergeJoinSortOrders")
+    public Optional<List<SortOrder>> getMergeJoinSortOrders()
+    {
+        return mergeJoinSortOrders;
+    }
+
     @Override
     public <R, C> R accept(PlanVisitor<R, C> visitor, C context)
     {
@@ -222,7 +244,7 @@ public class JoinNode
         List<Symbol> newOutputSymbols = Stream.concat(newLeft.getOutputSymbols().stream(), newRight.getOutputSymbols().stream())
                 .filter(outputSymbols::contains)
                 .collect(toImmutableList());
-        return new JoinNode(getId(), type, newLeft, newRight, criteria, newOutputSymbols, filter, leftHashSymbol, rightHashSymbol, distributionType);
+        return new JoinNode(getId(), type, newLeft, newRight, criteria, newOutputSymbols, filter, leftHashSymbol, rightHashSymbol, distributionType, mergeJoinSortOrders);
     }
 
     public boolean isCrossJoin()
@@ -35,19 +35,22 @@ public class MarkDistinctNode
 
     private final Optional<Symbol> hashSymbol;
     private final List<Symbol> distinctSymbols;
+    private final boolean spillable;
 
     @JsonCreator
     public MarkDistinctNode(@JsonProperty("id") PlanNodeId id,
             @JsonProperty("source") PlanNode source,
             @JsonProperty("markerSymbol") Symbol markerSymbol,
             @JsonProperty("distinctSymbols") List<Symbol> distinctSymbols,
-            @JsonProperty("hashSymbol") Optional<Symbol> hashSymbol)
+            @JsonProperty("hashSymbol") Optional<Symbol> hashSymbol,
+            @JsonProperty("spillable") boolean spillable)
     {
         super(id);
         this.source = source;
         this.markerSymbol = markerSymbol;
         this.hashSymbol = requireNonNull(hashSymbol, "hashSymbol is null");
         this.distinctSymbols = ImmutableList.copyOf(requireNonNull(distinctSymbols, "distinctSymbols is null"));
+        this.spillable = spillable;
     }
 
     @Override
@@ -89,6 +92,16 @@ public class MarkDistinctNode
         return hashSymbol;
     }
 
+    /**
+     * Whether the distinct values may be spilled. Spilling outputs the rows grouped by partition,
+     * so it is only allowed when the rows carry no ordering.
+     */
+    @JsonProperty
+    public boolean isSpillable()
+    {
+        return spillable;
+    }
+
     @Override
     public <R, C> R accept(PlanVisitor<R, C> visitor, C context)
     {
@@ -98,6 +111,6 @@ public class MarkDistinctNode
     @Override
     public PlanNode replaceChildren(List<PlanNode> newChildren)
     {
-        return new MarkDistinctNode(getId(), Iterables.getOnlyElement(newChildren), markerSymbol, distinctSymbols, hashSymbol);
+        return new MarkDistinctNode(getId(), Iterables.getOnlyElement(newChildren), markerSymbol, distinctSymbols, hashSymbol, spillable);
     }
 }
@@ -36,6 +36,7 @@ import com.facebook.presto.sql.FunctionInvoker;
 import com.facebook.presto.sql.planner.Partitioning;
 import com.facebook.presto.sql.planner.PartitioningScheme;
 import com.facebook.presto.sql.planner.PlanFragment;
+import com.facebook.presto.sql.planner.SkewedKeys;
 import com.facebook.presto.sql.planner.SubPlan;
 import com.facebook.presto.sql.planner.Symbol;
 import com.facebook.presto.sql.planner.iterative.GroupReference;
@@ -254,6 +255,18 @@ public class PlanPrinter
                     Joiner.on(", ").join(arguments),
                     formatHash(partitioningScheme.getHashColumn())));
         }
+        else if (partitioningScheme.getSkewedKeys().isPresent()) {
+            SkewedKeys skewedKeys = partitioningScheme.getSkewedKeys().get();
+            List<String> skewedValues = skewedKeys.getValues().stream()
+                    .map(value -> castToVarchar(value.getType(), value.getValue(), metadata, session))
+                    .collect(toImmutableList());
+            builder.append(format("Output partitioning: %s (%s skewed keys [%s]) [%s]%s\n",
+                    partitioningScheme.getPartitioning().getHandle(),
+                    skewedKeys.isReplicated() ? "replicate" : "spread",
+                    Joiner.on(", ").join(skewedValues),
+                    Joiner.on(", ").join(arguments),
+                    formatHash(partitioningScheme.getHashColumn())));
+        }
         else {
             builder.append(format("Output partitioning: %s [%s]%s\n",
                     partitioningScheme.getPartitioning().getHandle(),
@@ -495,6 +508,7 @@ public class PlanPrinter
             }
 
             node.getSortExpression().ifPresent(expression -> print(indent + 2, "SortExpression[%s]", expression));
+            node.getMergeJoinSortOrders().ifPresent(sortOrders -> print(indent + 2, "MergeJoin[%s]", Joiner.on(", ").join(sortOrders)));
             printCost(indent + 2, node);
             printStats(indent + 2, node.getId());
             node.getLeft().accept(this, indent + 1);
@@ -1045,10 +1059,13 @@ public class PlanPrinter
                         formatOutputs(node.getOutputSymbols()));
             }
             else {
-                print(indent, "- %sExchange[%s%s]%s => %s",
+                print(indent, "- %sExchange[%s%s%s]%s => %s",
                         UPPER_UNDERSCORE.to(CaseFormat.UPPER_CAMEL, node.getScope().toString()),
                         node.getType(),
                         node.getPartitioningScheme().isReplicateNullsAndAny() ? " - REPLICATE NULLS AND ANY" : "",
+                        node.getPartitioningScheme().getSkewedKeys()
+                                .map(skewedKeys -> skewedKeys.isReplicated() ? " - REPLICATE SKEWED KEYS" : " - SPREAD SKEWED KEYS")
+                                .orElse(""),
                         formatHash(node.getPartitioningScheme().getHashColumn()),
                         formatOutputs(node.getOutputSymbols()));
             }
@@ -16,6 +16,7 @@ package com.facebook.presto.execution;
 import com.facebook.presto.Session;
 import com.facebook.presto.execution.StateMachine.StateChangeListener;
 import com.facebook.presto.memory.VersionedMemoryPoolId;
+import com.facebook.presto.server.BasicQueryInfo;
 import com.facebook.presto.spi.QueryId;
 import com.facebook.presto.spi.memory.MemoryPoolId;
 import com.facebook.presto.spi.resourceGroups.ResourceGroupId;
@@ -24,10 +25,12 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.units.Duration;
+import org.joda.time.DateTime;
 
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.facebook.presto.SystemSessionProperties.QUERY_PRIORITY;
@@ -47,6 +50,7 @@ public class MockQueryExecution
     private final Duration cpuUsage;
     private final Session session;
     private final QueryId queryId;
+    private final DateTime createTime = DateTime.now();
     private QueryState state = QUEUED;
     private Throwable failureCause;
     private Optional<ResourceGroupId> resourceGroupId;
@@ -84,6 +88,18 @@ public class MockQueryExecution
         return queryId;
     }
 
+    @Override
+    public BasicQueryInfo getBasicQueryInfo()
+    {
+        return new BasicQueryInfo(getQueryInfo());
+    }
+
+    @Override
+    public Map<StageId, List<TaskInfo>> getSourceStageTaskInfos()
+    {
+        return ImmutableMap.of();
+    }
+
     @Override
     public QueryInfo getQueryInfo()
     {
@@ -161,6 +177,18 @@ public class MockQueryExecution
         return cpuUsage;
     }
 
+    @Override
+    public DateTime getCreateTime()
+    {
+        return createTime;
+    }
+
+    @Override
+    public DateTime getLastHeartbeat()
+    {
+        return createTime;
+    }
+
     @Override
     public Session getSession()
     {
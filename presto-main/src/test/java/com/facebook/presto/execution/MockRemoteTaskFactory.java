@@ -70,6 +70,7 @@ import static com.facebook.presto.OutputBuffers.BufferType.BROADCAST;
 import static com.facebook.presto.OutputBuffers.createInitialEmptyOutputBuffers;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.execution.StateMachine.StateChangeListener;
+import static com.facebook.presto.spi.ConnectorSplit.STANDARD_SPLIT_WEIGHT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SOURCE_DISTRIBUTION;
@@ -180,13 +181,14 @@ public class MockRemoteTaskFactory
                     TASK_INSTANCE_ID,
                     executor,
                     requireNonNull(new DataSize(1, BYTE), "maxBufferSize is null"),
-                    new UpdateSystemMemory(queryContext));
+                    new UpdateSystemMemory(queryContext),
+                    Optional.empty());
 
             this.fragment = requireNonNull(fragment, "fragment is null");
             this.nodeId = requireNonNull(nodeId, "nodeId is null");
             splits.putAll(initialSplits);
             this.partitionedSplitCountTracker = requireNonNull(partitionedSplitCountTracker, "partitionedSplitCountTracker is null");
-            partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+            updatePartitionedSplitCountTracker();
             updateSplitQueueSpace();
         }
 
@@ -211,7 +213,7 @@ public class MockRemoteTaskFactory
                 failures = toFailures(taskStateMachine.getFailureCauses());
             }
 
-            return new TaskInfo(new TaskStatus(taskStateMachine.getTaskId(), TASK_INSTANCE_ID, nextTaskInfoVersion.getAndIncrement(), state, location, failures, 0, 0, new DataSize(0, BYTE)),
+            return new TaskInfo(new TaskStatus(taskStateMachine.getTaskId(), TASK_INSTANCE_ID, nextTaskInfoVersion.getAndIncrement(), state, location, failures, 0, 0, 0, 0, new DataSize(0, BYTE)),
                     DateTime.now(),
                     outputBuffer.getInfo(),
                     ImmutableSet.of(),
@@ -232,12 +234,14 @@ public class MockRemoteTaskFactory
                     ImmutableList.of(),
                     stats.getQueuedPartitionedDrivers(),
                     stats.getRunningPartitionedDrivers(),
+                    0,
+                    0,
                     stats.getMemoryReservation());
         }
 
         private synchronized void updateSplitQueueSpace()
         {
-            if (getQueuedPartitionedSplitCount() < 9) {
+            if (getQueuedPartitionedSplitsWeight() < 9L * STANDARD_SPLIT_WEIGHT) {
                 if (!whenSplitQueueHasSpace.isDone()) {
                     whenSplitQueueHasSpace.set(null);
                 }
@@ -265,7 +269,7 @@ public class MockRemoteTaskFactory
         public synchronized void clearSplits()
         {
             splits.clear();
-            partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+            updatePartitionedSplitCountTracker();
             runningDrivers = 0;
             updateSplitQueueSpace();
         }
@@ -293,7 +297,7 @@ public class MockRemoteTaskFactory
             synchronized (this) {
                 this.splits.putAll(splits);
             }
-            partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+            updatePartitionedSplitCountTracker();
             updateSplitQueueSpace();
         }
 
@@ -324,6 +328,12 @@ public class MockRemoteTaskFactory
             taskStateMachine.addStateChangeListener(newValue -> stateChangeListener.stateChanged(getTaskStatus()));
         }
 
+        @Override
+        public void addTaskInfoListener(StateChangeListener<TaskInfo> stateChangeListener)
+        {
+            taskStateMachine.addStateChangeListener(newValue -> stateChangeListener.stateChanged(getTaskInfo()));
+        }
+
         @Override
         public synchronized ListenableFuture<?> whenSplitQueueHasSpace(int threshold)
         {
@@ -368,6 +378,40 @@ public class MockRemoteTaskFactory
             return getPartitionedSplitCount() - runningDrivers;
         }
 
+        @Override
+        public long getPartitionedSplitsWeight()
+        {
+            if (taskStateMachine.getState().isDone()) {
+                return 0;
+            }
+            synchronized (this) {
+                return fragment.getPartitionedSources().stream()
+                        .flatMap(partitionedSource -> splits.get(partitionedSource).stream())
+                        .mapToLong(Split::getSplitWeight)
+                        .sum();
+            }
+        }
+
+        @Override
+        public synchronized long getQueuedPartitionedSplitsWeight()
+        {
+            if (taskStateMachine.getState().isDone()) {
+                return 0;
+            }
+            // the first splits are the running ones
+            return fragment.getPartitionedSources().stream()
+                    .flatMap(partitionedSource -> splits.get(partitionedSource).stream())
+                    .skip(runningDrivers)
+                    .mapToLong(Split::getSplitWeight)
+                    .sum();
+        }
+
+        private void updatePartitionedSplitCountTracker()
+        {
+            partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+            partitionedSplitCountTracker.setPartitionedSplitsWeight(getPartitionedSplitsWeight());
+        }
+
         private static final class UpdateSystemMemory
                 implements SystemMemoryUsageListener
         {
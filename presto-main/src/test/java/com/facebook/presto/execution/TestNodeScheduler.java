@@ -55,6 +55,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
 
 import static com.facebook.presto.execution.scheduler.NetworkLocation.ROOT_LOCATION;
+import static com.facebook.presto.spi.ConnectorSplit.STANDARD_SPLIT_WEIGHT;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -287,6 +288,31 @@ public class TestNodeScheduler
         }
     }
 
+    @Test
+    public void testSplitWeights()
+            throws Exception
+    {
+        TestingTransactionHandle transactionHandle = TestingTransactionHandle.create();
+
+        // light splits count as a fraction of a standard split against the per node limits
+        Set<Split> lightSplits = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            lightSplits.add(new Split(CONNECTOR_ID, transactionHandle, new TestSplitRemote(STANDARD_SPLIT_WEIGHT / 10)));
+        }
+        assertEquals(nodeSelector.computeAssignments(lightSplits, ImmutableList.of()).getAssignments().size(), 100);
+
+        // heavy splits fill up a node with only a few splits
+        Set<Split> heavySplits = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            heavySplits.add(new Split(CONNECTOR_ID, transactionHandle, new TestSplitRemote(STANDARD_SPLIT_WEIGHT * 10)));
+        }
+        Multimap<Node, Split> assignments = nodeSelector.computeAssignments(heavySplits, ImmutableList.of()).getAssignments();
+        assertEquals(assignments.size(), 6);
+        for (Node node : nodeManager.getActiveConnectorNodes(CONNECTOR_ID)) {
+            assertEquals(assignments.get(node).size(), 2);
+        }
+    }
+
     @Test
     public void testMaxSplitsPerNode()
             throws Exception
@@ -374,6 +400,43 @@ public class TestNodeScheduler
         assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(newNode), 0);
     }
 
+    @Test
+    public void testMaxSplitsWeightPerNodePerTask()
+            throws Exception
+    {
+        TestingTransactionHandle transactionHandle = TestingTransactionHandle.create();
+
+        Node newNode = new PrestoNode("other5", URI.create("http://127.0.0.1:15"), NodeVersion.UNKNOWN, false);
+        nodeManager.addNode(CONNECTOR_ID, newNode);
+
+        // two heavy splits weigh as much as maxSplitsPerNode standard splits
+        List<Split> heavySplits = ImmutableList.of(
+                new Split(CONNECTOR_ID, transactionHandle, new TestSplitRemote(STANDARD_SPLIT_WEIGHT * 10)),
+                new Split(CONNECTOR_ID, transactionHandle, new TestSplitRemote(STANDARD_SPLIT_WEIGHT * 10)));
+
+        MockRemoteTaskFactory remoteTaskFactory = new MockRemoteTaskFactory(remoteTaskExecutor);
+        TaskId taskId = new TaskId("test", 1, 1);
+        RemoteTask remoteTask = remoteTaskFactory.createTableScanTask(taskId, newNode, heavySplits, nodeTaskMap.createPartitionedSplitCountTracker(newNode, taskId));
+        taskMap.put(newNode, remoteTask);
+        nodeTaskMap.addTask(newNode, remoteTask);
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(newNode), 2);
+        assertEquals(nodeTaskMap.getPartitionedSplitsWeightOnNode(newNode), STANDARD_SPLIT_WEIGHT * 20);
+        assertEquals(remoteTask.getQueuedPartitionedSplitsWeight(), STANDARD_SPLIT_WEIGHT * 20);
+
+        Set<Split> splits = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            splits.add(new Split(CONNECTOR_ID, transactionHandle, new TestSplitRemote()));
+        }
+        Multimap<Node, Split> assignments = nodeSelector.computeAssignments(splits, ImmutableList.copyOf(taskMap.values())).getAssignments();
+
+        // the queued heavy splits fill both the node and the task queue, even though there are only two of them
+        assertEquals(assignments.size(), 5);
+        assertFalse(assignments.keySet().contains(newNode));
+
+        remoteTask.abort();
+        assertEquals(nodeTaskMap.getPartitionedSplitsWeightOnNode(newNode), 0);
+    }
+
     @Test
     public void testTaskCompletion()
             throws Exception
@@ -454,15 +517,27 @@ public class TestNodeScheduler
             implements ConnectorSplit
     {
         private final List<HostAddress> hosts;
+        private final int splitWeight;
 
         public TestSplitRemote()
         {
-            this(HostAddress.fromString("127.0.0.1:" + ThreadLocalRandom.current().nextInt(5000)));
+            this(STANDARD_SPLIT_WEIGHT);
+        }
+
+        public TestSplitRemote(int splitWeight)
+        {
+            this(HostAddress.fromString("127.0.0.1:" + ThreadLocalRandom.current().nextInt(5000)), splitWeight);
         }
 
         public TestSplitRemote(HostAddress host)
+        {
+            this(host, STANDARD_SPLIT_WEIGHT);
+        }
+
+        private TestSplitRemote(HostAddress host, int splitWeight)
         {
             this.hosts = ImmutableList.of(requireNonNull(host, "host is null"));
+            this.splitWeight = splitWeight;
         }
 
         @Override
@@ -482,6 +557,12 @@ public class TestNodeScheduler
         {
             return this;
         }
+
+        @Override
+        public int getSplitWeight()
+        {
+            return splitWeight;
+        }
     }
 
     private static class TestNetworkTopology
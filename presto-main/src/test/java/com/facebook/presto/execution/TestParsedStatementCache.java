@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.sql.parser.SqlParser;
+import com.facebook.presto.sql.tree.Statement;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestParsedStatementCache
+{
+    @Test
+    public void testCacheHitSkipsParsing()
+    {
+        CountingSqlParser sqlParser = new CountingSqlParser();
+        ParsedStatementCache cache = new ParsedStatementCache(sqlParser, new DataSize(1, MEGABYTE));
+
+        Statement statement = cache.getStatement("SELECT * FROM orders");
+        assertEquals(sqlParser.getParseCount(), 1);
+        assertSame(cache.getStatement("SELECT * FROM orders"), statement);
+        assertEquals(sqlParser.getParseCount(), 1);
+
+        cache.getStatement("SELECT * FROM lineitem");
+        assertEquals(sqlParser.getParseCount(), 2);
+        assertEquals(cache.getSize(), 2);
+    }
+
+    @Test
+    public void testEviction()
+    {
+        String sql = "SELECT %s FROM orders WHERE orderkey = %s";
+        long statementSize = ParsedStatementCache.getEstimatedSizeInBytes(format(sql, 0, 0), new SqlParser().createStatement(format(sql, 0, 0)));
+
+        CountingSqlParser sqlParser = new CountingSqlParser();
+        ParsedStatementCache cache = new ParsedStatementCache(sqlParser, new DataSize(20 * statementSize, BYTE));
+        for (int i = 0; i < 100; i++) {
+            cache.getStatement(format(sql, i, i));
+        }
+        assertEquals(sqlParser.getParseCount(), 100);
+        assertTrue(cache.getSize() <= 20);
+
+        // the least recently used statement was evicted and is parsed again
+        cache.getStatement(format(sql, 0, 0));
+        assertEquals(sqlParser.getParseCount(), 101);
+    }
+
+    @Test
+    public void testEstimatedSizeIncludesStatement()
+    {
+        String sql = "SELECT a, b, c FROM t WHERE a = 1 AND b = 2 AND c = 3";
+        Statement statement = new SqlParser().createStatement(sql);
+        long textSize = 2L * sql.length() * Character.BYTES;
+        assertTrue(ParsedStatementCache.getEstimatedSizeInBytes(sql, statement) > textSize);
+
+        // a statement with more nodes is estimated to be larger than one with the same text length
+        String shortSql = "SELECT x FROM very_long_table_name_with_just_one_colx";
+        assertEquals(shortSql.length(), sql.length());
+        assertTrue(ParsedStatementCache.getEstimatedSizeInBytes(shortSql, new SqlParser().createStatement(shortSql)) < ParsedStatementCache.getEstimatedSizeInBytes(sql, statement));
+    }
+
+    private static class CountingSqlParser
+            extends SqlParser
+    {
+        private int parseCount;
+
+        @Override
+        public Statement createStatement(String sql)
+        {
+            parseCount++;
+            return super.createStatement(sql);
+        }
+
+        public int getParseCount()
+        {
+            return parseCount;
+        }
+    }
+}
@@ -15,6 +15,8 @@ package com.facebook.presto.execution;
 
 import com.google.common.collect.ImmutableMap;
 import io.airlift.configuration.testing.ConfigAssertions;
+import io.airlift.units.DataSize;
+import io.airlift.units.DataSize.Unit;
 import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
@@ -30,6 +32,13 @@ public class TestQueryManagerConfig
                 .setMinQueryExpireAge(new Duration(15, TimeUnit.MINUTES))
                 .setMaxQueryHistory(100)
                 .setMaxQueryLength(1_000_000)
+                .setParsedStatementCacheMaxSize(new DataSize(16, Unit.MEGABYTE))
+                .setPlanCacheEnabled(false)
+                .setPlanCacheMaxSize(new DataSize(64, Unit.MEGABYTE))
+                .setPlanCacheTtl(new Duration(10, TimeUnit.MINUTES))
+                .setResultCacheEnabled(false)
+                .setResultCacheMaxSize(new DataSize(1, Unit.GIGABYTE))
+                .setResultCacheMaxEntrySize(new DataSize(16, Unit.MEGABYTE))
                 .setClientTimeout(new Duration(5, TimeUnit.MINUTES))
                 .setScheduleSplitBatchSize(1000)
                 .setMinScheduleSplitBatchSize(100)
@@ -37,6 +46,8 @@ public class TestQueryManagerConfig
                 .setMaxQueuedQueries(5000)
                 .setQueueConfigFile(null)
                 .setInitialHashPartitions(100)
+                .setAdaptiveHashPartitionCount(false)
+                .setRowsPerHashPartition(1_000_000)
                 .setQueryManagerExecutorPoolSize(5)
                 .setRemoteTaskMinErrorDuration(new Duration(2, TimeUnit.MINUTES))
                 .setRemoteTaskMaxErrorDuration(new Duration(5, TimeUnit.MINUTES))
@@ -55,12 +66,21 @@ public class TestQueryManagerConfig
                 .put("query.min-expire-age", "30s")
                 .put("query.max-history", "10")
                 .put("query.max-length", "10000")
+                .put("query.parsed-statement-cache-max-size", "1MB")
+                .put("query.plan-cache-enabled", "true")
+                .put("query.plan-cache-max-size", "8MB")
+                .put("query.plan-cache-ttl", "1h")
+                .put("query.result-cache-enabled", "true")
+                .put("query.result-cache-max-size", "2GB")
+                .put("query.result-cache-max-entry-size", "1MB")
                 .put("query.schedule-split-batch-size", "99")
                 .put("query.min-schedule-split-batch-size", "9")
                 .put("query.max-concurrent-queries", "10")
                 .put("query.max-queued-queries", "15")
                 .put("query.queue-config-file", "/etc/presto/queues.json")
                 .put("query.initial-hash-partitions", "16")
+                .put("query.adaptive-hash-partition-count", "true")
+                .put("query.rows-per-hash-partition", "5000")
                 .put("query.manager-executor-pool-size", "11")
                 .put("query.remote-task.min-error-duration", "30s")
                 .put("query.remote-task.max-error-duration", "60s")
@@ -74,6 +94,13 @@ public class TestQueryManagerConfig
                 .setMinQueryExpireAge(new Duration(30, TimeUnit.SECONDS))
                 .setMaxQueryHistory(10)
                 .setMaxQueryLength(10000)
+                .setParsedStatementCacheMaxSize(new DataSize(1, Unit.MEGABYTE))
+                .setPlanCacheEnabled(true)
+                .setPlanCacheMaxSize(new DataSize(8, Unit.MEGABYTE))
+                .setPlanCacheTtl(new Duration(1, TimeUnit.HOURS))
+                .setResultCacheEnabled(true)
+                .setResultCacheMaxSize(new DataSize(2, Unit.GIGABYTE))
+                .setResultCacheMaxEntrySize(new DataSize(1, Unit.MEGABYTE))
                 .setClientTimeout(new Duration(10, TimeUnit.SECONDS))
                 .setScheduleSplitBatchSize(99)
                 .setMinScheduleSplitBatchSize(9)
@@ -81,6 +108,8 @@ public class TestQueryManagerConfig
                 .setMaxQueuedQueries(15)
                 .setQueueConfigFile("/etc/presto/queues.json")
                 .setInitialHashPartitions(16)
+                .setAdaptiveHashPartitionCount(true)
+                .setRowsPerHashPartition(5000)
                 .setQueryManagerExecutorPoolSize(11)
                 .setRemoteTaskMinErrorDuration(new Duration(30, TimeUnit.SECONDS))
                 .setRemoteTaskMaxErrorDuration(new Duration(60, TimeUnit.SECONDS))
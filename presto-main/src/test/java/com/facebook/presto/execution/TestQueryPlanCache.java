@@ -0,0 +1,241 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.connector.ConnectorId;
+import com.facebook.presto.execution.QueryPlanCache.AccessCheck;
+import com.facebook.presto.execution.QueryPlanCache.CachedPlan;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.metadata.QualifiedObjectName;
+import com.facebook.presto.security.AllowAllAccessControl;
+import com.facebook.presto.security.DenyAllAccessControl;
+import com.facebook.presto.spi.security.AccessDeniedException;
+import com.facebook.presto.spi.security.Identity;
+import com.facebook.presto.sql.planner.Plan;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.OutputNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.sql.planner.plan.ValuesNode;
+import com.facebook.presto.sql.tree.Cast;
+import com.facebook.presto.sql.tree.ComparisonExpression;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.LongLiteral;
+import com.facebook.presto.sql.tree.Parameter;
+import com.facebook.presto.transaction.TransactionId;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.TimeZoneKey.UTC_KEY;
+import static com.facebook.presto.sql.tree.ComparisonExpressionType.EQUAL;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestQueryPlanCache
+{
+    private static final Set<ConnectorId> CONNECTORS = ImmutableSet.of(new ConnectorId("connector"));
+
+    @Test
+    public void testCachePlan()
+    {
+        Metadata metadata = createTestMetadataManager();
+        QueryPlanCache cache = new QueryPlanCache(metadata, new AllowAllAccessControl(), new DataSize(1, MEGABYTE), new Duration(10, MINUTES));
+        Session session = createSession("user");
+        QueryPlanCacheKey key = createKey(0);
+        Plan plan = createPlan(0);
+
+        assertFalse(cache.get(session, key).isPresent());
+        cache.put(session, key, metadata.getMetadataVersion(), plan, ImmutableList.of(), 2, CONNECTORS, ImmutableList.of(), false);
+
+        Optional<CachedPlan> cachedPlan = cache.get(session, key);
+        assertTrue(cachedPlan.isPresent());
+        assertSame(cachedPlan.get().getPlan().getRoot().getSources().get(0), plan.getRoot().getSources().get(0));
+        assertEquals(cachedPlan.get().getPlan().getTypes(), plan.getTypes());
+        assertEquals(cachedPlan.get().getConnectors(), CONNECTORS);
+        assertFalse(cachedPlan.get().isDeterministic());
+        assertFalse(cache.get(session, createKey(1)).isPresent());
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 2);
+    }
+
+    @Test
+    public void testBindParameterValues()
+    {
+        Metadata metadata = createTestMetadataManager();
+        QueryPlanCache cache = new QueryPlanCache(metadata, new AllowAllAccessControl(), new DataSize(1, MEGABYTE), new Duration(10, MINUTES));
+        Session session = createSession("user");
+        QueryPlanCacheKey key = createKey(0);
+
+        // SELECT x FROM (VALUES 0) t(x) WHERE x = ?, with the integer parameter coerced to bigint
+        Symbol symbol = new Symbol("x");
+        ValuesNode values = new ValuesNode(new PlanNodeId("0"), ImmutableList.of(symbol), ImmutableList.of(ImmutableList.of(new LongLiteral("0"))));
+        FilterNode filter = new FilterNode(new PlanNodeId("1"), values, new ComparisonExpression(EQUAL, symbol.toSymbolReference(), new Parameter(0)));
+        OutputNode output = new OutputNode(new PlanNodeId("2"), filter, ImmutableList.of("x"), ImmutableList.of(symbol));
+        Plan plan = new Plan(output, ImmutableMap.of(symbol, BIGINT), ImmutableMap.of());
+        List<Expression> unboundParameters = ImmutableList.of(new Cast(new Parameter(0), "bigint", false, true));
+        cache.put(session, key, metadata.getMetadataVersion(), plan, unboundParameters, 3, CONNECTORS, ImmutableList.of(), true);
+
+        CachedPlan cachedPlan = cache.get(session, key).get();
+        for (int value = 1; value <= 2; value++) {
+            Plan boundPlan = cachedPlan.bindParameterValues(ImmutableList.of(new LongLiteral(String.valueOf(value))));
+            FilterNode boundFilter = (FilterNode) boundPlan.getRoot().getSources().get(0);
+            assertEquals(boundFilter.getPredicate(), new ComparisonExpression(EQUAL, symbol.toSymbolReference(), new Cast(new LongLiteral(String.valueOf(value)), "bigint", false, true)));
+        }
+
+        // the cached plan is not modified
+        assertEquals(filter.getPredicate(), new ComparisonExpression(EQUAL, symbol.toSymbolReference(), new Parameter(0)));
+        assertEquals(cachedPlan.createPlanNodeIdAllocator().getNextId(), new PlanNodeId("3"));
+    }
+
+    @Test
+    public void testPlanStartedBeforeMetadataChangeIsNotCached()
+    {
+        Metadata metadata = createTestMetadataManager();
+        QueryPlanCache cache = new QueryPlanCache(metadata, new AllowAllAccessControl(), new DataSize(1, MEGABYTE), new Duration(10, MINUTES));
+        Session session = createSession("user");
+        QueryPlanCacheKey key = createKey(0);
+
+        cache.put(session, key, metadata.getMetadataVersion() - 1, createPlan(0), ImmutableList.of(), 2, CONNECTORS, ImmutableList.of(), true);
+        assertFalse(cache.get(session, key).isPresent());
+    }
+
+    @Test
+    public void testEviction()
+    {
+        Metadata metadata = createTestMetadataManager();
+        long entrySize = createKey(0).getEstimatedSizeInBytes() + new CachedPlan(createPlan(0), ImmutableList.of(), 2, CONNECTORS, ImmutableSet.of(), ImmutableList.of(), true, 0).getEstimatedSizeInBytes();
+        QueryPlanCache cache = new QueryPlanCache(metadata, new AllowAllAccessControl(), new DataSize(20 * entrySize, BYTE), new Duration(10, MINUTES));
+        Session session = createSession("user");
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(session, createKey(i), metadata.getMetadataVersion(), createPlan(i), ImmutableList.of(), 2, CONNECTORS, ImmutableList.of(), true);
+        }
+        assertTrue(cache.getSize() <= 20);
+        assertFalse(cache.get(session, createKey(0)).isPresent());
+        assertTrue(cache.get(session, createKey(99)).isPresent());
+    }
+
+    @Test
+    public void testAccessChecksAreRepeated()
+    {
+        Identity owner = new Identity("owner", Optional.empty());
+        QualifiedObjectName table = new QualifiedObjectName("catalog", "schema", "table");
+        QualifiedObjectName view = new QualifiedObjectName("catalog", "schema", "view");
+
+        // record the checks made while analyzing the query of the first user
+        Session session = createSession("user");
+        RecordingAccessControl recordingAccessControl = new RecordingAccessControl(new AllowAllAccessControl(), session.getIdentity());
+        recordingAccessControl.checkCanSelectFromView(session.getRequiredTransactionId(), session.getIdentity(), view);
+        recordingAccessControl.checkCanCreateViewWithSelectFromTable(session.getRequiredTransactionId(), owner, table);
+        List<AccessCheck> accessChecks = recordingAccessControl.getChecks().get();
+        assertEquals(accessChecks.size(), 2);
+
+        // checks for the user of the query are repeated for the new user, checks for the view owner are repeated for the owner
+        List<String> checks = new ArrayList<>();
+        Metadata metadata = createTestMetadataManager();
+        QueryPlanCache cache = new QueryPlanCache(metadata, new AllowAllAccessControl()
+        {
+            @Override
+            public void checkCanSelectFromView(TransactionId transactionId, Identity identity, QualifiedObjectName viewName)
+            {
+                checks.add(identity.getUser() + " select " + viewName);
+            }
+
+            @Override
+            public void checkCanCreateViewWithSelectFromTable(TransactionId transactionId, Identity identity, QualifiedObjectName tableName)
+            {
+                checks.add(identity.getUser() + " create view with select " + tableName);
+            }
+        }, new DataSize(1, MEGABYTE), new Duration(10, MINUTES));
+        QueryPlanCacheKey key = createKey(0);
+        cache.put(session, key, metadata.getMetadataVersion(), createPlan(0), ImmutableList.of(), 2, CONNECTORS, accessChecks, true);
+
+        assertTrue(cache.get(createSession("other"), key).isPresent());
+        assertEquals(checks, ImmutableList.of("other select catalog.schema.view", "owner create view with select catalog.schema.table"));
+    }
+
+    @Test(expectedExceptions = AccessDeniedException.class)
+    public void testAccessDenied()
+    {
+        Session session = createSession("user");
+        RecordingAccessControl recordingAccessControl = new RecordingAccessControl(new AllowAllAccessControl(), session.getIdentity());
+        recordingAccessControl.checkCanSelectFromTable(session.getRequiredTransactionId(), session.getIdentity(), new QualifiedObjectName("catalog", "schema", "table"));
+
+        Metadata metadata = createTestMetadataManager();
+        QueryPlanCache cache = new QueryPlanCache(metadata, new DenyAllAccessControl(), new DataSize(1, MEGABYTE), new Duration(10, MINUTES));
+        QueryPlanCacheKey key = createKey(0);
+        cache.put(session, key, metadata.getMetadataVersion(), createPlan(0), ImmutableList.of(), 2, CONNECTORS, recordingAccessControl.getChecks().get(), true);
+        cache.get(session, key);
+    }
+
+    @Test
+    public void testOtherChecksAreNotReplayable()
+    {
+        Session session = createSession("user");
+        RecordingAccessControl recordingAccessControl = new RecordingAccessControl(new AllowAllAccessControl(), session.getIdentity());
+        recordingAccessControl.checkCanSelectFromTable(session.getRequiredTransactionId(), session.getIdentity(), new QualifiedObjectName("catalog", "schema", "table"));
+        assertTrue(recordingAccessControl.getChecks().isPresent());
+        recordingAccessControl.checkCanInsertIntoTable(session.getRequiredTransactionId(), session.getIdentity(), new QualifiedObjectName("catalog", "schema", "table"));
+        assertFalse(recordingAccessControl.getChecks().isPresent());
+    }
+
+    private static Session createSession(String user)
+    {
+        return testSessionBuilder()
+                .setIdentity(new Identity(user, Optional.empty()))
+                .setTransactionId(TransactionId.create())
+                .build();
+    }
+
+    private static QueryPlanCacheKey createKey(int value)
+    {
+        return new QueryPlanCacheKey(
+                "SELECT " + value,
+                ImmutableList.of(),
+                "user",
+                Optional.of("catalog"),
+                Optional.of("schema"),
+                UTC_KEY,
+                Locale.ENGLISH,
+                ImmutableMap.of(),
+                ImmutableMap.of());
+    }
+
+    private static Plan createPlan(int value)
+    {
+        Symbol symbol = new Symbol("x");
+        ValuesNode values = new ValuesNode(new PlanNodeId("values"), ImmutableList.of(symbol), ImmutableList.of(ImmutableList.of(new LongLiteral(String.valueOf(value)))));
+        OutputNode output = new OutputNode(new PlanNodeId("output"), values, ImmutableList.of("x"), ImmutableList.of(symbol));
+        return new Plan(output, ImmutableMap.of(symbol, BIGINT), ImmutableMap.of());
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.block.BlockAssertions;
+import com.facebook.presto.execution.QueryResultCache.CachedQueryResult;
+import com.facebook.presto.execution.buffer.PagesSerde;
+import com.facebook.presto.execution.buffer.SerializedPage;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.QueryId;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import java.util.Locale;
+import java.util.Optional;
+
+import static com.facebook.presto.execution.buffer.TestingPagesSerdeFactory.testingPagesSerde;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.TimeZoneKey.UTC_KEY;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestQueryResultCache
+{
+    private static final PagesSerde PAGES_SERDE = testingPagesSerde();
+
+    @Test
+    public void testCacheResult()
+    {
+        QueryResultCache cache = new QueryResultCache(new DataSize(1, MEGABYTE), new DataSize(100, KILOBYTE));
+        QueryResultCacheKey key = createKey("v1");
+        QueryId queryId = new QueryId("query1");
+
+        assertFalse(cache.get(key).isPresent());
+        cache.startRecording(queryId, key, ImmutableList.of("x"), ImmutableList.of(BIGINT));
+        cache.recordPage(queryId, createPage(10));
+        cache.recordPage(queryId, createPage(20));
+        assertFalse(cache.get(key).isPresent());
+        cache.finishRecording(queryId);
+        assertFalse(cache.isRecording(queryId));
+
+        Optional<CachedQueryResult> result = cache.get(key);
+        assertTrue(result.isPresent());
+        assertEquals(result.get().getFieldNames(), ImmutableList.of("x"));
+        assertEquals(result.get().getTypes(), ImmutableList.of(BIGINT));
+        assertEquals(result.get().getPages().size(), 2);
+        assertEquals(result.get().getPages().get(1).getPositionCount(), 20);
+
+        // a different data version is a different result
+        assertFalse(cache.get(createKey("v2")).isPresent());
+        assertEquals(cache.get(createKey("v1")).get(), result.get());
+        assertEquals(cache.getSize(), 1);
+    }
+
+    @Test
+    public void testServeResult()
+    {
+        QueryResultCache cache = new QueryResultCache(new DataSize(1, MEGABYTE), new DataSize(100, KILOBYTE));
+        QueryId queryId = new QueryId("query1");
+        CachedQueryResult result = new CachedQueryResult(ImmutableList.of("x"), ImmutableList.of(BIGINT), ImmutableList.of(createPage(10)));
+
+        cache.serve(queryId, result);
+        assertEquals(cache.getServedResult(queryId), Optional.of(result));
+        assertFalse(cache.getServedResult(queryId).isPresent());
+    }
+
+    @Test
+    public void testResultTooLarge()
+    {
+        QueryResultCache cache = new QueryResultCache(new DataSize(1, MEGABYTE), new DataSize(1, KILOBYTE));
+        QueryResultCacheKey key = createKey("v1");
+        QueryId queryId = new QueryId("query1");
+
+        cache.startRecording(queryId, key, ImmutableList.of("x"), ImmutableList.of(BIGINT));
+        cache.recordPage(queryId, createPage(1_000));
+        assertFalse(cache.isRecording(queryId));
+        cache.finishRecording(queryId);
+        assertFalse(cache.get(key).isPresent());
+    }
+
+    @Test
+    public void testRemoveQuery()
+    {
+        QueryResultCache cache = new QueryResultCache(new DataSize(1, MEGABYTE), new DataSize(100, KILOBYTE));
+        QueryResultCacheKey key = createKey("v1");
+        QueryId queryId = new QueryId("query1");
+
+        // a query that did not return all of its output is not cached
+        cache.startRecording(queryId, key, ImmutableList.of("x"), ImmutableList.of(BIGINT));
+        cache.recordPage(queryId, createPage(10));
+        cache.removeQuery(queryId);
+        cache.finishRecording(queryId);
+        assertFalse(cache.get(key).isPresent());
+    }
+
+    @Test
+    public void testKeyIncludesSession()
+    {
+        QueryResultCacheKey key = createKey("v1");
+        assertEquals(key, createKey("v1"));
+        assertEquals(key.hashCode(), createKey("v1").hashCode());
+
+        QueryResultCacheKey otherUser = new QueryResultCacheKey(
+                "SELECT x FROM t",
+                "other",
+                Optional.of("catalog"),
+                Optional.of("schema"),
+                UTC_KEY,
+                Locale.ENGLISH,
+                ImmutableMap.of(),
+                ImmutableMap.of(),
+                ImmutableSet.of("connector:v1"));
+        assertNotEquals(key, otherUser);
+
+        QueryResultCacheKey otherProperties = new QueryResultCacheKey(
+                "SELECT x FROM t",
+                "user",
+                Optional.of("catalog"),
+                Optional.of("schema"),
+                UTC_KEY,
+                Locale.ENGLISH,
+                ImmutableMap.of("hash_partition_count", "1"),
+                ImmutableMap.of(),
+                ImmutableSet.of("connector:v1"));
+        assertNotEquals(key, otherProperties);
+    }
+
+    private static QueryResultCacheKey createKey(String dataVersion)
+    {
+        return new QueryResultCacheKey(
+                "SELECT x FROM t",
+                "user",
+                Optional.of("catalog"),
+                Optional.of("schema"),
+                UTC_KEY,
+                Locale.ENGLISH,
+                ImmutableMap.of(),
+                ImmutableMap.of(),
+                ImmutableSet.of("connector:" + dataVersion));
+    }
+
+    private static SerializedPage createPage(int size)
+    {
+        return PAGES_SERDE.serialize(new Page(BlockAssertions.createLongSequenceBlock(0, size)));
+    }
+}
@@ -14,6 +14,7 @@
 package com.facebook.presto.execution;
 
 import com.facebook.presto.execution.scheduler.SplitSchedulerStats;
+import com.facebook.presto.operator.TaskStats;
 import com.facebook.presto.sql.planner.Partitioning;
 import com.facebook.presto.sql.planner.PartitioningScheme;
 import com.facebook.presto.sql.planner.PlanFragment;
@@ -24,6 +25,10 @@ import com.facebook.presto.sql.planner.plan.ValuesNode;
 import com.facebook.presto.sql.tree.StringLiteral;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.joda.time.DateTime;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
@@ -33,10 +38,14 @@ import java.sql.SQLException;
 import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.execution.TaskInfo.createInitialTask;
+import static com.facebook.presto.operator.BlockedReason.WAITING_FOR_MEMORY;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SOURCE_DISTRIBUTION;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNull;
@@ -255,6 +264,79 @@ public class TestStageStateMachine
         assertFinalState(stateMachine, StageState.CANCELED);
     }
 
+    @Test
+    public void testBasicStageStats()
+    {
+        StageStateMachine stateMachine = createStageStateMachine();
+        stateMachine.updateTaskInfo(createTaskInfo(0, 1, TaskState.RUNNING, 2, 0, 1, false));
+        stateMachine.updateTaskInfo(createTaskInfo(1, 1, TaskState.RUNNING, 4, 3, 2, true));
+
+        BasicStageStats stats = stateMachine.getBasicStageStats();
+        assertFalse(stats.isScheduled());
+        assertEquals(stats.getTotalDrivers(), 6);
+        assertEquals(stats.getCompletedDrivers(), 3);
+        assertEquals(stats.getTotalCpuTime().roundTo(SECONDS), 3);
+        assertFalse(stats.isFullyBlocked());
+        assertEquals(stats.getBlockedReasons(), ImmutableSet.of(WAITING_FOR_MEMORY));
+
+        // a newer task info replaces the contribution of the task
+        stateMachine.updateTaskInfo(createTaskInfo(0, 2, TaskState.FINISHED, 2, 2, 4, false));
+        // an older task info is ignored
+        stateMachine.updateTaskInfo(createTaskInfo(0, 1, TaskState.RUNNING, 2, 0, 1, false));
+        assertTrue(stateMachine.transitionToRunning());
+
+        stats = stateMachine.getBasicStageStats();
+        assertTrue(stats.isScheduled());
+        assertEquals(stats.getTotalDrivers(), 6);
+        assertEquals(stats.getCompletedDrivers(), 5);
+        assertEquals(stats.getTotalCpuTime().roundTo(SECONDS), 6);
+        assertTrue(stats.isFullyBlocked());
+        assertEquals(stats.getBlockedReasons(), ImmutableSet.of(WAITING_FOR_MEMORY));
+
+        assertEquals(stateMachine.getLatestTaskInfos().stream()
+                .mapToLong(taskInfo -> taskInfo.getTaskStatus().getVersion())
+                .sum(), 3);
+    }
+
+    private static TaskInfo createTaskInfo(int partition, long version, TaskState state, int totalDrivers, int completedDrivers, int cpuSeconds, boolean fullyBlocked)
+    {
+        TaskId taskId = new TaskId(STAGE_ID, partition);
+        URI location = URI.create("fake://fake-task/" + taskId);
+        TaskStats stats = new TaskStats(
+                new DateTime(0),
+                null,
+                null,
+                null,
+                null,
+                new Duration(0, SECONDS),
+                new Duration(0, SECONDS),
+                totalDrivers,
+                totalDrivers - completedDrivers,
+                0,
+                0,
+                0,
+                0,
+                completedDrivers,
+                0.0,
+                new DataSize(0, BYTE),
+                new DataSize(0, BYTE),
+                new Duration(0, SECONDS),
+                new Duration(cpuSeconds, SECONDS),
+                new Duration(0, SECONDS),
+                new Duration(0, SECONDS),
+                fullyBlocked,
+                fullyBlocked ? ImmutableSet.of(WAITING_FOR_MEMORY) : ImmutableSet.of(),
+                new DataSize(0, BYTE),
+                0,
+                new DataSize(0, BYTE),
+                0,
+                new DataSize(0, BYTE),
+                0,
+                ImmutableList.of());
+        TaskStatus status = new TaskStatus(taskId, "instance", version, state, location, ImmutableList.of(), 0, 0, 0, 0, new DataSize(0, BYTE));
+        return createInitialTask(taskId, location, ImmutableList.of(), stats).withTaskStatus(status);
+    }
+
     private static void assertFinalState(StageStateMachine stateMachine, StageState expectedState)
     {
         assertTrue(expectedState.isDone());
@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.operator.TaskStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.joda.time.DateTime;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.execution.TaskInfo.createInitialTask;
+import static com.facebook.presto.execution.TaskState.FINISHED;
+import static com.facebook.presto.execution.TaskState.RUNNING;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+
+public class TestStragglerTaskDetector
+{
+    private final StragglerTaskDetector detector = new StragglerTaskDetector(4.0, 10, new Duration(10, SECONDS));
+
+    @Test
+    public void testSlowTask()
+    {
+        TaskInfo straggler = createTask(0, RUNNING, 20, 100, 10);
+        List<TaskInfo> tasks = ImmutableList.of(
+                straggler,
+                createTask(1, RUNNING, 20, 30, 100),
+                createTask(2, RUNNING, 20, 20, 100),
+                createTask(3, FINISHED, 40, 40, 200));
+
+        assertEquals(detector.findStragglerTasks(tasks), ImmutableList.of(straggler));
+    }
+
+    @Test
+    public void testStragglerReportedOnce()
+    {
+        StragglerTaskDetector reportingDetector = new StragglerTaskDetector(4.0, 10, new Duration(10, SECONDS));
+        TaskInfo straggler = createTask(0, RUNNING, 20, 100, 10);
+        Map<StageId, List<TaskInfo>> sourceStageTaskInfos = ImmutableMap.of(
+                straggler.getTaskStatus().getTaskId().getStageId(),
+                ImmutableList.of(straggler, createTask(1, RUNNING, 20, 30, 100)));
+
+        assertEquals(reportingDetector.detectStragglerTasks(sourceStageTaskInfos), ImmutableList.of(straggler));
+        assertEquals(reportingDetector.detectStragglerTasks(sourceStageTaskInfos), ImmutableList.of());
+
+        // the tasks of a query are reported again after the query is removed
+        reportingDetector.removeQuery(straggler.getTaskStatus().getTaskId().getQueryId());
+        assertEquals(reportingDetector.detectStragglerTasks(sourceStageTaskInfos), ImmutableList.of(straggler));
+    }
+
+    @Test
+    public void testFinishedTaskIsNotStraggler()
+    {
+        List<TaskInfo> tasks = ImmutableList.of(
+                createTask(0, FINISHED, 20, 100, 10),
+                createTask(1, RUNNING, 20, 30, 100));
+
+        assertEquals(detector.findStragglerTasks(tasks), ImmutableList.of());
+    }
+
+    @Test
+    public void testNotEnoughCompletedSplits()
+    {
+        List<TaskInfo> tasks = ImmutableList.of(
+                createTask(0, RUNNING, 5, 100, 10),
+                createTask(1, RUNNING, 20, 30, 100));
+        assertEquals(detector.findStragglerTasks(tasks), ImmutableList.of());
+
+        // peers which have not completed enough splits are not a baseline either
+        tasks = ImmutableList.of(
+                createTask(0, RUNNING, 20, 100, 10),
+                createTask(1, RUNNING, 5, 30, 100));
+        assertEquals(detector.findStragglerTasks(tasks), ImmutableList.of());
+    }
+
+    @Test
+    public void testShortWallTime()
+    {
+        List<TaskInfo> tasks = ImmutableList.of(
+                createTask(0, RUNNING, 20, 5, 1),
+                createTask(1, RUNNING, 20, 5, 100));
+
+        assertEquals(detector.findStragglerTasks(tasks), ImmutableList.of());
+    }
+
+    @Test
+    public void testSlowerBelowRatio()
+    {
+        List<TaskInfo> tasks = ImmutableList.of(
+                createTask(0, RUNNING, 20, 30, 10),
+                createTask(1, RUNNING, 20, 30, 20),
+                createTask(2, RUNNING, 20, 30, 25));
+
+        assertEquals(detector.findStragglerTasks(tasks), ImmutableList.of());
+    }
+
+    private static TaskInfo createTask(int id, TaskState state, int completedDrivers, int scheduledSeconds, int inputMegabytes)
+    {
+        TaskId taskId = new TaskId("query", 1, id);
+        URI location = URI.create("http://worker-" + id + "/v1/task/" + taskId);
+        TaskStats stats = new TaskStats(
+                new DateTime(0),
+                null,
+                null,
+                null,
+                null,
+                new Duration(0, SECONDS),
+                new Duration(0, SECONDS),
+                completedDrivers,
+                0,
+                0,
+                0,
+                0,
+                0,
+                completedDrivers,
+                0.0,
+                new DataSize(0, BYTE),
+                new DataSize(0, BYTE),
+                new Duration(scheduledSeconds, SECONDS),
+                new Duration(0, SECONDS),
+                new Duration(0, SECONDS),
+                new Duration(0, SECONDS),
+                false,
+                ImmutableSet.of(),
+                new DataSize(inputMegabytes, MEGABYTE),
+                0,
+                new DataSize(0, BYTE),
+                0,
+                new DataSize(0, BYTE),
+                0,
+                ImmutableList.of());
+        TaskStatus status = new TaskStatus(taskId, "instance", 1, state, location, ImmutableList.of(), 0, 0, 0, 0, new DataSize(0, BYTE));
+        return createInitialTask(taskId, location, ImmutableList.of(), stats).withTaskStatus(status);
+    }
+}
@@ -18,10 +18,12 @@ import com.facebook.presto.execution.executor.TaskHandle;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.testing.TestingTicker;
 import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -160,6 +162,88 @@ public class TestTaskExecutor
         }
     }
 
+    @Test
+    public void testStragglerLeafSplits()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        TaskExecutor taskExecutor = new TaskExecutor(4, 8, ticker);
+        taskExecutor.start();
+        ticker.increment(20, MILLISECONDS);
+
+        try {
+            TaskId taskId = new TaskId("test", 0, 0);
+            TaskHandle taskHandle = taskExecutor.addTask(taskId, () -> 0, 10, new Duration(1, MILLISECONDS));
+
+            // complete enough peer splits to establish a baseline
+            ImmutableList.Builder<SplitRunner> quickSplits = ImmutableList.builder();
+            for (int i = 0; i < 10; i++) {
+                quickSplits.add(new BlockingSplit(Futures.immediateFuture(null)));
+            }
+            Futures.allAsList(taskExecutor.enqueueSplits(taskHandle, false, quickSplits.build())).get(10, TimeUnit.SECONDS);
+
+            BlockingSplit slowSplit = new BlockingSplit(SettableFuture.create());
+            taskExecutor.enqueueSplits(taskHandle, false, ImmutableList.of(slowSplit));
+            slowSplit.awaitStarted();
+
+            taskExecutor.detectStragglerLeafSplits();
+            assertEquals(taskExecutor.getStragglerLeafSplits().getTotalCount(), 0);
+
+            ticker.increment(1, TimeUnit.MINUTES);
+            taskExecutor.detectStragglerLeafSplits();
+            assertEquals(taskExecutor.getStragglerLeafSplits().getTotalCount(), 1);
+
+            // a straggler is only reported once
+            taskExecutor.detectStragglerLeafSplits();
+            assertEquals(taskExecutor.getStragglerLeafSplits().getTotalCount(), 1);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
+    private static class BlockingSplit
+            implements SplitRunner
+    {
+        private final ListenableFuture<?> blocked;
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        public BlockingSplit(ListenableFuture<?> blocked)
+        {
+            this.blocked = blocked;
+        }
+
+        public void awaitStarted()
+                throws InterruptedException
+        {
+            started.await();
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            started.countDown();
+            return blocked;
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "blocking-split";
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return blocked.isDone();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
     private static class TestingJob
             implements SplitRunner
     {
@@ -40,12 +40,16 @@ public class TestTaskManagerConfig
                 .setTaskCpuTimerEnabled(true)
                 .setMaxWorkerThreads(Runtime.getRuntime().availableProcessors() * 2)
                 .setMinDrivers(Runtime.getRuntime().availableProcessors() * 2 * 2)
+                .setStragglerSplitWallTimeRatio(4.0)
+                .setStragglerSplitMinCompletedSplits(10)
+                .setStragglerSplitMinWallTime(new Duration(10, TimeUnit.SECONDS))
                 .setInfoMaxAge(new Duration(15, TimeUnit.MINUTES))
                 .setClientTimeout(new Duration(2, TimeUnit.MINUTES))
                 .setMaxIndexMemoryUsage(new DataSize(64, Unit.MEGABYTE))
                 .setShareIndexLoading(false)
                 .setMaxPartialAggregationMemoryUsage(new DataSize(16, Unit.MEGABYTE))
                 .setSinkMaxBufferSize(new DataSize(32, Unit.MEGABYTE))
+                .setSinkSpillEnabled(false)
                 .setMaxPagePartitioningBufferSize(new DataSize(32, Unit.MEGABYTE))
                 .setWriterCount(1)
                 .setTaskConcurrency(16)
@@ -69,9 +73,13 @@ public class TestTaskManagerConfig
                 .put("task.max-partial-aggregation-memory", "32MB")
                 .put("task.max-worker-threads", "3")
                 .put("task.min-drivers", "2")
+                .put("task.straggler-split.wall-time-ratio", "2.5")
+                .put("task.straggler-split.min-completed-splits", "5")
+                .put("task.straggler-split.min-wall-time", "1m")
                 .put("task.info.max-age", "22m")
                 .put("task.client.timeout", "10s")
                 .put("sink.max-buffer-size", "42MB")
+                .put("sink.spill-enabled", "true")
                 .put("driver.max-page-partitioning-buffer-size", "40MB")
                 .put("task.writer-count", "4")
                 .put("task.concurrency", "8")
@@ -92,9 +100,13 @@ public class TestTaskManagerConfig
                 .setMaxPartialAggregationMemoryUsage(new DataSize(32, Unit.MEGABYTE))
                 .setMaxWorkerThreads(3)
                 .setMinDrivers(2)
+                .setStragglerSplitWallTimeRatio(2.5)
+                .setStragglerSplitMinCompletedSplits(5)
+                .setStragglerSplitMinWallTime(new Duration(1, TimeUnit.MINUTES))
                 .setInfoMaxAge(new Duration(22, TimeUnit.MINUTES))
                 .setClientTimeout(new Duration(10, TimeUnit.SECONDS))
                 .setSinkMaxBufferSize(new DataSize(42, Unit.MEGABYTE))
+                .setSinkSpillEnabled(true)
                 .setMaxPagePartitioningBufferSize(new DataSize(40, Unit.MEGABYTE))
                 .setWriterCount(4)
                 .setTaskConcurrency(8)
@@ -21,18 +21,26 @@ import com.facebook.presto.operator.PageAssertions;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.type.BigintType;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.SerializedPageSpiller;
+import com.facebook.presto.spiller.SpillerStats;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.facebook.presto.OutputBuffers.BufferType.PARTITIONED;
@@ -43,10 +51,14 @@ import static com.facebook.presto.execution.buffer.BufferState.TERMINAL_BUFFER_S
 import static com.facebook.presto.execution.buffer.TestingPagesSerdeFactory.testingPagesSerde;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
 import static io.airlift.concurrent.MoreFutures.tryGetFutureValue;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.FileUtils.deleteRecursively;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
@@ -350,6 +362,61 @@ public class TestPartitionedOutputBuffer
         enqueuePage(buffer, createPage(3), secondPartition);
     }
 
+    @Test
+    public void testSpillFullBuffer()
+            throws Exception
+    {
+        File spillPath = Files.createTempDir();
+        ListeningExecutorService spillExecutor = listeningDecorator(newSingleThreadExecutor(daemonThreadsNamed("test-spiller-%s")));
+        try {
+            PartitionedOutputBuffer buffer = createPartitionedBuffer(
+                    createInitialEmptyOutputBuffers(PARTITIONED)
+                            .withBuffer(FIRST, 0)
+                            .withNoMoreBufferIds(),
+                    sizeOfBufferedPages(2),
+                    Optional.of(() -> new SerializedPageSpiller(spillPath.toPath(), spillExecutor, new SpillerStats(), bytes -> { })));
+
+            // the third page fills the buffer
+            for (int i = 0; i < 3; i++) {
+                addPage(buffer, createPage(i), 0);
+            }
+            assertEquals(buffer.getInfo().getTotalBufferedBytes(), sizeOfBufferedPages(3).toBytes());
+
+            // the next page is spilled, and the writer waits for the spill write instead of the reader
+            CountDownLatch spillExecutorReleased = new CountDownLatch(1);
+            spillExecutor.execute(() -> awaitUninterruptibly(spillExecutorReleased));
+            ListenableFuture<?> spilling = enqueuePage(buffer, createPage(3), 0);
+            assertEquals(buffer.getInfo().getTotalBufferedBytes(), sizeOfBufferedPages(3).toBytes());
+            assertEquals(spillPath.listFiles().length, 1);
+
+            // buffered and spilled pages are returned in the order they were added, once the spilled page is written
+            ListenableFuture<BufferResult> result = buffer.get(FIRST, 0, sizeOfBufferedPages(10));
+            assertFalse(result.isDone());
+            spillExecutorReleased.countDown();
+            spilling.get(10, SECONDS);
+            assertBufferResultEquals(TYPES, getFuture(result, MAX_WAIT), bufferResult(0, createPage(0), createPage(1), createPage(2), createPage(3)));
+
+            // the buffer is still full, so the next page is spilled as well
+            buffer.enqueue(0, ImmutableList.of(PAGES_SERDE.serialize(createPage(4)))).get(10, SECONDS);
+            assertEquals(buffer.getInfo().getTotalBufferedBytes(), sizeOfBufferedPages(3).toBytes());
+
+            // acknowledging the pages frees the buffer, so new pages are buffered in memory again
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, FIRST, 4, sizeOfBufferedPages(10), MAX_WAIT), bufferResult(4, createPage(4)));
+            assertEquals(buffer.getInfo().getTotalBufferedBytes(), 0);
+            buffer.get(FIRST, 5, sizeOfBufferedPages(10)).cancel(true);
+            addPage(buffer, createPage(5), 0);
+            assertEquals(buffer.getInfo().getTotalBufferedBytes(), sizeOfBufferedPages(1).toBytes());
+
+            // destroying the buffer removes the spill file
+            buffer.destroy();
+            assertEquals(spillPath.listFiles().length, 0);
+        }
+        finally {
+            spillExecutor.shutdownNow();
+            deleteRecursively(spillPath);
+        }
+    }
+
     @Test
     public void testAcknowledgementFreesWriters()
             throws Exception
@@ -810,6 +877,11 @@ public class TestPartitionedOutputBuffer
     }
 
     private PartitionedOutputBuffer createPartitionedBuffer(OutputBuffers buffers, DataSize dataSize)
+    {
+        return createPartitionedBuffer(buffers, dataSize, Optional.empty());
+    }
+
+    private PartitionedOutputBuffer createPartitionedBuffer(OutputBuffers buffers, DataSize dataSize, Optional<Supplier<SerializedPageSpiller>> spillerFactory)
     {
         return new PartitionedOutputBuffer(
                 TASK_INSTANCE_ID,
@@ -817,7 +889,8 @@ public class TestPartitionedOutputBuffer
                 buffers,
                 dataSize,
                 ignored -> { },
-                stateNotificationExecutor);
+                stateNotificationExecutor,
+                spillerFactory);
     }
 
     private static BufferInfo getBufferInfo(PartitionedOutputBuffer buffer, OutputBufferId bufferId)
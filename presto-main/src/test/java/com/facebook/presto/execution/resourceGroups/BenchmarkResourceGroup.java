@@ -66,6 +66,9 @@ public class BenchmarkResourceGroup
         @Param({"100", "1000", "10000"})
         private int queries = 100;
 
+        @Param({"0", "10000"})
+        private int queuedQueries = 0;
+
         private final ExecutorService executor = Executors.newSingleThreadExecutor();
         private RootInternalResourceGroup root;
 
@@ -74,18 +77,22 @@ public class BenchmarkResourceGroup
         {
             root = new RootInternalResourceGroup("root", (group, export) -> { }, executor);
             root.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
-            root.setMaxQueuedQueries(queries);
+            root.setMaxQueuedQueries(queries + queuedQueries);
             root.setMaxRunningQueries(queries);
             InternalResourceGroup group = root;
             for (int i = 0; i < children; i++) {
                 group = root.getOrCreateSubGroup(String.valueOf(i));
                 group.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
-                group.setMaxQueuedQueries(queries);
+                group.setMaxQueuedQueries(queries + queuedQueries);
                 group.setMaxRunningQueries(queries);
             }
             for (int i = 0; i < queries; i++) {
                 group.run(new MockQueryExecution(10));
             }
+            // the running limit is reached, so these stay queued
+            for (int i = 0; i < queuedQueries; i++) {
+                group.run(new MockQueryExecution(10));
+            }
         }
 
         @TearDown
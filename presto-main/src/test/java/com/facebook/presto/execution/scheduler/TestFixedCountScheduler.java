@@ -59,7 +59,7 @@ public class TestFixedCountScheduler
                 (node, partition) -> taskFactory.createTableScanTask(
                         new TaskId("test", 1, 1),
                         node, ImmutableList.of(),
-                        new PartitionedSplitCountTracker(delta -> { })),
+                        new PartitionedSplitCountTracker(delta -> { }, weight -> { })),
                 generateRandomNodes(1));
 
         ScheduleResult result = nodeScheduler.schedule();
@@ -77,7 +77,7 @@ public class TestFixedCountScheduler
                 (node, partition) -> taskFactory.createTableScanTask(
                         new TaskId("test", 1, 1),
                         node, ImmutableList.of(),
-                        new PartitionedSplitCountTracker(delta -> { })),
+                        new PartitionedSplitCountTracker(delta -> { }, weight -> { })),
                 generateRandomNodes(5));
 
         ScheduleResult result = nodeScheduler.schedule();
@@ -40,10 +40,12 @@ import static com.facebook.presto.metadata.FunctionRegistry.getMagicLiteralFunct
 import static com.facebook.presto.metadata.FunctionRegistry.mangleOperatorName;
 import static com.facebook.presto.metadata.FunctionRegistry.unmangleOperator;
 import static com.facebook.presto.metadata.Signature.typeVariable;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.HyperLogLogType.HYPER_LOG_LOG;
 import static com.facebook.presto.spi.type.TimestampWithTimeZoneType.TIMESTAMP_WITH_TIME_ZONE;
 import static com.facebook.presto.spi.type.TypeSignature.parseTypeSignature;
 import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypeSignatures;
+import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
 import static com.facebook.presto.type.TypeUtils.resolveTypes;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Lists.transform;
@@ -91,6 +93,27 @@ public class TestFunctionRegistry
         assertTrue(foundOperator);
     }
 
+    @Test
+    public void testSessionDependentFunctions()
+    {
+        TypeRegistry typeManager = new TypeRegistry();
+        FunctionRegistry registry = new FunctionRegistry(typeManager, new BlockEncodingManager(typeManager), new FeaturesConfig());
+        assertTrue(registry.isSessionDependent(registry.resolveFunction(QualifiedName.of("now"), ImmutableList.of())));
+        assertFalse(registry.isSessionDependent(registry.resolveFunction(QualifiedName.of("abs"), fromTypes(ImmutableList.of(BIGINT)))));
+        assertFalse(registry.isSessionDependent(registry.resolveFunction(QualifiedName.of("count"), ImmutableList.of())));
+    }
+
+    @Test
+    public void testDeterministicFunctions()
+    {
+        TypeRegistry typeManager = new TypeRegistry();
+        FunctionRegistry registry = new FunctionRegistry(typeManager, new BlockEncodingManager(typeManager), new FeaturesConfig());
+        assertFalse(registry.isDeterministic(registry.resolveFunction(QualifiedName.of("rand"), ImmutableList.of())));
+        assertFalse(registry.isDeterministic(registry.resolveFunction(QualifiedName.of("random"), fromTypes(ImmutableList.of(BIGINT)))));
+        assertTrue(registry.isDeterministic(registry.resolveFunction(QualifiedName.of("abs"), fromTypes(ImmutableList.of(BIGINT)))));
+        assertTrue(registry.isDeterministic(registry.resolveFunction(QualifiedName.of("count"), ImmutableList.of())));
+    }
+
     @Test
     public void testMagicLiteralFunction()
     {
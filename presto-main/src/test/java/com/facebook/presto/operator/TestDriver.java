@@ -25,6 +25,8 @@ import com.facebook.presto.spi.FixedPageSource;
 import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.LazyBlock;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.split.PageSourceProvider;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
@@ -41,6 +43,7 @@ import org.testng.annotations.Test;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
@@ -53,6 +56,7 @@ import java.util.function.Function;
 
 import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
@@ -111,6 +115,28 @@ public class TestDriver
         assertTrue(source.isFinished());
     }
 
+    @Test
+    public void testLazyInputLoadedForOperatorWithoutLazySupport()
+    {
+        List<Type> types = ImmutableList.of(BIGINT);
+        Block block = createLongSequenceBlock(0, 10);
+        LazyBlock lazyBlock = new LazyBlock(block.getPositionCount(), lazy -> lazy.setBlock(block));
+        ValuesOperator source = new ValuesOperator(driverContext.addOperatorContext(0, new PlanNodeId("test"), "values"), types, ImmutableList.of(new Page(lazyBlock)));
+
+        List<Boolean> loadedOnInput = new ArrayList<>();
+        PageConsumerOperator sink = new PageConsumerOperator(
+                driverContext.addOperatorContext(1, new PlanNodeId("test"), "sink"),
+                page -> loadedOnInput.add(((LazyBlock) page.getBlock(0)).isLoaded()),
+                Function.identity());
+        assertFalse(sink.isLazyInputSupported());
+
+        Driver driver = new Driver(driverContext, source, sink);
+        driver.processFor(new Duration(1, TimeUnit.SECONDS));
+        assertTrue(driver.isFinished());
+
+        assertEquals(loadedOnInput, ImmutableList.of(true));
+    }
+
     @Test
     public void testAbruptFinish()
     {
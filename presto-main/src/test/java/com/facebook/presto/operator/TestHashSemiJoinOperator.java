@@ -19,6 +19,9 @@ import com.facebook.presto.operator.HashSemiJoinOperator.HashSemiJoinOperatorFac
 import com.facebook.presto.operator.SetBuilderOperator.SetBuilderOperatorFactory;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.GenericPartitioningSpillerFactory;
+import com.facebook.presto.spiller.InMemorySingleStreamSpillerFactory;
+import com.facebook.presto.spiller.PartitioningSpillerFactory;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.facebook.presto.testing.MaterializedResult;
@@ -31,24 +34,32 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.operator.OperatorAssertion.dropChannel;
+import static com.facebook.presto.operator.OperatorAssertion.toMaterializedResult;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
 import static com.google.common.collect.Iterables.concat;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.Assertions.assertEqualsIgnoreOrder;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestHashSemiJoinOperator
 {
     private ExecutorService executor;
     private TaskContext taskContext;
+    private final PartitioningSpillerFactory partitioningSpillerFactory = new GenericPartitioningSpillerFactory(new InMemorySingleStreamSpillerFactory());
 
     @BeforeMethod
     public void setUp()
@@ -276,6 +287,120 @@ public class TestHashSemiJoinOperator
         OperatorAssertion.assertOperatorEquals(joinOperatorFactory, driverContext, probeInput, expected, hashEnabled, ImmutableList.of(probeTypes.size()));
     }
 
+    @Test(dataProvider = "hashEnabledValues")
+    public void testSpilledSemiJoin(boolean hashEnabled)
+            throws Exception
+    {
+        DriverContext driverContext = taskContext.addPipelineContext(0, true, true).addDriverContext();
+
+        // build, spilled once the first page is added
+        OperatorContext operatorContext = driverContext.addOperatorContext(0, new PlanNodeId("test"), ValuesOperator.class.getSimpleName());
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, Ints.asList(0), BIGINT);
+        Operator buildOperator = new ValuesOperator(operatorContext, rowPagesBuilder.getTypes(), rowPagesBuilder
+                .addSequencePage(1000, 0)
+                .addSequencePage(1000, 2000)
+                .addSequencePage(1000, 500)
+                .build());
+        SetBuilderOperatorFactory setBuilderOperatorFactory = new SetBuilderOperatorFactory(
+                1,
+                new PlanNodeId("test"),
+                buildOperator.getTypes().get(0),
+                0,
+                rowPagesBuilder.getHashChannel(),
+                10,
+                new DataSize(1, BYTE),
+                Optional.of(partitioningSpillerFactory),
+                new JoinCompiler());
+        Operator setBuilderOperator = setBuilderOperatorFactory.createOperator(driverContext);
+
+        Driver driver = new Driver(driverContext, buildOperator, setBuilderOperator);
+        while (!setBuilderOperatorFactory.getSetProvider().getChannelSet().isDone()) {
+            driver.process();
+        }
+        assertTrue(setBuilderOperatorFactory.getSetProvider().getChannelSet().get().isSpilled());
+
+        // probe with two operators, which share the loaded partitions of the set
+        List<Type> probeTypes = ImmutableList.of(BIGINT);
+        RowPagesBuilder rowPagesBuilderProbe = rowPagesBuilder(hashEnabled, Ints.asList(0), probeTypes);
+        List<Page> probeInput = rowPagesBuilderProbe
+                .addSequencePage(1000, 1000)
+                .row((Object) null)
+                .addSequencePage(1000, 2500)
+                .build();
+        HashSemiJoinOperatorFactory joinOperatorFactory = new HashSemiJoinOperatorFactory(
+                2,
+                new PlanNodeId("test"),
+                setBuilderOperatorFactory.getSetProvider(),
+                rowPagesBuilderProbe.getTypes(),
+                0,
+                Optional.of(partitioningSpillerFactory));
+        PipelineContext probePipelineContext = taskContext.addPipelineContext(1, true, true);
+        Operator firstJoinOperator = joinOperatorFactory.createOperator(probePipelineContext.addDriverContext());
+        Operator secondJoinOperator = joinOperatorFactory.createOperator(probePipelineContext.addDriverContext());
+        joinOperatorFactory.close();
+
+        ImmutableList.Builder<Page> output = ImmutableList.builder();
+        addInput(firstJoinOperator, probeInput.subList(0, 2));
+        addInput(secondJoinOperator, probeInput.subList(2, probeInput.size()));
+        firstJoinOperator.finish();
+        drain(firstJoinOperator, output);
+
+        // partitions are only loaded once all operators probing the set have spilled their rows
+        assertFalse(firstJoinOperator.isFinished());
+        assertFalse(firstJoinOperator.isBlocked().isDone());
+
+        secondJoinOperator.finish();
+        for (int loops = 0; !(firstJoinOperator.isFinished() && secondJoinOperator.isFinished()) && loops < 10_000; loops++) {
+            drain(firstJoinOperator, output);
+            drain(secondJoinOperator, output);
+        }
+        assertTrue(firstJoinOperator.isFinished());
+        assertTrue(secondJoinOperator.isFinished());
+
+        // the set builder holds the memory of the spilled set until the set is released
+        assertFalse(driver.isFinished());
+        firstJoinOperator.close();
+        secondJoinOperator.close();
+        driver.process();
+        assertTrue(driver.isFinished());
+
+        // expected
+        MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), concat(probeTypes, ImmutableList.of(BOOLEAN)));
+        for (long value = 1000; value < 2000; value++) {
+            expected.row(value, value < 1500);
+        }
+        expected.row(null, null);
+        for (long value = 2500; value < 3500; value++) {
+            expected.row(value, value < 3000);
+        }
+
+        List<Page> actualPages = output.build();
+        if (hashEnabled) {
+            actualPages = dropChannel(actualPages, ImmutableList.of(probeTypes.size()));
+        }
+        MaterializedResult actual = toMaterializedResult(driverContext.getSession(), ImmutableList.copyOf(concat(probeTypes, ImmutableList.of(BOOLEAN))), actualPages);
+        assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.build().getMaterializedRows());
+    }
+
+    private static void addInput(Operator operator, List<Page> input)
+    {
+        for (Page page : input) {
+            assertTrue(operator.needsInput());
+            operator.addInput(page);
+            assertNull(operator.getOutput());
+        }
+    }
+
+    private static void drain(Operator operator, ImmutableList.Builder<Page> output)
+    {
+        for (int loops = 0; !operator.isFinished() && operator.isBlocked().isDone() && loops < 100; loops++) {
+            Page page = operator.getOutput();
+            if (page != null) {
+                output.add(page);
+            }
+        }
+    }
+
     @Test(dataProvider = "hashEnabledValues", expectedExceptions = ExceededMemoryLimitException.class, expectedExceptionsMessageRegExp = "Query exceeded local memory limit of.*")
     public void testMemoryLimit(boolean hashEnabled)
             throws Exception
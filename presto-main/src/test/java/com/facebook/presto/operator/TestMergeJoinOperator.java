@@ -0,0 +1,352 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.operator.MergeJoinOperator.MergeJoinOperatorFactory;
+import com.facebook.presto.operator.MergeJoinSinkOperator.MergeJoinSinkOperatorFactory;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.testing.MaterializedResult;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEquals;
+import static com.facebook.presto.operator.OperatorAssertion.toMaterializedResult;
+import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_LAST;
+import static com.facebook.presto.spi.block.SortOrder.DESC_NULLS_FIRST;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
+import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestMergeJoinOperator
+{
+    private static final List<Type> PROBE_TYPES = ImmutableList.of(BIGINT, VARCHAR);
+    private static final List<Type> BUILD_TYPES = ImmutableList.of(VARCHAR, BIGINT);
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test-%s"));
+    }
+
+    @AfterClass
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testInnerJoin()
+            throws Exception
+    {
+        MergeJoinSource mergeJoinSource = createSource(buildPages());
+        MergeJoinOperatorFactory joinOperatorFactory = createJoinOperatorFactory(mergeJoinSource, false);
+
+        MaterializedResult expected = resultBuilder(TEST_SESSION, BIGINT, VARCHAR, VARCHAR, BIGINT)
+                .row(1L, "p1", "b1", 1L)
+                .row(2L, "p2a", "b2a", 2L)
+                .row(2L, "p2a", "b2b", 2L)
+                .row(2L, "p2a", "b2c", 2L)
+                .row(2L, "p2b", "b2a", 2L)
+                .row(2L, "p2b", "b2b", 2L)
+                .row(2L, "p2b", "b2c", 2L)
+                .row(5L, "p5", "b5", 5L)
+                .build();
+
+        assertOperatorEquals(joinOperatorFactory, createDriverContext(), probePages(), expected);
+    }
+
+    @Test
+    public void testLeftJoin()
+            throws Exception
+    {
+        MergeJoinSource mergeJoinSource = createSource(buildPages());
+        MergeJoinOperatorFactory joinOperatorFactory = createJoinOperatorFactory(mergeJoinSource, true);
+
+        MaterializedResult expected = resultBuilder(TEST_SESSION, BIGINT, VARCHAR, VARCHAR, BIGINT)
+                .row(1L, "p1", "b1", 1L)
+                .row(2L, "p2a", "b2a", 2L)
+                .row(2L, "p2a", "b2b", 2L)
+                .row(2L, "p2a", "b2c", 2L)
+                .row(2L, "p2b", "b2a", 2L)
+                .row(2L, "p2b", "b2b", 2L)
+                .row(2L, "p2b", "b2c", 2L)
+                .row(3L, "p3", null, null)
+                .row(5L, "p5", "b5", 5L)
+                .row(7L, "p7", null, null)
+                .row(null, "pnull", null, null)
+                .build();
+
+        assertOperatorEquals(joinOperatorFactory, createDriverContext(), probePages(), expected);
+    }
+
+    @Test
+    public void testDescendingKeys()
+            throws Exception
+    {
+        MergeJoinSource mergeJoinSource = new MergeJoinSource(BUILD_TYPES, Long.MAX_VALUE);
+        rowPagesBuilder(BUILD_TYPES)
+                .row(null, null)
+                .row("b3", 3L)
+                .pageBreak()
+                .row("b2", 2L)
+                .row("b0", 0L)
+                .build()
+                .forEach(mergeJoinSource::addPage);
+        mergeJoinSource.finish();
+
+        MergeJoinOperatorFactory joinOperatorFactory = new MergeJoinOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                mergeJoinSource,
+                PROBE_TYPES,
+                ImmutableList.of(0),
+                ImmutableList.of(0, 1),
+                ImmutableList.of(1),
+                ImmutableList.of(0, 1),
+                ImmutableList.of(DESC_NULLS_FIRST),
+                true);
+
+        List<Page> probeInput = rowPagesBuilder(PROBE_TYPES)
+                .row(null, "pnull")
+                .row(3L, "p3")
+                .row(1L, "p1")
+                .row(0L, "p0")
+                .build();
+
+        MaterializedResult expected = resultBuilder(TEST_SESSION, BIGINT, VARCHAR, VARCHAR, BIGINT)
+                .row(null, "pnull", null, null)
+                .row(3L, "p3", "b3", 3L)
+                .row(1L, "p1", null, null)
+                .row(0L, "p0", "b0", 0L)
+                .build();
+
+        assertOperatorEquals(joinOperatorFactory, createDriverContext(), probeInput, expected);
+    }
+
+    @Test
+    public void testWaitsForBuildPages()
+            throws Exception
+    {
+        MergeJoinSource mergeJoinSource = new MergeJoinSource(BUILD_TYPES, Long.MAX_VALUE);
+        MergeJoinOperatorFactory joinOperatorFactory = createJoinOperatorFactory(mergeJoinSource, false);
+        List<Page> buildInput = buildPages();
+
+        try (Operator operator = joinOperatorFactory.createOperator(createDriverContext())) {
+            operator.addInput(probePages().get(0));
+            assertNull(operator.getOutput());
+            assertFalse(operator.isBlocked().isDone());
+
+            // the group of key 2 spans both build pages, so it can not be joined before the second page arrives
+            mergeJoinSource.addPage(buildInput.get(0));
+            assertTrue(operator.isBlocked().isDone());
+            assertNull(operator.getOutput());
+            assertFalse(operator.isBlocked().isDone());
+
+            mergeJoinSource.addPage(buildInput.get(1));
+            assertTrue(operator.isBlocked().isDone());
+            assertEquals(operator.getOutput().getPositionCount(), 4);
+
+            mergeJoinSource.finish();
+            operator.addInput(probePages().get(1));
+            assertEquals(operator.getOutput().getPositionCount(), 4);
+            assertFalse(operator.isFinished());
+            operator.finish();
+            assertTrue(operator.isFinished());
+        }
+    }
+
+    @Test
+    public void testInnerJoinFinishesWithBuildSide()
+            throws Exception
+    {
+        MergeJoinSource mergeJoinSource = createSource(rowPagesBuilder(BUILD_TYPES).row("b1", 1L).build());
+        MergeJoinOperatorFactory joinOperatorFactory = createJoinOperatorFactory(mergeJoinSource, false);
+
+        try (Operator operator = joinOperatorFactory.createOperator(createDriverContext())) {
+            operator.addInput(probePages().get(0));
+            Page output = operator.getOutput();
+            assertEquals(toMaterializedResult(TEST_SESSION, operator.getTypes(), ImmutableList.of(output)).getMaterializedRows(),
+                    resultBuilder(TEST_SESSION, BIGINT, VARCHAR, VARCHAR, BIGINT)
+                            .row(1L, "p1", "b1", 1L)
+                            .build()
+                            .getMaterializedRows());
+
+            // no more probe rows can match, so the probe side does not have to be consumed
+            assertTrue(operator.isFinished());
+        }
+    }
+
+    @Test
+    public void testSourceBlocksWriterWhenFull()
+    {
+        List<Page> buildInput = buildPages();
+        MergeJoinSource mergeJoinSource = new MergeJoinSource(BUILD_TYPES, 1);
+        assertTrue(mergeJoinSource.waitForWriting().isDone());
+
+        mergeJoinSource.addPage(buildInput.get(0));
+        ListenableFuture<?> writingFuture = mergeJoinSource.waitForWriting();
+        assertFalse(writingFuture.isDone());
+        assertTrue(mergeJoinSource.waitForReading().isDone());
+
+        assertEquals(mergeJoinSource.pollPage(), buildInput.get(0));
+        assertTrue(writingFuture.isDone());
+        assertNull(mergeJoinSource.pollPage());
+        ListenableFuture<?> readingFuture = mergeJoinSource.waitForReading();
+        assertFalse(readingFuture.isDone());
+
+        // once the join does not need the build side anymore, the writer is never blocked again
+        mergeJoinSource.addPage(buildInput.get(0));
+        assertTrue(readingFuture.isDone());
+        writingFuture = mergeJoinSource.waitForWriting();
+        assertFalse(writingFuture.isDone());
+        mergeJoinSource.close();
+        assertTrue(writingFuture.isDone());
+        mergeJoinSource.addPage(buildInput.get(1));
+        assertTrue(mergeJoinSource.waitForWriting().isDone());
+        assertNull(mergeJoinSource.pollPage());
+
+        mergeJoinSource.finish();
+        assertTrue(mergeJoinSource.isFinished());
+    }
+
+    @Test
+    public void testSinkAccountsBufferedPages()
+    {
+        MergeJoinSinkOperatorFactory sinkOperatorFactory = new MergeJoinSinkOperatorFactory(0, new PlanNodeId("test"), BUILD_TYPES, 1024 * 1024);
+        MergeJoinSource mergeJoinSource = sinkOperatorFactory.getMergeJoinSource();
+        Page page = buildPages().get(0);
+
+        Operator sink = sinkOperatorFactory.createOperator(createDriverContext());
+        assertTrue(sink.needsInput());
+        sink.addInput(page);
+        assertEquals(getMemoryReservation(sink), page.getRetainedSizeInBytes());
+
+        // the sink keeps the pages accounted until the join has consumed them
+        sink.finish();
+        assertFalse(sink.needsInput());
+        assertFalse(sink.isFinished());
+        ListenableFuture<?> blocked = sink.isBlocked();
+        assertFalse(blocked.isDone());
+
+        assertEquals(mergeJoinSource.pollPage(), page);
+        assertTrue(blocked.isDone());
+        assertTrue(sink.isBlocked().isDone());
+        assertEquals(getMemoryReservation(sink), 0);
+        assertTrue(sink.isFinished());
+    }
+
+    @Test
+    public void testSinkFinishesWhenJoinIsClosed()
+    {
+        MergeJoinSinkOperatorFactory sinkOperatorFactory = new MergeJoinSinkOperatorFactory(0, new PlanNodeId("test"), BUILD_TYPES, 1024 * 1024);
+        MergeJoinSource mergeJoinSource = sinkOperatorFactory.getMergeJoinSource();
+
+        Operator sink = sinkOperatorFactory.createOperator(createDriverContext());
+        sink.addInput(buildPages().get(0));
+        assertTrue(sink.needsInput());
+        assertFalse(sink.isFinished());
+
+        // the join does not need any more build rows, so the build side stops consuming its input
+        mergeJoinSource.close();
+        assertFalse(sink.needsInput());
+        assertTrue(sink.isFinished());
+        assertTrue(sink.isBlocked().isDone());
+        assertEquals(getMemoryReservation(sink), 0);
+    }
+
+    private static long getMemoryReservation(Operator operator)
+    {
+        return operator.getOperatorContext().getOperatorStats().getMemoryReservation().toBytes();
+    }
+
+    private DriverContext createDriverContext()
+    {
+        return createTaskContext(executor, TEST_SESSION)
+                .addPipelineContext(0, true, true)
+                .addDriverContext();
+    }
+
+    private static MergeJoinSource createSource(List<Page> buildPages)
+    {
+        MergeJoinSource mergeJoinSource = new MergeJoinSource(BUILD_TYPES, Long.MAX_VALUE);
+        buildPages.forEach(mergeJoinSource::addPage);
+        mergeJoinSource.finish();
+        return mergeJoinSource;
+    }
+
+    private static MergeJoinOperatorFactory createJoinOperatorFactory(MergeJoinSource mergeJoinSource, boolean probeOuter)
+    {
+        return new MergeJoinOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                mergeJoinSource,
+                PROBE_TYPES,
+                ImmutableList.of(0),
+                ImmutableList.of(0, 1),
+                ImmutableList.of(1),
+                ImmutableList.of(0, 1),
+                ImmutableList.of(ASC_NULLS_LAST),
+                probeOuter);
+    }
+
+    private static List<Page> probePages()
+    {
+        return rowPagesBuilder(PROBE_TYPES)
+                .row(1L, "p1")
+                .row(2L, "p2a")
+                .pageBreak()
+                .row(2L, "p2b")
+                .row(3L, "p3")
+                .row(5L, "p5")
+                .row(7L, "p7")
+                .row(null, "pnull")
+                .build();
+    }
+
+    private static List<Page> buildPages()
+    {
+        RowPagesBuilder buildPages = rowPagesBuilder(BUILD_TYPES)
+                .row("b0", 0L)
+                .row("b1", 1L)
+                .row("b2a", 2L)
+                .row("b2b", 2L)
+                .pageBreak()
+                .row("b2c", 2L)
+                .row("b4", 4L)
+                .row("b5", 5L)
+                .row(null, null);
+        return buildPages.build();
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.OutputBuffers;
+import com.facebook.presto.OutputBuffers.OutputBufferId;
+import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.execution.StateMachine.StateChangeListener;
+import com.facebook.presto.execution.buffer.BufferResult;
+import com.facebook.presto.execution.buffer.BufferState;
+import com.facebook.presto.execution.buffer.OutputBuffer;
+import com.facebook.presto.execution.buffer.OutputBufferInfo;
+import com.facebook.presto.execution.buffer.PagesSerde;
+import com.facebook.presto.execution.buffer.SerializedPage;
+import com.facebook.presto.execution.buffer.TestingPagesSerdeFactory;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.predicate.NullableValue;
+import com.facebook.presto.sql.planner.SkewedKeys;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.execution.buffer.TestingPagesSerdeFactory.testingPagesSerde;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+
+@Test
+public class TestPartitionedOutputOperator
+{
+    private static final int PARTITION_COUNT = 4;
+    private static final long HOT_KEY = 7;
+    private static final int HOT_ROWS = 40;
+    private static final int NULL_ROWS = 8;
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test-%s"));
+    }
+
+    @AfterClass
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSpreadSkewedKeys()
+    {
+        List<List<Long>> partitions = partition(Optional.of(new SkewedKeys(ImmutableList.of(NullableValue.of(BIGINT, HOT_KEY)), false)));
+
+        for (List<Long> keys : partitions) {
+            assertEquals(count(keys, HOT_KEY), HOT_ROWS / PARTITION_COUNT);
+            assertEquals(count(keys, null), NULL_ROWS / PARTITION_COUNT);
+        }
+        assertOtherKeysPartitioned(partitions);
+    }
+
+    @Test
+    public void testReplicateSkewedKeys()
+    {
+        List<List<Long>> partitions = partition(Optional.of(new SkewedKeys(ImmutableList.of(NullableValue.of(BIGINT, HOT_KEY)), true)));
+
+        for (List<Long> keys : partitions) {
+            // null keys can not match, so they are spread rather than replicated
+            assertEquals(count(keys, HOT_KEY), HOT_ROWS);
+            assertEquals(count(keys, null), NULL_ROWS / PARTITION_COUNT);
+        }
+        assertOtherKeysPartitioned(partitions);
+    }
+
+    @Test
+    public void testSpreadOnlyNullKeys()
+    {
+        List<List<Long>> partitions = partition(Optional.of(new SkewedKeys(ImmutableList.of(), false)));
+
+        for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+            List<Long> keys = partitions.get(partition);
+            assertEquals(count(keys, HOT_KEY), partition == HOT_KEY % PARTITION_COUNT ? HOT_ROWS : 0);
+            assertEquals(count(keys, null), NULL_ROWS / PARTITION_COUNT);
+        }
+    }
+
+    @Test
+    public void testWithoutSkewedKeys()
+    {
+        List<List<Long>> partitions = partition(Optional.empty());
+
+        assertEquals(count(partitions.get((int) (HOT_KEY % PARTITION_COUNT)), HOT_KEY), HOT_ROWS);
+        assertEquals(count(partitions.get(0), null), NULL_ROWS);
+    }
+
+    private List<List<Long>> partition(Optional<SkewedKeys> skewedKeys)
+    {
+        // every key below 2 * PARTITION_COUNT once, then more rows of the hot key and a run of nulls
+        RowPagesBuilder input = rowPagesBuilder(BIGINT)
+                .addSequencePage(2 * PARTITION_COUNT, 0);
+        for (int i = 0; i < HOT_ROWS - 1; i++) {
+            input.row(HOT_KEY);
+        }
+        for (int i = 0; i < NULL_ROWS; i++) {
+            input.row((Object) null);
+        }
+
+        TestingOutputBuffer outputBuffer = new TestingOutputBuffer();
+        OperatorContext operatorContext = createTaskContext(executor, TEST_SESSION)
+                .addPipelineContext(0, true, true)
+                .addDriverContext()
+                .addOperatorContext(0, new PlanNodeId("test"), PartitionedOutputOperator.class.getSimpleName());
+        PartitionedOutputOperator operator = new PartitionedOutputOperator(
+                operatorContext,
+                ImmutableList.of(BIGINT),
+                Function.identity(),
+                new PartitionFunction((page, position) -> page.getBlock(0).isNull(position) ? 0 : (int) (BIGINT.getLong(page.getBlock(0), position) % PARTITION_COUNT), new int[] {0, 1, 2, 3}),
+                ImmutableList.of(0),
+                ImmutableList.of(Optional.empty()),
+                false,
+                OptionalInt.empty(),
+                skewedKeys.isPresent() ? OptionalInt.of(0) : OptionalInt.empty(),
+                skewedKeys,
+                outputBuffer,
+                new TestingPagesSerdeFactory(),
+                new DataSize(1, MEGABYTE));
+
+        for (Page page : input.build()) {
+            operator.addInput(page);
+        }
+        operator.finish();
+        return outputBuffer.getPartitionKeys();
+    }
+
+    private static void assertOtherKeysPartitioned(List<List<Long>> partitions)
+    {
+        for (long key = 0; key < 2 * PARTITION_COUNT; key++) {
+            if (key != HOT_KEY) {
+                assertEquals(count(partitions.get((int) (key % PARTITION_COUNT)), key), 1);
+            }
+        }
+    }
+
+    private static int count(List<Long> keys, Long key)
+    {
+        return (int) keys.stream()
+                .filter(value -> key == null ? value == null : key.equals(value))
+                .count();
+    }
+
+    private static class TestingOutputBuffer
+            implements OutputBuffer
+    {
+        private final PagesSerde serde = testingPagesSerde();
+        private final List<List<Long>> partitionKeys = new ArrayList<>();
+
+        public TestingOutputBuffer()
+        {
+            for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+                partitionKeys.add(new ArrayList<>());
+            }
+        }
+
+        public List<List<Long>> getPartitionKeys()
+        {
+            return partitionKeys;
+        }
+
+        @Override
+        public ListenableFuture<?> enqueue(int partition, List<SerializedPage> pages)
+        {
+            for (SerializedPage serializedPage : pages) {
+                Block block = serde.deserialize(serializedPage).getBlock(0);
+                for (int position = 0; position < block.getPositionCount(); position++) {
+                    partitionKeys.get(partition).add(block.isNull(position) ? null : BIGINT.getLong(block, position));
+                }
+            }
+            return immediateFuture(null);
+        }
+
+        @Override
+        public ListenableFuture<?> enqueue(List<SerializedPage> pages)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public OutputBufferInfo getInfo()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return false;
+        }
+
+        @Override
+        public double getUtilization()
+        {
+            return 0;
+        }
+
+        @Override
+        public void addStateChangeListener(StateChangeListener<BufferState> stateChangeListener)
+        {
+        }
+
+        @Override
+        public void setOutputBuffers(OutputBuffers newOutputBuffers)
+        {
+        }
+
+        @Override
+        public ListenableFuture<BufferResult> get(OutputBufferId bufferId, long token, DataSize maxSize)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void abort(OutputBufferId bufferId)
+        {
+        }
+
+        @Override
+        public void setNoMorePages()
+        {
+        }
+
+        @Override
+        public void destroy()
+        {
+        }
+
+        @Override
+        public void fail()
+        {
+        }
+    }
+}
@@ -43,7 +43,7 @@ public class TestPositionLinks
         assertEquals(builder.link(11, 10), 11);
         assertEquals(builder.link(12, 11), 12);
 
-        PositionLinks positionLinks = builder.build().apply(Optional.empty());
+        PositionLinks positionLinks = builder.build().create(Optional.empty(), Optional.empty());
 
         assertEquals(positionLinks.start(3, 0, TEST_PAGE), 3);
         assertEquals(positionLinks.next(3, 0, TEST_PAGE), 2);
@@ -77,7 +77,7 @@ public class TestPositionLinks
         };
 
         PositionLinks.Builder builder = buildSortedPositionLinks();
-        PositionLinks positionLinks = builder.build().apply(Optional.of(filterFunction));
+        PositionLinks positionLinks = builder.build().create(Optional.of(filterFunction), Optional.empty());
 
         assertEquals(positionLinks.start(0, 0, TEST_PAGE), 5);
         assertEquals(positionLinks.next(5, 0, TEST_PAGE), 6);
@@ -108,7 +108,7 @@ public class TestPositionLinks
         };
 
         PositionLinks.Builder builder = buildSortedPositionLinks();
-        PositionLinks positionLinks = builder.build().apply(Optional.of(filterFunction));
+        PositionLinks positionLinks = builder.build().create(Optional.empty(), Optional.of(filterFunction));
 
         assertEquals(positionLinks.start(0, 0, TEST_PAGE), 0);
         assertEquals(positionLinks.next(0, 0, TEST_PAGE), 1);
@@ -119,6 +119,49 @@ public class TestPositionLinks
         assertEquals(positionLinks.start(10, 0, TEST_PAGE), -1);
     }
 
+    @Test
+    public void testRangeSortedPositionLinks()
+    {
+        JoinFilterFunction lowerBoundFunction = new JoinFilterFunction()
+        {
+            @Override
+            public boolean filter(int leftAddress, int rightPosition, Page rightPage)
+            {
+                return BIGINT.getLong(rightPage.getBlock(0), leftAddress) > 1;
+            }
+
+            @Override
+            public Optional<Integer> getSortChannel()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+        JoinFilterFunction upperBoundFunction = new JoinFilterFunction()
+        {
+            @Override
+            public boolean filter(int leftAddress, int rightPosition, Page rightPage)
+            {
+                return BIGINT.getLong(rightPage.getBlock(0), leftAddress) < 5;
+            }
+
+            @Override
+            public Optional<Integer> getSortChannel()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        PositionLinks.Builder builder = buildSortedPositionLinks();
+        PositionLinks positionLinks = builder.build().create(Optional.of(lowerBoundFunction), Optional.of(upperBoundFunction));
+
+        assertEquals(positionLinks.start(0, 0, TEST_PAGE), 2);
+        assertEquals(positionLinks.next(2, 0, TEST_PAGE), 3);
+        assertEquals(positionLinks.next(3, 0, TEST_PAGE), 4);
+        assertEquals(positionLinks.next(4, 0, TEST_PAGE), -1);
+
+        assertEquals(positionLinks.start(10, 0, TEST_PAGE), -1);
+    }
+
     private static PositionLinks.Builder buildSortedPositionLinks()
     {
         SortedPositionLinks.Builder builder = SortedPositionLinks.builder(
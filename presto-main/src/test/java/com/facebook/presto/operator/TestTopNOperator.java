@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.RowPagesBuilder;
 import com.facebook.presto.operator.TopNOperator.TopNOperatorFactory;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
@@ -30,6 +31,7 @@ import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEquals;
 import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_LAST;
+import static com.facebook.presto.spi.block.SortOrder.DESC_NULLS_FIRST;
 import static com.facebook.presto.spi.block.SortOrder.DESC_NULLS_LAST;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
@@ -40,6 +42,7 @@ import static com.facebook.presto.testing.assertions.Assert.assertEquals;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.lang.String.format;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 
 @Test(singleThreaded = true)
@@ -168,6 +171,73 @@ public class TestTopNOperator
         assertOperatorEquals(operatorFactory, driverContext, input, expected);
     }
 
+    @Test
+    public void testSingleDoubleKeyManyPages()
+            throws Exception
+    {
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(DOUBLE);
+        for (int i = 0; i < 10_007; i++) {
+            if (i % 100 == 0) {
+                rowPagesBuilder.pageBreak();
+            }
+            if (i % 3000 == 1) {
+                rowPagesBuilder.row((Object) null);
+            }
+            rowPagesBuilder.row((double) (i * 7919 % 10_007));
+        }
+
+        TopNOperatorFactory operatorFactory = new TopNOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(DOUBLE),
+                6,
+                ImmutableList.of(0),
+                ImmutableList.of(DESC_NULLS_FIRST),
+                false,
+                new DataSize(16, MEGABYTE));
+
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), DOUBLE)
+                .row((Object) null)
+                .row((Object) null)
+                .row((Object) null)
+                .row((Object) null)
+                .row(10_006.0)
+                .row(10_005.0)
+                .build();
+
+        assertOperatorEquals(operatorFactory, driverContext, rowPagesBuilder.build(), expected);
+    }
+
+    @Test
+    public void testMultiFieldKeyManyPages()
+            throws Exception
+    {
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(VARCHAR, BIGINT);
+        for (int i = 0; i < 5000; i++) {
+            if (i % 100 == 0) {
+                rowPagesBuilder.pageBreak();
+            }
+            rowPagesBuilder.row(format("k%02d", i % 50), (long) i);
+        }
+
+        TopNOperatorFactory operatorFactory = new TopNOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(VARCHAR, BIGINT),
+                10,
+                ImmutableList.of(0, 1),
+                ImmutableList.of(ASC_NULLS_LAST, DESC_NULLS_LAST),
+                false,
+                new DataSize(16, MEGABYTE));
+
+        MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), VARCHAR, BIGINT);
+        for (long i = 4950; i >= 4500; i -= 50) {
+            expected.row("k00", i);
+        }
+
+        assertOperatorEquals(operatorFactory, driverContext, rowPagesBuilder.build(), expected.build());
+    }
+
     @Test
     public void testLimitZero()
             throws Exception
@@ -14,6 +14,7 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.ExceededMemoryLimitException;
+import com.facebook.presto.RowPagesBuilder;
 import com.facebook.presto.operator.WindowOperator.WindowOperatorFactory;
 import com.facebook.presto.operator.window.FirstValueFunction;
 import com.facebook.presto.operator.window.FrameInfo;
@@ -58,6 +59,8 @@ import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestWindowOperator
@@ -596,6 +599,66 @@ public class TestWindowOperator
         assertOperatorEquals(operatorFactory, driverContext, input, expected);
     }
 
+    @Test
+    public void testFullyPreGroupedPartitionStreamsOutput()
+            throws Exception
+    {
+        RowPagesBuilder largePartition = rowPagesBuilder(BIGINT, BIGINT);
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 1000 == 0) {
+                largePartition.pageBreak();
+            }
+            largePartition.row(1L, (long) i);
+        }
+        List<Page> input = largePartition.build();
+        Page nextPartition = rowPagesBuilder(BIGINT, BIGINT)
+                .row(2L, 0L)
+                .build()
+                .get(0);
+
+        WindowOperatorFactory operatorFactory = createFactoryUnbounded(
+                ImmutableList.of(BIGINT, BIGINT),
+                Ints.asList(0, 1),
+                ROW_NUMBER,
+                Ints.asList(0),
+                Ints.asList(0),
+                Ints.asList(1),
+                ImmutableList.of(SortOrder.ASC_NULLS_LAST),
+                1);
+
+        Operator operator = operatorFactory.createOperator(driverContext);
+        for (Page page : input) {
+            assertTrue(operator.needsInput());
+            operator.addInput(page);
+            assertNull(operator.getOutput());
+        }
+        long peakReservation = getMemoryReservation(operator);
+
+        // a change of the pre-grouped key completes the first partition, which is emitted before finish
+        operator.addInput(nextPartition);
+        int outputPositions = 0;
+        while (!operator.needsInput()) {
+            Page output = operator.getOutput();
+            if (output != null) {
+                outputPositions += output.getPositionCount();
+            }
+        }
+        assertEquals(outputPositions, 10_000);
+
+        // the pages of the emitted partition are released
+        assertTrue(getMemoryReservation(operator) < peakReservation / 10);
+
+        operator.finish();
+        Page output = operator.getOutput();
+        assertEquals(output.getPositionCount(), 1);
+        assertTrue(operator.isFinished());
+    }
+
+    private static long getMemoryReservation(Operator operator)
+    {
+        return operator.getOperatorContext().getOperatorStats().getMemoryReservation().toBytes();
+    }
+
     @Test
     public void testFindEndPosition()
     {
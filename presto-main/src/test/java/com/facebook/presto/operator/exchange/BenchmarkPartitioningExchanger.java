@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.exchange;
+
+import com.facebook.presto.operator.InterpretedHashGenerator;
+import com.facebook.presto.operator.exchange.LocalExchange.LocalExchangeSinkFactory;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.presto.SequencePageBuilder.createSequencePage;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkPartitioningExchanger
+{
+    private static final int POSITIONS = 1_000_000;
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT);
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public long partitionGenerator(BenchmarkData data)
+    {
+        LocalPartitionGenerator partitionGenerator = new LocalPartitionGenerator(new InterpretedHashGenerator(TYPES, new int[] {0}), data.getPartitionCount());
+        long partitionSum = 0;
+        for (Page page : data.getPages()) {
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                partitionSum += partitionGenerator.getPartition(position, page);
+            }
+        }
+        return partitionSum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public long partitionedExchange(BenchmarkData data)
+    {
+        LocalExchange exchange = new LocalExchange(FIXED_HASH_DISTRIBUTION, data.getPartitionCount(), TYPES, ImmutableList.of(0), Optional.empty(), new DataSize(1, GIGABYTE));
+        LocalExchangeSinkFactory sinkFactory = exchange.createSinkFactory();
+        LocalExchangeSink sink = sinkFactory.createSink();
+        sinkFactory.close();
+        sinkFactory.noMoreSinkFactories();
+
+        data.getPages().forEach(sink::addPage);
+        sink.finish();
+
+        long positions = 0;
+        for (int partition = 0; partition < exchange.getBufferCount(); partition++) {
+            LocalExchangeSource source = exchange.getSource(partition);
+            for (Page page = source.removePage(); page != null; page = source.removePage()) {
+                positions += page.getPositionCount();
+            }
+        }
+        return positions;
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"4", "16"})
+        private int partitionCount = 16;
+
+        @Param({"32", "1024"})
+        private int positionsPerPage = 32;
+
+        private List<Page> pages;
+
+        @Setup
+        public void setup()
+        {
+            ImmutableList.Builder<Page> pages = ImmutableList.builder();
+            for (int start = 0; start < POSITIONS; start += positionsPerPage) {
+                pages.add(createSequencePage(TYPES, positionsPerPage, start));
+            }
+            this.pages = pages.build();
+        }
+
+        public int getPartitionCount()
+        {
+            return partitionCount;
+        }
+
+        public List<Page> getPages()
+        {
+            return pages;
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        // assure the benchmarks are valid before running
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+        new BenchmarkPartitioningExchanger().partitionGenerator(data);
+        new BenchmarkPartitioningExchanger().partitionedExchange(data);
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkPartitioningExchanger.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
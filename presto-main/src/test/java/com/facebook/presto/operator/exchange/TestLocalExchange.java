@@ -237,12 +237,21 @@ public class TestLocalExchange
 
         sink.addPage(createPage(0));
 
+        // the readers are waiting, so the pages are handed off right away
         assertSource(sourceA, 1);
         assertSource(sourceB, 1);
         assertTrue(exchange.getBufferedBytes() >= retainedSizeOfPages(1));
 
         sink.addPage(createPage(0));
 
+        // small pages for readers that are not waiting are held back by the exchanger, but are still tracked
+        assertSource(sourceA, 1);
+        assertSource(sourceB, 1);
+        assertTrue(exchange.getBufferedBytes() >= retainedSizeOfPages(2));
+
+        // finishing the sink hands off the held back pages
+        sink.finish();
+        assertSinkFinished(sink);
         assertSource(sourceA, 2);
         assertSource(sourceB, 2);
         assertTrue(exchange.getBufferedBytes() >= retainedSizeOfPages(2));
@@ -252,11 +261,6 @@ public class TestLocalExchange
         assertSource(sourceB, 2);
 
         assertPartitionedRemovePage(sourceA, 0, 2);
-        assertSource(sourceA, 0);
-        assertSource(sourceB, 2);
-
-        sink.finish();
-        assertSinkFinished(sink);
         assertSourceFinished(sourceA);
         assertSource(sourceB, 2);
 
@@ -270,6 +274,100 @@ public class TestLocalExchange
         assertExchangeTotalBufferedBytes(exchange, 0);
     }
 
+    @Test
+    public void testPartitionLargePages()
+    {
+        LocalExchange exchange = new LocalExchange(FIXED_HASH_DISTRIBUTION, 2, TYPES, ImmutableList.of(0), Optional.empty());
+
+        LocalExchangeSinkFactory sinkFactory = exchange.createSinkFactory();
+        LocalExchangeSink sink = sinkFactory.createSink();
+        sinkFactory.close();
+        sinkFactory.noMoreSinkFactories();
+
+        LocalExchangeSource sourceA = exchange.getSource(0);
+        LocalExchangeSource sourceB = exchange.getSource(1);
+
+        // each partition of a large page is handed off immediately
+        Page page = SequencePageBuilder.createSequencePage(TYPES, 100_000, 0);
+        assertTrue(page.getRetainedSizeInBytes() / 2 > PartitioningExchanger.MIN_BATCH_SIZE_IN_BYTES);
+        sink.addPage(page);
+        assertSource(sourceA, 1);
+        assertSource(sourceB, 1);
+
+        assertPartitionedRemovePage(sourceA, 0, 2);
+        assertPartitionedRemovePage(sourceB, 1, 2);
+        assertEquals(exchange.getBufferedBytes(), 0);
+    }
+
+    @Test
+    public void testPartitionHandsOffPagesToWaitingReader()
+    {
+        LocalExchange exchange = new LocalExchange(FIXED_HASH_DISTRIBUTION, 2, TYPES, ImmutableList.of(0), Optional.empty());
+
+        LocalExchangeSinkFactory sinkFactory = exchange.createSinkFactory();
+        LocalExchangeSink sink = sinkFactory.createSink();
+        sinkFactory.close();
+        sinkFactory.noMoreSinkFactories();
+
+        LocalExchangeSource sourceA = exchange.getSource(0);
+        LocalExchangeSource sourceB = exchange.getSource(1);
+
+        // no reader is waiting, so the small pages are held back
+        sink.addPage(createPage(0));
+        assertSourceHoldsNoPages(sourceA);
+        assertSourceHoldsNoPages(sourceB);
+
+        // a reader that starts waiting gets the held back pages of its partition
+        assertTrue(sourceA.waitForReading().isDone());
+        assertSource(sourceA, 1);
+        assertSourceHoldsNoPages(sourceB);
+        assertPartitionedRemovePage(sourceA, 0, 2);
+
+        // pages for a waiting reader are handed off right away
+        ListenableFuture<?> readFuture = sourceA.waitForReading();
+        assertFalse(readFuture.isDone());
+        sink.addPage(createPage(0));
+        assertTrue(readFuture.isDone());
+        assertSource(sourceA, 1);
+        assertSourceHoldsNoPages(sourceB);
+
+        sink.finish();
+        assertSource(sourceA, 1);
+        assertSource(sourceB, 2);
+    }
+
+    @Test
+    public void testPartitionHandsOffPagesBeforeBlocking()
+    {
+        LocalExchange exchange = new LocalExchange(FIXED_HASH_DISTRIBUTION, 2, TYPES, ImmutableList.of(0), Optional.empty(), new DataSize(retainedSizeOfPages(2), BYTE));
+
+        LocalExchangeSinkFactory sinkFactory = exchange.createSinkFactory();
+        LocalExchangeSink sink = sinkFactory.createSink();
+        sinkFactory.close();
+        sinkFactory.noMoreSinkFactories();
+
+        LocalExchangeSource sourceA = exchange.getSource(0);
+        LocalExchangeSource sourceB = exchange.getSource(1);
+
+        sink.addPage(createPage(0));
+        assertSinkCanWrite(sink);
+        sink.addPage(createPage(0));
+        assertSourceHoldsNoPages(sourceA);
+        assertSourceHoldsNoPages(sourceB);
+
+        // the exchange is full, so the held back pages must be readable before the writer blocks
+        ListenableFuture<?> writeFuture = assertSinkWriteBlocked(sink);
+        assertSource(sourceA, 2);
+        assertSource(sourceB, 2);
+
+        assertPartitionedRemovePage(sourceA, 0, 2);
+        assertPartitionedRemovePage(sourceA, 0, 2);
+        assertPartitionedRemovePage(sourceB, 1, 2);
+        assertPartitionedRemovePage(sourceB, 1, 2);
+        assertTrue(writeFuture.isDone());
+        assertSinkCanWrite(sink);
+    }
+
     @Test
     public void writeUnblockWhenAllReadersFinish()
     {
@@ -377,6 +475,13 @@ public class TestLocalExchange
         }
     }
 
+    private static void assertSourceHoldsNoPages(LocalExchangeSource source)
+    {
+        // waitForReading would make the exchanger hand off the pages it holds back
+        assertEquals(source.getBufferInfo().getBufferedPages(), 0);
+        assertFalse(source.isFinished());
+    }
+
     private static void assertSourceFinished(LocalExchangeSource source)
     {
         assertEquals(source.getTypes(), TYPES);
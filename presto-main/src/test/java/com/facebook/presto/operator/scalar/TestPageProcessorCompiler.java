@@ -22,6 +22,7 @@ import com.facebook.presto.spi.block.RunLengthEncodedBlock;
 import com.facebook.presto.spi.block.SliceArrayBlock;
 import com.facebook.presto.spi.type.StandardTypes;
 import com.facebook.presto.sql.gen.ExpressionCompiler;
+import com.facebook.presto.sql.gen.PageFunctionCompiler;
 import com.facebook.presto.sql.relational.CallExpression;
 import com.facebook.presto.sql.relational.DeterminismEvaluator;
 import com.facebook.presto.sql.relational.InputReferenceExpression;
@@ -40,6 +41,7 @@ import static com.facebook.presto.block.BlockAssertions.createRLEBlock;
 import static com.facebook.presto.metadata.FunctionKind.SCALAR;
 import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
 import static com.facebook.presto.metadata.Signature.internalOperator;
+import static com.facebook.presto.spi.function.OperatorType.ADD;
 import static com.facebook.presto.spi.function.OperatorType.LESS_THAN;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
@@ -74,6 +76,27 @@ public class TestPageProcessorCompiler
         assertTrue(pageProcessor != pageProcessor2);
     }
 
+    @Test
+    public void testProjectionAndFilterClassesAreCached()
+    {
+        PageFunctionCompiler pageFunctionCompiler = new PageFunctionCompiler(METADATA_MANAGER, 100);
+        ExpressionCompiler compiler = new ExpressionCompiler(METADATA_MANAGER, pageFunctionCompiler);
+
+        Signature lessThan = internalOperator(LESS_THAN, BOOLEAN, ImmutableList.of(BIGINT, BIGINT));
+        CallExpression filter = new CallExpression(lessThan, BOOLEAN, ImmutableList.of(field(0, BIGINT), constant(10L, BIGINT)));
+        Signature add = internalOperator(ADD, BIGINT, ImmutableList.of(BIGINT, BIGINT));
+        CallExpression projection = new CallExpression(add, BIGINT, ImmutableList.of(field(0, BIGINT), constant(1L, BIGINT)));
+
+        PageProcessor pageProcessor = compiler.compilePageProcessor(Optional.of(filter), ImmutableList.of(projection)).get();
+        PageProcessor pageProcessor2 = compiler.compilePageProcessor(Optional.of(filter), ImmutableList.of(projection)).get();
+        assertTrue(pageProcessor != pageProcessor2);
+
+        assertEquals(pageFunctionCompiler.getProjectionCache().getRequestCount(), 2);
+        assertEquals(pageFunctionCompiler.getProjectionCache().getHitRate(), 0.5);
+        assertEquals(pageFunctionCompiler.getFilterCache().getRequestCount(), 2);
+        assertEquals(pageFunctionCompiler.getFilterCache().getHitRate(), 0.5);
+    }
+
     @Test
     public void testSanityRLE()
             throws Exception
@@ -14,6 +14,7 @@
 package com.facebook.presto.operator.window;
 
 import com.facebook.presto.testing.MaterializedResult;
+import com.google.common.collect.ImmutableList;
 import org.intellij.lang.annotations.Language;
 import org.testng.annotations.Test;
 
@@ -22,6 +23,7 @@ import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.IntegerType.INTEGER;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
+import static org.testng.Assert.assertEquals;
 
 public class TestAggregateWindowFunction
         extends AbstractTestWindowFunction
@@ -150,6 +152,50 @@ public class TestAggregateWindowFunction
                         .build());
     }
 
+    @Test
+    public void testCountRolling()
+    {
+        assertWindowQuery("count(*) OVER (PARTITION BY orderstatus ORDER BY orderkey ROWS 2 PRECEDING)",
+                resultBuilder(TEST_SESSION, INTEGER, VARCHAR, BIGINT)
+                        .row(3, "F", 1L)
+                        .row(5, "F", 2L)
+                        .row(6, "F", 3L)
+                        .row(33, "F", 3L)
+                        .row(1, "O", 1L)
+                        .row(2, "O", 2L)
+                        .row(4, "O", 3L)
+                        .row(7, "O", 3L)
+                        .row(32, "O", 3L)
+                        .row(34, "O", 3L)
+                        .build());
+        assertWindowQuery("count_if(orderkey > 4) OVER (PARTITION BY orderstatus ORDER BY orderkey ROWS BETWEEN 1 PRECEDING AND 1 FOLLOWING)",
+                resultBuilder(TEST_SESSION, INTEGER, VARCHAR, BIGINT)
+                        .row(3, "F", 1L)
+                        .row(5, "F", 2L)
+                        .row(6, "F", 3L)
+                        .row(33, "F", 2L)
+                        .row(1, "O", 0L)
+                        .row(2, "O", 0L)
+                        .row(4, "O", 1L)
+                        .row(7, "O", 2L)
+                        .row(32, "O", 3L)
+                        .row(34, "O", 2L)
+                        .build());
+        assertWindowQueryWithNulls("count(orderkey) OVER (PARTITION BY orderstatus ORDER BY orderkey ROWS 1 PRECEDING)",
+                resultBuilder(TEST_SESSION, BIGINT, VARCHAR, BIGINT)
+                        .row(3L, "F", 1L)
+                        .row(5L, "F", 2L)
+                        .row(6L, "F", 2L)
+                        .row(null, "F", 1L)
+                        .row(34L, "O", 1L)
+                        .row(null, "O", 1L)
+                        .row(1L, null, 1L)
+                        .row(7L, null, 2L)
+                        .row(null, null, 1L)
+                        .row(null, null, 0L)
+                        .build());
+    }
+
     @Test
     public void testSumOrdered()
     {
@@ -302,6 +348,21 @@ public class TestAggregateWindowFunction
                         .build());
     }
 
+    @Test
+    public void testRollingLargeFrame()
+    {
+        // frames larger than a few segment tree leaves are aggregated through the segment tree
+        MaterializedResult actual = queryRunner.execute("" +
+                "SELECT count_if(total <> (x + lowest) * (x - lowest + 1) / 2), count_if(maximum <> x), count_if(minimum <> lowest) " +
+                "FROM (" +
+                "  SELECT x, greatest(x - 300, 1) lowest, " +
+                "    sum(x) OVER (ORDER BY x ROWS 300 PRECEDING) total, " +
+                "    max(x) OVER (ORDER BY x ROWS 300 PRECEDING) maximum, " +
+                "    min(x) OVER (ORDER BY x ROWS 300 PRECEDING) minimum " +
+                "  FROM UNNEST(sequence(1, 2000)) t(x))");
+        assertEquals(actual.getMaterializedRows().get(0).getFields(), ImmutableList.of(0L, 0L, 0L));
+    }
+
     @Test
     public void testSumRollingUnboundedPrecedingNPreceding()
     {
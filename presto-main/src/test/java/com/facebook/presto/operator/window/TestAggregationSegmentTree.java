@@ -0,0 +1,146 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.window;
+
+import com.facebook.presto.metadata.MetadataManager;
+import com.facebook.presto.metadata.Signature;
+import com.facebook.presto.operator.PagesIndex;
+import com.facebook.presto.operator.aggregation.Accumulator;
+import com.facebook.presto.operator.aggregation.AccumulatorFactory;
+import com.facebook.presto.operator.aggregation.InternalAggregationFunction;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.function.WindowIndex;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.metadata.FunctionKind.AGGREGATE;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.TypeSignature.parseTypeSignature;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestAggregationSegmentTree
+{
+    private static final MetadataManager METADATA = MetadataManager.createTestMetadataManager();
+    private static final List<Integer> ARGUMENT_CHANNELS = ImmutableList.of(0);
+
+    @Test
+    public void testSum()
+    {
+        assertSegmentTree(getFunction("sum", BIGINT.getTypeSignature().toString()), 4);
+    }
+
+    @Test
+    public void testMax()
+    {
+        assertSegmentTree(getFunction("max", BIGINT.getTypeSignature().toString()), 7);
+    }
+
+    @Test
+    public void testRowOrder()
+    {
+        assertSegmentTree(getFunction("array_agg", "array(bigint)"), 3);
+    }
+
+    @Test
+    public void testSingleLeaf()
+    {
+        assertSegmentTree(getFunction("sum", BIGINT.getTypeSignature().toString()), 1_000);
+    }
+
+    @Test
+    public void testWindowFunctionRetainedSize()
+    {
+        WindowIndex windowIndex = createWindowIndex(500);
+        Signature signature = new Signature("max", AGGREGATE, BIGINT.getTypeSignature(), BIGINT.getTypeSignature());
+        AggregateWindowFunction function = (AggregateWindowFunction) AggregateWindowFunction.supplier(signature, getFunction("max", BIGINT.getTypeSignature().toString()))
+                .createWindowFunction(ARGUMENT_CHANNELS);
+        function.reset(windowIndex);
+        assertEquals(function.getRetainedSizeInBytes(), 0);
+
+        // a sliding frame just above the threshold, like ROWS 100 PRECEDING, goes through the segment tree
+        int frameSize = AggregateWindowFunction.MIN_SEGMENT_TREE_FRAME_SIZE + 1;
+        assertTrue(frameSize <= 101);
+        BlockBuilder output = BIGINT.createBlockBuilder(new BlockBuilderStatus(), windowIndex.size());
+        for (int row = 0; row < windowIndex.size(); row++) {
+            function.processRow(output, row, row, Math.max(0, row - frameSize + 1), row);
+        }
+        assertTrue(function.getRetainedSizeInBytes() > 0);
+
+        // the segment tree belongs to the partition
+        function.reset(windowIndex);
+        assertEquals(function.getRetainedSizeInBytes(), 0);
+    }
+
+    private static void assertSegmentTree(InternalAggregationFunction function, int leafSize)
+    {
+        WindowIndex windowIndex = createWindowIndex(500);
+        AccumulatorFactory accumulatorFactory = function.bind(ImmutableList.of(0), Optional.empty());
+        AggregationSegmentTree segmentTree = new AggregationSegmentTree(accumulatorFactory, windowIndex, ARGUMENT_CHANNELS, leafSize);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000; i++) {
+            int start = random.nextInt(windowIndex.size());
+            int end = start + random.nextInt(windowIndex.size() - start);
+
+            Accumulator expected = accumulatorFactory.createAccumulator();
+            expected.addInput(windowIndex, ARGUMENT_CHANNELS, start, end);
+
+            Accumulator actual = accumulatorFactory.createAccumulator();
+            segmentTree.addFrame(actual, start, end);
+
+            assertEquals(evaluateFinal(actual), evaluateFinal(expected), "frame " + start + " to " + end);
+        }
+    }
+
+    private static Object evaluateFinal(Accumulator accumulator)
+    {
+        BlockBuilder blockBuilder = accumulator.getFinalType().createBlockBuilder(new BlockBuilderStatus(), 1);
+        accumulator.evaluateFinal(blockBuilder);
+        return accumulator.getFinalType().getObjectValue(TEST_SESSION.toConnectorSession(), blockBuilder.build(), 0);
+    }
+
+    private static WindowIndex createWindowIndex(int size)
+    {
+        Random random = new Random(0);
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(new BlockBuilderStatus(), size);
+        for (int i = 0; i < size; i++) {
+            if (random.nextInt(10) == 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                BIGINT.writeLong(blockBuilder, random.nextInt(1_000) - 500);
+            }
+        }
+        Block block = blockBuilder.build();
+
+        PagesIndex pagesIndex = new PagesIndex.TestingFactory().newPagesIndex(ImmutableList.of(BIGINT), size);
+        pagesIndex.addPage(new Page(block));
+        return new PagesWindowIndex(pagesIndex, 0, size);
+    }
+
+    private static InternalAggregationFunction getFunction(String name, String returnType)
+    {
+        return METADATA.getFunctionRegistry().getAggregateFunctionImplementation(
+                new Signature(name, AGGREGATE, parseTypeSignature(returnType), BIGINT.getTypeSignature()));
+    }
+}
@@ -125,6 +125,9 @@ public class TestBasicQueryInfo
         assertEquals(basicInfo.getQueryStats().isFullyBlocked(), true);
         assertEquals(basicInfo.getQueryStats().getBlockedReasons(), ImmutableSet.of(BlockedReason.WAITING_FOR_MEMORY));
 
+        assertEquals(basicInfo.getQueryStats().getRawInputDataSize(), DataSize.valueOf("27GB"));
+        assertEquals(basicInfo.getQueryStats().getRawInputPositions(), 28);
+
         assertEquals(basicInfo.getQueryStats().getProgressPercentage(), OptionalDouble.of(100));
 
         assertEquals(basicInfo.getErrorCode(), StandardErrorCode.ABANDONED_QUERY.toErrorCode());
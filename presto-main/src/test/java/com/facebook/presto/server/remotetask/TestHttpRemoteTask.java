@@ -136,7 +136,7 @@ public class TestHttpRemoteTask
                 TaskTestUtils.PLAN_FRAGMENT,
                 ImmutableMultimap.of(),
                 createInitialEmptyOutputBuffers(OutputBuffers.BufferType.BROADCAST),
-                new NodeTaskMap.PartitionedSplitCountTracker(i -> { }),
+                new NodeTaskMap.PartitionedSplitCountTracker(i -> { }, weight -> { }),
                 true);
 
         testingTaskResource.setInitialTaskInfo(remoteTask.getTaskInfo());
@@ -396,6 +396,8 @@ public class TestHttpRemoteTask
                     initialTaskStatus.getFailures(),
                     initialTaskStatus.getQueuedPartitionedDrivers(),
                     initialTaskStatus.getRunningPartitionedDrivers(),
+                    initialTaskStatus.getQueuedPartitionedSplitsWeight(),
+                    initialTaskStatus.getRunningPartitionedSplitsWeight(),
                     initialTaskStatus.getMemoryReservation());
         }
     }
@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.block.BlockEncodingManager;
+import com.facebook.presto.memory.AggregatedMemoryContext;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
+import com.facebook.presto.type.TypeRegistry;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+import io.airlift.testing.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestGenericPartitioningSpiller
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR);
+
+    private File spillPath;
+    private PartitioningSpillerFactory factory;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        spillPath = Files.createTempDir();
+        FeaturesConfig featuresConfig = new FeaturesConfig()
+                .setSpillerSpillPaths(spillPath.getAbsolutePath())
+                .setSpillMaxUsedSpaceThreshold(1.0);
+        factory = new GenericPartitioningSpillerFactory(new FileSingleStreamSpillerFactory(
+                new BlockEncodingManager(new TypeRegistry(ImmutableSet.of(BIGINT, VARCHAR))),
+                new SpillerStats(),
+                featuresConfig));
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        FileUtils.deleteRecursively(spillPath);
+    }
+
+    @Test
+    public void testSpillByPartition()
+    {
+        List<Page> pages = rowPagesBuilder(TYPES)
+                .addSequencePage(10_000, 0, 0)
+                .addSequencePage(10_000, 5_000, 0)
+                .build();
+        AggregatedMemoryContext memoryContext = new AggregatedMemoryContext();
+
+        try (PartitioningSpiller spiller = factory.create(TYPES, ImmutableList.of(0), bytes -> { }, memoryContext)) {
+            for (Page page : pages) {
+                getUnchecked(spiller.spill(page));
+            }
+            getUnchecked(spiller.flush());
+
+            long positions = 0;
+            Set<Integer> nonEmptyPartitions = new HashSet<>();
+            for (int partition = 0; partition < spiller.getPartitionCount(); partition++) {
+                Iterator<Page> spilledPages = spiller.getSpilledPages(partition);
+                while (spilledPages.hasNext()) {
+                    Page page = spilledPages.next();
+                    for (int position = 0; position < page.getPositionCount(); position++) {
+                        assertEquals(spiller.getPartition(page, position), partition);
+                    }
+                    positions += page.getPositionCount();
+                    nonEmptyPartitions.add(partition);
+                }
+            }
+            assertEquals(positions, 20_000);
+            assertEquals(nonEmptyPartitions.size(), spiller.getPartitionCount());
+
+            // spilled pages can be read again
+            assertTrue(spiller.getSpilledPages(nonEmptyPartitions.iterator().next()).hasNext());
+        }
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
+    @Test
+    public void testEqualValuesInSamePartition()
+    {
+        List<Page> pages = rowPagesBuilder(TYPES)
+                .addSequencePage(100, 0, 0)
+                .addSequencePage(100, 0, 1_000)
+                .build();
+
+        try (PartitioningSpiller spiller = factory.create(TYPES, ImmutableList.of(0), bytes -> { }, new AggregatedMemoryContext())) {
+            for (int position = 0; position < 100; position++) {
+                assertEquals(spiller.getPartition(pages.get(0), position), spiller.getPartition(pages.get(1), position));
+            }
+            assertFalse(spiller.getSpilledPages(0).hasNext());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.execution.buffer.PagesSerde;
+import com.facebook.presto.execution.buffer.SerializedPage;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spiller.SerializedPageSpiller.SpilledPage;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.facebook.presto.execution.buffer.TestingPagesSerdeFactory.testingPagesSerde;
+import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.airlift.testing.FileUtils.deleteRecursively;
+import static io.airlift.testing.FileUtils.listFiles;
+import static org.testng.Assert.assertEquals;
+
+public class TestSerializedPageSpiller
+{
+    private static final PagesSerde PAGES_SERDE = testingPagesSerde();
+
+    private File spillPath;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        spillPath = Files.createTempDir();
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        deleteRecursively(spillPath);
+    }
+
+    @Test
+    public void testReadSpilledPages()
+    {
+        SerializedPageSpiller spiller = new SerializedPageSpiller(spillPath.toPath(), newDirectExecutorService(), new SpillerStats(), bytes -> { });
+
+        List<SpilledPage> first = spiller.spill(ImmutableList.of(serialize(createPage(0)), serialize(createPage(1))));
+        List<SpilledPage> second = spiller.spill(ImmutableList.of(serialize(createPage(2))));
+
+        // pages can be read back in any order
+        assertPageEquals(ImmutableList.of(BIGINT), deserialize(second.get(0)), createPage(2));
+        assertPageEquals(ImmutableList.of(BIGINT), deserialize(first.get(1)), createPage(1));
+        assertPageEquals(ImmutableList.of(BIGINT), deserialize(first.get(0)), createPage(0));
+
+        spiller.close();
+        assertEquals(listFiles(spillPath).size(), 0);
+    }
+
+    @Test
+    public void testReleasedSegmentsAreDeleted()
+    {
+        AtomicLong spilledBytes = new AtomicLong();
+        SerializedPage page = serialize(createPage(0));
+        // each segment holds two pages
+        SerializedPageSpiller spiller = new SerializedPageSpiller(spillPath.toPath(), newDirectExecutorService(), new SpillerStats(), spilledBytes::addAndGet, 2 * page.getSizeInBytes());
+
+        List<SpilledPage> spilledPages = spiller.spill(ImmutableList.of(page, page, page, page, page));
+        assertEquals(spiller.getSegmentCount(), 3);
+        assertEquals(listFiles(spillPath).size(), 3);
+        assertEquals(spilledBytes.get(), 5 * page.getSizeInBytes());
+
+        // a segment is deleted once all of its pages are released
+        spilledPages.get(0).release();
+        assertEquals(listFiles(spillPath).size(), 3);
+        spilledPages.get(1).release();
+        assertEquals(spiller.getSegmentCount(), 2);
+        assertEquals(listFiles(spillPath).size(), 2);
+        assertEquals(spilledBytes.get(), 3 * page.getSizeInBytes());
+
+        // the segment pages are appended to is kept until it is full
+        spilledPages.get(4).release();
+        assertEquals(spiller.getSegmentCount(), 2);
+        spiller.spill(ImmutableList.of(page));
+        assertEquals(spiller.getSegmentCount(), 2);
+        spiller.spill(ImmutableList.of(page));
+        assertEquals(spiller.getSegmentCount(), 3);
+
+        spiller.close();
+        assertEquals(listFiles(spillPath).size(), 0);
+        assertEquals(spilledBytes.get(), 0);
+    }
+
+    private static SerializedPage serialize(Page page)
+    {
+        return PAGES_SERDE.serialize(page);
+    }
+
+    private static Page deserialize(SpilledPage spilledPage)
+    {
+        return PAGES_SERDE.deserialize(getFutureValue(spilledPage.read()));
+    }
+
+    private static Page createPage(int value)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(new BlockBuilderStatus(), 1);
+        BIGINT.writeLong(blockBuilder, value);
+        return new Page(blockBuilder.build());
+    }
+}
@@ -40,6 +40,9 @@ public class TestFeaturesConfig
                 .setDistributedJoinsEnabled(true)
                 .setFastInequalityJoins(true)
                 .setColocatedJoinsEnabled(false)
+                .setMergeJoinsEnabled(false)
+                .setSkewedJoinKeys("")
+                .setSkewedJoinNullFraction(0.1)
                 .setJoinReorderingEnabled(true)
                 .setRedistributeWrites(true)
                 .setOptimizeMetadataQueries(false)
@@ -80,6 +83,9 @@ public class TestFeaturesConfig
                 .put("distributed-joins-enabled", "false")
                 .put("fast-inequality-joins", "false")
                 .put("colocated-joins-enabled", "true")
+                .put("merge-joins-enabled", "true")
+                .put("skewed-join-keys", "orders.custkey=-1,orders.custkey=0")
+                .put("skewed-join-null-fraction", "0.5")
                 .put("reorder-joins", "false")
                 .put("redistribute-writes", "false")
                 .put("optimizer.optimize-metadata-queries", "true")
@@ -111,6 +117,9 @@ public class TestFeaturesConfig
                 .put("distributed-joins-enabled", "false")
                 .put("fast-inequality-joins", "false")
                 .put("colocated-joins-enabled", "true")
+                .put("merge-joins-enabled", "true")
+                .put("skewed-join-keys", "orders.custkey=-1,orders.custkey=0")
+                .put("skewed-join-null-fraction", "0.5")
                 .put("reorder-joins", "false")
                 .put("redistribute-writes", "false")
                 .put("optimizer.optimize-metadata-queries", "true")
@@ -140,6 +149,9 @@ public class TestFeaturesConfig
                 .setDistributedJoinsEnabled(false)
                 .setFastInequalityJoins(false)
                 .setColocatedJoinsEnabled(true)
+                .setMergeJoinsEnabled(true)
+                .setSkewedJoinKeys("orders.custkey=-1,orders.custkey=0")
+                .setSkewedJoinNullFraction(0.5)
                 .setJoinReorderingEnabled(false)
                 .setRedistributeWrites(false)
                 .setOptimizeMetadataQueries(true)
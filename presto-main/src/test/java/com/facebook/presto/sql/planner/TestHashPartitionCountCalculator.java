@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner;
+
+import com.facebook.presto.cost.PlanNodeCost;
+import com.facebook.presto.spi.statistics.Estimate;
+import com.facebook.presto.sql.planner.plan.PlanFragmentId;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.sql.planner.plan.RemoteSourceNode;
+import com.facebook.presto.sql.planner.plan.ValuesNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static com.facebook.presto.cost.PlanNodeCost.UNKNOWN_COST;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.sql.planner.HashPartitionCountCalculator.calculateHashPartitionCounts;
+import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
+import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
+import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SOURCE_DISTRIBUTION;
+import static org.testng.Assert.assertEquals;
+
+public class TestHashPartitionCountCalculator
+{
+    private static final Symbol SYMBOL = new Symbol("column");
+
+    @Test
+    public void testSmallInput()
+    {
+        SubPlan plan = createHashPartitionedPlan("source1", "source2");
+        Map<PlanNodeId, PlanNodeCost> costs = ImmutableMap.of(
+                new PlanNodeId("source1"), rowCount(1_500),
+                new PlanNodeId("source2"), rowCount(1_000));
+
+        assertEquals(calculateHashPartitionCounts(plan, costs, 100, 1_000), ImmutableMap.of(plan.getFragment().getId(), 3));
+        assertEquals(calculateHashPartitionCounts(plan, costs, 100, 1_000_000), ImmutableMap.of(plan.getFragment().getId(), 1));
+    }
+
+    @Test
+    public void testLargeInput()
+    {
+        SubPlan plan = createHashPartitionedPlan("source1", "source2");
+        Map<PlanNodeId, PlanNodeCost> costs = ImmutableMap.of(
+                new PlanNodeId("source1"), rowCount(100_000),
+                new PlanNodeId("source2"), rowCount(1_000));
+
+        // the default partition count is an upper bound
+        assertEquals(calculateHashPartitionCounts(plan, costs, 100, 1_000), ImmutableMap.of());
+    }
+
+    @Test
+    public void testUnknownInput()
+    {
+        SubPlan plan = createHashPartitionedPlan("source1", "source2");
+
+        assertEquals(calculateHashPartitionCounts(plan, ImmutableMap.of(new PlanNodeId("source1"), rowCount(1_000)), 100, 1_000), ImmutableMap.of());
+        assertEquals(calculateHashPartitionCounts(plan, ImmutableMap.of(
+                new PlanNodeId("source1"), rowCount(1_000),
+                new PlanNodeId("source2"), UNKNOWN_COST), 100, 1_000), ImmutableMap.of());
+    }
+
+    private static PlanNodeCost rowCount(double rows)
+    {
+        return PlanNodeCost.builder()
+                .setOutputRowCount(new Estimate(rows))
+                .build();
+    }
+
+    private static SubPlan createHashPartitionedPlan(String... sourceNames)
+    {
+        ImmutableList.Builder<SubPlan> children = ImmutableList.builder();
+        ImmutableList.Builder<PlanFragmentId> childIds = ImmutableList.builder();
+        for (String sourceName : sourceNames) {
+            PlanFragment fragment = createFragment(new ValuesNode(new PlanNodeId(sourceName), ImmutableList.of(SYMBOL), ImmutableList.of()), SOURCE_DISTRIBUTION);
+            children.add(new SubPlan(fragment, ImmutableList.of()));
+            childIds.add(fragment.getId());
+        }
+
+        PlanNode remoteSource = new RemoteSourceNode(new PlanNodeId("remote"), childIds.build(), ImmutableList.of(SYMBOL));
+        return new SubPlan(createFragment(remoteSource, FIXED_HASH_DISTRIBUTION), children.build());
+    }
+
+    private static PlanFragment createFragment(PlanNode planNode, PartitioningHandle partitioning)
+    {
+        return new PlanFragment(
+                new PlanFragmentId(planNode.getId() + "_fragment_id"),
+                planNode,
+                ImmutableMap.of(SYMBOL, BIGINT),
+                partitioning,
+                ImmutableList.of(),
+                new PartitioningScheme(Partitioning.create(SINGLE_DISTRIBUTION, ImmutableList.of()), planNode.getOutputSymbols()));
+    }
+}
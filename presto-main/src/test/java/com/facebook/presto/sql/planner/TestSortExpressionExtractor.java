@@ -13,7 +13,9 @@
  */
 package com.facebook.presto.sql.planner;
 
+import com.facebook.presto.sql.planner.SortExpressionExtractor.SortExpressionContext;
 import com.facebook.presto.sql.tree.ArithmeticBinaryExpression;
+import com.facebook.presto.sql.tree.BetweenPredicate;
 import com.facebook.presto.sql.tree.ComparisonExpression;
 import com.facebook.presto.sql.tree.ComparisonExpressionType;
 import com.facebook.presto.sql.tree.Expression;
@@ -27,7 +29,10 @@ import org.testng.annotations.Test;
 import java.util.Optional;
 import java.util.Set;
 
+import static com.facebook.presto.sql.ExpressionUtils.and;
+import static com.facebook.presto.sql.ExpressionUtils.or;
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 
 public class TestSortExpressionExtractor
 {
@@ -83,6 +88,49 @@ public class TestSortExpressionExtractor
                         new SymbolReference("p1")));
     }
 
+    @Test
+    public void testGetSortExpressionContext()
+    {
+        // band join on a build symbol
+        assertGetSortExpressionContext(
+                new BetweenPredicate(new SymbolReference("b1"), new SymbolReference("p1"), new SymbolReference("p2")),
+                "b1",
+                Optional.of(new ComparisonExpression(ComparisonExpressionType.GREATER_THAN_OR_EQUAL, new SymbolReference("b1"), new SymbolReference("p1"))),
+                Optional.of(new ComparisonExpression(ComparisonExpressionType.LESS_THAN_OR_EQUAL, new SymbolReference("b1"), new SymbolReference("p2"))));
+
+        // build side range bounding a probe symbol, comparisons are normalized to have the build symbol on the left side
+        assertGetSortExpressionContext(
+                new BetweenPredicate(new SymbolReference("p1"), new SymbolReference("b1"), new SymbolReference("b2")),
+                "b1",
+                Optional.empty(),
+                Optional.of(new ComparisonExpression(ComparisonExpressionType.LESS_THAN_OR_EQUAL, new SymbolReference("b1"), new SymbolReference("p1"))));
+
+        // symbol bounded from both sides is preferred
+        assertGetSortExpressionContext(
+                and(
+                        new ComparisonExpression(ComparisonExpressionType.LESS_THAN, new SymbolReference("p1"), new SymbolReference("b1")),
+                        new ComparisonExpression(ComparisonExpressionType.GREATER_THAN, new SymbolReference("p2"), new SymbolReference("b2")),
+                        new ComparisonExpression(ComparisonExpressionType.LESS_THAN, new SymbolReference("b2"), new SymbolReference("b1")),
+                        new ComparisonExpression(ComparisonExpressionType.GREATER_THAN_OR_EQUAL, new SymbolReference("b2"), new SymbolReference("p1"))),
+                "b2",
+                Optional.of(new ComparisonExpression(ComparisonExpressionType.GREATER_THAN_OR_EQUAL, new SymbolReference("b2"), new SymbolReference("p1"))),
+                Optional.of(new ComparisonExpression(ComparisonExpressionType.LESS_THAN, new SymbolReference("b2"), new SymbolReference("p2"))));
+
+        assertGetSortExpression(
+                or(
+                        new ComparisonExpression(ComparisonExpressionType.LESS_THAN, new SymbolReference("p1"), new SymbolReference("b1")),
+                        new ComparisonExpression(ComparisonExpressionType.GREATER_THAN, new SymbolReference("p2"), new SymbolReference("b1"))));
+    }
+
+    private static void assertGetSortExpressionContext(Expression expression, String expectedSymbol, Optional<Expression> expectedLowerBound, Optional<Expression> expectedUpperBound)
+    {
+        Optional<SortExpressionContext> actual = SortExpressionExtractor.extractSortExpressionContext(BUILD_SYMBOLS, expression);
+        assertTrue(actual.isPresent());
+        assertEquals(new SymbolReference(expectedSymbol), actual.get().getSortExpression());
+        assertEquals(expectedLowerBound, actual.get().getLowerBound());
+        assertEquals(expectedUpperBound, actual.get().getUpperBound());
+    }
+
     private static void assertGetSortExpression(Expression expression)
     {
         Optional<Expression> actual = SortExpressionExtractor.extractSortExpression(BUILD_SYMBOLS, expression);
@@ -0,0 +1,40 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.iterative;
+
+import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.ProjectNode;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestPattern
+{
+    @Test
+    public void testAny()
+    {
+        assertTrue(Pattern.any().matches(ProjectNode.class));
+        assertTrue(Pattern.any().matches(FilterNode.class));
+    }
+
+    @Test
+    public void testNode()
+    {
+        assertTrue(Pattern.node(ProjectNode.class).matches(ProjectNode.class));
+        assertFalse(Pattern.node(ProjectNode.class).matches(FilterNode.class));
+        assertTrue(Pattern.node(PlanNode.class).matches(FilterNode.class));
+    }
+}
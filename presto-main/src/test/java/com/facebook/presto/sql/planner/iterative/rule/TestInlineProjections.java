@@ -98,4 +98,17 @@ public class TestInlineProjections
                                         p.values(p.symbol("value", BIGINT)))))
                 .doesNotFire();
     }
+
+    @Test
+    public void testCorrelatedReferences()
+    {
+        tester.assertThat(new InlineProjections())
+                .on(p ->
+                        p.project(
+                                Assignments.of(p.symbol("output", BIGINT), expression("correlated + 1")),
+                                p.project(
+                                        Assignments.of(),
+                                        p.values(p.symbol("value", BIGINT)))))
+                .doesNotFire();
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.iterative.rule;
+
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.assertions.PlanMatchPattern;
+import com.facebook.presto.sql.planner.iterative.rule.test.RuleTester;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.equiJoinClause;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.join;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.strictProject;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.values;
+import static com.facebook.presto.sql.planner.iterative.rule.test.PlanBuilder.expression;
+import static io.airlift.testing.Closeables.closeAllRuntimeException;
+
+public class TestPruneJoinChildrenColumns
+{
+    private RuleTester tester;
+
+    @BeforeClass
+    public void setUp()
+    {
+        tester = new RuleTester();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        closeAllRuntimeException(tester);
+        tester = null;
+    }
+
+    @Test
+    public void testNotAllInputsReferenced()
+    {
+        tester.assertThat(new PruneJoinChildrenColumns())
+                .on(p -> {
+                    Symbol leftKey = p.symbol("leftKey", BIGINT);
+                    Symbol leftValue = p.symbol("leftValue", BIGINT);
+                    Symbol rightKey = p.symbol("rightKey", BIGINT);
+                    Symbol rightValue = p.symbol("rightValue", BIGINT);
+                    return p.join(
+                            JoinNode.Type.INNER,
+                            p.values(leftKey, leftValue, p.symbol("leftUnused", BIGINT)),
+                            p.values(rightKey, rightValue, p.symbol("rightUnused", BIGINT)),
+                            ImmutableList.of(new JoinNode.EquiJoinClause(leftKey, rightKey)),
+                            ImmutableList.of(leftValue),
+                            Optional.of(expression("leftValue > rightValue")),
+                            Optional.empty(),
+                            Optional.empty());
+                })
+                .matches(
+                        join(
+                                JoinNode.Type.INNER,
+                                ImmutableList.of(equiJoinClause("leftKey", "rightKey")),
+                                Optional.of("leftValue > rightValue"),
+                                strictProject(
+                                        ImmutableMap.of(
+                                                "leftKey", PlanMatchPattern.expression("leftKey"),
+                                                "leftValue", PlanMatchPattern.expression("leftValue")),
+                                        values("leftKey", "leftValue", "leftUnused")),
+                                strictProject(
+                                        ImmutableMap.of(
+                                                "rightKey", PlanMatchPattern.expression("rightKey"),
+                                                "rightValue", PlanMatchPattern.expression("rightValue")),
+                                        values("rightKey", "rightValue", "rightUnused"))));
+    }
+
+    @Test
+    public void testAllInputsReferenced()
+    {
+        tester.assertThat(new PruneJoinChildrenColumns())
+                .on(p -> {
+                    Symbol leftKey = p.symbol("leftKey", BIGINT);
+                    Symbol rightKey = p.symbol("rightKey", BIGINT);
+                    return p.join(
+                            JoinNode.Type.INNER,
+                            p.values(leftKey),
+                            p.values(rightKey),
+                            new JoinNode.EquiJoinClause(leftKey, rightKey));
+                })
+                .doesNotFire();
+    }
+
+    @Test
+    public void testCrossJoinDoesNotFire()
+    {
+        tester.assertThat(new PruneJoinChildrenColumns())
+                .on(p ->
+                        p.join(
+                                JoinNode.Type.INNER,
+                                p.values(p.symbol("a", BIGINT)),
+                                p.values(p.symbol("b", BIGINT))))
+                .doesNotFire();
+    }
+}
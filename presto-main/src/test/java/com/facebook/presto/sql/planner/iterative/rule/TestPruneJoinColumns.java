@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.iterative.rule;
+
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.assertions.PlanMatchPattern;
+import com.facebook.presto.sql.planner.iterative.rule.test.RuleTester;
+import com.facebook.presto.sql.planner.plan.Assignments;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.equiJoinClause;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.join;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.strictProject;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.values;
+import static com.facebook.presto.sql.planner.iterative.rule.test.PlanBuilder.expression;
+import static io.airlift.testing.Closeables.closeAllRuntimeException;
+
+public class TestPruneJoinColumns
+{
+    private RuleTester tester;
+
+    @BeforeClass
+    public void setUp()
+    {
+        tester = new RuleTester();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        closeAllRuntimeException(tester);
+        tester = null;
+    }
+
+    @Test
+    public void testNotAllOutputsReferenced()
+    {
+        tester.assertThat(new PruneJoinColumns())
+                .on(p -> {
+                    Symbol leftKey = p.symbol("leftKey", BIGINT);
+                    Symbol leftValue = p.symbol("leftValue", BIGINT);
+                    Symbol rightKey = p.symbol("rightKey", BIGINT);
+                    return p.project(
+                            Assignments.of(p.symbol("y", BIGINT), expression("leftValue")),
+                            p.join(
+                                    JoinNode.Type.INNER,
+                                    p.values(leftKey, leftValue),
+                                    p.values(rightKey),
+                                    new JoinNode.EquiJoinClause(leftKey, rightKey)));
+                })
+                .matches(
+                        strictProject(
+                                ImmutableMap.of("y", PlanMatchPattern.expression("leftValue")),
+                                join(
+                                        JoinNode.Type.INNER,
+                                        ImmutableList.of(equiJoinClause("leftKey", "rightKey")),
+                                        values("leftKey", "leftValue"),
+                                        values("rightKey"))
+                                        .withExactOutputs("leftValue")));
+    }
+
+    @Test
+    public void testCrossJoinPrunesChildren()
+    {
+        tester.assertThat(new PruneJoinColumns())
+                .on(p ->
+                        p.project(
+                                Assignments.of(p.symbol("y", BIGINT), expression("a + b")),
+                                p.join(
+                                        JoinNode.Type.INNER,
+                                        p.values(p.symbol("a", BIGINT), p.symbol("unused", BIGINT)),
+                                        p.values(p.symbol("b", BIGINT)))))
+                .matches(
+                        strictProject(
+                                ImmutableMap.of("y", PlanMatchPattern.expression("a + b")),
+                                join(
+                                        JoinNode.Type.INNER,
+                                        ImmutableList.of(),
+                                        strictProject(
+                                                ImmutableMap.of("a", PlanMatchPattern.expression("a")),
+                                                values("a", "unused")),
+                                        values("b"))
+                                        .withExactOutputs("a", "b")));
+    }
+
+    @Test
+    public void testAllOutputsReferenced()
+    {
+        tester.assertThat(new PruneJoinColumns())
+                .on(p -> {
+                    Symbol leftKey = p.symbol("leftKey", BIGINT);
+                    Symbol rightKey = p.symbol("rightKey", BIGINT);
+                    return p.project(
+                            Assignments.of(p.symbol("y", BIGINT), expression("leftKey + rightKey")),
+                            p.join(
+                                    JoinNode.Type.INNER,
+                                    p.values(leftKey),
+                                    p.values(rightKey),
+                                    new JoinNode.EquiJoinClause(leftKey, rightKey)));
+                })
+                .doesNotFire();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.iterative.rule;
+
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.assertions.PlanMatchPattern;
+import com.facebook.presto.sql.planner.iterative.rule.test.RuleTester;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.output;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.strictProject;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.values;
+import static io.airlift.testing.Closeables.closeAllRuntimeException;
+
+public class TestPruneOutputColumns
+{
+    private RuleTester tester;
+
+    @BeforeClass
+    public void setUp()
+    {
+        tester = new RuleTester();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        closeAllRuntimeException(tester);
+        tester = null;
+    }
+
+    @Test
+    public void testNotAllOutputsReferenced()
+    {
+        tester.assertThat(new PruneOutputColumns())
+                .on(p -> {
+                    Symbol a = p.symbol("a", BIGINT);
+                    return p.output(
+                            ImmutableList.of("column"),
+                            ImmutableList.of(a),
+                            p.values(a, p.symbol("unused", BIGINT)));
+                })
+                .matches(
+                        output(
+                                ImmutableList.of("a"),
+                                strictProject(
+                                        ImmutableMap.of("a", PlanMatchPattern.expression("a")),
+                                        values("a", "unused"))));
+    }
+
+    @Test
+    public void testAllOutputsReferenced()
+    {
+        tester.assertThat(new PruneOutputColumns())
+                .on(p -> {
+                    Symbol a = p.symbol("a", BIGINT);
+                    return p.output(
+                            ImmutableList.of("column"),
+                            ImmutableList.of(a),
+                            p.values(a));
+                })
+                .doesNotFire();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.spi.predicate.NullableValue;
+import com.facebook.presto.sql.planner.LogicalPlanner;
+import com.facebook.presto.sql.planner.SkewedKeys;
+import com.facebook.presto.sql.planner.assertions.BasePlanTest;
+import com.facebook.presto.sql.planner.plan.ExchangeNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.SystemSessionProperties.SKEWED_JOIN_KEYS;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static com.facebook.presto.sql.planner.plan.ExchangeNode.Scope.REMOTE;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static org.testng.Assert.assertEquals;
+
+public class TestSkewedJoinKeys
+        extends BasePlanTest
+{
+    public TestSkewedJoinKeys()
+    {
+        // the tiny schema of the test catalog is named sf0.01 by the connector
+        super(ImmutableMap.of(SKEWED_JOIN_KEYS, "orders.custkey=1, sf0.01.orders.custkey=2, sf1.orders.custkey=3, customer.nationkey=4"));
+    }
+
+    @Test
+    public void testSkewedProbeColumn()
+    {
+        List<NullableValue> values = ImmutableList.of(NullableValue.of(BIGINT, 1L), NullableValue.of(BIGINT, 2L));
+        assertSkewedKeys(
+                "SELECT * FROM orders o JOIN customer c ON o.custkey = c.custkey",
+                ImmutableList.of(new SkewedKeys(values, false), new SkewedKeys(values, true)));
+        assertSkewedKeys(
+                "SELECT * FROM (SELECT custkey + 0 AS k, custkey FROM orders WHERE orderstatus = 'O') o LEFT JOIN customer c ON o.custkey = c.custkey",
+                ImmutableList.of(new SkewedKeys(values, false), new SkewedKeys(values, true)));
+    }
+
+    @Test
+    public void testOtherColumns()
+    {
+        // the skewed values belong to orders.custkey, so joins on other columns are hash partitioned as usual
+        assertSkewedKeys("SELECT * FROM customer c JOIN orders o ON c.custkey = o.custkey", ImmutableList.of());
+        assertSkewedKeys("SELECT * FROM orders o JOIN orders p ON o.totalprice = p.totalprice", ImmutableList.of());
+        // replicated build rows would duplicate unmatched rows of a right join
+        assertSkewedKeys("SELECT * FROM orders o RIGHT JOIN customer c ON o.custkey = c.custkey", ImmutableList.of());
+    }
+
+    private void assertSkewedKeys(@Language("SQL") String sql, List<SkewedKeys> expected)
+    {
+        List<SkewedKeys> actual = searchFrom(plan(sql, LogicalPlanner.Stage.OPTIMIZED_AND_VALIDATED, false).getRoot())
+                .where(node -> node instanceof ExchangeNode && ((ExchangeNode) node).getScope() == REMOTE)
+                .<ExchangeNode>findAll()
+                .stream()
+                .map(exchange -> exchange.getPartitioningScheme().getSkewedKeys())
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(toImmutableList());
+        assertEquals(actual, expected);
+    }
+}
@@ -20,6 +20,7 @@ import com.facebook.presto.orc.metadata.MetadataReader;
 import com.facebook.presto.orc.metadata.OrcType;
 import com.facebook.presto.orc.metadata.OrcType.OrcTypeKind;
 import com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion;
+import com.facebook.presto.orc.metadata.StripeFooter;
 import com.facebook.presto.orc.metadata.StripeInformation;
 import com.facebook.presto.orc.metadata.statistics.ColumnStatistics;
 import com.facebook.presto.orc.metadata.statistics.StripeStatistics;
@@ -33,34 +34,49 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import io.airlift.units.DataSize;
 import org.joda.time.DateTimeZone;
 
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import static com.facebook.presto.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
 import static com.facebook.presto.orc.OrcReader.MAX_BATCH_SIZE;
 import static com.facebook.presto.orc.OrcRecordReader.LinearProbeRangeFinder.createTinyStripesRangeFinder;
+import static com.facebook.presto.orc.StripeReader.getStripeFooterRange;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 import static java.util.Comparator.comparingLong;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
 
 public class OrcRecordReader
         implements Closeable
 {
+    private static final ListenableFuture<?> NOT_BLOCKED = Futures.immediateFuture(null);
+
     private final OrcDataSource orcDataSource;
 
     private final StreamReader[] streamReaders;
@@ -89,6 +105,25 @@ public class OrcRecordReader
 
     private final AbstractAggregatedMemoryContext systemMemoryUsage;
 
+    // null when the stripes are not read ahead
+    @Nullable
+    private final PrefetchedOrcDataSource prefetchedDataSource;
+    private final Optional<Executor> readExecutor;
+    private final DataSize maxMergeDistance;
+    private final DataSize maxReadSize;
+
+    // reads issued ahead of time for the stripe after the current one
+    private int prefetchStripe = -1;
+    private ListenableFuture<byte[]> prefetchFooterRead;
+    private final Map<DiskRange, ListenableFuture<byte[]>> prefetchStreamReads = new LinkedHashMap<>();
+    private boolean prefetchStreamReadsStarted;
+    private AggregatedMemoryContext prefetchSystemMemoryContext;
+
+    @GuardedBy("this")
+    private boolean closed;
+    @GuardedBy("this")
+    private int runningReads;
+
     public OrcRecordReader(
             Map<Integer, Type> includedColumns,
             OrcPredicate predicate,
@@ -108,7 +143,8 @@ public class OrcRecordReader
             DataSize maxMergeDistance,
             DataSize maxReadSize,
             Map<String, Slice> userMetadata,
-            AbstractAggregatedMemoryContext systemMemoryUsage)
+            AbstractAggregatedMemoryContext systemMemoryUsage,
+            Optional<Executor> readExecutor)
             throws IOException
     {
         requireNonNull(includedColumns, "includedColumns is null");
@@ -120,6 +156,9 @@ public class OrcRecordReader
         requireNonNull(decompressor, "decompressor is null");
         requireNonNull(hiveStorageTimeZone, "hiveStorageTimeZone is null");
         requireNonNull(userMetadata, "userMetadata is null");
+        this.readExecutor = requireNonNull(readExecutor, "readExecutor is null");
+        this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
+        this.maxReadSize = requireNonNull(maxReadSize, "maxReadSize is null");
 
         // reduce the included columns to the set that is also present
         ImmutableSet.Builder<Integer> presentColumns = ImmutableSet.builder();
@@ -171,6 +210,14 @@ public class OrcRecordReader
         this.stripeFilePositions = stripeFilePositions.build();
 
         orcDataSource = wrapWithCacheIfTinyStripes(orcDataSource, this.stripes, maxMergeDistance, maxReadSize);
+        // tiny stripes are already read in merged regions by the caching data source
+        if (readExecutor.isPresent() && !(orcDataSource instanceof CachingOrcDataSource)) {
+            prefetchedDataSource = new PrefetchedOrcDataSource(orcDataSource);
+            orcDataSource = prefetchedDataSource;
+        }
+        else {
+            prefetchedDataSource = null;
+        }
         this.orcDataSource = orcDataSource;
         this.splitLength = splitLength;
 
@@ -283,9 +330,40 @@ public class OrcRecordReader
     public void close()
             throws IOException
     {
+        synchronized (this) {
+            closed = true;
+        }
+        // reads are never interrupted, as an interrupted HDFS read can leave the stream unusable
+        cancelPrefetchReads();
+        awaitRunningReads();
         orcDataSource.close();
     }
 
+    /**
+     * Returns a future that completes when the data needed by the next call to
+     * {@link #nextBatch()} has been read. Reads of the stripe after the current
+     * one are issued on the read executor while the current stripe is decoded.
+     */
+    public ListenableFuture<?> isBlocked()
+    {
+        if (prefetchedDataSource == null) {
+            return NOT_BLOCKED;
+        }
+        startNextStripeReads();
+        if (nextRowInGroup < currentGroupRowCount || rowGroups.hasNext() || prefetchStripe != currentStripe + 1) {
+            return NOT_BLOCKED;
+        }
+        if (!prefetchFooterRead.isDone()) {
+            return prefetchFooterRead;
+        }
+        for (ListenableFuture<byte[]> read : prefetchStreamReads.values()) {
+            if (!read.isDone()) {
+                return Futures.successfulAsList(prefetchStreamReads.values());
+            }
+        }
+        return NOT_BLOCKED;
+    }
+
     public boolean isColumnPresent(int hiveColumnIndex)
     {
         return presentColumns.contains(hiveColumnIndex);
@@ -384,6 +462,9 @@ public class OrcRecordReader
         }
 
         StripeInformation stripeInformation = stripes.get(currentStripe);
+        if (prefetchedDataSource != null) {
+            usePrefetchedReads(stripeInformation);
+        }
 
         Stripe stripe = stripeReader.readStripe(stripeInformation, currentStripeSystemMemoryContext);
         if (stripe != null) {
@@ -400,6 +481,178 @@ public class OrcRecordReader
         }
     }
 
+    private void startNextStripeReads()
+    {
+        int nextStripe = currentStripe + 1;
+        if (nextStripe >= stripes.size() || (prefetchStripe == nextStripe && prefetchStreamReadsStarted)) {
+            return;
+        }
+        StripeInformation stripe = stripes.get(nextStripe);
+
+        // the footer is read first, as it holds the layout of the streams
+        if (prefetchStripe != nextStripe) {
+            prefetchStripe = nextStripe;
+            prefetchSystemMemoryContext = systemMemoryUsage.newAggregatedMemoryContext();
+            prefetchFooterRead = startRead(getStripeFooterRange(stripe));
+            return;
+        }
+        if (!prefetchFooterRead.isDone()) {
+            return;
+        }
+        prefetchStreamReadsStarted = true;
+
+        Optional<byte[]> footer = getCompletedRead(prefetchFooterRead);
+        if (!footer.isPresent()) {
+            // the stripe is read without prefetching, which reports the failure
+            return;
+        }
+        // the footer is decoded on this thread, as decompressors are not thread safe
+        prefetchedDataSource.addBuffer(getStripeFooterRange(stripe), footer.get());
+        StripeFooter stripeFooter;
+        try {
+            stripeFooter = stripeReader.readStripeFooter(stripe, new AggregatedMemoryContext());
+        }
+        catch (IOException | RuntimeException e) {
+            return;
+        }
+
+        // large streams are still loaded incrementally while they are decoded
+        List<DiskRange> streamRanges = stripeReader.getIncludedStreamRanges(stripe, stripeFooter).stream()
+                .filter(diskRange -> diskRange.getLength() <= maxReadSize.toBytes())
+                .collect(toList());
+        for (DiskRange diskRange : mergeAdjacentDiskRanges(streamRanges, maxMergeDistance, maxReadSize)) {
+            prefetchStreamReads.put(diskRange, startRead(diskRange));
+        }
+    }
+
+    private ListenableFuture<byte[]> startRead(DiskRange diskRange)
+    {
+        // buffers are allocated and accounted on the calling thread; the executor only fills them
+        byte[] buffer = new byte[diskRange.getLength()];
+        prefetchSystemMemoryContext.newLocalMemoryContext().setBytes(buffer.length);
+        OrcDataSource dataSource = prefetchedDataSource.getDelegate();
+        ListenableFutureTask<byte[]> read = ListenableFutureTask.create(() -> {
+            if (!readStarted()) {
+                throw new CancellationException("ORC reader is closed");
+            }
+            try {
+                dataSource.readFully(diskRange.getOffset(), buffer);
+            }
+            finally {
+                readFinished();
+            }
+            return buffer;
+        });
+        readExecutor.get().execute(read);
+        return read;
+    }
+
+    private void usePrefetchedReads(StripeInformation stripe)
+            throws InterruptedIOException
+    {
+        prefetchedDataSource.removeBuffersBefore(stripe.getOffset());
+        if (prefetchStripe != currentStripe) {
+            cancelPrefetchReads();
+            return;
+        }
+
+        Optional<byte[]> footer = awaitRead(prefetchFooterRead);
+        if (footer.isPresent()) {
+            prefetchedDataSource.addBuffer(getStripeFooterRange(stripe), footer.get());
+        }
+        for (Map.Entry<DiskRange, ListenableFuture<byte[]>> entry : prefetchStreamReads.entrySet()) {
+            Optional<byte[]> buffer = awaitRead(entry.getValue());
+            if (buffer.isPresent()) {
+                prefetchedDataSource.addBuffer(entry.getKey(), buffer.get());
+            }
+        }
+
+        // the prefetched buffers now belong to the current stripe
+        currentStripeSystemMemoryContext.close();
+        currentStripeSystemMemoryContext = prefetchSystemMemoryContext;
+        prefetchSystemMemoryContext = null;
+        prefetchFooterRead = null;
+        prefetchStreamReads.clear();
+        prefetchStreamReadsStarted = false;
+        prefetchStripe = -1;
+    }
+
+    private void cancelPrefetchReads()
+    {
+        if (prefetchFooterRead != null) {
+            prefetchFooterRead.cancel(false);
+        }
+        for (ListenableFuture<byte[]> read : prefetchStreamReads.values()) {
+            read.cancel(false);
+        }
+        if (prefetchSystemMemoryContext != null) {
+            prefetchSystemMemoryContext.close();
+        }
+        prefetchSystemMemoryContext = null;
+        prefetchFooterRead = null;
+        prefetchStreamReads.clear();
+        prefetchStreamReadsStarted = false;
+        prefetchStripe = -1;
+    }
+
+    private synchronized boolean readStarted()
+    {
+        if (closed) {
+            return false;
+        }
+        runningReads++;
+        return true;
+    }
+
+    private synchronized void readFinished()
+    {
+        runningReads--;
+        notifyAll();
+    }
+
+    private synchronized void awaitRunningReads()
+            throws InterruptedIOException
+    {
+        try {
+            while (runningReads > 0) {
+                wait();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for ORC stripe reads");
+        }
+    }
+
+    private static Optional<byte[]> awaitRead(ListenableFuture<byte[]> read)
+            throws InterruptedIOException
+    {
+        try {
+            read.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for ORC stripe reads");
+        }
+        catch (ExecutionException | CancellationException ignored) {
+        }
+        return getCompletedRead(read);
+    }
+
+    /**
+     * Returns the buffer of a finished read, or empty if the read failed; the range
+     * is then read again from the data source, which reports the failure.
+     */
+    private static Optional<byte[]> getCompletedRead(ListenableFuture<byte[]> read)
+    {
+        try {
+            return Optional.of(Futures.getDone(read));
+        }
+        catch (ExecutionException | CancellationException e) {
+            return Optional.empty();
+        }
+    }
+
     private static StreamReader[] createStreamReaders(
             OrcDataSource orcDataSource,
             List<OrcType> types,
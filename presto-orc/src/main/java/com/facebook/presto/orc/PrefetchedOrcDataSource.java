@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.FixedLengthSliceInput;
+import io.airlift.slice.Slices;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Serves reads that fall inside a prefetched buffer from memory and passes
+ * all other reads to the underlying data source. Buffers are only added and
+ * removed by the reader thread, after the prefetch that filled them is done.
+ */
+class PrefetchedOrcDataSource
+        implements OrcDataSource
+{
+    private final OrcDataSource dataSource;
+    private final Map<DiskRange, byte[]> buffers = new LinkedHashMap<>();
+
+    public PrefetchedOrcDataSource(OrcDataSource dataSource)
+    {
+        this.dataSource = requireNonNull(dataSource, "dataSource is null");
+    }
+
+    public OrcDataSource getDelegate()
+    {
+        return dataSource;
+    }
+
+    public void addBuffer(DiskRange diskRange, byte[] buffer)
+    {
+        requireNonNull(diskRange, "diskRange is null");
+        requireNonNull(buffer, "buffer is null");
+        buffers.put(diskRange, buffer);
+    }
+
+    public void removeBuffersBefore(long offset)
+    {
+        Iterator<DiskRange> iterator = buffers.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getEnd() <= offset) {
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public OrcDataSourceId getId()
+    {
+        return dataSource.getId();
+    }
+
+    @Override
+    public long getReadBytes()
+    {
+        return dataSource.getReadBytes();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return dataSource.getReadTimeNanos();
+    }
+
+    @Override
+    public long getSize()
+    {
+        return dataSource.getSize();
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer)
+            throws IOException
+    {
+        readFully(position, buffer, 0, buffer.length);
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
+            throws IOException
+    {
+        DiskRange diskRange = new DiskRange(position, bufferLength);
+        for (Entry<DiskRange, byte[]> entry : buffers.entrySet()) {
+            if (entry.getKey().contains(diskRange)) {
+                System.arraycopy(entry.getValue(), toIntExact(position - entry.getKey().getOffset()), buffer, bufferOffset, bufferLength);
+                return;
+            }
+        }
+        dataSource.readFully(position, buffer, bufferOffset, bufferLength);
+    }
+
+    @Override
+    public <K> Map<K, FixedLengthSliceInput> readFully(Map<K, DiskRange> diskRanges)
+            throws IOException
+    {
+        ImmutableMap.Builder<K, FixedLengthSliceInput> slices = ImmutableMap.builder();
+        ImmutableMap.Builder<K, DiskRange> remainingRanges = ImmutableMap.builder();
+        for (Entry<K, DiskRange> entry : diskRanges.entrySet()) {
+            FixedLengthSliceInput sliceInput = getBufferedSlice(entry.getValue());
+            if (sliceInput != null) {
+                slices.put(entry.getKey(), sliceInput);
+            }
+            else {
+                remainingRanges.put(entry);
+            }
+        }
+        slices.putAll(dataSource.readFully(remainingRanges.build()));
+        return slices.build();
+    }
+
+    private FixedLengthSliceInput getBufferedSlice(DiskRange diskRange)
+    {
+        for (Entry<DiskRange, byte[]> entry : buffers.entrySet()) {
+            if (entry.getKey().contains(diskRange)) {
+                return Slices.wrappedBuffer(entry.getValue(), toIntExact(diskRange.getOffset() - entry.getKey().getOffset()), diskRange.getLength()).getInput();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        dataSource.close();
+    }
+
+    @Override
+    public String toString()
+    {
+        return dataSource.toString();
+    }
+}
@@ -320,17 +320,36 @@ public class StripeReader
     public StripeFooter readStripeFooter(StripeInformation stripe, AbstractAggregatedMemoryContext systemMemoryUsage)
             throws IOException
     {
-        long offset = stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength();
-        int tailLength = toIntExact(stripe.getFooterLength());
+        DiskRange footerRange = getStripeFooterRange(stripe);
 
         // read the footer
-        byte[] tailBuffer = new byte[tailLength];
-        orcDataSource.readFully(offset, tailBuffer);
+        byte[] tailBuffer = new byte[footerRange.getLength()];
+        orcDataSource.readFully(footerRange.getOffset(), tailBuffer);
         try (InputStream inputStream = new OrcInputStream(orcDataSource.getId(), Slices.wrappedBuffer(tailBuffer).getInput(), decompressor, systemMemoryUsage)) {
             return metadataReader.readStripeFooter(hiveWriterVersion, types, inputStream);
         }
     }
 
+    public static DiskRange getStripeFooterRange(StripeInformation stripe)
+    {
+        return new DiskRange(stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength(), toIntExact(stripe.getFooterLength()));
+    }
+
+    /**
+     * Returns the file ranges of the streams {@link #readStripe} reads for the included columns.
+     */
+    public List<DiskRange> getIncludedStreamRanges(StripeInformation stripe, StripeFooter stripeFooter)
+    {
+        ImmutableList.Builder<DiskRange> diskRanges = ImmutableList.builder();
+        for (Entry<StreamId, DiskRange> entry : getDiskRanges(stripeFooter.getStreams()).entrySet()) {
+            DiskRange diskRange = entry.getValue();
+            if (includedOrcColumns.contains(entry.getKey().getColumn()) && diskRange.getLength() > 0) {
+                diskRanges.add(new DiskRange(stripe.getOffset() + diskRange.getOffset(), diskRange.getLength()));
+            }
+        }
+        return diskRanges.build();
+    }
+
     private Map<Integer, List<HiveBloomFilter>> readBloomFilterIndexes(Map<StreamId, Stream> streams, Map<StreamId, OrcInputStream> streamsData)
             throws IOException
     {
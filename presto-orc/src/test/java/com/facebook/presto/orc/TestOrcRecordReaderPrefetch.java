@@ -0,0 +1,222 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.orc.memory.AggregatedMemoryContext;
+import com.facebook.presto.orc.metadata.OrcMetadataReader;
+import com.facebook.presto.orc.metadata.StripeInformation;
+import com.facebook.presto.spi.block.Block;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.FileSinkOperator;
+import org.apache.hadoop.hive.ql.io.orc.OrcOutputFormat;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.JobConf;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+import static com.facebook.presto.orc.OrcTester.Format.ORC_12;
+import static com.facebook.presto.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
+import static com.facebook.presto.orc.OrcTester.writeOrcFileColumnOld;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.testing.Assertions.assertGreaterThanOrEqual;
+import static io.airlift.testing.Assertions.assertInstanceOf;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaStringObjectInspector;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestOrcRecordReaderPrefetch
+{
+    private static final int POSITION_COUNT = 50000;
+
+    private TempFile tempFile;
+    private List<String> values;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        tempFile = new TempFile();
+        Random random = new Random(0);
+        values = Stream.generate(() -> Long.toHexString(random.nextLong())).limit(POSITION_COUNT).collect(toImmutableList());
+        writeOrcFileColumnOld(tempFile.getFile(), ORC_12, createOrcRecordWriter(tempFile.getFile()), VARCHAR, values.iterator());
+    }
+
+    @AfterClass
+    public void tearDown()
+            throws Exception
+    {
+        tempFile.close();
+    }
+
+    @Test
+    public void testStripesReadAhead()
+            throws IOException
+    {
+        TestingOrcDataSource orcDataSource = createDataSource();
+        QueuedExecutor executor = new QueuedExecutor();
+        OrcRecordReader recordReader = createRecordReader(orcDataSource, executor);
+
+        // the footer of the first stripe is read, then its streams
+        ListenableFuture<?> blocked = recordReader.isBlocked();
+        assertFalse(blocked.isDone());
+        executor.runAll();
+        assertTrue(blocked.isDone());
+        blocked = recordReader.isBlocked();
+        assertFalse(blocked.isDone());
+        executor.runAll();
+        assertTrue(blocked.isDone());
+        assertTrue(recordReader.isBlocked().isDone());
+
+        // the first stripe is decoded from the prefetched buffers
+        int readCount = orcDataSource.getReadCount();
+        assertGreaterThanOrEqual(recordReader.nextBatch(), 1);
+        assertEquals(orcDataSource.getReadCount(), readCount);
+
+        List<String> actual = new ArrayList<>();
+        readBatch(recordReader, actual);
+        while (true) {
+            while (!recordReader.isBlocked().isDone()) {
+                executor.runAll();
+            }
+            readCount = orcDataSource.getReadCount();
+            if (recordReader.nextBatch() <= 0) {
+                break;
+            }
+            assertEquals(orcDataSource.getReadCount(), readCount);
+            readBatch(recordReader, actual);
+        }
+        recordReader.close();
+
+        assertEquals(actual, values);
+    }
+
+    @Test
+    public void testCloseWithPendingReads()
+            throws IOException
+    {
+        TestingOrcDataSource orcDataSource = createDataSource();
+        QueuedExecutor executor = new QueuedExecutor();
+        OrcRecordReader recordReader = createRecordReader(orcDataSource, executor);
+
+        ListenableFuture<?> blocked = recordReader.isBlocked();
+        int readCount = orcDataSource.getReadCount();
+        recordReader.close();
+
+        // queued reads do not touch the closed data source
+        executor.runAll();
+        assertTrue(blocked.isDone());
+        assertEquals(orcDataSource.getReadCount(), readCount);
+    }
+
+    private TestingOrcDataSource createDataSource()
+            throws IOException
+    {
+        DataSize bufferSize = new DataSize(1, MEGABYTE);
+        return new TestingOrcDataSource(new FileOrcDataSource(tempFile.getFile(), bufferSize, bufferSize, bufferSize));
+    }
+
+    private static OrcRecordReader createRecordReader(OrcDataSource orcDataSource, Executor executor)
+            throws IOException
+    {
+        // the file is larger than the merge distance, so it is not read whole
+        DataSize maxMergeDistance = new DataSize(1, KILOBYTE);
+        OrcReader orcReader = new OrcReader(orcDataSource, new OrcMetadataReader(), maxMergeDistance, new DataSize(1, MEGABYTE));
+        List<StripeInformation> stripes = orcReader.getFooter().getStripes();
+        assertGreaterThanOrEqual(stripes.size(), 3);
+
+        // stripes that are not tiny are prefetched rather than cached
+        long maxStripeLength = stripes.stream().mapToLong(StripeInformation::getTotalLength).max().getAsLong();
+        DataSize maxReadSize = new DataSize(maxStripeLength - 1, BYTE);
+        orcReader = new OrcReader(orcDataSource, new OrcMetadataReader(), maxMergeDistance, maxReadSize);
+        assertInstanceOf(OrcRecordReader.wrapWithCacheIfTinyStripes(orcDataSource, stripes, maxMergeDistance, maxReadSize), TestingOrcDataSource.class);
+
+        return orcReader.createRecordReader(
+                ImmutableMap.of(0, VARCHAR),
+                (numberOfRows, statisticsByColumnIndex) -> true,
+                0,
+                orcDataSource.getSize(),
+                HIVE_STORAGE_TIME_ZONE,
+                new AggregatedMemoryContext(),
+                Optional.of(executor));
+    }
+
+    private static void readBatch(OrcRecordReader recordReader, List<String> values)
+            throws IOException
+    {
+        Block block = recordReader.readBlock(VARCHAR, 0);
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            values.add(VARCHAR.getSlice(block, position).toStringUtf8());
+        }
+    }
+
+    private static FileSinkOperator.RecordWriter createOrcRecordWriter(File outputFile)
+            throws IOException
+    {
+        JobConf jobConf = new JobConf();
+        jobConf.set("hive.exec.orc.write.format", "0.12");
+        jobConf.set("hive.exec.orc.default.compress", "ZLIB");
+
+        Properties tableProperties = new Properties();
+        tableProperties.setProperty("columns", "test");
+        tableProperties.setProperty("columns.types", javaStringObjectInspector.getTypeName());
+        tableProperties.setProperty("orc.stripe.size", "1200000");
+
+        return new OrcOutputFormat().getHiveRecordWriter(
+                jobConf,
+                new Path(outputFile.toURI()),
+                Text.class,
+                true,
+                tableProperties,
+                () -> { });
+    }
+
+    private static class QueuedExecutor
+            implements Executor
+    {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable task)
+        {
+            tasks.add(task);
+        }
+
+        public void runAll()
+        {
+            List<Runnable> queued = ImmutableList.copyOf(tasks);
+            tasks.clear();
+            queued.forEach(Runnable::run);
+        }
+    }
+}
@@ -85,6 +85,16 @@ public class TextRcFileEncoding
         this.lastColumnTakesRest = lastColumnTakesRest;
     }
 
+    public Slice getNullSequence()
+    {
+        return nullSequence;
+    }
+
+    public byte[] getSeparators()
+    {
+        return separators;
+    }
+
     @Override
     public ColumnEncoding booleanEncoding(Type type)
     {
@@ -17,9 +17,21 @@ import java.util.List;
 
 public interface ConnectorSplit
 {
+    int STANDARD_SPLIT_WEIGHT = 100;
+
     boolean isRemotelyAccessible();
 
     List<HostAddress> getAddresses();
 
     Object getInfo();
+
+    /**
+     * Returns the relative amount of work needed to process this split, where
+     * {@link #STANDARD_SPLIT_WEIGHT} is a split of typical size. The engine uses
+     * it to balance the splits assigned to each node.
+     */
+    default int getSplitWeight()
+    {
+        return STANDARD_SPLIT_WEIGHT;
+    }
 }
@@ -16,6 +16,7 @@ package com.facebook.presto.spi;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.DictionaryBlock;
 import com.facebook.presto.spi.block.DictionaryId;
+import com.facebook.presto.spi.block.LazyBlock;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -83,6 +84,36 @@ public class Page
         return retainedSizeInBytes;
     }
 
+    /**
+     * Returns the size of the blocks of this page that are already loaded.
+     * Unlike {@link #getSizeInBytes()}, this does not force lazy blocks to load.
+     */
+    public long getLoadedSizeInBytes()
+    {
+        long sizeInBytes = 0;
+        for (Block block : blocks) {
+            if (isLoaded(block)) {
+                sizeInBytes += block.getSizeInBytes();
+            }
+        }
+        return sizeInBytes;
+    }
+
+    /**
+     * Returns the retained size of the blocks of this page that are already loaded.
+     * Unlike {@link #getRetainedSizeInBytes()}, this does not force lazy blocks to load.
+     */
+    public long getLoadedRetainedSizeInBytes()
+    {
+        long retainedSizeInBytes = 0;
+        for (Block block : blocks) {
+            if (isLoaded(block)) {
+                retainedSizeInBytes += block.getRetainedSizeInBytes();
+            }
+        }
+        return retainedSizeInBytes;
+    }
+
     public Block[] getBlocks()
     {
         return blocks.clone();
@@ -252,6 +283,11 @@ public class Page
         return blocks[0].getPositionCount();
     }
 
+    private static boolean isLoaded(Block block)
+    {
+        return !(block instanceof LazyBlock) || ((LazyBlock) block).isLoaded();
+    }
+
     private static class DictionaryBlockIndexes
     {
         private final List<DictionaryBlock> blocks = new ArrayList<>();
@@ -225,6 +225,11 @@ public class LazyBlock
         return block;
     }
 
+    public boolean isLoaded()
+    {
+        return block != null;
+    }
+
     public void setBlock(Block block)
     {
         if (this.block != null) {
@@ -136,6 +136,16 @@ public interface ConnectorMetadata
         return EMPTY_STATISTICS;
     }
 
+    /**
+     * Returns an identifier of the data read through the specified table layout, which changes
+     * whenever that data changes, or empty if the connector can not provide one. The engine
+     * only reuses cached query results when all of the tables read by the query have a version.
+     */
+    default Optional<String> getDataVersion(ConnectorSession session, ConnectorTableLayoutHandle tableLayoutHandle)
+    {
+        return Optional.empty();
+    }
+
     /**
      * Creates a schema.
      */
@@ -54,7 +54,10 @@ import java.util.Set;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static com.facebook.presto.SystemSessionProperties.DISTRIBUTED_JOIN;
 import static com.facebook.presto.SystemSessionProperties.LEGACY_ORDER_BY;
+import static com.facebook.presto.SystemSessionProperties.MERGE_JOIN;
+import static com.facebook.presto.SystemSessionProperties.SKEWED_JOIN_KEYS;
 import static com.facebook.presto.connector.informationSchema.InformationSchemaMetadata.INFORMATION_SCHEMA;
 import static com.facebook.presto.operator.scalar.ApplyFunction.APPLY_FUNCTION;
 import static com.facebook.presto.operator.scalar.InvokeFunction.INVOKE_FUNCTION;
@@ -2303,6 +2306,82 @@ public abstract class AbstractTestQueries
                 "SELECT o.orderkey, o.orderdate, l.shipdate FROM orders o JOIN lineitem l ON l.orderkey = o.orderkey AND l.shipdate < DATEADD('DAY', 10, o.orderdate)");
     }
 
+    @Test
+    public void testJoinWithRangePredicatesInJoinClause()
+            throws Exception
+    {
+        // band join with and without equality criteria, the build side is bounded from both sides
+        assertQuery("SELECT o.orderkey, l.linenumber FROM orders o JOIN lineitem l ON l.orderkey = o.orderkey AND l.partkey BETWEEN o.custkey AND o.custkey + 100");
+        assertQuery(
+                "SELECT n.nationkey, t.b FROM nation n JOIN (VALUES 1, 5, 7, 12, 24, NULL) t(b) ON t.b BETWEEN n.nationkey - 1 AND n.nationkey + 1",
+                "VALUES (0, 1), (1, 1), (2, 1), (4, 5), (5, 5), (6, 5), (6, 7), (7, 7), (8, 7), (11, 12), (12, 12), (13, 12), (23, 24), (24, 24)");
+        assertQuery(
+                "SELECT n.nationkey, t.b FROM nation n JOIN (VALUES 1, 5, 7, 12, 24, NULL) t(b) ON t.b > n.nationkey AND t.b <= n.nationkey + 3 AND t.b <> 7",
+                "VALUES (0, 1), (2, 5), (3, 5), (4, 5), (9, 12), (10, 12), (11, 12), (21, 24), (22, 24), (23, 24)");
+        // the build side is a range bounding the probe value
+        assertQuery("SELECT n.nationkey, r.regionkey FROM nation n JOIN region r ON n.nationkey BETWEEN r.regionkey * 5 AND r.regionkey * 5 + 4");
+    }
+
+    @Test
+    public void testMergeJoin()
+            throws Exception
+    {
+        // a broadcast join keeps the sorted inputs in the fragment that sorted them
+        Session session = Session.builder(getSession())
+                .setSystemProperty(MERGE_JOIN, "true")
+                .setSystemProperty(DISTRIBUTED_JOIN, "false")
+                .build();
+
+        assertMergeJoin(
+                session,
+                "SELECT o.orderkey, o.custkey, l.linenumber FROM (SELECT * FROM orders ORDER BY orderkey) o JOIN (SELECT * FROM lineitem ORDER BY orderkey) l ON o.orderkey = l.orderkey",
+                "SELECT o.orderkey, o.custkey, l.linenumber FROM orders o JOIN lineitem l ON o.orderkey = l.orderkey");
+        assertMergeJoin(
+                session,
+                "SELECT o.orderkey, l.partkey FROM (SELECT * FROM orders ORDER BY orderkey DESC) o LEFT JOIN (SELECT * FROM lineitem WHERE orderkey % 3 = 0 ORDER BY orderkey DESC) l ON o.orderkey = l.orderkey",
+                "SELECT o.orderkey, l.partkey FROM orders o LEFT JOIN (SELECT * FROM lineitem WHERE orderkey % 3 = 0) l ON o.orderkey = l.orderkey");
+        assertMergeJoin(
+                session,
+                "SELECT t.a, t.b, u.c FROM (SELECT * FROM (VALUES (1, 1), (2, 2), (NULL, 3), (2, 4)) t(a, b) ORDER BY a) t JOIN (SELECT * FROM (VALUES (2, 10), (NULL, 20), (2, 30), (3, 40)) u(a, c) ORDER BY a) u ON t.a = u.a",
+                "VALUES (2, 2, 10), (2, 2, 30), (2, 4, 10), (2, 4, 30)");
+    }
+
+    private void assertMergeJoin(Session session, @Language("SQL") String actual, @Language("SQL") String expected)
+    {
+        String plan = (String) getOnlyElement(computeActual(session, "EXPLAIN (TYPE DISTRIBUTED) " + actual).getOnlyColumnAsSet());
+        assertTrue(plan.contains("MergeJoin["), "Expected a merge join in plan:\n" + plan);
+        assertQuery(session, actual, expected);
+    }
+
+    @Test
+    public void testSkewedJoinKeys()
+            throws Exception
+    {
+        long hotCustomer = (long) computeActual("SELECT custkey FROM orders WHERE orderkey = 1").getOnlyValue();
+        Session session = Session.builder(getSession())
+                .setSystemProperty(SKEWED_JOIN_KEYS, "orders.custkey=" + hotCustomer)
+                .build();
+
+        assertQuery(
+                session,
+                "SELECT o.orderkey, s.orderkey FROM orders o JOIN (SELECT * FROM orders WHERE orderkey % 32 = 1) s ON o.custkey = s.custkey");
+        assertQuery(
+                session,
+                "SELECT o.orderkey, s.orderkey FROM orders o LEFT JOIN (SELECT * FROM orders WHERE orderkey % 32 = 1) s ON o.custkey = s.custkey");
+        assertQuery(
+                session,
+                "SELECT o.orderkey, s.orderkey FROM (SELECT * FROM orders WHERE orderkey % 32 = 1) s RIGHT JOIN orders o ON o.custkey = s.custkey");
+        assertQuery(
+                Session.builder(getSession())
+                        .setSystemProperty(SKEWED_JOIN_KEYS, "lineitem.linestatus=O")
+                        .build(),
+                "SELECT count(*), sum(l.quantity) FROM lineitem l JOIN (SELECT * FROM orders WHERE orderkey < 100) o ON l.linestatus = o.orderstatus");
+        assertQuery(
+                session,
+                "SELECT t.a, t.b, u.c FROM (VALUES (1, 1), (2, 2), (NULL, 3), (4, 4)) t(a, b) LEFT JOIN (VALUES (1, 10), (NULL, 20), (1, 30), (4, 40)) u(a, c) ON t.a = u.a",
+                "VALUES (1, 1, 10), (1, 1, 30), (2, 2, NULL), (NULL, 3, NULL), (4, 4, 40)");
+    }
+
     @Test
     public void testJoinWithNonDeterministicLessThan()
     {
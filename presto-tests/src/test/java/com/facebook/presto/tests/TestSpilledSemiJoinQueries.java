@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.tests;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.tpch.TpchPlugin;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+
+import static com.facebook.presto.SystemSessionProperties.DISTRIBUTED_JOIN;
+import static com.facebook.presto.SystemSessionProperties.INITIAL_SPLITS_PER_NODE;
+import static com.facebook.presto.SystemSessionProperties.SPILL_ENABLED;
+import static com.facebook.presto.SystemSessionProperties.SPLIT_CONCURRENCY_ADJUSTMENT_INTERVAL;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static io.airlift.testing.FileUtils.deleteRecursively;
+import static org.testng.Assert.assertEquals;
+
+public class TestSpilledSemiJoinQueries
+        extends AbstractTestQueryFramework
+{
+    private static final File SPILL_PATH = Files.createTempDir();
+
+    public TestSpilledSemiJoinQueries()
+    {
+        super(TestSpilledSemiJoinQueries::createQueryRunner);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteSpillPath()
+    {
+        deleteRecursively(SPILL_PATH);
+    }
+
+    @Test(timeOut = 120_000)
+    public void testSemiJoinWithMoreSplitsThanDriverSlots()
+    {
+        // the probe is a table scan with a driver per split, and only one split of each task runs at a time
+        Session session = Session.builder(getSession())
+                .setSystemProperty(DISTRIBUTED_JOIN, "false")
+                .build();
+        assertSpilledQuery(session, "SELECT count(*), sum(availqty) FROM partsupp WHERE partkey IN (SELECT partkey FROM part WHERE size < 20)");
+        assertSpilledQuery(session, "SELECT count(*), sum(availqty) FROM partsupp WHERE partkey NOT IN (SELECT partkey FROM part WHERE size < 20)");
+    }
+
+    @Test(timeOut = 120_000)
+    public void testSemiJoinWithRemoteProbe()
+    {
+        // the probe is read from an exchange, so all probe drivers are created when the task starts
+        assertSpilledQuery(getSession(), "SELECT count(*), sum(availqty) FROM partsupp WHERE partkey IN (SELECT partkey FROM part WHERE size < 20)");
+        assertSpilledQuery(getSession(), "SELECT count(*), sum(acctbal) FROM customer WHERE nationkey NOT IN (SELECT nationkey FROM supplier WHERE acctbal > 0)");
+    }
+
+    private void assertSpilledQuery(Session session, String sql)
+    {
+        Session withoutSpill = Session.builder(session)
+                .setSystemProperty(SPILL_ENABLED, "false")
+                .build();
+        assertEquals(computeActual(session, sql).getMaterializedRows(), computeActual(withoutSpill, sql).getMaterializedRows());
+    }
+
+    private static DistributedQueryRunner createQueryRunner()
+            throws Exception
+    {
+        Session session = testSessionBuilder()
+                .setCatalog("tpch")
+                .setSchema("tiny")
+                .setSystemProperty(INITIAL_SPLITS_PER_NODE, "1")
+                .setSystemProperty(SPLIT_CONCURRENCY_ADJUSTMENT_INTERVAL, "1h")
+                .build();
+
+        DistributedQueryRunner queryRunner = new DistributedQueryRunner(session, 2, ImmutableMap.<String, String>builder()
+                .put("experimental.spiller-spill-path", SPILL_PATH.getAbsolutePath())
+                .put("experimental.spill-enabled", "true")
+                .put("experimental.operator-memory-limit-before-spill", "1B")
+                .put("experimental.spiller-max-used-space-threshold", "1.0")
+                .build());
+        try {
+            queryRunner.installPlugin(new TpchPlugin());
+            queryRunner.createCatalog("tpch", "tpch", ImmutableMap.of("tpch.splits-per-node", "8"));
+            return queryRunner;
+        }
+        catch (Exception e) {
+            queryRunner.close();
+            throw e;
+        }
+    }
+}